@@ -43,6 +43,12 @@ public @interface AIOp {
      */
     String[] supportedModels() default {};
     
+    /**
+     * 级联模型列表（可选），按从便宜到强的顺序排列
+     * 未指定模型调用时先用第一个模型执行并解析校验，失败后依次升级
+     */
+    String[] cascadeModels() default {};
+    
     /**
      * 是否需要JSON输出
      */
@@ -90,6 +90,26 @@ public class OpenAIModelsConfig {
          */
         private Boolean enabled = true;
         
+        /**
+         * 输入token单价（每百万token）
+         */
+        private Double inputPricePerMillion;
+        
+        /**
+         * 输出token单价（每百万token）
+         */
+        private Double outputPricePerMillion;
+        
+        /**
+         * 命中缓存的输入token单价（每百万token）
+         */
+        private Double cachedInputPricePerMillion;
+        
+        /**
+         * 流式请求是否要求返回usage，为空时按提供商判断
+         */
+        private Boolean streamUsage;
+        
         /**
          * 转换为OpenAIModelConfig
          */
@@ -107,6 +127,10 @@ public class OpenAIModelsConfig {
                 .description(description)
                 .provider(provider)
                 .enabled(enabled)
+                .inputPricePerMillion(inputPricePerMillion)
+                .outputPricePerMillion(outputPricePerMillion)
+                .cachedInputPricePerMillion(cachedInputPricePerMillion)
+                .streamUsage(streamUsage)
                 .build();
         }
     }
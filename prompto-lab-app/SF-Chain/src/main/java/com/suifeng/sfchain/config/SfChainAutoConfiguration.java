@@ -1,15 +1,21 @@
 package com.suifeng.sfchain.config;
 
 import com.suifeng.sfchain.core.*;
+import com.suifeng.sfchain.core.health.ModelHealthProber;
 import com.suifeng.sfchain.core.openai.OpenAIModelFactory;
+import com.suifeng.sfchain.core.startup.StartupConfig;
+import com.suifeng.sfchain.core.startup.StartupReadiness;
 import com.suifeng.sfchain.persistence.DatabaseInitializationService;
 import com.suifeng.sfchain.persistence.DynamicOperationConfigService;
 import com.suifeng.sfchain.persistence.PersistenceManager;
 import com.suifeng.sfchain.persistence.PersistenceServiceFactory;
+import com.suifeng.sfchain.persistence.config.ConditionalOnJdbcPersistence;
 import com.suifeng.sfchain.persistence.config.PersistenceConfig;
 import com.suifeng.sfchain.persistence.context.ChatContextService;
 import com.suifeng.sfchain.persistence.context.MapBasedChatContextService;
+import com.suifeng.sfchain.persistence.sync.ConfigChangeLog;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -17,6 +23,7 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.jdbc.core.JdbcTemplate;
 
@@ -31,8 +38,6 @@ import javax.sql.DataSource;
 @Slf4j
 @AutoConfiguration
 @ComponentScan(basePackages = "com.suifeng.sfchain")
-@EnableJpaRepositories(basePackages = "com.suifeng.sfchain.persistence.repository")
-@EntityScan(basePackages = "com.suifeng.sfchain.persistence.entity")
 @EnableConfigurationProperties(PersistenceConfig.class)
 @ConditionalOnProperty(prefix = "sf-chain", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class SfChainAutoConfiguration {
@@ -46,9 +51,9 @@ public class SfChainAutoConfiguration {
     
     @Bean
     @ConditionalOnMissingBean
-    public ModelRegistry modelRegistry(OpenAIModelFactory openAIModelFactory) {
+    public ModelRegistry modelRegistry(OpenAIModelFactory openAIModelFactory, ModelHealthProber modelHealthProber) {
         log.info("初始化SF-Chain 模型注册表");
-        return new ModelRegistry(openAIModelFactory);
+        return new ModelRegistry(openAIModelFactory, modelHealthProber);
     }
     
     @Bean
@@ -72,14 +77,20 @@ public class SfChainAutoConfiguration {
             ModelRegistry modelRegistry,
             AIOperationRegistry operationRegistry,
             OpenAIModelFactory modelFactory,
-            DynamicOperationConfigService dynamicOperationConfigService) {
+            DynamicOperationConfigService dynamicOperationConfigService,
+            ObjectProvider<ConfigChangeLog> configChangeLog,
+            ObjectProvider<DatabaseInitializationService> databaseInitializationService,
+            StartupReadiness startupReadiness) {
         log.info("初始化SF-Chain 持久化管理器");
         return new PersistenceManager(
                 persistenceServiceFactory,
                 modelRegistry,
                 operationRegistry,
                 modelFactory,
-                dynamicOperationConfigService
+                dynamicOperationConfigService,
+                configChangeLog,
+                databaseInitializationService,
+                startupReadiness
         );
     }
     
@@ -89,12 +100,24 @@ public class SfChainAutoConfiguration {
      */
     @Bean
     @ConditionalOnProperty(prefix = "sf-chain.persistence", name = "database-type")
+    @ConditionalOnJdbcPersistence
     @ConditionalOnMissingBean
     public DatabaseInitializationService databaseInitializationService(
             PersistenceConfig persistenceConfig,
             DataSource dataSource,
-            JdbcTemplate jdbcTemplate) {
+            JdbcTemplate jdbcTemplate,
+            StartupConfig startupConfig) {
         log.info("初始化SF-Chain 数据库初始化服务");
-        return new DatabaseInitializationService(persistenceConfig, dataSource, jdbcTemplate);
+        return new DatabaseInitializationService(persistenceConfig, dataSource, jdbcTemplate, startupConfig);
+    }
+    
+    /**
+     * JPA仓库和实体扫描，文件持久化模式下不启用
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnJdbcPersistence
+    @EnableJpaRepositories(basePackages = "com.suifeng.sfchain.persistence.repository")
+    @EntityScan(basePackages = "com.suifeng.sfchain.persistence.entity")
+    static class JpaPersistenceConfiguration {
     }
 }
\ No newline at end of file
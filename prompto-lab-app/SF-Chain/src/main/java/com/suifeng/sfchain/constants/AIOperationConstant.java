@@ -23,6 +23,11 @@ public class AIOperationConstant {
      * 聊天对话操作
      */
     public static final String CHAT_OP = "CHAT";
+
+    /**
+     * 上下文摘要压缩操作
+     */
+    public static final String CONTEXT_SUMMARY_OP = "CONTEXT_SUMMARY_OP";
     
     /**
      * 私有构造函数，防止实例化
@@ -1,12 +1,24 @@
 package com.suifeng.sfchain.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.suifeng.sfchain.core.logging.AICallLog;
 import com.suifeng.sfchain.core.logging.AICallLogManager;
 import com.suifeng.sfchain.core.logging.AICallLogSummary;
+import com.suifeng.sfchain.core.logging.CallCapturePolicy;
+import com.suifeng.sfchain.core.logging.CallLogPage;
+import com.suifeng.sfchain.core.logging.CallLogPipeline;
+import com.suifeng.sfchain.core.logging.CallLogQuery;
+import com.suifeng.sfchain.core.logging.journal.CallLogJournal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.annotation.Resource;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -17,15 +29,34 @@ import java.util.Map;
 @RequestMapping("/sf-chain/ai-logs")
 public class AICallLogController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_PAGE_SIZE = 500;
+    
+    @Resource
+    private ObjectMapper objectMapper;
+    
     @Resource
     private AICallLogManager logManager;
     
+    @Resource
+    private CallLogPipeline callLogPipeline;
+    
+    @Resource
+    private CallCapturePolicy capturePolicy;
+    
+    /** 启用日志文件时查询优先读取日志文件 */
+    @Autowired(required = false)
+    private CallLogJournal journal;
+    
     /**
      * 获取所有日志摘要（轻量级）
      */
     @GetMapping
-    public ResponseEntity<List<AICallLogSummary>> getAllLogSummaries() {
-        return ResponseEntity.ok(logManager.getAllLogSummaries());
+    public ResponseEntity<List<AICallLogSummary>> getAllLogSummaries(@RequestParam(defaultValue = "100") int limit) {
+        if (journal != null) {
+            return ResponseEntity.ok(journal.getRecentSummaries(limit));
+        }
+        return ResponseEntity.ok(limit(logManager.getAllLogSummaries(), limit));
     }
     
     /**
@@ -34,6 +65,9 @@ public class AICallLogController {
     @GetMapping("/{callId}")
     public ResponseEntity<AICallLog> getFullLog(@PathVariable String callId) {
         AICallLog log = logManager.getFullLog(callId);
+        if (log == null && journal != null) {
+            log = journal.getFullLog(callId);
+        }
         return log != null ? ResponseEntity.ok(log) : ResponseEntity.notFound().build();
     }
     
@@ -41,16 +75,111 @@ public class AICallLogController {
      * 根据操作类型获取日志摘要（轻量级）
      */
     @GetMapping("/operation/{operationType}")
-    public ResponseEntity<List<AICallLogSummary>> getLogSummariesByOperation(@PathVariable String operationType) {
-        return ResponseEntity.ok(logManager.getLogSummariesByOperation(operationType));
+    public ResponseEntity<List<AICallLogSummary>> getLogSummariesByOperation(@PathVariable String operationType,
+                                                                            @RequestParam(defaultValue = "100") int limit) {
+        if (journal != null) {
+            return ResponseEntity.ok(journal.getSummariesByOperation(operationType, limit));
+        }
+        return ResponseEntity.ok(limit(logManager.getLogSummariesByOperation(operationType), limit));
     }
     
     /**
      * 根据模型名称获取日志摘要（轻量级）
      */
     @GetMapping("/model/{modelName}")
-    public ResponseEntity<List<AICallLogSummary>> getLogSummariesByModel(@PathVariable String modelName) {
-        return ResponseEntity.ok(logManager.getLogSummariesByModel(modelName));
+    public ResponseEntity<List<AICallLogSummary>> getLogSummariesByModel(@PathVariable String modelName,
+                                                                        @RequestParam(defaultValue = "100") int limit) {
+        if (journal != null) {
+            return ResponseEntity.ok(journal.getSummariesByModel(modelName, limit));
+        }
+        return ResponseEntity.ok(limit(logManager.getLogSummariesByModel(modelName), limit));
+    }
+    
+    /**
+     * 根据时间范围获取日志摘要（需要启用日志文件）
+     */
+    @GetMapping("/range")
+    public ResponseEntity<List<AICallLogSummary>> getLogSummariesBetween(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (journal != null) {
+            return ResponseEntity.ok(journal.getSummariesBetween(from, to, limit));
+        }
+        return ResponseEntity.ok(logManager.query(CallLogQuery.builder()
+                .from(from).to(to).limit(limit > 0 ? limit : CallLogQuery.MAX_LIMIT)
+                .build()).getItems());
+    }
+    
+    /**
+     * 分页查询日志摘要，按写入顺序倒序；返回的nextCursor作为下一页的cursor参数
+     * 单页扫描的记录数有上限，本页未满但nextCursor不为空时可继续翻页
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CallLogPage> queryLogs(
+            @RequestParam(required = false) String operation,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) AICallLog.CallStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long minDuration,
+            @RequestParam(required = false) Long maxDuration,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        CallLogQuery query = CallLogQuery.builder()
+                .operationType(operation).modelName(model).status(status)
+                .from(from).to(to).minDuration(minDuration).maxDuration(maxDuration)
+                .text(text).cursor(cursor).limit(limit)
+                .build();
+        return ResponseEntity.ok(query(query));
+    }
+    
+    /**
+     * 按条件导出日志摘要，以NDJSON（每行一个JSON）流式输出，内部逐页读取，不在内存中汇总
+     * 与分页查询共用时间范围定位和单页扫描上限，每页都会把已读取的内容刷出
+     *
+     * @param max 最多导出条数
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportLogs(
+            @RequestParam(required = false) String operation,
+            @RequestParam(required = false) String model,
+            @RequestParam(required = false) AICallLog.CallStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long minDuration,
+            @RequestParam(required = false) Long maxDuration,
+            @RequestParam(required = false) String text,
+            @RequestParam(defaultValue = "100000") long max) {
+        StreamingResponseBody body = out -> {
+            CallLogQuery query = CallLogQuery.builder()
+                    .operationType(operation).modelName(model).status(status)
+                    .from(from).to(to).minDuration(minDuration).maxDuration(maxDuration)
+                    .text(text).limit(EXPORT_PAGE_SIZE)
+                    .build();
+            long exported = 0;
+            while (exported < max) {
+                CallLogPage page = query(query);
+                for (AICallLogSummary summary : page.getItems()) {
+                    if (exported >= max) {
+                        break;
+                    }
+                    out.write(objectMapper.writeValueAsBytes(summary));
+                    out.write('\n');
+                    exported++;
+                }
+                out.flush();
+                if (page.getNextCursor() == null) {
+                    break;
+                }
+                query.setCursor(page.getNextCursor());
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=sf-chain-calls.ndjson")
+                .body(body);
     }
     
     /**
@@ -61,6 +190,30 @@ public class AICallLogController {
         return ResponseEntity.ok(logManager.getStatistics());
     }
     
+    /**
+     * 获取日志异步写入管道统计
+     */
+    @GetMapping("/pipeline")
+    public ResponseEntity<CallLogPipeline.PipelineStatistics> getPipelineStatistics() {
+        return ResponseEntity.ok(callLogPipeline.getStatistics());
+    }
+    
+    /**
+     * 获取日志采集（采样、截断）统计
+     */
+    @GetMapping("/capture")
+    public ResponseEntity<CallCapturePolicy.CaptureStatistics> getCaptureStatistics() {
+        return ResponseEntity.ok(capturePolicy.getStatistics());
+    }
+    
+    /**
+     * 获取日志文件统计
+     */
+    @GetMapping("/journal")
+    public ResponseEntity<CallLogJournal.JournalStatistics> getJournalStatistics() {
+        return journal != null ? ResponseEntity.ok(journal.getStatistics()) : ResponseEntity.notFound().build();
+    }
+    
     /**
      * 清空所有日志
      */
@@ -69,4 +222,12 @@ public class AICallLogController {
         logManager.clearLogs();
         return ResponseEntity.ok(Map.of("message", "所有日志已清空"));
     }
-}
\ No newline at end of file
+    
+    private CallLogPage query(CallLogQuery query) {
+        return journal != null ? journal.query(query) : logManager.query(query);
+    }
+    
+    private List<AICallLogSummary> limit(List<AICallLogSummary> summaries, int limit) {
+        return limit > 0 && summaries.size() > limit ? summaries.subList(0, limit) : summaries;
+    }
+}
@@ -1,9 +1,8 @@
 package com.suifeng.sfchain.controller;
 
-import com.suifeng.sfchain.core.AIOperationRegistry;
+import com.suifeng.sfchain.core.health.ModelHealth;
+import com.suifeng.sfchain.core.health.ModelHealthProber;
 import com.suifeng.sfchain.core.openai.OpenAIModelConfig;
-import com.suifeng.sfchain.core.openai.OpenAIModelFactory;
-import com.suifeng.sfchain.operations.ModelValidationOperation;
 import com.suifeng.sfchain.persistence.ModelConfigData;
 import com.suifeng.sfchain.persistence.PersistenceManager;
 import lombok.RequiredArgsConstructor;
@@ -18,8 +17,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import static com.suifeng.sfchain.constants.AIOperationConstant.MODEL_VALIDATION_OP;
-
 /**
  * 描述: AI模型配置管理控制器
  * 提供AI模型的增删改查、测试验证等功能
@@ -34,8 +31,7 @@ import static com.suifeng.sfchain.constants.AIOperationConstant.MODEL_VALIDATION
 public class AIModelController {
     
     private final PersistenceManager persistenceManager;
-    private final AIOperationRegistry operationRegistry;
-    private final OpenAIModelFactory modelFactory;
+    private final ModelHealthProber healthProber;
     
     /**
      * 获取所有模型配置（包含状态信息）
@@ -132,11 +128,12 @@ public class AIModelController {
     }
     
     /**
-     * 测试模型连接
+     * 测试模型连接，默认读取缓存的探测结果，refresh为true或结果过期时重新探测
      */
     @PostMapping("/test")
     public ResponseEntity<Map<String, Object>> testModel(@RequestBody Map<String, String> request) {
         String modelName = request.get("modelName");
+        boolean refresh = Boolean.parseBoolean(request.get("refresh"));
         Map<String, Object> result = new HashMap<>();
         try {
             Map<String, ModelConfigData> models = persistenceManager.getAllModelConfigs();
@@ -149,10 +146,12 @@ public class AIModelController {
             }
             
             // 测试已存在的模型，不需要临时注册
-            boolean testResult = validateModelConfig(modelName, config, false);
+            ModelHealth health = refresh ? healthProber.probe(modelName) : healthProber.getFreshHealth(modelName);
+            boolean testResult = health.isLastCheckSucceeded();
             result.put("success", testResult);
             result.put("message", testResult ? "模型连接测试成功" : "模型连接测试失败");
             result.put("modelName", modelName);
+            result.put("health", health);
             
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -163,52 +162,46 @@ public class AIModelController {
         }
     }
     
+    /**
+     * 获取所有模型缓存的健康状态
+     */
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, ModelHealth>> getModelHealth() {
+        return ResponseEntity.ok(healthProber.getAllHealth());
+    }
+
+    /**
+     * 并行探测模型，未指定模型名时探测所有已注册模型
+     */
+    @PostMapping("/health/probe")
+    public ResponseEntity<Map<String, ModelHealth>> probeModels(
+            @RequestBody(required = false) List<String> modelNames) {
+        return ResponseEntity.ok(modelNames == null || modelNames.isEmpty()
+                ? healthProber.probeAll()
+                : healthProber.probe(modelNames));
+    }
+    
     // ==================== 私有方法 ====================
     
     /**
      * 验证模型配置是否可用
      * @param modelName 模型名称
      * @param config 模型配置
-     * @param isTemporaryValidation 是否为临时验证（true: 验证后移除临时模型，false: 验证已存在的模型）
+     * @param isTemporaryValidation 是否为临时验证（true: 直接探测提交的配置，不注册模型；false: 读取已存在模型的探测结果）
      */
     private boolean validateModelConfig(String modelName, ModelConfigData config, boolean isTemporaryValidation) {
-        boolean tempRegistered = false;
         try {
             log.info("开始验证模型配置: {} (临时验证: {})", modelName, isTemporaryValidation);
-            
-            ModelValidationOperation validationOp = (ModelValidationOperation) operationRegistry.getOperation(MODEL_VALIDATION_OP);
-            if (validationOp == null) {
-                log.warn("未找到模型验证操作，跳过验证");
-                return true;
-            }
-            
-            // 如果是临时验证，需要临时注册模型
-            if (isTemporaryValidation) {
-                OpenAIModelConfig tempConfig = convertToOpenAIConfig(config);
-                modelFactory.registerModel(tempConfig);
-                tempRegistered = true;
+            ModelHealth health = isTemporaryValidation
+                    ? healthProber.probe(convertToOpenAIConfig(config))
+                    : healthProber.getFreshHealth(modelName);
+            if (!health.isLastCheckSucceeded()) {
+                log.warn("模型验证失败: {} - {}", modelName, health.getLastError());
             }
-            
-            ModelValidationOperation.ValidationRequest request = 
-                new ModelValidationOperation.ValidationRequest("请回答：2+3等于几？");
-            
-            ModelValidationOperation.ValidationResult result = validationOp.execute(request, modelName);
-            
-            return result != null && result.getAnswer() != null && !result.getAnswer().trim().isEmpty();
-            
+            return health.isLastCheckSucceeded();
         } catch (Exception e) {
             log.error("模型验证失败: {} - {}", modelName, e.getMessage());
             return false;
-        } finally {
-            // 只有在临时验证时才清理临时模型
-            if (tempRegistered && isTemporaryValidation) {
-                try {
-                    modelFactory.removeModel(modelName);
-                    log.debug("已清理临时模型配置: {}", modelName);
-                } catch (Exception e) {
-                    log.warn("清理临时模型配置失败: {}", e.getMessage());
-                }
-            }
         }
     }
 
@@ -221,6 +214,7 @@ public class AIModelController {
         Map<String, Object> result = new HashMap<>();
         try {
             persistenceManager.deleteModelConfig(modelName);
+            healthProber.forget(modelName);
             result.put("success", true);
             result.put("message", "模型配置删除成功");
             result.put("modelName", modelName);
@@ -250,6 +244,10 @@ public class AIModelController {
                 .description(config.getDescription())
                 .provider(config.getProvider())
                 .enabled(config.getEnabled())
+                .inputPricePerMillion(config.getInputPricePerMillion())
+                .outputPricePerMillion(config.getOutputPricePerMillion())
+                .cachedInputPricePerMillion(config.getCachedInputPricePerMillion())
+                .streamUsage(config.getStreamUsage())
                 .build();
     }
 }
\ No newline at end of file
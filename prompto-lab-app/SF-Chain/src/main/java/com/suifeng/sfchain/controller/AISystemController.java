@@ -1,18 +1,26 @@
 package com.suifeng.sfchain.controller;
 
+import com.suifeng.sfchain.core.MemoryFootprint;
+import com.suifeng.sfchain.core.logging.AICallLogManager;
+import com.suifeng.sfchain.core.startup.StartupReadiness;
 import com.suifeng.sfchain.persistence.ModelConfigData;
 import com.suifeng.sfchain.persistence.OperationConfigData;
 import com.suifeng.sfchain.persistence.PersistenceManager;
+import com.suifeng.sfchain.persistence.PersistenceStartupReport;
+import com.suifeng.sfchain.persistence.context.ChatContextService;
+import com.suifeng.sfchain.persistence.context.ContextCompactionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -29,6 +37,10 @@ import java.util.Map;
 public class AISystemController {
     
     private final PersistenceManager persistenceManager;
+    private final ContextCompactionService contextCompactionService;
+    private final ChatContextService chatContextService;
+    private final AICallLogManager callLogManager;
+    private final StartupReadiness startupReadiness;
     
     /**
      * 获取AI系统概览信息
@@ -87,6 +99,36 @@ public class AISystemController {
         }
     }
     
+    /**
+     * 获取所有配置备份
+     */
+    @GetMapping("/backups")
+    public ResponseEntity<List<String>> getBackups() {
+        return ResponseEntity.ok(persistenceManager.getAllBackupNames());
+    }
+    
+    /**
+     * 从配置备份恢复
+     */
+    @PostMapping("/restore/{backupName}")
+    public ResponseEntity<Map<String, Object>> restoreBackup(@PathVariable String backupName) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            persistenceManager.restoreFromBackup(backupName);
+            
+            result.put("success", true);
+            result.put("message", "配置恢复成功");
+            result.put("backupName", backupName);
+            
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("恢复备份失败: {}", e.getMessage());
+            result.put("success", false);
+            result.put("message", "恢复失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        }
+    }
+    
     /**
      * 刷新系统配置
      */
@@ -131,4 +173,40 @@ public class AISystemController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(result);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 获取会话上下文压缩统计
+     */
+    @GetMapping("/context-compaction")
+    public ResponseEntity<ContextCompactionService.CompactionStatistics> getContextCompactionStatistics() {
+        return ResponseEntity.ok(contextCompactionService.getStatistics());
+    }
+    
+    /**
+     * 获取启动时持久化配置同步的耗时报告
+     */
+    @GetMapping("/startup")
+    public ResponseEntity<PersistenceStartupReport> getStartupReport() {
+        PersistenceStartupReport report = persistenceManager.getStartupReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * 获取启动就绪状态：各启动阶段耗时，以及开始服务、启动完成和首个请求距JVM启动的时间
+     */
+    @GetMapping("/readiness")
+    public ResponseEntity<StartupReadiness.Snapshot> getReadiness() {
+        return ResponseEntity.ok(startupReadiness.snapshot());
+    }
+    
+    /**
+     * 获取对话上下文和调用日志的内存占用（压缩前后对比）
+     */
+    @GetMapping("/memory")
+    public ResponseEntity<Map<String, MemoryFootprint>> getMemoryFootprint() {
+        Map<String, MemoryFootprint> footprint = new HashMap<>();
+        footprint.put("chatContext", chatContextService.getMemoryFootprint());
+        footprint.put("callLogs", callLogManager.getMemoryFootprint());
+        return ResponseEntity.ok(footprint);
+    }
+}
@@ -0,0 +1,116 @@
+package com.suifeng.sfchain.controller;
+
+import com.suifeng.sfchain.core.cascade.CascadeStatistics;
+import com.suifeng.sfchain.core.hedging.RequestHedger;
+import com.suifeng.sfchain.core.metrics.CallStatisticsRegistry;
+import com.suifeng.sfchain.core.metrics.PrometheusExporter;
+import com.suifeng.sfchain.core.metrics.StreamStatisticsRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 描述: 调用指标查询控制器
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@RestController
+@RequestMapping("/sf-chain/metrics")
+public class MetricsController {
+
+    @Resource
+    private StreamStatisticsRegistry streamStatistics;
+
+    @Resource
+    private CallStatisticsRegistry callStatistics;
+
+    @Resource
+    private PrometheusExporter prometheusExporter;
+
+    @Resource
+    private CascadeStatistics cascadeStatistics;
+
+    @Resource
+    private RequestHedger requestHedger;
+
+    /**
+     * Prometheus抓取端点
+     */
+    @GetMapping(value = "/prometheus", produces = PrometheusExporter.CONTENT_TYPE)
+    public String scrape() {
+        return prometheusExporter.scrape();
+    }
+
+    /**
+     * 获取按操作和模型汇总的调用统计，包含累计值和各滑动窗口的分位耗时
+     *
+     * @param operation 按操作过滤，可选
+     * @param model     按模型过滤，可选
+     */
+    @GetMapping("/calls")
+    public ResponseEntity<List<CallStatisticsRegistry.CallStatistics>> getCallStatistics(
+            @RequestParam(required = false) String operation,
+            @RequestParam(required = false) String model) {
+        List<CallStatisticsRegistry.CallStatistics> statistics = callStatistics.getStatistics().stream()
+                .filter(s -> operation == null || operation.equals(s.getOperationType()))
+                .filter(s -> model == null || model.equals(s.getModelName()))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * 清空调用统计
+     */
+    @DeleteMapping("/calls")
+    public ResponseEntity<Map<String, String>> resetCallStatistics() {
+        callStatistics.reset();
+        return ResponseEntity.ok(Map.of("message", "调用统计已清空"));
+    }
+
+    /**
+     * 获取模型级联统计：升级率、各模型完成数和估算节省的耗时
+     */
+    @GetMapping("/cascade")
+    public ResponseEntity<List<CascadeStatistics.Statistics>> getCascadeStatistics() {
+        return ResponseEntity.ok(cascadeStatistics.getStatistics());
+    }
+
+    /**
+     * 清空级联统计
+     */
+    @DeleteMapping("/cascade")
+    public ResponseEntity<Map<String, String>> resetCascadeStatistics() {
+        cascadeStatistics.reset();
+        return ResponseEntity.ok(Map.of("message", "级联统计已清空"));
+    }
+
+    /**
+     * 获取对冲请求统计：对冲率、对冲胜出次数和因预算不足未发出的对冲数
+     */
+    @GetMapping("/hedging")
+    public ResponseEntity<RequestHedger.HedgingStatistics> getHedgingStatistics() {
+        return ResponseEntity.ok(requestHedger.getStatistics());
+    }
+
+    /**
+     * 获取按操作和模型汇总的流式调用统计
+     */
+    @GetMapping("/streams")
+    public ResponseEntity<List<StreamStatisticsRegistry.StreamStatistics>> getStreamStatistics() {
+        return ResponseEntity.ok(streamStatistics.getStatistics());
+    }
+
+    /**
+     * 清空流式调用统计
+     */
+    @DeleteMapping("/streams")
+    public ResponseEntity<Map<String, String>> resetStreamStatistics() {
+        streamStatistics.reset();
+        return ResponseEntity.ok(Map.of("message", "流式调用统计已清空"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.suifeng.sfchain.controller;
+
+import com.suifeng.sfchain.core.usage.TokenUsageLedger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 描述: Token用量与成本查询控制器
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@RestController
+@RequestMapping("/sf-chain/usage")
+public class TokenUsageController {
+
+    /** 概览中每个维度返回的条数 */
+    private static final int OVERVIEW_LIMIT = 20;
+
+    @Resource
+    private TokenUsageLedger usageLedger;
+
+    /**
+     * 获取用量概览
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getOverview() {
+        Map<String, Object> overview = new LinkedHashMap<>();
+        overview.put("total", usageLedger.getTotal());
+        overview.put("byOperation", usageLedger.getUsage(TokenUsageLedger.Dimension.OPERATION, OVERVIEW_LIMIT));
+        overview.put("byModel", usageLedger.getUsage(TokenUsageLedger.Dimension.MODEL, OVERVIEW_LIMIT));
+        overview.put("byUser", usageLedger.getUsage(TokenUsageLedger.Dimension.USER, OVERVIEW_LIMIT));
+        overview.put("bySession", usageLedger.getUsage(TokenUsageLedger.Dimension.SESSION, OVERVIEW_LIMIT));
+        return ResponseEntity.ok(overview);
+    }
+
+    /**
+     * 获取某个维度的用量排行
+     *
+     * @param dimension operation / model / user / session
+     * @param limit     返回条数，小于等于0时返回全部
+     */
+    @GetMapping("/{dimension}")
+    public ResponseEntity<Map<String, TokenUsageLedger.UsageSnapshot>> getUsage(
+            @PathVariable String dimension,
+            @RequestParam(defaultValue = "100") int limit) {
+        TokenUsageLedger.Dimension parsed = parseDimension(dimension);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(usageLedger.getUsage(parsed, limit));
+    }
+
+    /**
+     * 获取某个维度下指定key的用量
+     */
+    @GetMapping("/{dimension}/{key}")
+    public ResponseEntity<TokenUsageLedger.UsageSnapshot> getUsage(@PathVariable String dimension,
+                                                                   @PathVariable String key) {
+        TokenUsageLedger.Dimension parsed = parseDimension(dimension);
+        if (parsed == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        TokenUsageLedger.UsageSnapshot snapshot = usageLedger.getUsage(parsed, key);
+        return snapshot != null ? ResponseEntity.ok(snapshot) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * 清空用量统计
+     */
+    @DeleteMapping
+    public ResponseEntity<Map<String, String>> reset() {
+        usageLedger.reset();
+        return ResponseEntity.ok(Map.of("message", "用量统计已清空"));
+    }
+
+    private TokenUsageLedger.Dimension parseDimension(String dimension) {
+        try {
+            return TokenUsageLedger.Dimension.valueOf(dimension.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -10,6 +10,8 @@ import javax.annotation.Resource;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
 
 /**
  * 描述: AI操作注册中心 - 新框架版本
@@ -53,6 +55,11 @@ public class AIOperationRegistry {
     @Resource
     private ModelRegistry modelRegistry;
 
+    /**
+     * 执行配置快照版本
+     */
+    private final AtomicLong configVersion = new AtomicLong();
+
     /**
      * 注册操作
      * 
@@ -61,6 +68,7 @@ public class AIOperationRegistry {
      */
     public void registerOperation(String operationType, BaseAIOperation<?, ?> operation) {
         operationMap.put(operationType, operation);
+        publishExecutionConfig(operationType);
         log.info("注册AI操作: {} -> {}", operationType, operation.getClass().getSimpleName());
     }
     
@@ -90,30 +98,112 @@ public class AIOperationRegistry {
     }
     
     /**
-     * 设置操作的模型映射
+     * 设置操作的模型映射，并发布新的执行配置快照
      * 
      * @param operationType 操作类型
      * @param modelName 模型名称
      */
-    public void setModelForOperation(String operationType, String modelName) {
-        // 验证模型是否存在
-        AIModel model = modelRegistry.getModel(modelName);
-        if (model == null) {
-            throw new IllegalArgumentException("模型不存在: " + modelName);
-        }
-        
+    public synchronized void setModelForOperation(String operationType, String modelName) {
+        validateModel(modelName);
         modelMapping.put(operationType, modelName);
+        publishExecutionConfig(operationType);
         log.info("设置操作模型映射: {} -> {}", operationType, modelName);
     }
     
+    /**
+     * 移除操作的模型映射，并发布新的执行配置快照
+     * 
+     * @param operationType 操作类型
+     */
+    public synchronized void removeModelForOperation(String operationType) {
+        if (modelMapping.remove(operationType) != null) {
+            publishExecutionConfig(operationType);
+        }
+    }
+    
     /**
      * 获取操作配置
+     * 返回注册中心当前持有的对象，只读；修改需通过 {@link #updateOperationConfig(String, UnaryOperator)} 发布
      * 
      * @param operationType 操作类型
      * @return 操作配置
      */
     public OperationConfig getOperationConfig(String operationType) {
-        return configs.getOrDefault(operationType, new OperationConfig());
+        OperationConfig config = configs.get(operationType);
+        return config != null ? config : new OperationConfig();
+    }
+    
+    /**
+     * 更新操作配置，替换注册中心中的配置并发布新的执行配置快照
+     * 
+     * @param operationType 操作类型
+     * @param config 操作配置，保存的是副本
+     */
+    public synchronized void updateOperationConfig(String operationType, OperationConfig config) {
+        configs.put(operationType, config.copy());
+        publishExecutionConfig(operationType);
+    }
+    
+    /**
+     * 在当前配置的副本上修改并发布，读取和替换在同一把锁内完成，并发更新不会相互覆盖
+     * 
+     * @param operationType 操作类型
+     * @param updater 修改函数，参数为当前配置的副本
+     */
+    public void updateOperationConfig(String operationType, UnaryOperator<OperationConfig> updater) {
+        updateOperationConfig(operationType, updater, null);
+    }
+    
+    /**
+     * 修改操作配置并同时设置模型映射，两者在同一个执行配置快照中发布
+     * 
+     * @param operationType 操作类型
+     * @param updater 修改函数，参数为当前配置的副本
+     * @param modelName 模型名称，为null时保留当前映射
+     */
+    public synchronized void updateOperationConfig(String operationType, UnaryOperator<OperationConfig> updater,
+                                                   String modelName) {
+        if (modelName != null) {
+            validateModel(modelName);
+        }
+        OperationConfig updated = updater.apply(getOperationConfig(operationType).copy());
+        configs.put(operationType, updated);
+        if (modelName != null) {
+            modelMapping.put(operationType, modelName);
+        }
+        publishExecutionConfig(operationType);
+    }
+    
+    /**
+     * 获取操作当前的执行配置快照
+     * 
+     * @param operationType 操作类型
+     * @return 执行配置，操作未注册时返回null
+     */
+    public ExecutionConfig getExecutionConfig(String operationType) {
+        BaseAIOperation<?, ?> operation = operationMap.get(operationType);
+        return operation != null ? operation.getExecutionConfig() : null;
+    }
+    
+    /**
+     * 由当前配置和操作注解合并出新快照并整体替换
+     */
+    private synchronized void publishExecutionConfig(String operationType) {
+        BaseAIOperation<?, ?> operation = operationMap.get(operationType);
+        if (operation == null) {
+            return;
+        }
+        OperationConfig config = configs.getOrDefault(operationType, new OperationConfig());
+        ExecutionConfig snapshot = operation.applyOperationConfig(config, modelMapping.get(operationType),
+                configVersion.incrementAndGet());
+        log.debug("发布执行配置: {} v{}", operationType, snapshot.getVersion());
+    }
+    
+    private void validateModel(String modelName) {
+        AIModel model = modelRegistry.getModel(modelName);
+        if (model == null) {
+            throw new IllegalArgumentException("模型不存在: " + modelName);
+        }
     }
     
     /**
@@ -148,5 +238,17 @@ public class AIOperationRegistry {
         private boolean supportThinking = false;
         private int timeoutSeconds = 30;
         private int retryCount = 2;
+
+        public OperationConfig copy() {
+            OperationConfig copy = new OperationConfig();
+            copy.setEnabled(enabled);
+            copy.setMaxTokens(maxTokens);
+            copy.setTemperature(temperature);
+            copy.setRequireJsonOutput(requireJsonOutput);
+            copy.setSupportThinking(supportThinking);
+            copy.setTimeoutSeconds(timeoutSeconds);
+            copy.setRetryCount(retryCount);
+            return copy;
+        }
     }
 }
\ No newline at end of file
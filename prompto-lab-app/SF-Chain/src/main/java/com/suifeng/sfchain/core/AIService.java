@@ -1,5 +1,8 @@
 package com.suifeng.sfchain.core;
 
+import com.suifeng.sfchain.core.metrics.LatencyHistogram;
+import com.suifeng.sfchain.core.tracing.Span;
+import com.suifeng.sfchain.core.tracing.Tracing;
 import com.suifeng.sfchain.persistence.context.ChatContextService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +14,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 描述: AI服务类 - 新框架版本
@@ -68,6 +73,7 @@ public class AIService {
     @SuppressWarnings("unchecked")
     public <INPUT, OUTPUT> OUTPUT execute(String operationType, INPUT input, String modelName, String sessionId) {
         long startTime = System.currentTimeMillis();
+        Span span = Tracing.startSpan("ai.service.execute").setAttribute("ai.operation", operationType);
 
         try {
             // 获取操作实例
@@ -101,9 +107,12 @@ public class AIService {
         } catch (Exception e) {
             // 记录执行统计
             recordExecution(operationType, false, System.currentTimeMillis() - startTime);
+            span.recordError(e);
 
             log.error("AI操作执行失败: {} - {}", operationType, e.getMessage(), e);
             throw new RuntimeException("AI操作执行失败: " + e.getMessage(), e);
+        } finally {
+            span.close();
         }
     }
 
@@ -481,40 +490,55 @@ public class AIService {
     }
 
     /**
-     * 执行统计类
+     * 执行统计类，计数器和耗时直方图均无锁累加
      */
     public static class ExecutionStats {
-        private long totalExecutions = 0;
-        @Getter
-        private long successfulExecutions = 0;
-        @Getter
-        private long failedExecutions = 0;
-        @Getter
-        private long totalDuration = 0;
-        private long minDuration = Long.MAX_VALUE;
-        private long maxDuration = 0;
-
-        public synchronized void record(boolean success, long duration) {
-            totalExecutions++;
+        private final LongAdder totalExecutions = new LongAdder();
+        private final LongAdder successfulExecutions = new LongAdder();
+        private final LongAdder failedExecutions = new LongAdder();
+        private final LongAdder totalDuration = new LongAdder();
+        private final LongAccumulator minDuration = new LongAccumulator(Long::min, Long.MAX_VALUE);
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        public void record(boolean success, long duration) {
+            totalExecutions.increment();
             if (success) {
-                successfulExecutions++;
+                successfulExecutions.increment();
             } else {
-                failedExecutions++;
+                failedExecutions.increment();
             }
-
-            totalDuration += duration;
-            minDuration = Math.min(minDuration, duration);
-            maxDuration = Math.max(maxDuration, duration);
+            totalDuration.add(duration);
+            minDuration.accumulate(duration);
+            latency.record(duration);
         }
 
+        public long getSuccessfulExecutions() { return successfulExecutions.sum(); }
+
+        public long getFailedExecutions() { return failedExecutions.sum(); }
+
+        public long getTotalDuration() { return totalDuration.sum(); }
+
         public double getSuccessRate() {
-            return totalExecutions > 0 ? (double) successfulExecutions / totalExecutions : 0.0;
+            long total = totalExecutions.sum();
+            return total > 0 ? (double) successfulExecutions.sum() / total : 0.0;
         }
 
         public double getAverageDuration() {
-            return totalExecutions > 0 ? (double) totalDuration / totalExecutions : 0.0;
+            long total = totalExecutions.sum();
+            return total > 0 ? (double) totalDuration.sum() / total : 0.0;
         }
 
-        public long getMinDuration() { return minDuration == Long.MAX_VALUE ? 0 : minDuration; }
+        public long getMinDuration() {
+            long min = minDuration.get();
+            return min == Long.MAX_VALUE ? 0 : min;
+        }
+
+        public long getMaxDuration() { return latency.snapshot().getMax(); }
+
+        public long getP50Duration() { return latency.snapshot().percentile(0.5); }
+
+        public long getP90Duration() { return latency.snapshot().percentile(0.9); }
+
+        public long getP99Duration() { return latency.snapshot().percentile(0.99); }
     }
-}
\ No newline at end of file
+}
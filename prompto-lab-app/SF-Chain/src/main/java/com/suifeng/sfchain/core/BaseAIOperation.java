@@ -4,15 +4,35 @@ import com.alibaba.fastjson2.JSONObject;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.suifeng.sfchain.annotation.AIOp;
+import com.suifeng.sfchain.core.cascade.CascadeConfig;
+import com.suifeng.sfchain.core.cascade.CascadeStatistics;
+import com.suifeng.sfchain.core.hedging.RequestHedger;
+import com.suifeng.sfchain.core.jfr.JsonParseEvent;
 import com.suifeng.sfchain.core.logging.AICallLog;
-import com.suifeng.sfchain.core.logging.AICallLogManager;
+import com.suifeng.sfchain.core.logging.CallCapturePolicy;
+import com.suifeng.sfchain.core.logging.CallLogPipeline;
+import com.suifeng.sfchain.core.metrics.CallStatisticsRegistry;
+import com.suifeng.sfchain.core.metrics.LatencyBreakdown;
+import com.suifeng.sfchain.core.metrics.StreamCallRecorder;
+import com.suifeng.sfchain.core.metrics.StreamStatisticsRegistry;
 import com.suifeng.sfchain.core.openai.OpenAICompatibleModel;
+import com.suifeng.sfchain.core.routing.ModelRouter;
+import com.suifeng.sfchain.core.routing.RoutingDecision;
+import com.suifeng.sfchain.core.startup.StartupReadiness;
+import com.suifeng.sfchain.core.tracing.Span;
+import com.suifeng.sfchain.core.tracing.TraceContext;
+import com.suifeng.sfchain.core.tracing.Tracing;
+import com.suifeng.sfchain.core.openai.OpenAIResponse;
+import com.suifeng.sfchain.core.usage.TokenUsage;
+import com.suifeng.sfchain.core.usage.TokenUsageLedger;
+import com.suifeng.sfchain.core.usage.UsageContext;
 import com.suifeng.sfchain.persistence.context.ChatContextService;
 import com.suifeng.sfchain.persistence.context.ChatMessage;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
 
 import javax.annotation.PostConstruct;
 import java.lang.reflect.ParameterizedType;
@@ -20,6 +40,7 @@ import java.lang.reflect.Type;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static com.suifeng.sfchain.constants.AIOperationConstant.JSON_REPAIR_OP;
 
@@ -45,6 +66,36 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
     @Autowired
     protected ChatContextService chatContextService;
 
+    @Autowired
+    private TokenUsageLedger usageLedger;
+
+    @Autowired
+    private StartupReadiness startupReadiness;
+
+    @Autowired
+    private CallLogPipeline callLogPipeline;
+
+    @Autowired
+    private CallCapturePolicy capturePolicy;
+
+    @Autowired
+    private StreamStatisticsRegistry streamStatistics;
+
+    @Autowired
+    private CallStatisticsRegistry callStatistics;
+
+    @Autowired
+    private ModelRouter modelRouter;
+
+    @Autowired
+    private CascadeConfig cascadeConfig;
+
+    @Autowired
+    private CascadeStatistics cascadeStatistics;
+
+    @Autowired
+    private RequestHedger requestHedger;
+
     /**
      * 操作的注解信息
      * -- GETTER --
@@ -55,6 +106,11 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
     @Getter
     private AIOp annotation;
 
+    /**
+     * 执行配置快照，由注册中心在配置变更时整体替换
+     */
+    private volatile ExecutionConfig executionConfig;
+
     /**
      * 输入类型
      * -- GETTER --
@@ -100,20 +156,9 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
         // 注册到操作注册中心
         operationRegistry.registerOperation(annotation.value(), this);
 
-        // 如果注解中有默认模型且当前没有设置模型映射，则自动设置
-        if (!annotation.defaultModel().isEmpty()) {
-            String currentModel = operationRegistry.getModelForOperation(annotation.value());
-            if (currentModel == null) {
-                try {
-                    // 验证模型是否存在
-                    if (modelRegistry.getModel(annotation.defaultModel()) != null) {
-                        operationRegistry.setModelForOperation(annotation.value(), annotation.defaultModel());
-                        log.info("自动设置操作默认模型映射: {} -> {}", annotation.value(), annotation.defaultModel());
-                    }
-                } catch (Exception e) {
-                    log.warn("无法设置默认模型映射 {} -> {}: {}", annotation.value(), annotation.defaultModel(), e.getMessage());
-                }
-            }
+        // 快速启动时默认模型的校验和实例化放到后台预热阶段，调用时仍会回退到注解默认模型
+        if (!startupReadiness.isFastStart()) {
+            applyDefaultModelMapping();
         }
 
         log.info("初始化AI操作: {} [{}] -> 输入类型: {}, 输出类型: {}",
@@ -122,6 +167,25 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
                 outputType != null ? outputType.getSimpleName() : "Unknown");
     }
 
+    /**
+     * 注解中有默认模型且当前没有设置模型映射时，校验模型可用后自动设置
+     */
+    public void applyDefaultModelMapping() {
+        if (annotation.defaultModel().isEmpty()
+                || operationRegistry.getModelForOperation(annotation.value()) != null) {
+            return;
+        }
+        try {
+            // 验证模型是否存在
+            if (modelRegistry.getModel(annotation.defaultModel()) != null) {
+                operationRegistry.setModelForOperation(annotation.value(), annotation.defaultModel());
+                log.info("自动设置操作默认模型映射: {} -> {}", annotation.value(), annotation.defaultModel());
+            }
+        } catch (Exception e) {
+            log.warn("无法设置默认模型映射 {} -> {}: {}", annotation.value(), annotation.defaultModel(), e.getMessage());
+        }
+    }
+
     /**
      * 流式执行AI操作
      */
@@ -143,36 +207,66 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
      */
     @SuppressWarnings("unchecked")
     public Flux<String> executeStream(INPUT input, String modelName, String sessionId) {
+        startupReadiness.recordFirstRequest();
+        // HTTP客户端在装配时取得该实例，连接和下载阶段在流式线程中继续累加
+        LatencyBreakdown breakdown = LatencyBreakdown.begin();
+        // 单次读取执行配置快照，本次调用全程使用同一版本
+        ExecutionConfig config = executionConfig;
         try {
             // 检查操作是否启用
-            if (!isEnabled()) {
+            if (!config.isEnabled()) {
                 return Flux.error(new IllegalStateException("操作已禁用: " + annotation.value()));
             }
 
-            // 获取模型
-            AIModel model = getModel(modelName);
+            // 获取模型，未指定时按路由策略选择
+            long phaseStart = System.nanoTime();
+            RoutingDecision routing = route(modelName);
+            AIModel model = getModel(routing != null ? routing.getSelectedModel() : modelName, config);
+            breakdown.add(LatencyBreakdown.Phase.MODEL_RESOLUTION, System.nanoTime() - phaseStart);
             
             // 构建带上下文的提示词
+            phaseStart = System.nanoTime();
             String prompt = buildPromptWithContext(input, sessionId);
+            breakdown.add(LatencyBreakdown.Phase.CONTEXT_ASSEMBLY, System.nanoTime() - phaseStart
+                    - breakdown.getNanos(LatencyBreakdown.Phase.PROMPT_BUILD));
             
-            // 获取操作配置
-            AIOperationRegistry.OperationConfig config = operationRegistry.getOperationConfig(annotation.value());
+            // 读取执行配置快照
+            Integer finalMaxTokens = config.getMaxTokens();
+            Double finalTemperature = config.getTemperature();
+            Boolean finalJsonOutput = config.isJsonOutput();
+            boolean finalThinking = config.isThinking();
             
-            // 合并配置
-            Integer finalMaxTokens = config.getMaxTokens() > 0 ? Integer.valueOf(config.getMaxTokens()) : 
-                                    (annotation.defaultMaxTokens() > 0 ? annotation.defaultMaxTokens() : null);
-            Double finalTemperature = config.getTemperature() >= 0 ? Double.valueOf(config.getTemperature()) : 
-                                     (annotation.defaultTemperature() >= 0 ? annotation.defaultTemperature() : null);
-            Boolean finalJsonOutput = config.isRequireJsonOutput() || annotation.requireJsonOutput();
-            boolean finalThinking = config.isSupportThinking() || annotation.supportThinking();
-            
-            // 调用模型的流式生成方法
+            // 调用模型的流式生成方法，最后一个chunk携带的usage计入台账
             if (model instanceof OpenAICompatibleModel openAIModel) {
-                if (finalThinking) {
-                    return openAIModel.generateStreamWithThinking(prompt, finalMaxTokens, finalTemperature);
-                } else {
-                    return openAIModel.generateStream(prompt, finalMaxTokens, finalTemperature, finalJsonOutput);
-                }
+                String userId = UsageContext.getUserId();
+                StreamCallRecorder recorder = new StreamCallRecorder();
+                Consumer<OpenAIResponse.Usage> usageConsumer = usage -> {
+                    TokenUsage tokenUsage = TokenUsage.of(usage);
+                    recorder.onUsage(tokenUsage, recordUsage(openAIModel, sessionId, userId, tokenUsage));
+                };
+                Consumer<TokenUsage> estimateSink = estimate -> usageLedger.recordEstimated(annotation.value(),
+                        openAIModel.getName(), sessionId, userId, estimate);
+                Flux<String> stream = finalThinking
+                        ? openAIModel.generateStreamWithThinking(prompt, finalMaxTokens, finalTemperature, usageConsumer)
+                        : openAIModel.generateStream(prompt, finalMaxTokens, finalTemperature, finalJsonOutput, usageConsumer);
+
+                AICallLog.AICallLogBuilder logBuilder = AICallLog.builder()
+                        .callId(UUID.randomUUID().toString())
+                        .operationType(annotation.value())
+                        .callTime(LocalDateTime.now())
+                        .input(input)
+                        .modelName(model.getName())
+                        .routing(routing)
+                        .configVersion(config.getVersion())
+                        .requestParams(AICallLog.AIRequestParams.builder()
+                                .maxTokens(finalMaxTokens)
+                                .temperature(finalTemperature)
+                                .jsonOutput(finalJsonOutput)
+                                .thinking(finalThinking)
+                                .build())
+                        .frequency(1)
+                        .lastAccessTime(LocalDateTime.now());
+                return instrumentStream(stream, recorder, estimateSink, breakdown, logBuilder, model.getName(), prompt);
             } else {
                 // 对于不支持流式的模型，返回错误
                 return Flux.error(new UnsupportedOperationException("模型不支持流式输出: " + model.getName()));
@@ -181,9 +275,85 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
         } catch (Exception e) {
             log.error("流式AI操作执行失败: {} - {}", annotation.value(), e.getMessage(), e);
             return Flux.error(new RuntimeException("流式AI操作执行失败: " + e.getMessage(), e));
+        } finally {
+            breakdown.detach();
         }
     }
 
+    /**
+     * 为流式调用挂载指标采集：首token耗时、chunk间隔、输出速度和结束原因，
+     * 流结束（完成、出错或被取消）时写入调用日志并计入流式汇总统计
+     */
+    private Flux<String> instrumentStream(Flux<String> stream, StreamCallRecorder recorder, Consumer<TokenUsage> estimateSink,
+                                          LatencyBreakdown breakdown, AICallLog.AICallLogBuilder logBuilder,
+                                          String modelName, String prompt) {
+        TraceContext parent = Tracing.currentContext();
+        Span[] span = {null};
+        return stream
+                .doOnSubscribe(subscription -> {
+                    recorder.onSubscribe();
+                    modelRouter.onStart(modelName);
+                    span[0] = Tracing.startDetachedSpan("ai.operation.stream", parent)
+                            .setAttribute("ai.operation", annotation.value())
+                            .setAttribute("ai.model", modelName)
+                            .setAttribute("ai.prompt.chars", prompt.length());
+                    if (span[0].getContext() != null) {
+                        logBuilder.traceId(span[0].getContext().getTraceId());
+                    }
+                })
+                .doOnNext(recorder::onChunk)
+                .doOnError(recorder::onError)
+                .doFinally(signal -> {
+                    if (!recorder.finish()) {
+                        return;
+                    }
+                    modelRouter.onFinish(modelName);
+                    AICallLog.StreamEndReason reason = signal == SignalType.ON_COMPLETE ? AICallLog.StreamEndReason.COMPLETED
+                            : signal == SignalType.CANCEL ? AICallLog.StreamEndReason.CANCELLED
+                            : AICallLog.StreamEndReason.FAILED;
+                    AICallLog.StreamMetrics metrics = recorder.toMetrics(reason);
+                    if (span[0] != null) {
+                        span[0].setAttribute("stream.end_reason", reason.name())
+                                .setAttribute("stream.chunks", metrics.getChunks())
+                                .setAttribute("stream.ttft_ms", metrics.getTimeToFirstTokenMillis())
+                                .setAttribute("ai.tokens.completion", metrics.getOutputTokens())
+                                .setAttribute("ai.response.chars", recorder.getContentLength());
+                        span[0].recordError(recorder.getErrorMessage());
+                        span[0].end();
+                    }
+                    try {
+                        AICallLog.CallStatus status = switch (reason) {
+                            case COMPLETED -> AICallLog.CallStatus.SUCCESS;
+                            case CANCELLED -> AICallLog.CallStatus.CANCELLED;
+                            case FAILED -> AICallLog.CallStatus.FAILED;
+                        };
+                        logBuilder.status(status)
+                                .duration(recorder.getDurationMillis())
+                                .errorMessage(recorder.getErrorMessage())
+                                .streamMetrics(metrics)
+                                .phaseMicros(breakdown.toMicros());
+                        TokenUsage usage = recorder.getUsage();
+                        if (usage != null) {
+                            logBuilder.promptTokens(usage.getPromptTokens())
+                                    .completionTokens(usage.getCompletionTokens())
+                                    .cachedTokens(usage.getCachedTokens())
+                                    .cost(recorder.getCost());
+                        } else if (metrics.getChunks() > 0) {
+                            // 模型没有返回usage（未开启或服务不支持）时估算值单独计入台账，不计成本，streamMetrics.usageReported标记为false
+                            TokenUsage estimate = recorder.estimateUsage(prompt);
+                            estimateSink.accept(estimate);
+                            logBuilder.promptTokens(estimate.getPromptTokens())
+                                    .completionTokens(estimate.getCompletionTokens());
+                        }
+                        streamStatistics.record(annotation.value(), modelName, metrics, recorder.getInterChunkSnapshot());
+                        callStatistics.record(annotation.value(), modelName, status, recorder.getDurationMillis(), breakdown);
+                        submitLog(logBuilder, status, recorder.getDurationMillis(), prompt, recorder.getContent());
+                    } catch (Exception e) {
+                        log.warn("记录流式调用指标失败: {} - {}", annotation.value(), e.getMessage());
+                    }
+                });
+    }
+
     /**
      * 执行AI操作
      *
@@ -207,22 +377,78 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
 
     /**
      * 执行AI操作（带上下文支持）
+     * 未指定模型且操作配置了级联模型时按级联执行，否则在单个模型上执行
      *
      * @param input 输入参数
      * @param modelName 指定的模型名称，为null时使用默认模型
      * @param sessionId 会话ID，用于上下文管理
      * @return 输出结果
      */
-    // 在BaseAIOperation类中添加以下字段和方法
+    public OUTPUT execute(INPUT input, String modelName, String sessionId) {
+        startupReadiness.recordFirstRequest();
+        List<String> cascade = modelName == null ? getCascadeModels() : List.of();
+        if (cascade.size() > 1) {
+            return executeCascade(input, sessionId, cascade);
+        }
+        return executeOnce(input, modelName, sessionId, null, true, true);
+    }
+
+    /**
+     * 级联执行：依次尝试各级模型，调用、解析或校验失败时升级到下一级，最后一级的失败向上抛出
+     */
+    private OUTPUT executeCascade(INPUT input, String sessionId, List<String> models) {
+        long start = System.currentTimeMillis();
+        long[] tierMillis = new long[models.size()];
+        int last = models.size() - 1;
+        for (int tier = 0; ; tier++) {
+            long tierStart = System.currentTimeMillis();
+            try {
+                OUTPUT result = executeOnce(input, models.get(tier), sessionId, tier,
+                        tier == last || cascadeConfig.isRepairBeforeEscalate(), tier == last);
+                tierMillis[tier] = System.currentTimeMillis() - tierStart;
+                cascadeStatistics.record(annotation.value(), models, tier, tierMillis,
+                        System.currentTimeMillis() - start);
+                return result;
+            } catch (RuntimeException e) {
+                tierMillis[tier] = System.currentTimeMillis() - tierStart;
+                if (tier == last) {
+                    cascadeStatistics.record(annotation.value(), models, -1, tierMillis,
+                            System.currentTimeMillis() - start);
+                    throw e;
+                }
+                callStatistics.recordRetry(annotation.value(), "cascade_escalation");
+                log.info("级联升级: {} {} -> {}，原因: {}", annotation.value(), models.get(tier),
+                        models.get(tier + 1), e.getMessage());
+            }
+        }
+    }
 
-    @Autowired
-    private AICallLogManager logManager;
+    /**
+     * 级联模型：配置优先于注解
+     */
+    private List<String> getCascadeModels() {
+        List<String> configured = cascadeConfig.getOperations().get(annotation.value());
+        if (configured != null && !configured.isEmpty()) {
+            return configured;
+        }
+        return List.of(annotation.cascadeModels());
+    }
 
-    // 在execute方法中添加详细日志记录和上下文支持
-    public OUTPUT execute(INPUT input, String modelName, String sessionId) {
+    /**
+     * 在指定模型上执行一次
+     *
+     * @param cascadeTier  级联层级，非级联调用为null
+     * @param allowRepair  解析失败时是否允许JSON修复
+     * @param finalAttempt 是否为最后一次尝试，级联中还能升级时失败属于预期情况
+     */
+    private OUTPUT executeOnce(INPUT input, String modelName, String sessionId, Integer cascadeTier,
+                               boolean allowRepair, boolean finalAttempt) {
         String callId = UUID.randomUUID().toString();
         LocalDateTime startTime = LocalDateTime.now();
         long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        LatencyBreakdown breakdown = LatencyBreakdown.begin();
+        ExecutionConfig config = executionConfig;
 
         AICallLog.AICallLogBuilder logBuilder = AICallLog.builder()
                 .callId(callId)
@@ -230,26 +456,40 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
                 .callTime(startTime)
                 .input(input)
                 .modelName(modelName)
+                .cascadeTier(cascadeTier)
+                .configVersion(config.getVersion())
                 .frequency(1)
                 .lastAccessTime(startTime);
+        String prompt = null;
+        String response = null;
+        String resolvedModelName = modelName;
+        boolean inFlight = false;
+        Span span = Tracing.startSpan("ai.operation").setAttribute("ai.operation", annotation.value());
+        if (span.getContext() != null) {
+            logBuilder.traceId(span.getContext().getTraceId());
+        }
 
         try {
             // 获取模型
-            AIModel model = getModel(modelName);
-            logBuilder.modelName(model.getName());
-
-            // 构建提示词（带上下文支持）
-            String prompt = buildPromptWithContext(input, sessionId);
-            logBuilder.prompt(prompt);
-
-            // 获取操作配置
-            AIOperationRegistry.OperationConfig config = operationRegistry.getOperationConfig(annotation.value());
-
-            // 合并配置
-            Integer finalMaxTokens = config.getMaxTokens() > 0 ? Integer.valueOf(config.getMaxTokens()) : (annotation.defaultMaxTokens() > 0 ? annotation.defaultMaxTokens() : null);
-            Double finalTemperature = config.getTemperature() >= 0 ? Double.valueOf(config.getTemperature()) : (annotation.defaultTemperature() >= 0 ? annotation.defaultTemperature() : null);
-            Boolean finalJsonOutput = config.isRequireJsonOutput() || annotation.requireJsonOutput();
-            boolean finalThinking = config.isSupportThinking() || annotation.supportThinking();
+            long phaseStart = System.nanoTime();
+            RoutingDecision routing = route(modelName);
+            AIModel model = getModel(routing != null ? routing.getSelectedModel() : modelName, config);
+            resolvedModelName = model.getName();
+            logBuilder.modelName(resolvedModelName).routing(routing);
+            breakdown.add(LatencyBreakdown.Phase.MODEL_RESOLUTION, System.nanoTime() - phaseStart);
+
+            // 构建提示词（带上下文支持），基础提示词的耗时在内部单独记录
+            phaseStart = System.nanoTime();
+            prompt = buildPromptWithContext(input, sessionId);
+            breakdown.add(LatencyBreakdown.Phase.CONTEXT_ASSEMBLY, System.nanoTime() - phaseStart
+                    - breakdown.getNanos(LatencyBreakdown.Phase.PROMPT_BUILD));
+
+            // 读取执行配置快照
+            phaseStart = System.nanoTime();
+            Integer finalMaxTokens = config.getMaxTokens();
+            Double finalTemperature = config.getTemperature();
+            Boolean finalJsonOutput = config.isJsonOutput();
+            boolean finalThinking = config.isThinking();
 
             // 记录请求参数
             AICallLog.AIRequestParams requestParams = AICallLog.AIRequestParams.builder()
@@ -259,52 +499,155 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
                     .thinking(finalThinking)
                     .build();
             logBuilder.requestParams(requestParams);
+            breakdown.add(LatencyBreakdown.Phase.MODEL_RESOLUTION, System.nanoTime() - phaseStart);
+
+            if (span.isRecording()) {
+                span.setAttribute("ai.model", resolvedModelName)
+                        .setAttribute("ai.prompt.chars", prompt.length())
+                        .setAttribute("ai.prompt.estimated_tokens", TokenEstimator.estimate(prompt));
+            }
 
             // 调用AI模型
-            String response;
-            if (model instanceof OpenAICompatibleModel openAIModel) {
-                if (finalThinking) {
-                    response = openAIModel.generateWithThinking(prompt, finalMaxTokens, finalTemperature);
+            if (model instanceof OpenAICompatibleModel primaryModel) {
+                String finalPrompt = prompt;
+                // 每个请求（含对冲请求）在实际发往的模型上计入并发数
+                RequestHedger.HedgedRequest request = (target, handle) -> {
+                    modelRouter.onStart(target.getName());
+                    try {
+                        return finalThinking
+                                ? target.chatCompletionWithThinking(finalPrompt, finalMaxTokens, finalTemperature, handle)
+                                : target.chatCompletion(finalPrompt, finalMaxTokens, finalTemperature, finalJsonOutput, handle);
+                    } finally {
+                        modelRouter.onFinish(target.getName());
+                    }
+                };
+                OpenAICompatibleModel openAIModel = primaryModel;
+                OpenAIResponse completion;
+                if (requestHedger.isEnabled(annotation.value())) {
+                    String userId = UsageContext.getUserId();
+                    // 落败请求同样已计费，用量计入台账但不计入本次调用日志
+                    RequestHedger.Outcome outcome = requestHedger.execute(annotation.value(), primaryModel, request,
+                            loser -> recordUsage(loser.getModel(), sessionId, userId,
+                                    TokenUsage.of(loser.getResponse() != null ? loser.getResponse().getUsage() : null)));
+                    completion = outcome.getResponse();
+                    openAIModel = outcome.getModel();
+                    if (outcome.isHedged()) {
+                        resolvedModelName = openAIModel.getName();
+                        logBuilder.modelName(resolvedModelName);
+                        span.setAttribute("ai.hedged", true);
+                    }
                 } else {
-                    response = openAIModel.generate(prompt, finalMaxTokens, finalTemperature, finalJsonOutput);
+                    completion = request.send(primaryModel, null);
+                }
+                response = openAIModel.extractContent(completion);
+
+                TokenUsage usage = TokenUsage.of(completion != null ? completion.getUsage() : null);
+                if (usage != null) {
+                    double cost = recordUsage(openAIModel, sessionId, UsageContext.getUserId(), usage);
+                    logBuilder.promptTokens(usage.getPromptTokens())
+                            .completionTokens(usage.getCompletionTokens())
+                            .cachedTokens(usage.getCachedTokens())
+                            .cost(cost);
+                    span.setAttribute("ai.tokens.prompt", usage.getPromptTokens())
+                            .setAttribute("ai.tokens.completion", usage.getCompletionTokens())
+                            .setAttribute("ai.tokens.cached", usage.getCachedTokens());
                 }
             } else {
+                modelRouter.onStart(resolvedModelName);
+                inFlight = true;
                 response = model.generate(prompt);
+                modelRouter.onFinish(resolvedModelName);
+                inFlight = false;
             }
-
-            logBuilder.rawResponse(response);
+            span.setAttribute("ai.response.chars", response != null ? response.length() : 0);
 
             // 解析响应
-            OUTPUT result = parseResponse(response, input);
+            OUTPUT result;
+            try (Span parseSpan = Tracing.startSpan("ai.parse")) {
+                phaseStart = System.nanoTime();
+                result = parseResponse(response, input, allowRepair);
+                String validationFailure = validateOutput(result, input);
+                if (validationFailure != null) {
+                    throw new IllegalStateException("输出校验失败: " + validationFailure);
+                }
+                breakdown.add(LatencyBreakdown.Phase.PARSE, System.nanoTime() - phaseStart
+                        - breakdown.getNanos(LatencyBreakdown.Phase.JSON_EXTRACT)
+                        - breakdown.getNanos(LatencyBreakdown.Phase.REPAIR));
+            }
 
             // 记录成功日志
             long duration = System.currentTimeMillis() - startMillis;
-            AICallLog log = logBuilder
-                    .status(AICallLog.CallStatus.SUCCESS)
+            breakdown.attributeRemainder(System.nanoTime() - startNanos);
+            logBuilder.phaseMicros(breakdown.toMicros());
+            logBuilder.status(AICallLog.CallStatus.SUCCESS)
                     .duration(duration)
-                    .output(result)
-                    .build();
-
-            logManager.addLog(log);
+                    .output(result);
+            submitLog(logBuilder, AICallLog.CallStatus.SUCCESS, duration, prompt, response);
+            // 对冲请求胜出时按实际返回结果的模型统计
+            callStatistics.record(annotation.value(), resolvedModelName, AICallLog.CallStatus.SUCCESS, duration, breakdown);
 
             return result;
 
         } catch (Exception e) {
             // 记录失败日志
             long duration = System.currentTimeMillis() - startMillis;
-            AICallLog callLog = logBuilder
-                    .status(AICallLog.CallStatus.FAILED)
+            breakdown.attributeRemainder(System.nanoTime() - startNanos);
+            logBuilder.status(AICallLog.CallStatus.FAILED)
                     .duration(duration)
-                    .errorMessage(e.getMessage())
-                    .build();
+                    .phaseMicros(breakdown.toMicros())
+                    .errorMessage(e.getMessage());
+            submitLog(logBuilder, AICallLog.CallStatus.FAILED, duration, prompt, response);
+            callStatistics.record(annotation.value(), resolvedModelName, AICallLog.CallStatus.FAILED, duration, breakdown);
 
-            logManager.addLog(callLog);
+            span.recordError(e);
 
-            log.error("执行AI操作失败: {} - {}", annotation.value(), e.getMessage(), e);
+            if (finalAttempt) {
+                log.error("执行AI操作失败: {} - {}", annotation.value(), e.getMessage(), e);
+            } else {
+                log.warn("级联第{}级模型执行失败，准备升级: {} [{}] - {}", cascadeTier, annotation.value(),
+                        resolvedModelName, e.getMessage());
+            }
             throw new RuntimeException("AI操作执行失败: " + e.getMessage(), e);
+        } finally {
+            if (inFlight) {
+                modelRouter.onFinish(resolvedModelName);
+            }
+            breakdown.detach();
+            span.close();
         }
     }
 
+    /**
+     * 按采集策略提交调用日志，提示词和原始返回的截断、压缩及日志构建在日志管道的后台线程完成
+     */
+    private void submitLog(AICallLog.AICallLogBuilder logBuilder, AICallLog.CallStatus status, long duration,
+                           String prompt, String response) {
+        if (!capturePolicy.shouldCapture(annotation.value(), status, duration)) {
+            return;
+        }
+        if (!capturePolicy.isCaptureInputOutput()) {
+            logBuilder.input(null).output(null);
+        }
+        callLogPipeline.submit(() -> logBuilder
+                .prompt(capturePolicy.truncate(prompt))
+                .rawResponse(capturePolicy.truncate(response))
+                .build());
+    }
+
+    /**
+     * 记录token用量和成本
+     *
+     * @return 本次调用成本
+     */
+    private double recordUsage(OpenAICompatibleModel model, String sessionId, String userId, TokenUsage usage) {
+        if (usage == null) {
+            return 0.0;
+        }
+        double cost = usage.cost(model.getConfig());
+        usageLedger.record(annotation.value(), model.getName(), sessionId, userId, usage, cost);
+        return cost;
+    }
+
     /**
      * 构建带上下文的提示词
      *
@@ -314,7 +657,9 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
      */
     protected String buildPromptWithContext(INPUT input, String sessionId) {
         // 构建基础提示词
+        long buildStart = System.nanoTime();
         String basePrompt = buildPrompt(input);
+        LatencyBreakdown.current().add(LatencyBreakdown.Phase.PROMPT_BUILD, System.nanoTime() - buildStart);
 
         // 如果没有会话ID，直接返回基础提示词
         if (sessionId == null || !chatContextService.sessionExists(sessionId)) {
@@ -367,6 +712,8 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
                 return "用户";
             case ASSISTANT:
                 return "助手";
+            case SUMMARY:
+                return "历史摘要";
             default:
                 return "未知";
         }
@@ -389,6 +736,10 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
      * @return 解析后的结果
      */
     protected final OUTPUT parseResponse(String response, INPUT input) {
+        return parseResponse(response, input, true);
+    }
+
+    private OUTPUT parseResponse(String response, INPUT input, boolean allowRepair) {
         // 如果输出类型是String，直接返回响应内容
         if (outputType == String.class) {
             // 先尝试子类自定义解析
@@ -418,28 +769,55 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
             String processedResponse = preprocessResponse(response, input);
 
             // 2. 提取JSON内容
+            JsonParseEvent extractEvent = new JsonParseEvent();
+            extractEvent.begin();
+            long extractStart = System.nanoTime();
             String jsonContent = extractJsonFromResponse(processedResponse);
+            LatencyBreakdown.current().add(LatencyBreakdown.Phase.JSON_EXTRACT, System.nanoTime() - extractStart);
+            commitParseEvent(extractEvent, JsonParseEvent.EXTRACT, processedResponse, jsonContent, true);
 
             // 3. 预处理JSON内容（子类可自定义）
             String processedJson = preprocessJson(jsonContent, input);
 
             // 4. 解析为对象（子类可自定义解析逻辑）
-            return parseJsonToResult(processedJson, input, response);
+            JsonParseEvent parseEvent = new JsonParseEvent();
+            parseEvent.begin();
+            boolean parsed = false;
+            try {
+                OUTPUT result = parseJsonToResult(processedJson, input, response);
+                parsed = true;
+                return result;
+            } finally {
+                commitParseEvent(parseEvent, JsonParseEvent.PARSE, processedJson, null, parsed);
+            }
 
         } catch (JsonProcessingException e) {
             // 如果启用了自动JSON修复且需要JSON输出，尝试修复JSON
-            if (annotation.requireJsonOutput() && annotation.autoRepairJson()) {
+            if (allowRepair && annotation.requireJsonOutput() && annotation.autoRepairJson()) {
                 log.warn("JSON解析失败，尝试自动修复: {}", e.getMessage());
                 try {
                     // 通过操作注册中心获取JSON修复操作，避免循环依赖
                     BaseAIOperation<?, ?> jsonRepairOp = operationRegistry.getOperation(JSON_REPAIR_OP);
                     if (jsonRepairOp != null) {
-                        String jsonContent = extractJsonFromResponse(response);
-                        @SuppressWarnings("unchecked")
-                        BaseAIOperation<String, JSONObject> repairOperation = (BaseAIOperation<String, JSONObject>) jsonRepairOp;
-                        JSONObject repairedJson = repairOperation.execute(jsonContent);
-                        String repairedJsonStr = repairedJson.toJSONString();
-                        return parseJsonToResult(repairedJsonStr, input, response);
+                        callStatistics.recordRetry(annotation.value(), "json_repair");
+                        JsonParseEvent repairEvent = new JsonParseEvent();
+                        repairEvent.begin();
+                        long repairStart = System.nanoTime();
+                        String jsonContent = null;
+                        String repairedJsonStr = null;
+                        try (Span repairSpan = Tracing.startSpan("ai.json_repair")) {
+                            jsonContent = extractJsonFromResponse(response);
+                            repairSpan.setAttribute("json.chars", jsonContent.length());
+                            @SuppressWarnings("unchecked")
+                            BaseAIOperation<String, JSONObject> repairOperation = (BaseAIOperation<String, JSONObject>) jsonRepairOp;
+                            JSONObject repairedJson = repairOperation.execute(jsonContent);
+                            repairedJsonStr = repairedJson.toJSONString();
+                            return parseJsonToResult(repairedJsonStr, input, response);
+                        } finally {
+                            LatencyBreakdown.current().add(LatencyBreakdown.Phase.REPAIR, System.nanoTime() - repairStart);
+                            commitParseEvent(repairEvent, JsonParseEvent.REPAIR, jsonContent, repairedJsonStr,
+                                    repairedJsonStr != null);
+                        }
                     }
                 } catch (Exception repairException) {
                     log.error("JSON修复也失败: {}", repairException.getMessage(), repairException);
@@ -452,6 +830,33 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
         }
     }
 
+    /**
+     * 结束并按录制设置提交解析事件，字段只在事件需要提交时填充
+     */
+    private void commitParseEvent(JsonParseEvent event, String phase, String in, String out, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = annotation.value();
+            event.phase = phase;
+            event.inputChars = in != null ? in.length() : 0;
+            event.outputChars = out != null ? out.length() : 0;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * 校验解析后的输出（子类可重写）
+     * 返回非空的失败原因时本次调用按失败处理，级联模式下升级到下一级模型
+     *
+     * @param output 解析后的输出
+     * @param input  输入参数
+     * @return 失败原因，校验通过返回null
+     */
+    protected String validateOutput(OUTPUT output, INPUT input) {
+        return null;
+    }
+
     /**
      * 预处理AI响应（子类可重写）
      * 在提取JSON之前对原始响应进行处理
@@ -553,20 +958,33 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
     }
 
     /**
-     * 获取模型实例
+     * 调用方未指定模型时按路由策略从 {@code supportedModels} 中选择
      *
-     * @param modelName 模型名称，为null时使用默认模型
-     * @return 模型实例
+     * @return 路由决策，不路由时返回null
      */
-    private AIModel getModel(String modelName) {
-        if (modelName == null) {
-            // 使用注册中心配置的模型
-            modelName = operationRegistry.getModelForOperation(annotation.value());
+    private RoutingDecision route(String modelName) {
+        if (modelName != null) {
+            return null;
         }
+        RoutingDecision decision = modelRouter.route(annotation.value(), annotation.supportedModels());
+        if (decision != null) {
+            log.debug("模型路由: {} -> {} ({}: {})", annotation.value(), decision.getSelectedModel(),
+                    decision.getPolicy(), decision.getReason());
+        }
+        return decision;
+    }
 
+    /**
+     * 获取模型实例
+     *
+     * @param modelName 模型名称，为null时使用执行配置快照中的模型
+     * @param config    本次调用的执行配置快照
+     * @return 模型实例
+     */
+    private AIModel getModel(String modelName, ExecutionConfig config) {
         if (modelName == null) {
-            // 使用注解中的默认模型
-            modelName = annotation.defaultModel();
+            // 使用快照中的模型，与本次调用的其他参数来自同一版本
+            modelName = config.getModelName();
         }
 
         if (modelName == null || modelName.isEmpty()) {
@@ -590,14 +1008,40 @@ public abstract class BaseAIOperation<INPUT, OUTPUT> {
         return annotation != null ? annotation.value() : null;
     }
 
+    /**
+     * 检查执行配置快照中的模型是否已注册，与不传模型名执行时实际使用的模型一致
+     *
+     * @return 不传模型名执行时能否找到可用模型
+     */
+    public boolean hasAvailableModel() {
+        ExecutionConfig config = executionConfig;
+        String modelName = config != null ? config.getModelName() : null;
+        return modelName != null && !modelName.isEmpty() && modelRegistry.isModelRegistered(modelName);
+    }
+
     /**
      * 检查操作是否启用
      *
      * @return 是否启用
      */
     public boolean isEnabled() {
-        AIOperationRegistry.OperationConfig config = operationRegistry.getOperationConfig(annotation.value());
-        return config.isEnabled() && annotation.enabled();
+        return executionConfig.isEnabled();
+    }
+
+    /**
+     * 获取当前执行配置快照
+     */
+    public ExecutionConfig getExecutionConfig() {
+        return executionConfig;
+    }
+
+    /**
+     * 与注解合并生成新的执行配置快照并替换当前快照，由注册中心调用
+     */
+    ExecutionConfig applyOperationConfig(AIOperationRegistry.OperationConfig config, String mappedModel, long version) {
+        ExecutionConfig snapshot = ExecutionConfig.merge(annotation.value(), config, mappedModel, annotation, version);
+        this.executionConfig = snapshot;
+        return snapshot;
     }
 
     /**
@@ -0,0 +1,177 @@
+package com.suifeng.sfchain.core;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 描述: 紧凑文本
+ * 用于在堆内长期保存的大段提示词、模型回复和对话内容
+ * 超过阈值的文本以UTF-8编码后Deflate压缩保存，访问时再解压；短文本或压缩收益不明显的文本保持原字符串
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+public final class CompactText {
+
+    /** String对象头与数组头的大致开销 */
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int ARRAY_OVERHEAD_BYTES = 16;
+
+    private static volatile boolean enabled = true;
+    private static volatile int thresholdBytes = 1024;
+
+    /** 未压缩时的原文 */
+    private final String plain;
+
+    /** 压缩后的UTF-8字节 */
+    private final byte[] deflated;
+
+    /** 原文UTF-8字节数，用于解压时预分配缓冲区 */
+    private final int utf8Length;
+
+    /** 原文按String保存时的堆内字节数（估算） */
+    private final int originalBytes;
+
+    private CompactText(String plain, byte[] deflated, int utf8Length, int originalBytes) {
+        this.plain = plain;
+        this.deflated = deflated;
+        this.utf8Length = utf8Length;
+        this.originalBytes = originalBytes;
+    }
+
+    /**
+     * 更新全局压缩配置
+     *
+     * @param enable    是否启用压缩
+     * @param threshold 压缩阈值（原文String堆内字节数）
+     */
+    public static void configure(boolean enable, int threshold) {
+        enabled = enable;
+        thresholdBytes = Math.max(0, threshold);
+    }
+
+    /**
+     * 构建紧凑文本
+     *
+     * @param text 原文
+     * @return 紧凑文本，原文为null时返回null
+     */
+    public static CompactText of(String text) {
+        if (text == null) {
+            return null;
+        }
+        int stringBytes = stringBytes(text);
+        if (!enabled || stringBytes < thresholdBytes) {
+            return new CompactText(text, null, -1, stringBytes);
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = deflate(utf8);
+        // 压缩后没有明显收益时保留原字符串，省去每次访问的解压开销
+        if (compressed.length + ARRAY_OVERHEAD_BYTES >= stringBytes * 3 / 4) {
+            return new CompactText(text, null, -1, stringBytes);
+        }
+        return new CompactText(null, compressed, utf8.length, stringBytes);
+    }
+
+    /**
+     * 获取原文（压缩时每次访问都会解压，不缓存结果）
+     */
+    public String text() {
+        if (plain != null) {
+            return plain;
+        }
+        return new String(inflate(deflated, utf8Length), StandardCharsets.UTF_8);
+    }
+
+    public boolean isCompressed() {
+        return deflated != null;
+    }
+
+    /**
+     * 原文按String保存时的堆内字节数（估算）
+     */
+    public int getOriginalBytes() {
+        return originalBytes;
+    }
+
+    /**
+     * 当前实际占用的堆内字节数（估算）
+     */
+    public int getRetainedBytes() {
+        return deflated != null ? deflated.length + ARRAY_OVERHEAD_BYTES : originalBytes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactText other)) {
+            return false;
+        }
+        if (deflated != null && other.deflated != null) {
+            return Arrays.equals(deflated, other.deflated);
+        }
+        return text().equals(other.text());
+    }
+
+    @Override
+    public int hashCode() {
+        return text().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text();
+    }
+
+    /**
+     * 估算String的堆内字节数，Latin1字符串每字符1字节，否则2字节
+     */
+    private static int stringBytes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0xFF) {
+                return STRING_OVERHEAD_BYTES + text.length() * 2;
+            }
+        }
+        return STRING_OVERHEAD_BYTES + text.length();
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 2));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input, int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            byte[] result = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                offset += inflater.inflate(result, offset, length - offset);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("紧凑文本解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
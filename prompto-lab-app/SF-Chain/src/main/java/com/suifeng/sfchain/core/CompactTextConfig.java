@@ -0,0 +1,34 @@
+package com.suifeng.sfchain.core;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 描述: 紧凑文本配置
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.compact-text")
+public class CompactTextConfig {
+
+    /**
+     * 是否启用堆内文本压缩
+     */
+    private boolean enabled = true;
+
+    /**
+     * 压缩阈值（按String堆内字节数计），小于该值的文本不压缩
+     */
+    private int thresholdBytes = 1024;
+
+    @PostConstruct
+    public void apply() {
+        CompactText.configure(enabled, thresholdBytes);
+    }
+}
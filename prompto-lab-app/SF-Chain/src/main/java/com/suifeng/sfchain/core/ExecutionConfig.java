@@ -0,0 +1,66 @@
+package com.suifeng.sfchain.core;
+
+import com.suifeng.sfchain.annotation.AIOp;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 描述: 操作执行配置快照
+ * 由注册中心的操作配置和 {@link AIOp} 注解预先合并而成，不可变；配置变更时生成新版本整体替换，
+ * 执行线程每次调用只读取一次快照，同一次调用内看到的参数始终一致
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Value
+@Builder
+public class ExecutionConfig {
+
+    String operationType;
+
+    /** 快照版本，每次发布递增 */
+    long version;
+
+    /** 未指定模型时使用的模型：注册中心映射优先，其次注解默认模型，都未配置时为null */
+    String modelName;
+
+    /** 注册中心配置和注解均启用时为true */
+    boolean enabled;
+
+    /** 为null时使用模型默认值 */
+    Integer maxTokens;
+
+    /** 为null时使用模型默认值 */
+    Double temperature;
+
+    boolean jsonOutput;
+
+    boolean thinking;
+
+    int timeoutSeconds;
+
+    int retryCount;
+
+    /**
+     * 合并注册中心配置、模型映射和注解，注册中心配置优先
+     */
+    static ExecutionConfig merge(String operationType, AIOperationRegistry.OperationConfig config, String mappedModel,
+                                 AIOp annotation, long version) {
+        String modelName = mappedModel != null && !mappedModel.isEmpty() ? mappedModel
+                : (annotation.defaultModel().isEmpty() ? null : annotation.defaultModel());
+        return ExecutionConfig.builder()
+                .operationType(operationType)
+                .version(version)
+                .modelName(modelName)
+                .enabled(config.isEnabled() && annotation.enabled())
+                .maxTokens(config.getMaxTokens() > 0 ? Integer.valueOf(config.getMaxTokens())
+                        : (annotation.defaultMaxTokens() > 0 ? annotation.defaultMaxTokens() : null))
+                .temperature(config.getTemperature() >= 0 ? Double.valueOf(config.getTemperature())
+                        : (annotation.defaultTemperature() >= 0 ? annotation.defaultTemperature() : null))
+                .jsonOutput(config.isRequireJsonOutput() || annotation.requireJsonOutput())
+                .thinking(config.isSupportThinking() || annotation.supportThinking())
+                .timeoutSeconds(config.getTimeoutSeconds())
+                .retryCount(config.getRetryCount())
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.suifeng.sfchain.core;
+
+import lombok.Data;
+
+/**
+ * 描述: 紧凑文本内存占用统计
+ * 对比原文按String保存与当前实际保存的堆内字节数
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Data
+public class MemoryFootprint {
+
+    /** 文本数量 */
+    private long texts;
+
+    /** 已压缩的文本数量 */
+    private long compressedTexts;
+
+    /** 原文按String保存的字节数 */
+    private long originalBytes;
+
+    /** 当前实际占用的字节数 */
+    private long retainedBytes;
+
+    public void add(CompactText text) {
+        if (text == null) {
+            return;
+        }
+        texts++;
+        if (text.isCompressed()) {
+            compressedTexts++;
+        }
+        originalBytes += text.getOriginalBytes();
+        retainedBytes += text.getRetainedBytes();
+    }
+
+    public long getSavedBytes() {
+        return originalBytes - retainedBytes;
+    }
+
+    public double getCompressionRatio() {
+        return originalBytes > 0 ? (double) retainedBytes / originalBytes : 1.0;
+    }
+}
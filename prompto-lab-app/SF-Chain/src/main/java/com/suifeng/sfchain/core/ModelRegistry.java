@@ -1,5 +1,6 @@
 package com.suifeng.sfchain.core;
 
+import com.suifeng.sfchain.core.health.ModelHealthProber;
 import com.suifeng.sfchain.core.openai.OpenAIModelFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +20,7 @@ import java.util.Set;
 public class ModelRegistry {
     
     private final OpenAIModelFactory modelFactory;
+    private final ModelHealthProber healthProber;
     
     /**
      * 获取模型实例
@@ -52,7 +54,7 @@ public class ModelRegistry {
     }
     
     /**
-     * 获取可用的模型列表
+     * 获取可用的模型列表，排除健康探测判定为不可用的模型
      * @return 可用模型列表
      */
     public List<String> getAvailableModels() {
@@ -60,7 +62,7 @@ public class ModelRegistry {
                 .filter(modelName -> {
                     try {
                         AIModel model = getModel(modelName);
-                        return model.isAvailable();
+                        return model.isAvailable() && healthProber.isAvailable(modelName);
                     } catch (Exception e) {
                         log.warn("检查模型可用性失败: {} - {}", modelName, e.getMessage());
                         return false;
@@ -0,0 +1,39 @@
+package com.suifeng.sfchain.core;
+
+/**
+ * 描述: Token数量估算工具
+ * 在拿不到模型返回的usage时，用字符数粗略估算token数
+ * 中日韩字符按1个token计，其余字符按4个字符1个token计
+ *
+ * @author suifeng
+ * 日期: 2025/8/20
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+        throw new UnsupportedOperationException("工具类不允许实例化");
+    }
+
+    /**
+     * 估算文本的token数
+     *
+     * @param text 文本
+     * @return 估算的token数
+     */
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int cjkChars = 0;
+        int otherChars = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isIdeographic(c) || (c >= 0x3000 && c <= 0x303F) || (c >= 0xFF00 && c <= 0xFFEF)) {
+                cjkChars++;
+            } else {
+                otherChars++;
+            }
+        }
+        return cjkChars + (otherChars + 3) / 4;
+    }
+}
@@ -0,0 +1,33 @@
+package com.suifeng.sfchain.core.cascade;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 描述: 模型级联配置
+ * 例如 sf-chain.cascade.operations.QUESTION_GENERATION_OP=fast-model,strong-model，
+ * 先用快速模型执行并解析校验，失败后依次升级到后面的模型
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.cascade")
+public class CascadeConfig {
+
+    /**
+     * 按操作配置的级联模型，按从便宜到强的顺序排列，覆盖 {@code @AIOp.cascadeModels}
+     */
+    private Map<String, List<String>> operations = new HashMap<>();
+
+    /**
+     * 非最后一级是否也尝试JSON修复；默认不修复，直接升级到下一级模型
+     */
+    private boolean repairBeforeEscalate = false;
+}
@@ -0,0 +1,116 @@
+package com.suifeng.sfchain.core.cascade;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 描述: 模型级联统计
+ * 记录每个操作的级联调用数、升级次数、各级模型的成功次数和耗时，
+ * 以直接使用最后一级模型的平均耗时为基准估算级联节省的耗时
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Component
+public class CascadeStatistics {
+
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次级联调用
+     *
+     * @param models         级联模型
+     * @param servedTier     最终成功的层级，全部失败时为-1
+     * @param tierMillis     各层级尝试的耗时，未尝试的层级不在其中
+     * @param durationMillis 级联总耗时
+     */
+    public void record(String operationType, List<String> models, int servedTier, long[] tierMillis,
+                       long durationMillis) {
+        OperationStats target = stats.computeIfAbsent(operationType, k -> new OperationStats());
+        target.calls.increment();
+        target.durationSum.add(durationMillis);
+        if (servedTier != 0) {
+            target.escalations.increment();
+        }
+        if (servedTier < 0) {
+            target.failures.increment();
+            return;
+        }
+        target.servedBy.computeIfAbsent(models.get(servedTier), k -> new LongAdder()).increment();
+        // 最后一级的成功耗时作为不使用级联时的基准
+        if (servedTier == models.size() - 1) {
+            target.finalTierCalls.increment();
+            target.finalTierDurationSum.add(tierMillis[servedTier]);
+        }
+    }
+
+    public List<Statistics> getStatistics() {
+        return stats.entrySet().stream()
+                .map(entry -> entry.getValue().toStatistics(entry.getKey()))
+                .sorted(Comparator.comparing(Statistics::getOperationType))
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private static final class OperationStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder escalations = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder durationSum = new LongAdder();
+        final LongAdder finalTierCalls = new LongAdder();
+        final LongAdder finalTierDurationSum = new LongAdder();
+        final Map<String, LongAdder> servedBy = new ConcurrentHashMap<>();
+
+        Statistics toStatistics(String operationType) {
+            long total = calls.sum();
+            long finalCalls = finalTierCalls.sum();
+            double average = total > 0 ? (double) durationSum.sum() / total : 0.0;
+            Double baseline = finalCalls > 0 ? (double) finalTierDurationSum.sum() / finalCalls : null;
+            Map<String, Long> served = new LinkedHashMap<>();
+            servedBy.forEach((model, count) -> served.put(model, count.sum()));
+            return Statistics.builder()
+                    .operationType(operationType)
+                    .calls(total)
+                    .escalations(escalations.sum())
+                    .failures(failures.sum())
+                    .escalationRate(total > 0 ? (double) escalations.sum() / total : 0.0)
+                    .servedBy(served)
+                    .averageDurationMillis(average)
+                    .finalTierAverageMillis(baseline)
+                    .estimatedSavedMillisPerCall(baseline != null ? baseline - average : null)
+                    .build();
+        }
+    }
+
+    @Data
+    @Builder
+    public static class Statistics {
+        private String operationType;
+        private long calls;
+        /** 第一级未能完成、升级到后续模型的调用数 */
+        private long escalations;
+        /** 所有层级均失败的调用数 */
+        private long failures;
+        private double escalationRate;
+        /** 各模型完成的调用数 */
+        private Map<String, Long> servedBy;
+        /** 级联平均耗时，包含升级前失败尝试的耗时 */
+        private double averageDurationMillis;
+        /** 最后一级模型成功时的平均耗时，作为不使用级联的基准，无样本时为空 */
+        private Double finalTierAverageMillis;
+        /** 每次调用估算节省的耗时 */
+        private Double estimatedSavedMillisPerCall;
+    }
+}
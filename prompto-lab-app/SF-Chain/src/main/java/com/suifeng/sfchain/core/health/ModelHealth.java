@@ -0,0 +1,65 @@
+package com.suifeng.sfchain.core.health;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 描述: 模型健康状态快照
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Builder(toBuilder = true)
+public class ModelHealth {
+
+    public enum Status {
+        /** 尚未探测 */
+        UNKNOWN,
+        /** 可用 */
+        UP,
+        /** 连续失败达到阈值 */
+        DOWN
+    }
+
+    private String modelName;
+
+    private Status status;
+
+    /** 成功探测延迟的指数加权移动平均 */
+    private Double ewmaLatencyMillis;
+
+    /** 最近一次探测延迟 */
+    private Long lastLatencyMillis;
+
+    private LocalDateTime lastCheckedAt;
+
+    private LocalDateTime lastSuccessAt;
+
+    /** 最近一次探测是否成功，未达到失败阈值时状态不变，需以此判断单次结果 */
+    private boolean lastCheckSucceeded;
+
+    private int consecutiveFailures;
+
+    private String lastError;
+
+    private long checks;
+
+    private long failures;
+
+    public static ModelHealth unknown(String modelName) {
+        return ModelHealth.builder()
+                .modelName(modelName)
+                .status(Status.UNKNOWN)
+                .build();
+    }
+
+    /**
+     * 未探测或可用时视为可用
+     */
+    public boolean isAvailable() {
+        return status != Status.DOWN;
+    }
+}
@@ -0,0 +1,62 @@
+package com.suifeng.sfchain.core.health;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 描述: 模型健康探测配置
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.health")
+public class ModelHealthConfig {
+
+    /**
+     * 是否启用后台定时探测，关闭后只在管理接口请求时按需探测
+     */
+    private boolean enabled = true;
+
+    /**
+     * 探测间隔（秒）
+     */
+    private int intervalSeconds = 120;
+
+    /**
+     * 启动后首次探测的延迟（秒）
+     */
+    private int initialDelaySeconds = 10;
+
+    /**
+     * 单次探测超时（毫秒），超时记为失败
+     */
+    private long timeoutMillis = 15000;
+
+    /**
+     * 并行探测的线程数
+     */
+    private int parallelism = 4;
+
+    /**
+     * 延迟EWMA的平滑系数，越大越偏向最近一次探测
+     */
+    private double ewmaAlpha = 0.3;
+
+    /**
+     * 连续失败达到该次数后判定为不可用
+     */
+    private int failureThreshold = 2;
+
+    /**
+     * 缓存结果的有效期（秒），管理接口读取超过该时间的结果时重新探测
+     */
+    private int maxAgeSeconds = 300;
+
+    /**
+     * 探测使用的提示词，配合1个输出token使请求尽可能便宜
+     */
+    private String probePrompt = "ping";
+}
@@ -0,0 +1,252 @@
+package com.suifeng.sfchain.core.health;
+
+import com.suifeng.sfchain.core.AIModel;
+import com.suifeng.sfchain.core.openai.OpenAICompatibleModel;
+import com.suifeng.sfchain.core.openai.OpenAIModelConfig;
+import com.suifeng.sfchain.core.openai.OpenAIModelFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 描述: 模型健康探测
+ * 后台定时以1个输出token的最小请求并行探测所有已注册模型，维护延迟EWMA和可用状态；
+ * 管理接口和可用模型列表读取缓存结果，只有结果过期或显式刷新时才发起探测。
+ * 探测直接调用模型客户端，不经过操作层，因此不产生调用日志和token台账记录
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ModelHealthProber {
+
+    private final ModelHealthConfig config;
+    private final OpenAIModelFactory modelFactory;
+
+    private final Map<String, ModelHealth> health = new ConcurrentHashMap<>();
+
+    private ExecutorService probeExecutor;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        probeExecutor = Executors.newFixedThreadPool(Math.max(1, config.getParallelism()),
+                daemonThreads("sf-chain-health-probe"));
+        if (config.isEnabled()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("sf-chain-health-scheduler"));
+            scheduler.scheduleWithFixedDelay(this::probeRegistered, config.getInitialDelaySeconds(),
+                    Math.max(1, config.getIntervalSeconds()), TimeUnit.SECONDS);
+            log.info("模型健康探测已启动，间隔: {}秒，并行度: {}", config.getIntervalSeconds(), config.getParallelism());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        probeExecutor.shutdownNow();
+    }
+
+    /**
+     * 读取缓存的健康状态，未探测过时返回 UNKNOWN
+     */
+    public ModelHealth getHealth(String modelName) {
+        return health.getOrDefault(modelName, ModelHealth.unknown(modelName));
+    }
+
+    /**
+     * 读取所有已注册模型的缓存健康状态
+     */
+    public Map<String, ModelHealth> getAllHealth() {
+        Map<String, ModelHealth> result = new TreeMap<>();
+        for (String modelName : modelFactory.getRegisteredModelNames()) {
+            result.put(modelName, getHealth(modelName));
+        }
+        return result;
+    }
+
+    /**
+     * 模型是否可用，未探测过的模型视为可用
+     */
+    public boolean isAvailable(String modelName) {
+        return getHealth(modelName).isAvailable();
+    }
+
+    /**
+     * 读取健康状态，缓存结果不存在或已过期时同步探测
+     */
+    public ModelHealth getFreshHealth(String modelName) {
+        ModelHealth cached = health.get(modelName);
+        if (cached != null && cached.getLastCheckedAt() != null
+                && cached.getLastCheckedAt().isAfter(LocalDateTime.now().minusSeconds(config.getMaxAgeSeconds()))) {
+            return cached;
+        }
+        return probe(modelName);
+    }
+
+    /**
+     * 同步探测一个已注册模型
+     */
+    public ModelHealth probe(String modelName) {
+        return await(modelName, probeAsync(modelName));
+    }
+
+    /**
+     * 同步探测一份尚未注册的模型配置，结果按模型名缓存
+     */
+    public ModelHealth probe(OpenAIModelConfig modelConfig) {
+        String modelName = modelConfig.getModelName();
+        return await(modelName, CompletableFuture.supplyAsync(
+                () -> runProbe(modelName, new OpenAICompatibleModel(modelConfig)), probeExecutor));
+    }
+
+    /**
+     * 并行探测多个模型，总等待时间不超过单次探测超时
+     */
+    public Map<String, ModelHealth> probe(Collection<String> modelNames) {
+        Map<String, CompletableFuture<ModelHealth>> futures = new LinkedHashMap<>();
+        for (String modelName : modelNames) {
+            futures.put(modelName, probeAsync(modelName));
+        }
+        Map<String, ModelHealth> result = new TreeMap<>();
+        futures.forEach((modelName, future) -> result.put(modelName, await(modelName, future)));
+        return result;
+    }
+
+    /**
+     * 并行探测所有已注册模型
+     */
+    public Map<String, ModelHealth> probeAll() {
+        return probe(modelFactory.getRegisteredModelNames());
+    }
+
+    /**
+     * 移除模型的缓存状态，模型删除时调用
+     */
+    public void forget(String modelName) {
+        health.remove(modelName);
+    }
+
+    private void probeRegistered() {
+        try {
+            health.keySet().retainAll(modelFactory.getRegisteredModelNames());
+            Map<String, ModelHealth> result = probeAll();
+            long down = result.values().stream().filter(h -> !h.isAvailable()).count();
+            if (down > 0) {
+                log.warn("模型健康探测完成，不可用模型数: {}/{}", down, result.size());
+            } else {
+                log.debug("模型健康探测完成，模型数: {}", result.size());
+            }
+        } catch (Exception e) {
+            log.warn("模型健康探测失败: {}", e.getMessage());
+        }
+    }
+
+    private CompletableFuture<ModelHealth> probeAsync(String modelName) {
+        return CompletableFuture.supplyAsync(() -> {
+            AIModel model;
+            try {
+                model = modelFactory.createModel(modelName);
+            } catch (Exception e) {
+                return record(modelName, false, 0, "获取模型失败: " + e.getMessage());
+            }
+            return runProbe(modelName, model);
+        }, probeExecutor);
+    }
+
+    /**
+     * 发送最小请求，请求成功即视为可用，不校验回答内容
+     */
+    private ModelHealth runProbe(String modelName, AIModel model) {
+        if (!model.isAvailable()) {
+            return record(modelName, false, 0, "模型未启用或配置无效");
+        }
+        long start = System.nanoTime();
+        try {
+            if (model instanceof OpenAICompatibleModel openAIModel) {
+                openAIModel.chatCompletion(config.getProbePrompt(), 1, 0.0, null);
+            }
+            return record(modelName, true, elapsedMillis(start), null);
+        } catch (Exception e) {
+            return record(modelName, false, elapsedMillis(start), e.getMessage());
+        }
+    }
+
+    private ModelHealth await(String modelName, CompletableFuture<ModelHealth> future) {
+        try {
+            return future.get(config.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return record(modelName, false, config.getTimeoutMillis(), "探测超时");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return getHealth(modelName);
+        } catch (Exception e) {
+            return record(modelName, false, 0, e.getMessage());
+        }
+    }
+
+    private ModelHealth record(String modelName, boolean success, long latencyMillis, String error) {
+        return health.compute(modelName, (key, previous) -> {
+            ModelHealth base = previous != null ? previous : ModelHealth.unknown(key);
+            LocalDateTime now = LocalDateTime.now();
+            ModelHealth.ModelHealthBuilder next = base.toBuilder()
+                    .lastCheckedAt(now)
+                    .lastLatencyMillis(latencyMillis)
+                    .lastCheckSucceeded(success)
+                    .checks(base.getChecks() + 1);
+            if (success) {
+                Double ewma = base.getEwmaLatencyMillis();
+                double alpha = config.getEwmaAlpha();
+                return next.status(ModelHealth.Status.UP)
+                        .ewmaLatencyMillis(ewma == null ? latencyMillis : alpha * latencyMillis + (1 - alpha) * ewma)
+                        .lastSuccessAt(now)
+                        .consecutiveFailures(0)
+                        .lastError(null)
+                        .build();
+            }
+            int consecutiveFailures = base.getConsecutiveFailures() + 1;
+            if (consecutiveFailures >= config.getFailureThreshold() && base.getStatus() != ModelHealth.Status.DOWN) {
+                log.warn("模型标记为不可用: {}，连续失败: {}，原因: {}", key, consecutiveFailures, error);
+            }
+            return next.status(consecutiveFailures >= config.getFailureThreshold()
+                            ? ModelHealth.Status.DOWN : base.getStatus())
+                    .consecutiveFailures(consecutiveFailures)
+                    .failures(base.getFailures() + 1)
+                    .lastError(error)
+                    .build();
+        });
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.suifeng.sfchain.core.hedging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 描述: 对冲请求配置
+ * 只对 operations 中列出的操作生效；请求在触发延迟内未收到首字节时发出第二个请求，先完成者胜出
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.hedging")
+public class HedgingConfig {
+
+    /**
+     * 启用对冲的操作类型
+     */
+    private Set<String> operations = new HashSet<>();
+
+    /**
+     * 触发对冲的首字节延迟分位数，取该模型近期首字节耗时的此分位
+     */
+    private double triggerPercentile = 0.95;
+
+    /**
+     * 触发延迟下限（毫秒），避免样本偏小时过早对冲
+     */
+    private long minDelayMillis = 200;
+
+    /**
+     * 样本不足时使用的触发延迟（毫秒）
+     */
+    private long defaultDelayMillis = 3000;
+
+    /**
+     * 计算分位数所需的最少样本数
+     */
+    private int minSamples = 20;
+
+    /**
+     * 对冲请求占总请求的比例上限
+     */
+    private double maxHedgeRatio = 0.05;
+
+    /**
+     * 首字节延迟样本和预算计数的统计周期（秒），每个周期结束时滚动，分位数取当前和上一周期
+     */
+    private int windowSeconds = 300;
+
+    /**
+     * 对冲请求使用的备用模型，key为主模型；未配置时向同一模型再发一次
+     */
+    private Map<String, String> alternateModels = new HashMap<>();
+}
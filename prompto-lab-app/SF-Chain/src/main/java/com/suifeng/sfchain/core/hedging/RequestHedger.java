@@ -0,0 +1,318 @@
+package com.suifeng.sfchain.core.hedging;
+
+import com.suifeng.sfchain.core.AIModel;
+import com.suifeng.sfchain.core.ModelRegistry;
+import com.suifeng.sfchain.core.health.ModelHealthProber;
+import com.suifeng.sfchain.core.metrics.CallStatisticsRegistry;
+import com.suifeng.sfchain.core.metrics.LatencyBreakdown;
+import com.suifeng.sfchain.core.metrics.LatencyHistogram;
+import com.suifeng.sfchain.core.openai.OpenAICompatibleModel;
+import com.suifeng.sfchain.core.openai.OpenAIResponse;
+import com.suifeng.sfchain.core.openai.RequestHandle;
+import com.suifeng.sfchain.core.tracing.Tracing;
+import com.suifeng.sfchain.core.usage.UsageContext;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 描述: 对冲请求
+ * 主请求在触发延迟（该模型近期首字节耗时的分位数）内未收到首字节时，向同一模型或备用模型再发一个请求，
+ * 先成功完成的请求胜出，另一个请求被取消；对冲数量受预算比例限制。
+ * 只用于同步调用，流式调用的首token已由调用方直接消费
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestHedger {
+
+    private final HedgingConfig config;
+    private final ModelRegistry modelRegistry;
+    private final ModelHealthProber healthProber;
+    private final CallStatisticsRegistry callStatistics;
+
+    /** 各模型的首字节耗时，按统计周期滚动 */
+    private final Map<String, AtomicReference<Period>> firstByte = new ConcurrentHashMap<>();
+
+    /** 全局请求数和对冲数，按统计周期滚动 */
+    private final AtomicReference<Period> budget = new AtomicReference<>(new Period(0, null));
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+
+    private ExecutorService executor;
+
+    /**
+     * 发送一次请求
+     */
+    @FunctionalInterface
+    public interface HedgedRequest {
+        OpenAIResponse send(OpenAICompatibleModel model, RequestHandle handle);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sf-chain-hedge-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public boolean isEnabled(String operationType) {
+        return config.getOperations().contains(operationType);
+    }
+
+    /**
+     * 以对冲方式执行请求
+     *
+     * @return 胜出请求的响应和所用模型
+     */
+    public Outcome execute(String operationType, OpenAICompatibleModel primary, HedgedRequest request) {
+        return execute(operationType, primary, request, null);
+    }
+
+    /**
+     * 以对冲方式执行请求
+     *
+     * @param loserListener 落败请求也成功返回时在其执行线程上回调，用于记录已计费的用量，可为空；
+     *                      被取消而未返回的请求没有用量可记录
+     * @return 胜出请求的响应和所用模型
+     */
+    public Outcome execute(String operationType, OpenAICompatibleModel primary, HedgedRequest request,
+                           Consumer<Outcome> loserListener) {
+        requests.increment();
+        current(budget).requests.increment();
+
+        long delay = hedgeDelay(primary.getName());
+        RequestHandle primaryHandle = new RequestHandle();
+        CompletableFuture<OpenAIResponse> primaryFuture = submit(primary, primaryHandle, request);
+        boolean firstByteArrived;
+        try {
+            firstByteArrived = primaryHandle.awaitFirstByte(delay);
+        } catch (InterruptedException e) {
+            primaryHandle.cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("等待模型响应时被中断");
+        }
+        if (firstByteArrived || primaryFuture.isDone() || !tryAcquireHedge()) {
+            return new Outcome(await(primaryFuture), primary, false);
+        }
+
+        OpenAICompatibleModel alternate = alternateFor(primary);
+        hedges.increment();
+        callStatistics.recordRetry(operationType, "hedge");
+        log.debug("触发对冲请求: {} {}ms 未收到首字节，对冲模型: {}", operationType, delay, alternate.getName());
+
+        RequestHandle hedgeHandle = new RequestHandle();
+        CompletableFuture<OpenAIResponse> hedgeFuture = submit(alternate, hedgeHandle, request);
+        CompletableFuture<Outcome> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primaryFuture.whenComplete((response, error) ->
+                settle(winner, failures, response, error, new Outcome(response, primary, false), hedgeHandle,
+                        loserListener));
+        hedgeFuture.whenComplete((response, error) ->
+                settle(winner, failures, response, error, new Outcome(response, alternate, true), primaryHandle,
+                        loserListener));
+        Outcome outcome = await(winner);
+        if (outcome.isHedged()) {
+            hedgeWins.increment();
+        }
+        return outcome;
+    }
+
+    public HedgingStatistics getStatistics() {
+        long total = requests.sum();
+        return HedgingStatistics.builder()
+                .requests(total)
+                .hedges(hedges.sum())
+                .hedgeWins(hedgeWins.sum())
+                .budgetDenied(budgetDenied.sum())
+                .hedgeRate(total > 0 ? (double) hedges.sum() / total : 0.0)
+                .build();
+    }
+
+    /**
+     * 当前触发延迟：近期首字节耗时的分位数，样本不足时使用默认值
+     */
+    public long hedgeDelay(String modelName) {
+        AtomicReference<Period> periods = firstByte.get(modelName);
+        if (periods == null) {
+            return config.getDefaultDelayMillis();
+        }
+        Period period = current(periods);
+        LatencyHistogram.Snapshot snapshot = period.firstByte.snapshot();
+        if (period.previous != null) {
+            snapshot = snapshot.merge(period.previous.firstByte.snapshot());
+        }
+        if (snapshot.getCount() < config.getMinSamples()) {
+            return config.getDefaultDelayMillis();
+        }
+        return Math.max(config.getMinDelayMillis(), snapshot.percentile(config.getTriggerPercentile()));
+    }
+
+    private void settle(CompletableFuture<Outcome> winner, AtomicInteger failures, OpenAIResponse response,
+                        Throwable error, Outcome outcome, RequestHandle other, Consumer<Outcome> loserListener) {
+        if (error == null) {
+            if (winner.complete(outcome)) {
+                other.cancel();
+            } else if (loserListener != null) {
+                try {
+                    loserListener.accept(outcome);
+                } catch (Exception e) {
+                    log.warn("处理对冲落败请求失败: {} - {}", outcome.getModel().getName(), e.getMessage());
+                }
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            winner.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * 在对冲线程上执行请求，链路、分阶段耗时和调用用户随任务传递；
+     * 两个请求的网络阶段都累加到调用方的分阶段耗时中
+     */
+    private CompletableFuture<OpenAIResponse> submit(OpenAICompatibleModel model, RequestHandle handle,
+                                                     HedgedRequest request) {
+        return CompletableFuture.supplyAsync(UsageContext.wrap(LatencyBreakdown.wrap(Tracing.wrap(() -> {
+            try {
+                return request.send(model, handle);
+            } finally {
+                long millis = handle.getFirstByteMillis();
+                if (millis >= 0 && !handle.isCancelled()) {
+                    current(firstByte.computeIfAbsent(model.getName(),
+                            k -> new AtomicReference<>(new Period(0, null)))).firstByte.record(millis);
+                }
+            }
+        }))), executor);
+    }
+
+    /**
+     * 对冲预算：本周期和上一周期的对冲数不超过请求数的配置比例
+     */
+    private boolean tryAcquireHedge() {
+        Period period = current(budget);
+        long requestCount = period.requests.sum() + (period.previous != null ? period.previous.requests.sum() : 0);
+        long hedgeCount = period.hedges.sum() + (period.previous != null ? period.previous.hedges.sum() : 0);
+        if (hedgeCount + 1 > config.getMaxHedgeRatio() * requestCount) {
+            budgetDenied.increment();
+            return false;
+        }
+        period.hedges.increment();
+        return true;
+    }
+
+    private OpenAICompatibleModel alternateFor(OpenAICompatibleModel primary) {
+        String alternateName = config.getAlternateModels().get(primary.getName());
+        if (alternateName == null || !healthProber.isAvailable(alternateName)) {
+            return primary;
+        }
+        try {
+            AIModel alternate = modelRegistry.getModel(alternateName);
+            if (alternate instanceof OpenAICompatibleModel openAIModel && alternate.isAvailable()) {
+                return openAIModel;
+            }
+        } catch (Exception e) {
+            log.warn("获取对冲备用模型失败: {} - {}", alternateName, e.getMessage());
+        }
+        return primary;
+    }
+
+    /**
+     * 获取当前周期，周期过期时用CAS滚动，上一周期保留用于合并
+     */
+    private Period current(AtomicReference<Period> periods) {
+        long epoch = System.currentTimeMillis() / (Math.max(1, config.getWindowSeconds()) * 1000L);
+        while (true) {
+            Period period = periods.get();
+            if (period.epoch >= epoch) {
+                return period;
+            }
+            Period next = new Period(epoch, period.epoch == epoch - 1 ? period : null);
+            if (periods.compareAndSet(period, next)) {
+                return next;
+            }
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Period {
+        final long epoch;
+        /** 上一周期，只保留一层 */
+        volatile Period previous;
+        final LatencyHistogram firstByte = new LatencyHistogram();
+        final LongAdder requests = new LongAdder();
+        final LongAdder hedges = new LongAdder();
+
+        Period(long epoch, Period previous) {
+            this.epoch = epoch;
+            this.previous = previous;
+            // 断开更早周期的引用，避免链式保留
+            if (previous != null) {
+                previous.previous = null;
+            }
+        }
+    }
+
+    /**
+     * 对冲执行结果
+     */
+    @Value
+    public static class Outcome {
+        OpenAIResponse response;
+        /** 胜出请求使用的模型 */
+        OpenAICompatibleModel model;
+        /** 是否由对冲请求胜出 */
+        boolean hedged;
+    }
+
+    @Data
+    @Builder
+    public static class HedgingStatistics {
+        private long requests;
+        private long hedges;
+        /** 对冲请求先完成的次数 */
+        private long hedgeWins;
+        /** 因预算不足未发出的对冲数 */
+        private long budgetDenied;
+        private double hedgeRate;
+    }
+}
@@ -0,0 +1,42 @@
+package com.suifeng.sfchain.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 描述: 响应解析JFR事件
+ * 覆盖 {@code BaseAIOperation.parseResponse} 中的JSON提取、解析和修复三个阶段
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Name("sfchain.JsonParse")
+@Label("JSON Parse")
+@Description("JSON extraction, parsing or repair of a model response")
+@Category({"SF-Chain", "Parsing"})
+@StackTrace(false)
+public class JsonParseEvent extends Event {
+
+    public static final String EXTRACT = "extract";
+    public static final String PARSE = "parse";
+    public static final String REPAIR = "repair";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Input Characters")
+    public int inputChars;
+
+    @Label("Output Characters")
+    public int outputChars;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,49 @@
+package com.suifeng.sfchain.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 描述: 模型请求JFR事件
+ * 事件开始于请求发出，提交于响应读取完成或失败，持续时间即一次HTTP往返
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Name("sfchain.ModelRequest")
+@Label("Model Request")
+@Description("A chat completion request sent to an upstream model")
+@Category({"SF-Chain", "AI"})
+@StackTrace(false)
+public class ModelRequestEvent extends Event {
+
+    @Label("Model")
+    public String model;
+
+    @Label("Stream")
+    public boolean stream;
+
+    @Label("Request Size")
+    @DataAmount
+    public long requestBytes;
+
+    @Label("Response Characters")
+    public long responseChars;
+
+    @Label("Chunks")
+    public int chunks;
+
+    @Label("HTTP Status")
+    public int httpStatus;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Error")
+    public String error;
+}
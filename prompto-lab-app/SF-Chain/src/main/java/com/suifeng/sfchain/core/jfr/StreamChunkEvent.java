@@ -0,0 +1,32 @@
+package com.suifeng.sfchain.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 描述: 流式chunk JFR事件
+ * 持续时间为距上一个chunk（首个chunk为距请求发出）的等待时间
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Name("sfchain.StreamChunk")
+@Label("Stream Chunk")
+@Description("A content chunk received from a streaming model response")
+@Category({"SF-Chain", "AI"})
+@StackTrace(false)
+public class StreamChunkEvent extends Event {
+
+    @Label("Model")
+    public String model;
+
+    @Label("Index")
+    public int index;
+
+    @Label("Characters")
+    public int chars;
+}
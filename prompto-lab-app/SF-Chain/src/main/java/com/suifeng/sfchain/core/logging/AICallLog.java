@@ -1,7 +1,11 @@
 package com.suifeng.sfchain.core.logging;
 
+import com.suifeng.sfchain.core.CompactText;
+import com.suifeng.sfchain.core.routing.RoutingDecision;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -11,6 +15,8 @@ import java.util.Map;
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class AICallLog {
     
     /** 调用ID */
@@ -34,14 +40,14 @@ public class AICallLog {
     /** 原始输入参数 */
     private Object input;
     
-    /** 构建的提示词 */
-    private String prompt;
+    /** 构建的提示词（长文本压缩保存） */
+    private CompactText prompt;
     
     /** AI请求参数 */
     private AIRequestParams requestParams;
     
-    /** 模型原始返回结果 */
-    private String rawResponse;
+    /** 模型原始返回结果（长文本压缩保存） */
+    private CompactText rawResponse;
     
     /** 最终输出结果 */
     private Object output;
@@ -49,18 +55,143 @@ public class AICallLog {
     /** 错误信息(如果有) */
     private String errorMessage;
     
-    /** 调用频次(用于LFU) */
-    private int frequency;
+    /** 提示token数(来自模型返回的usage) */
+    private Integer promptTokens;
     
-    /** 最后访问时间(用于LFU) */
-    private LocalDateTime lastAccessTime;
+    /** 完成token数 */
+    private Integer completionTokens;
+    
+    /** 命中缓存的提示token数 */
+    private Integer cachedTokens;
+    
+    /** 按模型单价计算的调用成本 */
+    private Double cost;
+    
+    /** 链路ID(启用链路追踪时) */
+    private String traceId;
+    
+    /** 流式调用指标(仅流式调用) */
+    private StreamMetrics streamMetrics;
+    
+    /** 分阶段耗时(微秒)，key见 LatencyBreakdown.Phase */
+    private Map<String, Long> phaseMicros;
+    
+    /** 模型路由决策(启用路由时) */
+    private RoutingDecision routing;
+    
+    /** 级联层级，从0开始(级联调用时) */
+    private Integer cascadeTier;
+    
+    /** 本次调用使用的执行配置版本 */
+    private Long configVersion;
+    
+    /** 访问频次 */
+    private volatile int frequency;
+    
+    /** 最后访问时间 */
+    private volatile LocalDateTime lastAccessTime;
+    
+    public String getPrompt() {
+        return prompt != null ? prompt.text() : null;
+    }
+    
+    public void setPrompt(String prompt) {
+        this.prompt = CompactText.of(prompt);
+    }
+    
+    public String getRawResponse() {
+        return rawResponse != null ? rawResponse.text() : null;
+    }
+    
+    public void setRawResponse(String rawResponse) {
+        this.rawResponse = CompactText.of(rawResponse);
+    }
+    
+    /**
+     * 记录一次查询访问
+     */
+    public synchronized void recordAccess() {
+        frequency++;
+        lastAccessTime = LocalDateTime.now();
+    }
+    
+    /**
+     * 获取紧凑存储的提示词，用于内存统计
+     */
+    public CompactText compactPrompt() {
+        return prompt;
+    }
+    
+    /**
+     * 获取紧凑存储的原始返回，用于内存统计
+     */
+    public CompactText compactRawResponse() {
+        return rawResponse;
+    }
     
     public enum CallStatus {
-        SUCCESS, FAILED, TIMEOUT
+        SUCCESS, FAILED, TIMEOUT, CANCELLED
+    }
+    
+    /**
+     * 流式调用结束原因
+     */
+    public enum StreamEndReason {
+        /** 模型正常输出完毕 */
+        COMPLETED,
+        /** 下游取消订阅(如客户端断开) */
+        CANCELLED,
+        /** 请求或解析出错 */
+        FAILED
+    }
+    
+    /**
+     * 流式调用指标
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StreamMetrics {
+        /** 首个chunk到达耗时(毫秒)，未收到chunk时为空 */
+        private Long timeToFirstTokenMillis;
+        /** chunk数量 */
+        private int chunks;
+        /** 输出token数(优先取usage，否则估算) */
+        private int outputTokens;
+        /** 输出token数是否来自模型返回的usage */
+        private boolean usageReported;
+        /** 首个chunk之后的输出速度(token/秒) */
+        private double tokensPerSecond;
+        /** chunk间隔中位数(毫秒) */
+        private long interChunkP50Millis;
+        /** chunk间隔P90(毫秒) */
+        private long interChunkP90Millis;
+        /** chunk最大间隔(毫秒) */
+        private long interChunkMaxMillis;
+        /** 结束原因 */
+        private StreamEndReason endReason;
+    }
+    
+    /**
+     * 构建器接收原文，内部转换为紧凑文本
+     */
+    public static class AICallLogBuilder {
+        public AICallLogBuilder prompt(String prompt) {
+            this.prompt = CompactText.of(prompt);
+            return this;
+        }
+        
+        public AICallLogBuilder rawResponse(String rawResponse) {
+            this.rawResponse = CompactText.of(rawResponse);
+            return this;
+        }
     }
     
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class AIRequestParams {
         private Integer maxTokens;
         private Double temperature;
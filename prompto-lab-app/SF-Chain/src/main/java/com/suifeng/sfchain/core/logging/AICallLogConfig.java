@@ -0,0 +1,217 @@
+package com.suifeng.sfchain.core.logging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 描述: AI调用日志存储配置
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.call-log")
+public class AICallLogConfig {
+
+    /**
+     * 内存中保留的最大日志条数，超出后覆盖最早的日志
+     */
+    private int capacity = 100;
+
+    /**
+     * 日志最长保留时间（分钟），0表示不按时间淘汰
+     */
+    private long maxAgeMinutes = 0;
+
+    /**
+     * 采样与内容截断策略
+     */
+    private Capture capture = new Capture();
+
+    /**
+     * 异步写入管道配置
+     */
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * JSONL文件输出配置
+     */
+    private FileSink file = new FileSink();
+
+    /**
+     * JDBC批量写入配置
+     */
+    private JdbcSink jdbc = new JdbcSink();
+
+    /**
+     * 内存映射日志文件配置
+     */
+    private Journal journal = new Journal();
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /** 丢弃新日志 */
+        DROP_NEWEST,
+        /** 丢弃队列中最早的日志 */
+        DROP_OLDEST,
+        /** 阻塞调用线程直到超时，超时后丢弃 */
+        BLOCK
+    }
+
+    @Data
+    public static class Capture {
+
+        /**
+         * 截断后最少保留的字符数，需容纳省略标记
+         */
+        public static final int MIN_PAYLOAD_CHARS = 64;
+
+        /**
+         * 默认采样率（0~1），未单独配置的操作按此比例记录日志
+         */
+        private double sampleRate = 1.0;
+
+        /**
+         * 按操作配置的采样率，key为操作类型
+         */
+        private Map<String, Double> operationSampleRates = new HashMap<>();
+
+        /**
+         * 失败、超时和被取消的调用始终记录
+         */
+        private boolean alwaysCaptureFailures = true;
+
+        /**
+         * 耗时超过该值（毫秒）的调用始终记录，0表示不启用
+         */
+        private long slowCallThresholdMillis = 10000;
+
+        /**
+         * 提示词和原始返回的最大保留字符数，超出后保留首尾各一半，0表示不截断，小于MIN_PAYLOAD_CHARS时按最小值截断
+         */
+        private int maxPayloadChars = 16384;
+
+        /**
+         * 是否保留输入和输出对象
+         */
+        private boolean captureInputOutput = true;
+    }
+
+    @Data
+    public static class Pipeline {
+
+        /**
+         * 是否启用异步写入，关闭时在调用线程同步写入
+         */
+        private boolean enabled = true;
+
+        /**
+         * 队列容量
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * 单批最大条数
+         */
+        private int batchSize = 200;
+
+        /**
+         * 队列为空时的最长等待时间（毫秒），也是批次的最大攒批时间
+         */
+        private long flushIntervalMillis = 500;
+
+        /**
+         * 队列满时的处理策略
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+        /**
+         * BLOCK策略下的最长阻塞时间（毫秒）
+         */
+        private long blockTimeoutMillis = 50;
+    }
+
+    @Data
+    public static class FileSink {
+
+        /**
+         * 是否写入JSONL文件
+         */
+        private boolean enabled = false;
+
+        /**
+         * 日志目录
+         */
+        private String directory = "logs/sf-chain/calls";
+
+        /**
+         * 单个文件最大字节数，超过后滚动
+         */
+        private long maxFileBytes = 64L * 1024 * 1024;
+
+        /**
+         * 最多保留的文件数
+         */
+        private int maxFiles = 20;
+    }
+
+    @Data
+    public static class JdbcSink {
+
+        /**
+         * 是否批量写入数据库
+         */
+        private boolean enabled = false;
+
+        /**
+         * 日志表名
+         */
+        private String tableName = "sfchain_call_logs";
+
+        /**
+         * 启动时自动建表
+         */
+        private boolean createTable = true;
+    }
+
+    @Data
+    public static class Journal {
+
+        /**
+         * 是否启用内存映射日志文件，启用后日志查询优先读取日志文件
+         */
+        private boolean enabled = false;
+
+        /**
+         * 日志文件目录
+         */
+        private String directory = "data/sf-chain/journal";
+
+        /**
+         * 单个段文件大小（字节）
+         */
+        private int segmentBytes = 64 * 1024 * 1024;
+
+        /**
+         * 最多保留的段文件数
+         */
+        private int retentionSegments = 16;
+
+        /**
+         * 段文件最长保留时间（小时），0表示不按时间淘汰
+         */
+        private long retentionHours = 0;
+
+        /**
+         * 时间索引的分桶粒度（分钟）
+         */
+        private int timeBucketMinutes = 5;
+    }
+}
@@ -1,230 +1,221 @@
 package com.suifeng.sfchain.core.logging;
 
+import com.suifeng.sfchain.core.MemoryFootprint;
+import com.suifeng.sfchain.core.metrics.CallStatisticsRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.time.LocalDateTime;
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
- * AI调用日志管理器 - 基于LFU算法
+ * AI调用日志管理器 - 基于序号环形缓冲区的无锁存储
+ * 写入通过原子序号定位槽位，覆盖最早的日志；callId索引使用ConcurrentHashMap，读写均不加锁
  */
 @Slf4j
 @Component
-public class AICallLogManager {
-    
-    private static final int MAX_CAPACITY = 100;
-    
-    /** 日志存储 */
-    private final Map<String, AICallLog> logStorage = new ConcurrentHashMap<>();
-    
-    /** 频次计数器 */
-    private final Map<String, Integer> frequencyMap = new ConcurrentHashMap<>();
-    
-    /** 频次分组 - 频次 -> 调用ID集合 */
-    private final Map<Integer, LinkedHashSet<String>> frequencyGroups = new ConcurrentHashMap<>();
-    
-    /** 最小频次 */
-    private volatile int minFrequency = 1;
-    
-    /** 读写锁 */
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-    
+@RequiredArgsConstructor
+public class AICallLogManager implements CallLogSink {
+
+    private final AICallLogConfig config;
+
+    private final CallStatisticsRegistry callStatistics;
+
+    /** 环形缓冲区 */
+    private volatile AtomicReferenceArray<AICallLog> ring;
+
+    /** 下一个写入序号 */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** callId索引 */
+    private final Map<String, AICallLog> index = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        ring = new AtomicReferenceArray<>(Math.max(1, config.getCapacity()));
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public void write(List<AICallLog> logs) {
+        logs.forEach(this::addLog);
+    }
+
     /**
      * 添加调用日志
      */
     public void addLog(AICallLog callLog) {
-        lock.writeLock().lock();
-        try {
-            String callId = callLog.getCallId();
-            
-            // 如果已达到容量上限，移除最少使用的日志
-            if (logStorage.size() >= MAX_CAPACITY && !logStorage.containsKey(callId)) {
-                evictLFU();
-            }
-            
-            // 添加或更新日志
-            logStorage.put(callId, callLog);
-            updateFrequency(callId);
-            
-            log.debug("添加AI调用日志: {}", callId);
-    
-        } finally {
-            lock.writeLock().unlock();
+        AtomicReferenceArray<AICallLog> current = ring;
+        long seq = sequence.getAndIncrement();
+        AICallLog evicted = current.getAndSet((int) (seq % current.length()), callLog);
+        if (evicted != null) {
+            // 只移除仍指向被覆盖日志的索引项，避免误删同callId的新日志
+            index.remove(evicted.getCallId(), evicted);
         }
+        index.put(callLog.getCallId(), callLog);
+        log.debug("添加AI调用日志: {}", callLog.getCallId());
     }
-    
+
     /**
      * 获取完整调用日志（包含所有详细信息）
      */
     public AICallLog getFullLog(String callId) {
-        lock.readLock().lock();
-        try {
-            AICallLog callLog = logStorage.get(callId);
-            if (callLog != null) {
-                // 更新访问时间和频次
-                callLog.setLastAccessTime(LocalDateTime.now());
-                updateFrequency(callId);
-            }
-            return callLog;
-        } finally {
-            lock.readLock().unlock();
+        AICallLog callLog = index.get(callId);
+        if (callLog == null) {
+            return null;
         }
+        if (isExpired(callLog, expireBefore())) {
+            index.remove(callId, callLog);
+            return null;
+        }
+        callLog.recordAccess();
+        return callLog;
     }
-    
+
     /**
      * 获取所有日志摘要(按时间倒序)
      */
     public List<AICallLogSummary> getAllLogSummaries() {
-        lock.readLock().lock();
-        try {
-            return logStorage.values().stream()
-                    .sorted((a, b) -> b.getCallTime().compareTo(a.getCallTime()))
-                    .map(AICallLogSummary::fromFullLog)
-                    .collect(Collectors.toList());
-        } finally {
-            lock.readLock().unlock();
-        }
+        return summaries(callLog -> true);
     }
-    
+
     /**
      * 根据操作类型获取日志摘要
      */
     public List<AICallLogSummary> getLogSummariesByOperation(String operationType) {
-        lock.readLock().lock();
-        try {
-            return logStorage.values().stream()
-                    .filter(log -> operationType.equals(log.getOperationType()))
-                    .sorted((a, b) -> b.getCallTime().compareTo(a.getCallTime()))
-                    .map(AICallLogSummary::fromFullLog)
-                    .collect(Collectors.toList());
-        } finally {
-            lock.readLock().unlock();
-        }
+        return summaries(callLog -> operationType.equals(callLog.getOperationType()));
     }
-    
+
     /**
      * 根据模型名称获取日志摘要
      */
     public List<AICallLogSummary> getLogSummariesByModel(String modelName) {
-        lock.readLock().lock();
-        try {
-            return logStorage.values().stream()
-                    .filter(log -> modelName.equals(log.getModelName()))
-                    .sorted((a, b) -> b.getCallTime().compareTo(a.getCallTime()))
-                    .map(AICallLogSummary::fromFullLog)
-                    .collect(Collectors.toList());
-        } finally {
-            lock.readLock().unlock();
-        }
+        return summaries(callLog -> modelName.equals(callLog.getModelName()));
     }
-    
+
     /**
-     * 获取统计信息
+     * 分页查询，游标为写入序号；环形缓冲区本身按写入顺序排列，从游标处向前遍历即可
      */
-    public LogStatistics getStatistics() {
-        lock.readLock().lock();
-        try {
-            long totalCalls = logStorage.size();
-            long successCalls = logStorage.values().stream()
-                    .mapToLong(log -> log.getStatus() == AICallLog.CallStatus.SUCCESS ? 1 : 0)
-                    .sum();
-            
-            double avgDuration = logStorage.values().stream()
-                    .mapToLong(AICallLog::getDuration)
-                    .average()
-                    .orElse(0.0);
-            
-            Map<String, Long> operationCounts = logStorage.values().stream()
-                    .collect(Collectors.groupingBy(
-                            AICallLog::getOperationType,
-                            Collectors.counting()
-                    ));
-            
-            Map<String, Long> modelCounts = logStorage.values().stream()
-                    .collect(Collectors.groupingBy(
-                            AICallLog::getModelName,
-                            Collectors.counting()
-                    ));
-            
-            return LogStatistics.builder()
-                    .totalCalls(totalCalls)
-                    .successCalls(successCalls)
-                    .successRate(totalCalls > 0 ? (double) successCalls / totalCalls : 0.0)
-                    .averageDuration(avgDuration)
-                    .operationCounts(operationCounts)
-                    .modelCounts(modelCounts)
-                    .build();
-        } finally {
-            lock.readLock().unlock();
+    public CallLogPage query(CallLogQuery query) {
+        AtomicReferenceArray<AICallLog> current = ring;
+        int capacity = current.length();
+        long end = sequence.get();
+        long start = Math.max(0, end - capacity);
+        long from = query.getCursor() != null ? Math.min(query.getCursor(), end) : end;
+        LocalDateTime expireBefore = expireBefore();
+        int limit = query.effectiveLimit();
+        int scanLimit = query.effectiveScanLimit();
+        int scanned = 0;
+
+        List<AICallLogSummary> items = new ArrayList<>(Math.min(limit, capacity));
+        for (long seq = from - 1; seq >= start; seq--) {
+            AICallLog callLog = current.get((int) (seq % capacity));
+            if (callLog != null && !isExpired(callLog, expireBefore)
+                    && query.matches(callLog.getCallId(), callLog.getOperationType(), callLog.getModelName(),
+                    callLog.getStatus(), callLog.getCallTime(), callLog.getDuration(), callLog.getErrorMessage())) {
+                items.add(AICallLogSummary.fromFullLog(callLog));
+                if (items.size() >= limit) {
+                    return new CallLogPage(items, seq > start ? seq : null);
+                }
+            }
+            if (++scanned >= scanLimit) {
+                return new CallLogPage(items, seq > start ? seq : null);
+            }
         }
+        return new CallLogPage(items, null);
+    }
+
+    private List<AICallLogSummary> summaries(Predicate<AICallLog> filter) {
+        return snapshot().stream()
+                .filter(filter)
+                .map(AICallLogSummary::fromFullLog)
+                .collect(Collectors.toList());
     }
-    
+
     /**
-     * 清空所有日志
+     * 按写入顺序倒序获取当前保留的日志快照，跳过已过期的日志
      */
-    public void clearLogs() {
-        lock.writeLock().lock();
-        try {
-            logStorage.clear();
-            frequencyMap.clear();
-            frequencyGroups.clear();
-            minFrequency = 1;
-            log.info("已清空所有AI调用日志");
-        } finally {
-            lock.writeLock().unlock();
+    private List<AICallLog> snapshot() {
+        AtomicReferenceArray<AICallLog> current = ring;
+        int capacity = current.length();
+        long end = sequence.get();
+        long start = Math.max(0, end - capacity);
+        LocalDateTime expireBefore = expireBefore();
+
+        List<AICallLog> logs = new ArrayList<>((int) (end - start));
+        for (long seq = end - 1; seq >= start; seq--) {
+            AICallLog callLog = current.get((int) (seq % capacity));
+            if (callLog != null && !isExpired(callLog, expireBefore)) {
+                logs.add(callLog);
+            }
         }
+        return logs;
+    }
+
+    private LocalDateTime expireBefore() {
+        long maxAge = config.getMaxAgeMinutes();
+        return maxAge > 0 ? LocalDateTime.now().minusMinutes(maxAge) : null;
     }
-    
+
+    private boolean isExpired(AICallLog callLog, LocalDateTime expireBefore) {
+        return expireBefore != null && callLog.getCallTime() != null && callLog.getCallTime().isBefore(expireBefore);
+    }
+
     /**
-     * 更新频次
+     * 获取统计信息，来自增量维护的调用统计（启动或重置以来的累计值），不再遍历日志
      */
-    private void updateFrequency(String callId) {
-        int oldFreq = frequencyMap.getOrDefault(callId, 0);
-        int newFreq = oldFreq + 1;
-        
-        frequencyMap.put(callId, newFreq);
-        
-        // 从旧频次组中移除
-        if (oldFreq > 0) {
-            frequencyGroups.get(oldFreq).remove(callId);
-            if (frequencyGroups.get(oldFreq).isEmpty() && oldFreq == minFrequency) {
-                minFrequency++;
-            }
-        }
-        
-        // 添加到新频次组
-        frequencyGroups.computeIfAbsent(newFreq, k -> new LinkedHashSet<>()).add(callId);
-        
-        // 更新最小频次
-        if (newFreq < minFrequency) {
-            minFrequency = newFreq;
+    public LogStatistics getStatistics() {
+        CallStatisticsRegistry.Totals totals = callStatistics.getTotals();
+        long totalCalls = totals.getCalls();
+        return LogStatistics.builder()
+                .totalCalls(totalCalls)
+                .successCalls(totals.getSuccessCalls())
+                .successRate(totalCalls > 0 ? (double) totals.getSuccessCalls() / totalCalls : 0.0)
+                .averageDuration(totalCalls > 0 ? (double) totals.getDurationSum() / totalCalls : 0.0)
+                .operationCounts(totals.getOperationCounts())
+                .modelCounts(totals.getModelCounts())
+                .build();
+    }
+
+    /**
+     * 统计日志中提示词和原始返回的内存占用（压缩前后对比）
+     */
+    public MemoryFootprint getMemoryFootprint() {
+        MemoryFootprint footprint = new MemoryFootprint();
+        for (AICallLog callLog : snapshot()) {
+            footprint.add(callLog.compactPrompt());
+            footprint.add(callLog.compactRawResponse());
         }
+        return footprint;
     }
-    
+
     /**
-     * 淘汰最少使用的日志
+     * 清空所有日志
      */
-    private void evictLFU() {
-        // 找到最小频次组中最早的元素
-        LinkedHashSet<String> minFreqGroup = frequencyGroups.get(minFrequency);
-        if (minFreqGroup != null && !minFreqGroup.isEmpty()) {
-            String evictCallId = minFreqGroup.iterator().next();
-            
-            // 移除日志
-            logStorage.remove(evictCallId);
-            frequencyMap.remove(evictCallId);
-            minFreqGroup.remove(evictCallId);
-            
-            log.debug("淘汰AI调用日志: {}", evictCallId);
+    public void clearLogs() {
+        AtomicReferenceArray<AICallLog> current = ring;
+        for (int i = 0; i < current.length(); i++) {
+            AICallLog cleared = current.getAndSet(i, null);
+            if (cleared != null) {
+                index.remove(cleared.getCallId(), cleared);
+            }
         }
+        log.info("已清空所有AI调用日志");
     }
-    
+
     @lombok.Data
     @lombok.Builder
     public static class LogStatistics {
@@ -235,4 +226,4 @@ public class AICallLogManager {
         private Map<String, Long> operationCounts;
         private Map<String, Long> modelCounts;
     }
-}
\ No newline at end of file
+}
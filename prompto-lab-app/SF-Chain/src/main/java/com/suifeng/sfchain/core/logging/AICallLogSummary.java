@@ -33,10 +33,22 @@ public class AICallLogSummary {
     /** 错误信息(如果有) */
     private String errorMessage;
     
-    /** 调用频次(用于LFU) */
+    /** 提示token数 */
+    private Integer promptTokens;
+    
+    /** 完成token数 */
+    private Integer completionTokens;
+    
+    /** 命中缓存的提示token数 */
+    private Integer cachedTokens;
+    
+    /** 调用成本 */
+    private Double cost;
+    
+    /** 访问频次 */
     private int frequency;
     
-    /** 最后访问时间(用于LFU) */
+    /** 最后访问时间 */
     private LocalDateTime lastAccessTime;
     
     /** AI请求参数摘要 */
@@ -73,6 +85,10 @@ public class AICallLogSummary {
                 .duration(fullLog.getDuration())
                 .status(fullLog.getStatus())
                 .errorMessage(fullLog.getErrorMessage())
+                .promptTokens(fullLog.getPromptTokens())
+                .completionTokens(fullLog.getCompletionTokens())
+                .cachedTokens(fullLog.getCachedTokens())
+                .cost(fullLog.getCost())
                 .frequency(fullLog.getFrequency())
                 .lastAccessTime(fullLog.getLastAccessTime())
                 .requestParams(paramsSummary)
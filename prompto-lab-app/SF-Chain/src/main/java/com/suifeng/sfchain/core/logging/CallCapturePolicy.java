@@ -0,0 +1,110 @@
+package com.suifeng.sfchain.core.logging;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 描述: 调用日志采集策略
+ * 决定一次调用是否记录日志（按操作采样，失败和慢调用始终记录），并对提示词和原始返回做首尾截断
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Component
+@RequiredArgsConstructor
+public class CallCapturePolicy {
+
+    private final AICallLogConfig config;
+
+    private final LongAdder captured = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder forced = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+
+    /**
+     * 判断调用是否需要记录日志
+     */
+    public boolean shouldCapture(String operationType, AICallLog.CallStatus status, long durationMillis) {
+        AICallLogConfig.Capture capture = config.getCapture();
+        if (capture.isAlwaysCaptureFailures() && status != AICallLog.CallStatus.SUCCESS) {
+            forced.increment();
+            captured.increment();
+            return true;
+        }
+        if (capture.getSlowCallThresholdMillis() > 0 && durationMillis >= capture.getSlowCallThresholdMillis()) {
+            forced.increment();
+            captured.increment();
+            return true;
+        }
+        double rate = capture.getOperationSampleRates().getOrDefault(operationType, capture.getSampleRate());
+        if (rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate)) {
+            captured.increment();
+            return true;
+        }
+        sampledOut.increment();
+        return false;
+    }
+
+    /**
+     * 是否保留输入和输出对象
+     */
+    public boolean isCaptureInputOutput() {
+        return config.getCapture().isCaptureInputOutput();
+    }
+
+    /**
+     * 超长内容保留首尾各一半，中间替换为省略标记
+     */
+    public String truncate(String payload) {
+        int maxChars = config.getCapture().getMaxPayloadChars();
+        if (payload == null || maxChars <= 0) {
+            return payload;
+        }
+        // 上限过小时首尾各保留的部分容不下省略标记，按最小值截断
+        maxChars = Math.max(maxChars, AICallLogConfig.Capture.MIN_PAYLOAD_CHARS);
+        if (payload.length() <= maxChars) {
+            return payload;
+        }
+        truncated.increment();
+        int head = maxChars / 2;
+        int tail = maxChars - head;
+        // 避免切断代理对；上限不小于最小值且原文更长，调整后仍有tailStart > head
+        if (head > 0 && Character.isHighSurrogate(payload.charAt(head - 1))) {
+            head--;
+        }
+        int tailStart = payload.length() - tail;
+        if (Character.isLowSurrogate(payload.charAt(tailStart))) {
+            tailStart++;
+        }
+        return payload.substring(0, head)
+                + "\n...[已省略 " + (tailStart - head) + " 字符]...\n"
+                + payload.substring(tailStart);
+    }
+
+    public CaptureStatistics getStatistics() {
+        return CaptureStatistics.builder()
+                .captured(captured.sum())
+                .sampledOut(sampledOut.sum())
+                .forced(forced.sum())
+                .truncated(truncated.sum())
+                .build();
+    }
+
+    @Data
+    @Builder
+    public static class CaptureStatistics {
+        /** 记录的调用数 */
+        private long captured;
+        /** 因采样未记录的调用数 */
+        private long sampledOut;
+        /** 因失败或慢调用强制记录的调用数 */
+        private long forced;
+        /** 被截断的内容数 */
+        private long truncated;
+    }
+}
@@ -0,0 +1,23 @@
+package com.suifeng.sfchain.core.logging;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 描述: 调用日志分页结果
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@AllArgsConstructor
+public class CallLogPage {
+
+    /** 本页日志摘要，按写入顺序倒序 */
+    private List<AICallLogSummary> items;
+
+    /** 下一页游标，没有更多数据时为空；本页未满但游标不为空表示达到扫描上限，可继续翻页 */
+    private Long nextCursor;
+}
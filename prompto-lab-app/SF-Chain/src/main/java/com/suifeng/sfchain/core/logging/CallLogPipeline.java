@@ -0,0 +1,293 @@
+package com.suifeng.sfchain.core.logging;
+
+import com.suifeng.sfchain.core.metrics.LatencyHistogram;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 描述: 调用日志异步写入管道
+ * 调用线程只负责入队，日志对象的构建（含提示词压缩）和写入都在后台线程按批完成
+ * 关闭过程中仍接受入队并在输出端关闭前写完，输出端关闭后提交的日志直接丢弃并计数
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CallLogPipeline {
+
+    private final AICallLogConfig config;
+    private final List<CallLogSink> sinks;
+
+    private BlockingQueue<Supplier<AICallLog>> queue;
+    private Thread writer;
+    private volatile State state = State.SYNC;
+
+    /** 输出端只被单线程调用：写线程、同步写入和关闭时的收尾写入都持有该锁 */
+    private final Object writeLock = new Object();
+
+    /** 输出端是否已关闭，由writeLock保护 */
+    private boolean sinksClosed;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder droppedAfterClose = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder buildFailures = new LongAdder();
+    /** 日志在队列中的等待时间 */
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final Map<String, LongAdder> sinkFailures = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AICallLogConfig.Pipeline pipeline = config.getPipeline();
+        queue = new ArrayBlockingQueue<>(Math.max(1, pipeline.getQueueCapacity()));
+        if (!pipeline.isEnabled()) {
+            log.info("调用日志异步管道未启用，日志将在调用线程同步写入");
+            return;
+        }
+        state = State.RUNNING;
+        writer = new Thread(this::drainLoop, "sf-chain-call-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("调用日志异步管道已启动: sinks={}", sinks.stream().map(CallLogSink::getName).toList());
+    }
+
+    /**
+     * 提交日志
+     */
+    public void submit(AICallLog callLog) {
+        submit(() -> callLog);
+    }
+
+    /**
+     * 提交日志构建任务，任务在后台线程执行
+     */
+    public void submit(Supplier<AICallLog> submitted) {
+        State current = state;
+        if (current == State.SYNC || current == State.CLOSED) {
+            // 未启用异步时同步写入，串行化以保证输出端只被单线程调用；关闭后直接丢弃
+            flush(List.of(submitted));
+            return;
+        }
+        enqueued.increment();
+        long enqueuedNanos = System.nanoTime();
+        Supplier<AICallLog> task = () -> {
+            queueWait.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - enqueuedNanos));
+            return submitted.get();
+        };
+        AICallLogConfig.Pipeline pipeline = config.getPipeline();
+        switch (pipeline.getOverflowPolicy()) {
+            case DROP_OLDEST:
+                while (!queue.offer(task)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                break;
+            case BLOCK:
+                try {
+                    if (!queue.offer(task, pipeline.getBlockTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                        dropped.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.increment();
+                }
+                break;
+            case DROP_NEWEST:
+            default:
+                if (!queue.offer(task)) {
+                    dropped.increment();
+                }
+                break;
+        }
+        // 入队时恰好完成了关闭前的收尾写入，任务不会再被消费，取回后按关闭后丢弃计数
+        if (state == State.CLOSED && queue.remove(task)) {
+            droppedAfterClose.increment();
+        }
+    }
+
+    private void drainLoop() {
+        AICallLogConfig.Pipeline pipeline = config.getPipeline();
+        int batchSize = Math.max(1, pipeline.getBatchSize());
+        List<Supplier<AICallLog>> tasks = new ArrayList<>(batchSize);
+        while (state == State.RUNNING) {
+            try {
+                Supplier<AICallLog> first = queue.poll(pipeline.getFlushIntervalMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                tasks.add(first);
+                queue.drainTo(tasks, batchSize - 1);
+                flush(tasks);
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.warn("调用日志写入批次处理异常: {}", e.getMessage());
+            } finally {
+                tasks.clear();
+            }
+        }
+        // 停止前写完队列中剩余的日志
+        drainRemaining(batchSize);
+    }
+
+    private void drainRemaining(int batchSize) {
+        List<Supplier<AICallLog>> tasks = new ArrayList<>(batchSize);
+        synchronized (writeLock) {
+            while (queue.drainTo(tasks, batchSize) > 0) {
+                flush(tasks);
+                tasks.clear();
+            }
+        }
+    }
+
+    private void flush(List<Supplier<AICallLog>> tasks) {
+        synchronized (writeLock) {
+            if (sinksClosed) {
+                droppedAfterClose.add(tasks.size());
+                return;
+            }
+            doFlush(tasks);
+        }
+    }
+
+    private void doFlush(List<Supplier<AICallLog>> tasks) {
+        List<AICallLog> logs = new ArrayList<>(tasks.size());
+        for (Supplier<AICallLog> task : tasks) {
+            try {
+                logs.add(task.get());
+            } catch (Exception e) {
+                buildFailures.increment();
+                log.warn("构建调用日志失败: {}", e.getMessage());
+            }
+        }
+        if (logs.isEmpty()) {
+            return;
+        }
+        for (CallLogSink sink : sinks) {
+            try {
+                sink.write(logs);
+            } catch (Exception e) {
+                sinkFailures.computeIfAbsent(sink.getName(), k -> new LongAdder()).increment();
+                log.warn("调用日志写入{}失败: {}", sink.getName(), e.getMessage());
+            }
+        }
+        written.add(logs.size());
+        batches.increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 不中断写线程，避免文件通道因中断被关闭；写线程最多在一个攒批周期后退出
+        if (state == State.RUNNING) {
+            state = State.CLOSING;
+        }
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (writeLock) {
+            state = State.CLOSED;
+            // 写线程退出后关闭期间新入队的日志，在输出端关闭前写完
+            drainRemaining(Math.max(1, config.getPipeline().getBatchSize()));
+            sinksClosed = true;
+            sinks.forEach(sink -> {
+                try {
+                    sink.close();
+                } catch (Exception e) {
+                    log.warn("关闭调用日志输出端{}失败: {}", sink.getName(), e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * 获取管道统计信息
+     */
+    public PipelineStatistics getStatistics() {
+        Map<String, Long> failures = new LinkedHashMap<>();
+        LatencyHistogram.Snapshot wait = queueWait.snapshot();
+        sinkFailures.forEach((name, count) -> failures.put(name, count.sum()));
+        return PipelineStatistics.builder()
+                .enabled(state == State.RUNNING)
+                .state(state)
+                .overflowPolicy(config.getPipeline().getOverflowPolicy())
+                .sinks(sinks.stream().map(CallLogSink::getName).toList())
+                .queueDepth(queue.size())
+                .queueCapacity(queue.size() + queue.remainingCapacity())
+                .enqueued(enqueued.sum())
+                .dropped(dropped.sum())
+                .droppedAfterClose(droppedAfterClose.sum())
+                .written(written.sum())
+                .batches(batches.sum())
+                .buildFailures(buildFailures.sum())
+                .sinkFailures(failures)
+                .queueWaitP50Millis(wait.percentile(0.5))
+                .queueWaitP99Millis(wait.percentile(0.99))
+                .build();
+    }
+
+    /**
+     * 管道状态
+     */
+    public enum State {
+        /** 未启用异步，在调用线程同步写入 */
+        SYNC,
+        /** 后台线程写入 */
+        RUNNING,
+        /** 关闭中，仍接受入队，输出端关闭前写完 */
+        CLOSING,
+        /** 输出端已关闭，新日志直接丢弃 */
+        CLOSED
+    }
+
+    @Data
+    @Builder
+    public static class PipelineStatistics {
+        private boolean enabled;
+        private State state;
+        private AICallLogConfig.OverflowPolicy overflowPolicy;
+        private List<String> sinks;
+        private int queueDepth;
+        private int queueCapacity;
+        private long enqueued;
+        private long dropped;
+        private long droppedAfterClose;
+        private long written;
+        private long batches;
+        private long buildFailures;
+        private Map<String, Long> sinkFailures;
+        private long queueWaitP50Millis;
+        private long queueWaitP99Millis;
+    }
+
+    /**
+     * 队列等待时间分布快照
+     */
+    public LatencyHistogram.Snapshot getQueueWaitSnapshot() {
+        return queueWait.snapshot();
+    }
+}
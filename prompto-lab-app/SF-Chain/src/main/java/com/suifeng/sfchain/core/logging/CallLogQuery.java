@@ -0,0 +1,93 @@
+package com.suifeng.sfchain.core.logging;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * 描述: 调用日志分页查询条件
+ * 结果按写入顺序倒序返回，cursor为上一页返回的nextCursor，为空时从最新的日志开始
+ * 单页扫描的记录数有上限，达到上限时即使未满也返回nextCursor，由下一页继续扫描
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Builder
+public class CallLogQuery {
+
+    /** 单页最大条数 */
+    public static final int MAX_LIMIT = 1000;
+
+    /** 单页默认最多扫描的记录数 */
+    public static final int DEFAULT_SCAN_LIMIT = 10_000;
+
+    private String operationType;
+    private String modelName;
+    private AICallLog.CallStatus status;
+    /** 调用时间下界（含） */
+    private LocalDateTime from;
+    /** 调用时间上界（含） */
+    private LocalDateTime to;
+    /** 最小耗时（毫秒，含） */
+    private Long minDuration;
+    /** 最大耗时（毫秒，含） */
+    private Long maxDuration;
+    /** 在调用ID、操作、模型和错误信息中做不区分大小写的包含匹配 */
+    private String text;
+    /** 分页游标 */
+    private Long cursor;
+    @Builder.Default
+    private int limit = 50;
+    /** 单页最多扫描的记录数 */
+    @Builder.Default
+    private int scanLimit = DEFAULT_SCAN_LIMIT;
+
+    public int effectiveLimit() {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public int effectiveScanLimit() {
+        return Math.max(1, scanLimit);
+    }
+
+    /**
+     * 判断一条日志的检索字段是否满足条件
+     */
+    public boolean matches(String callId, String operation, String model, AICallLog.CallStatus callStatus,
+                           LocalDateTime callTime, long duration, String errorMessage) {
+        if (operationType != null && !operationType.equals(operation)) {
+            return false;
+        }
+        if (modelName != null && !modelName.equals(model)) {
+            return false;
+        }
+        if (status != null && status != callStatus) {
+            return false;
+        }
+        if (from != null && (callTime == null || callTime.isBefore(from))) {
+            return false;
+        }
+        if (to != null && (callTime == null || callTime.isAfter(to))) {
+            return false;
+        }
+        if (minDuration != null && duration < minDuration) {
+            return false;
+        }
+        if (maxDuration != null && duration > maxDuration) {
+            return false;
+        }
+        if (text != null && !text.isEmpty()) {
+            String needle = text.toLowerCase(Locale.ROOT);
+            return contains(callId, needle) || contains(operation, needle)
+                    || contains(model, needle) || contains(errorMessage, needle);
+        }
+        return true;
+    }
+
+    private static boolean contains(String value, String needle) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(needle);
+    }
+}
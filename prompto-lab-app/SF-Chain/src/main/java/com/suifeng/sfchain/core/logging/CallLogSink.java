@@ -0,0 +1,32 @@
+package com.suifeng.sfchain.core.logging;
+
+import java.util.List;
+
+/**
+ * 描述: 调用日志输出端
+ * 由CallLogPipeline的后台线程按批调用，实现类无需考虑多线程写入
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+public interface CallLogSink {
+
+    /**
+     * 输出端名称，用于统计
+     */
+    String getName();
+
+    /**
+     * 批量写入日志
+     *
+     * @param logs 日志批次
+     * @throws Exception 写入失败
+     */
+    void write(List<AICallLog> logs) throws Exception;
+
+    /**
+     * 关闭输出端，释放文件句柄等资源
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,88 @@
+package com.suifeng.sfchain.core.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 描述: JDBC批量写入输出端
+ * 日志的检索字段单独成列，完整日志以JSON保存在payload列，每个批次一次batchUpdate
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "sf-chain.call-log.jdbc", name = "enabled", havingValue = "true")
+public class JdbcCallLogSink implements CallLogSink {
+
+    private final AICallLogConfig config;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    private String insertSql;
+
+    @PostConstruct
+    public void init() {
+        String table = config.getJdbc().getTableName();
+        if (!table.matches("[A-Za-z0-9_]+")) {
+            throw new IllegalArgumentException("非法的调用日志表名: " + table);
+        }
+        if (config.getJdbc().isCreateTable()) {
+            // MySQL与PostgreSQL通用的建表语句
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                    "call_id VARCHAR(64) PRIMARY KEY, " +
+                    "operation_type VARCHAR(100), " +
+                    "model_name VARCHAR(100), " +
+                    "call_time TIMESTAMP, " +
+                    "duration BIGINT, " +
+                    "status VARCHAR(20), " +
+                    "prompt_tokens INTEGER, " +
+                    "completion_tokens INTEGER, " +
+                    "cost DOUBLE PRECISION, " +
+                    "error_message TEXT, " +
+                    "payload TEXT)");
+        }
+        insertSql = "INSERT INTO " + table + " (call_id, operation_type, model_name, call_time, duration, status, " +
+                "prompt_tokens, completion_tokens, cost, error_message, payload) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        log.info("调用日志JDBC输出端已启用: table={}", table);
+    }
+
+    @Override
+    public String getName() {
+        return "jdbc";
+    }
+
+    @Override
+    public void write(List<AICallLog> logs) throws Exception {
+        List<Object[]> rows = new ArrayList<>(logs.size());
+        for (AICallLog callLog : logs) {
+            rows.add(new Object[]{
+                    callLog.getCallId(),
+                    callLog.getOperationType(),
+                    callLog.getModelName(),
+                    callLog.getCallTime() != null ? Timestamp.valueOf(callLog.getCallTime()) : null,
+                    callLog.getDuration(),
+                    callLog.getStatus() != null ? callLog.getStatus().name() : null,
+                    callLog.getPromptTokens(),
+                    callLog.getCompletionTokens(),
+                    callLog.getCost(),
+                    callLog.getErrorMessage(),
+                    objectMapper.writeValueAsString(callLog)
+            });
+        }
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT, Types.VARCHAR,
+                Types.INTEGER, Types.INTEGER, Types.DOUBLE, Types.VARCHAR, Types.VARCHAR};
+        jdbcTemplate.batchUpdate(insertSql, rows, types);
+    }
+}
@@ -0,0 +1,117 @@
+package com.suifeng.sfchain.core.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 描述: JSONL滚动文件输出端
+ * 每条日志一行JSON，文件超过大小上限后滚动，只保留最近的若干个文件
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "sf-chain.call-log.file", name = "enabled", havingValue = "true")
+public class JsonlFileCallLogSink implements CallLogSink {
+
+    private static final String FILE_PREFIX = "sf-chain-calls-";
+    private static final String FILE_SUFFIX = ".jsonl";
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final AICallLogConfig config;
+    private final ObjectMapper objectMapper;
+
+    private BufferedWriter writer;
+    private Path currentFile;
+    private long currentBytes;
+
+    @Override
+    public String getName() {
+        return "jsonl-file";
+    }
+
+    @Override
+    public synchronized void write(List<AICallLog> logs) throws IOException {
+        for (AICallLog callLog : logs) {
+            String line = objectMapper.writeValueAsString(callLog);
+            ensureWriter();
+            writer.write(line);
+            writer.newLine();
+            currentBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    private void ensureWriter() throws IOException {
+        if (writer != null && currentBytes < config.getFile().getMaxFileBytes()) {
+            return;
+        }
+        closeWriter();
+        Path directory = Paths.get(config.getFile().getDirectory());
+        Files.createDirectories(directory);
+        currentFile = directory.resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_TIME_FORMAT) + FILE_SUFFIX);
+        writer = Files.newBufferedWriter(currentFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        currentBytes = Files.size(currentFile);
+        log.info("调用日志写入新文件: {}", currentFile);
+        purgeOldFiles(directory);
+    }
+
+    /**
+     * 删除超出保留数量的旧文件（文件名按时间排序）
+     */
+    private void purgeOldFiles(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        int excess = files.size() - Math.max(1, config.getFile().getMaxFiles());
+        for (int i = 0; i < excess; i++) {
+            Files.deleteIfExists(files.get(i));
+            log.debug("删除过期调用日志文件: {}", files.get(i));
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("关闭调用日志文件失败: {} - {}", currentFile, e.getMessage());
+        }
+        writer = null;
+    }
+
+    @Override
+    public synchronized void close() {
+        closeWriter();
+    }
+}
@@ -0,0 +1,453 @@
+package com.suifeng.sfchain.core.logging.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suifeng.sfchain.core.logging.AICallLog;
+import com.suifeng.sfchain.core.logging.AICallLogConfig;
+import com.suifeng.sfchain.core.logging.AICallLogSummary;
+import com.suifeng.sfchain.core.logging.CallLogPage;
+import com.suifeng.sfchain.core.logging.CallLogQuery;
+import com.suifeng.sfchain.core.logging.CallLogSink;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 描述: 调用日志内存映射日志文件
+ * 日志以二进制记录追加写入固定大小的内存映射段文件，段写满后滚动，按段数和时间淘汰旧段。
+ * 堆内只保留按callId、操作、模型和时间分桶的位置索引，查询时从映射区域按需解码，重启后扫描段文件重建索引
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "sf-chain.call-log.journal", name = "enabled", havingValue = "true")
+public class CallLogJournal implements CallLogSink {
+
+    private static final String SEGMENT_PREFIX = "calls-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    /** 分页查询时每次从索引取出的位置数 */
+    private static final int QUERY_CHUNK = 256;
+
+    private final AICallLogConfig.Journal config;
+    private final CallLogRecordCodec codec;
+
+    private final NavigableMap<Integer, JournalSegment> segments = new ConcurrentSkipListMap<>();
+    private volatile JournalSegment active;
+
+    /** 二级索引 */
+    private final Map<String, Long> callIdIndex = new ConcurrentHashMap<>();
+    private final Map<String, PositionList> operationIndex = new ConcurrentHashMap<>();
+    private final Map<String, PositionList> modelIndex = new ConcurrentHashMap<>();
+    private final NavigableMap<Long, PositionList> timeIndex = new ConcurrentSkipListMap<>();
+    private final PositionList allRecords = new PositionList();
+
+    private Path directory;
+    private long bucketMillis;
+
+    public CallLogJournal(AICallLogConfig callLogConfig, ObjectMapper objectMapper) {
+        this.config = callLogConfig.getJournal();
+        this.codec = new CallLogRecordCodec(objectMapper);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+        bucketMillis = TimeUnit.MINUTES.toMillis(Math.max(1, config.getTimeBucketMinutes()));
+
+        long start = System.currentTimeMillis();
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(this::isSegmentFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            JournalSegment segment = JournalSegment.open(segmentId(file), file, config.getSegmentBytes());
+            segments.put(segment.getId(), segment);
+            recover(segment);
+        }
+        active = segments.isEmpty() ? createSegment(1) : segments.lastEntry().getValue();
+        purgeExpiredSegments();
+        log.info("调用日志文件已加载: 段数={}, 记录数={}, 耗时{}ms",
+                segments.size(), allRecords.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public String getName() {
+        return "journal";
+    }
+
+    @Override
+    public void write(List<AICallLog> logs) throws IOException {
+        for (AICallLog callLog : logs) {
+            append(callLog);
+        }
+    }
+
+    private void append(AICallLog callLog) throws IOException {
+        byte[] body = codec.encode(callLog, true);
+        int maxBody = config.getSegmentBytes() / 2;
+        if (body.length > maxBody) {
+            // 过大的记录只保留检索字段
+            body = codec.encode(callLog, false);
+            log.debug("调用日志过大，只写入检索字段: {}", callLog.getCallId());
+        }
+        if (!active.hasRoom(body.length)) {
+            roll();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        long timestamp = CallLogRecordCodec.toEpochMillis(callLog.getCallTime());
+        int offset = active.append(body, (int) crc.getValue(), timestamp);
+        index(PositionList.position(active.getId(), offset), callLog.getCallId(),
+                callLog.getOperationType(), callLog.getModelName(), timestamp);
+    }
+
+    private void index(long position, String callId, String operationType, String modelName, long timestamp) {
+        allRecords.add(position);
+        if (callId != null) {
+            callIdIndex.put(callId, position);
+        }
+        if (operationType != null) {
+            operationIndex.computeIfAbsent(operationType, k -> new PositionList()).add(position);
+        }
+        if (modelName != null) {
+            modelIndex.computeIfAbsent(modelName, k -> new PositionList()).add(position);
+        }
+        timeIndex.computeIfAbsent(timestamp - Math.floorMod(timestamp, bucketMillis), k -> new PositionList()).add(position);
+    }
+
+    /**
+     * 扫描段文件恢复写入位置并重建索引，遇到长度为0或CRC不匹配的记录即视为数据结束
+     */
+    private void recover(JournalSegment segment) {
+        int offset = 0;
+        long lastTimestamp = 0;
+        CRC32 crc = new CRC32();
+        while (offset + JournalSegment.RECORD_HEADER_BYTES <= segment.capacity()) {
+            int length = segment.lengthAt(offset);
+            if (length <= 0 || (long) offset + JournalSegment.RECORD_HEADER_BYTES + length > segment.capacity()) {
+                break;
+            }
+            ByteBuffer body = segment.body(offset);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != segment.crcAt(offset)) {
+                log.warn("调用日志段{}在偏移{}处校验失败，截断后续数据", segment.getId(), offset);
+                break;
+            }
+            CallLogRecordCodec.JournalEntry entry = codec.decodeEntry(body);
+            index(PositionList.position(segment.getId(), offset), entry.getCallId(),
+                    entry.getOperationType(), entry.getModelName(), entry.getCallTime());
+            lastTimestamp = entry.getCallTime();
+            offset += JournalSegment.RECORD_HEADER_BYTES + length;
+        }
+        segment.recover(offset, lastTimestamp);
+    }
+
+    private void roll() throws IOException {
+        JournalSegment previous = active;
+        previous.force();
+        active = createSegment(previous.getId() + 1);
+        log.info("调用日志段滚动: {} -> {}", previous.getId(), active.getId());
+        purgeExpiredSegments();
+    }
+
+    private JournalSegment createSegment(int id) throws IOException {
+        Path file = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        JournalSegment segment = JournalSegment.open(id, file, config.getSegmentBytes());
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * 按段数和最长保留时间淘汰旧段（当前写入段不淘汰）
+     */
+    private void purgeExpiredSegments() {
+        long expireBefore = config.getRetentionHours() > 0
+                ? System.currentTimeMillis() - TimeUnit.HOURS.toMillis(config.getRetentionHours())
+                : Long.MIN_VALUE;
+        Iterator<JournalSegment> iterator = segments.values().iterator();
+        while (iterator.hasNext()) {
+            JournalSegment segment = iterator.next();
+            if (segment == active) {
+                break;
+            }
+            boolean overCount = segments.size() > Math.max(1, config.getRetentionSegments());
+            boolean expired = segment.getLastTimestamp() < expireBefore;
+            if (!overCount && !expired) {
+                break;
+            }
+            iterator.remove();
+            dropSegment(segment);
+        }
+    }
+
+    private void dropSegment(JournalSegment segment) {
+        int id = segment.getId();
+        allRecords.removeSegment(id);
+        callIdIndex.values().removeIf(position -> PositionList.segmentId(position) == id);
+        operationIndex.values().forEach(list -> list.removeSegment(id));
+        modelIndex.values().forEach(list -> list.removeSegment(id));
+        timeIndex.values().forEach(list -> list.removeSegment(id));
+        timeIndex.values().removeIf(list -> list.size() == 0);
+        segment.close();
+        try {
+            Files.deleteIfExists(segment.getPath());
+            log.info("删除过期调用日志段: {}", segment.getPath());
+        } catch (IOException e) {
+            log.warn("删除调用日志段失败: {} - {}", segment.getPath(), e.getMessage());
+        }
+    }
+
+    /**
+     * 根据调用ID读取完整日志
+     */
+    public AICallLog getFullLog(String callId) {
+        Long position = callIdIndex.get(callId);
+        if (position == null) {
+            return null;
+        }
+        JournalSegment segment = segments.get(PositionList.segmentId(position));
+        if (segment == null) {
+            return null;
+        }
+        try {
+            return codec.decodeLog(segment.body(PositionList.offset(position)));
+        } catch (IOException e) {
+            log.warn("读取调用日志失败: {} - {}", callId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 获取最近的日志摘要（按时间倒序）
+     */
+    public List<AICallLogSummary> getRecentSummaries(int limit) {
+        return summaries(allRecords.newest(limit));
+    }
+
+    /**
+     * 根据操作类型获取最近的日志摘要
+     */
+    public List<AICallLogSummary> getSummariesByOperation(String operationType, int limit) {
+        PositionList list = operationIndex.get(operationType);
+        return list != null ? summaries(list.newest(limit)) : List.of();
+    }
+
+    /**
+     * 根据模型名称获取最近的日志摘要
+     */
+    public List<AICallLogSummary> getSummariesByModel(String modelName, int limit) {
+        PositionList list = modelIndex.get(modelName);
+        return list != null ? summaries(list.newest(limit)) : List.of();
+    }
+
+    /**
+     * 获取时间范围内的日志摘要（按时间倒序）
+     */
+    public List<AICallLogSummary> getSummariesBetween(LocalDateTime from, LocalDateTime to, int limit) {
+        long fromMillis = CallLogRecordCodec.toEpochMillis(from);
+        long toMillis = CallLogRecordCodec.toEpochMillis(to);
+        long fromBucket = fromMillis - Math.floorMod(fromMillis, bucketMillis);
+
+        List<AICallLogSummary> result = new ArrayList<>();
+        for (PositionList bucket : timeIndex.subMap(fromBucket, true, toMillis, true).descendingMap().values()) {
+            for (long position : bucket.newest(0)) {
+                CallLogRecordCodec.JournalEntry entry = entry(position);
+                if (entry != null && entry.getCallTime() >= fromMillis && entry.getCallTime() <= toMillis) {
+                    result.add(entry.toSummary());
+                    if (limit > 0 && result.size() >= limit) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 分页查询，游标为记录位置；按操作或模型过滤时走对应的二级索引，其余条件逐条匹配检索字段。
+     * 带时间范围时先用时间分桶索引换算出位置范围，从范围上界开始扫描、到下界即停止；
+     * 单页扫描的记录数达到上限时返回当前游标，由下一页继续
+     */
+    public CallLogPage query(CallLogQuery query) {
+        PositionList source = allRecords;
+        if (query.getOperationType() != null) {
+            source = operationIndex.get(query.getOperationType());
+        } else if (query.getModelName() != null) {
+            source = modelIndex.get(query.getModelName());
+        }
+        if (source == null) {
+            return new CallLogPage(List.of(), null);
+        }
+
+        long cursor = query.getCursor() != null ? query.getCursor() : Long.MAX_VALUE;
+        long lower = 0;
+        if (query.getTo() != null) {
+            long upper = positionAfter(CallLogRecordCodec.toEpochMillis(query.getTo()));
+            if (upper < 0) {
+                return new CallLogPage(List.of(), null);
+            }
+            cursor = Math.min(cursor, upper);
+        }
+        if (query.getFrom() != null) {
+            lower = firstPositionFrom(CallLogRecordCodec.toEpochMillis(query.getFrom()));
+            if (lower < 0) {
+                return new CallLogPage(List.of(), null);
+            }
+        }
+
+        int limit = query.effectiveLimit();
+        int scanLimit = query.effectiveScanLimit();
+        int scanned = 0;
+        List<AICallLogSummary> items = new ArrayList<>(limit);
+        long[] chunk = new long[Math.min(Math.max(limit, QUERY_CHUNK), scanLimit)];
+        while (true) {
+            int count = source.olderThan(cursor, chunk);
+            for (int i = 0; i < count; i++) {
+                if (chunk[i] < lower) {
+                    // 更早的记录都不在时间范围内
+                    return new CallLogPage(items, null);
+                }
+                cursor = chunk[i];
+                scanned++;
+                CallLogRecordCodec.JournalEntry entry = entry(cursor);
+                if (entry != null && query.matches(entry.getCallId(), entry.getOperationType(), entry.getModelName(),
+                        entry.getStatus(), CallLogRecordCodec.fromEpochMillis(entry.getCallTime()),
+                        entry.getDuration(), entry.getErrorMessage())) {
+                    items.add(entry.toSummary());
+                    if (items.size() >= limit) {
+                        return new CallLogPage(items, cursor);
+                    }
+                }
+                if (scanned >= scanLimit) {
+                    return new CallLogPage(items, cursor);
+                }
+            }
+            if (count < chunk.length) {
+                return new CallLogPage(items, null);
+            }
+        }
+    }
+
+    /**
+     * 调用时间不晚于给定时间的记录所在分桶中，最新记录之后的位置（作为倒序扫描的起点）
+     * 记录按写入顺序排列，调用时间只是大致递增，因此取所有候选分桶的最大位置
+     *
+     * @return 位置，没有候选记录时返回-1
+     */
+    private long positionAfter(long toMillis) {
+        long max = -1;
+        for (PositionList bucket : timeIndex.headMap(toMillis, true).values()) {
+            max = Math.max(max, bucket.last());
+        }
+        return max >= 0 ? max + 1 : -1;
+    }
+
+    /**
+     * 调用时间不早于给定时间的记录所在分桶中，最早记录的位置（倒序扫描到此为止）
+     *
+     * @return 位置，没有候选记录时返回-1
+     */
+    private long firstPositionFrom(long fromMillis) {
+        long fromBucket = fromMillis - Math.floorMod(fromMillis, bucketMillis);
+        long min = Long.MAX_VALUE;
+        for (PositionList bucket : timeIndex.tailMap(fromBucket, true).values()) {
+            long first = bucket.first();
+            if (first >= 0) {
+                min = Math.min(min, first);
+            }
+        }
+        return min != Long.MAX_VALUE ? min : -1;
+    }
+
+    private List<AICallLogSummary> summaries(long[] positions) {
+        List<AICallLogSummary> result = new ArrayList<>(positions.length);
+        for (long position : positions) {
+            CallLogRecordCodec.JournalEntry entry = entry(position);
+            if (entry != null) {
+                result.add(entry.toSummary());
+            }
+        }
+        return result;
+    }
+
+    private CallLogRecordCodec.JournalEntry entry(long position) {
+        JournalSegment segment = segments.get(PositionList.segmentId(position));
+        return segment != null ? codec.decodeEntry(segment.body(PositionList.offset(position))) : null;
+    }
+
+    private boolean isSegmentFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private int segmentId(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 获取日志文件统计
+     */
+    public JournalStatistics getStatistics() {
+        JournalSegment current = active;
+        return JournalStatistics.builder()
+                .directory(directory.toAbsolutePath().toString())
+                .segments(segments.size())
+                .activeSegment(current.getId())
+                .activeSegmentUsedBytes(current.getWritePosition())
+                .segmentBytes(config.getSegmentBytes())
+                .records(allRecords.size())
+                .indexedCallIds(callIdIndex.size())
+                .operations(operationIndex.size())
+                .models(modelIndex.size())
+                .timeBuckets(timeIndex.size())
+                .build();
+    }
+
+    @Override
+    public void close() {
+        segments.values().forEach(segment -> {
+            segment.force();
+            segment.close();
+        });
+    }
+
+    @Data
+    @Builder
+    public static class JournalStatistics {
+        private String directory;
+        private int segments;
+        private int activeSegment;
+        private int activeSegmentUsedBytes;
+        private int segmentBytes;
+        private int records;
+        private int indexedCallIds;
+        private int operations;
+        private int models;
+        private int timeBuckets;
+    }
+}
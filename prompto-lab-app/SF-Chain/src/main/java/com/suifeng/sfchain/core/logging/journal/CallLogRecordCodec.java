@@ -0,0 +1,217 @@
+package com.suifeng.sfchain.core.logging.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suifeng.sfchain.core.logging.AICallLog;
+import com.suifeng.sfchain.core.logging.AICallLogSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 描述: 调用日志二进制编解码
+ * 记录体由定长检索字段、短字符串字段和Deflate压缩的完整日志JSON组成，
+ * 列表查询只解码检索字段，查看详情时才解压JSON
+ *
+ * <pre>
+ * long callTime(epoch millis) | long duration | byte status
+ * str callId | str operationType | str modelName | str errorMessage
+ * int promptTokens | int completionTokens | int cachedTokens | double cost
+ * int payloadLength | byte[] payload
+ * </pre>
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@RequiredArgsConstructor
+final class CallLogRecordCodec {
+
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+    private static final int MAX_ERROR_CHARS = 1024;
+
+    private final ObjectMapper objectMapper;
+
+    static long toEpochMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    static LocalDateTime fromEpochMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 编码日志
+     *
+     * @param withPayload 是否包含完整日志JSON（记录过大时可只保留检索字段）
+     */
+    byte[] encode(AICallLog callLog, boolean withPayload) throws IOException {
+        byte[] payload = withPayload ? deflate(objectMapper.writeValueAsBytes(callLog)) : new byte[0];
+        byte[] callId = bytes(callLog.getCallId());
+        byte[] operationType = bytes(callLog.getOperationType());
+        byte[] modelName = bytes(callLog.getModelName());
+        String error = callLog.getErrorMessage();
+        byte[] errorMessage = bytes(error != null && error.length() > MAX_ERROR_CHARS ? error.substring(0, MAX_ERROR_CHARS) : error);
+
+        int size = 8 + 8 + 1
+                + 2 + callId.length + 2 + operationType.length + 2 + modelName.length + 2 + errorMessage.length
+                + 4 + 4 + 4 + 8
+                + 4 + payload.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putLong(toEpochMillis(callLog.getCallTime()));
+        buffer.putLong(callLog.getDuration());
+        buffer.put((byte) (callLog.getStatus() != null ? callLog.getStatus().ordinal() : -1));
+        putString(buffer, callId);
+        putString(buffer, operationType);
+        putString(buffer, modelName);
+        putString(buffer, errorMessage);
+        buffer.putInt(callLog.getPromptTokens() != null ? callLog.getPromptTokens() : -1);
+        buffer.putInt(callLog.getCompletionTokens() != null ? callLog.getCompletionTokens() : -1);
+        buffer.putInt(callLog.getCachedTokens() != null ? callLog.getCachedTokens() : -1);
+        buffer.putDouble(callLog.getCost() != null ? callLog.getCost() : Double.NaN);
+        buffer.putInt(payload.length);
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    /**
+     * 解码检索字段
+     */
+    JournalEntry decodeEntry(ByteBuffer body) {
+        ByteBuffer buffer = body.duplicate();
+        long callTime = buffer.getLong();
+        long duration = buffer.getLong();
+        byte status = buffer.get();
+        String callId = getString(buffer);
+        String operationType = getString(buffer);
+        String modelName = getString(buffer);
+        String errorMessage = getString(buffer);
+        int promptTokens = buffer.getInt();
+        int completionTokens = buffer.getInt();
+        int cachedTokens = buffer.getInt();
+        double cost = buffer.getDouble();
+        int payloadLength = buffer.getInt();
+        return new JournalEntry(callTime, duration,
+                status >= 0 ? AICallLog.CallStatus.values()[status] : null,
+                callId, operationType, modelName, errorMessage,
+                promptTokens >= 0 ? promptTokens : null,
+                completionTokens >= 0 ? completionTokens : null,
+                cachedTokens >= 0 ? cachedTokens : null,
+                Double.isNaN(cost) ? null : cost,
+                buffer.position(), payloadLength);
+    }
+
+    /**
+     * 解码完整日志，记录未保存完整JSON时只返回检索字段
+     */
+    AICallLog decodeLog(ByteBuffer body) throws IOException {
+        JournalEntry entry = decodeEntry(body);
+        if (entry.getPayloadLength() == 0) {
+            return AICallLog.builder()
+                    .callId(entry.getCallId())
+                    .operationType(entry.getOperationType())
+                    .modelName(entry.getModelName())
+                    .callTime(fromEpochMillis(entry.getCallTime()))
+                    .duration(entry.getDuration())
+                    .status(entry.getStatus())
+                    .errorMessage(entry.getErrorMessage())
+                    .promptTokens(entry.getPromptTokens())
+                    .completionTokens(entry.getCompletionTokens())
+                    .cachedTokens(entry.getCachedTokens())
+                    .cost(entry.getCost())
+                    .build();
+        }
+        byte[] payload = new byte[entry.getPayloadLength()];
+        ByteBuffer buffer = body.duplicate();
+        buffer.position(entry.getPayloadOffset());
+        buffer.get(payload);
+        return objectMapper.readValue(inflate(payload), AICallLog.class);
+    }
+
+    private static byte[] bytes(String value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            // UTF-8每个字符最多3字节（BMP内），按字符截断保证不会切断多字节字符
+            return value.substring(0, MAX_STRING_BYTES / 3).getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(byte[] input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 3));
+        try (OutputStream deflater = new DeflaterOutputStream(out)) {
+            deflater.write(input);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] input) throws IOException {
+        try (InputStream inflater = new InflaterInputStream(new ByteArrayInputStream(input))) {
+            return inflater.readAllBytes();
+        }
+    }
+
+    /**
+     * 记录的检索字段
+     */
+    @Value
+    static class JournalEntry {
+        long callTime;
+        long duration;
+        AICallLog.CallStatus status;
+        String callId;
+        String operationType;
+        String modelName;
+        String errorMessage;
+        Integer promptTokens;
+        Integer completionTokens;
+        Integer cachedTokens;
+        Double cost;
+        int payloadOffset;
+        int payloadLength;
+
+        AICallLogSummary toSummary() {
+            return AICallLogSummary.builder()
+                    .callId(callId)
+                    .operationType(operationType)
+                    .modelName(modelName)
+                    .callTime(fromEpochMillis(callTime))
+                    .duration(duration)
+                    .status(status)
+                    .errorMessage(errorMessage)
+                    .promptTokens(promptTokens)
+                    .completionTokens(completionTokens)
+                    .cachedTokens(cachedTokens)
+                    .cost(cost)
+                    .build();
+        }
+    }
+}
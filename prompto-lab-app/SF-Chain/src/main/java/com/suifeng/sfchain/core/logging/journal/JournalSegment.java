@@ -0,0 +1,134 @@
+package com.suifeng.sfchain.core.logging.journal;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 描述: 日志段文件
+ * 固定大小的内存映射文件，只追加写入；记录格式为 [长度int][CRC32 int][记录体]，长度为0表示数据结束
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+final class JournalSegment {
+
+    /** 记录头长度：长度 + CRC32 */
+    static final int RECORD_HEADER_BYTES = 8;
+
+    @Getter
+    private final int id;
+
+    @Getter
+    private final Path path;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    /** 下一条记录的写入位置，写入完成后才更新，读线程据此判断可见范围 */
+    private volatile int writePosition;
+
+    /** 段内最后一条记录的时间戳 */
+    @Getter
+    private volatile long lastTimestamp;
+
+    private JournalSegment(int id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * 打开（或创建）段文件并映射到内存
+     */
+    static JournalSegment open(int id, Path path, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long mappedSize = Math.max(channel.size(), size);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+        return new JournalSegment(id, path, channel, buffer);
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    int getWritePosition() {
+        return writePosition;
+    }
+
+    /**
+     * 恢复时设置写入位置
+     */
+    void recover(int position, long timestamp) {
+        this.writePosition = position;
+        this.lastTimestamp = timestamp;
+    }
+
+    /**
+     * 是否还能容纳指定长度的记录体（预留4字节结束标记）
+     */
+    boolean hasRoom(int bodyLength) {
+        return (long) writePosition + RECORD_HEADER_BYTES + bodyLength + 4 <= buffer.capacity();
+    }
+
+    /**
+     * 追加一条记录，仅由单个写线程调用
+     *
+     * @return 记录在段内的偏移
+     */
+    int append(byte[] body, int crc, long timestamp) {
+        int offset = writePosition;
+        ByteBuffer target = buffer.duplicate();
+        target.position(offset);
+        // 先写记录体和CRC，最后写长度，保证崩溃时不会留下长度有效但内容不完整的记录
+        target.putInt(offset + 4, crc);
+        target.position(offset + RECORD_HEADER_BYTES);
+        target.put(body);
+        target.putInt(offset + RECORD_HEADER_BYTES + body.length, 0);
+        target.putInt(offset, body.length);
+        lastTimestamp = timestamp;
+        writePosition = offset + RECORD_HEADER_BYTES + body.length;
+        return offset;
+    }
+
+    int lengthAt(int offset) {
+        return buffer.getInt(offset);
+    }
+
+    int crcAt(int offset) {
+        return buffer.getInt(offset + 4);
+    }
+
+    /**
+     * 获取记录体的只读视图
+     */
+    ByteBuffer body(int offset) {
+        int length = buffer.getInt(offset);
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + RECORD_HEADER_BYTES);
+        view.limit(offset + RECORD_HEADER_BYTES + length);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * 关闭文件通道；映射区域在缓冲区被回收前仍然可读
+     */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 关闭失败不影响已映射区域
+        }
+    }
+}
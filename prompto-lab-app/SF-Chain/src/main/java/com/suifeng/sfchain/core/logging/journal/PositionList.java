@@ -0,0 +1,94 @@
+package com.suifeng.sfchain.core.logging.journal;
+
+import java.util.Arrays;
+
+/**
+ * 描述: 记录位置列表
+ * 按写入顺序保存记录位置（高32位段ID、低32位段内偏移），用作二级索引
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+final class PositionList {
+
+    private long[] positions = new long[16];
+    private int size;
+
+    static long position(int segmentId, int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    static int segmentId(long position) {
+        return (int) (position >>> 32);
+    }
+
+    static int offset(long position) {
+        return (int) position;
+    }
+
+    synchronized void add(long position) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+        positions[size++] = position;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 最早写入的位置，列表为空时返回-1
+     */
+    synchronized long first() {
+        return size > 0 ? positions[0] : -1;
+    }
+
+    /**
+     * 最新写入的位置，列表为空时返回-1
+     */
+    synchronized long last() {
+        return size > 0 ? positions[size - 1] : -1;
+    }
+
+    /**
+     * 获取最新的若干个位置，按写入顺序倒序
+     */
+    synchronized long[] newest(int limit) {
+        int count = limit > 0 ? Math.min(limit, size) : size;
+        long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = positions[size - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * 获取小于给定位置的若干个位置，按写入顺序倒序写入out
+     * 位置按写入顺序递增（段ID递增、段内偏移递增），可二分定位
+     *
+     * @return 写入out的个数
+     */
+    synchronized int olderThan(long position, long[] out) {
+        int index = Arrays.binarySearch(positions, 0, size, position);
+        int end = index >= 0 ? index : -index - 1;
+        int count = Math.min(out.length, end);
+        for (int i = 0; i < count; i++) {
+            out[i] = positions[end - 1 - i];
+        }
+        return count;
+    }
+
+    /**
+     * 移除属于指定段的位置
+     */
+    synchronized void removeSegment(int segmentId) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (segmentId(positions[i]) != segmentId) {
+                positions[kept++] = positions[i];
+            }
+        }
+        size = kept;
+    }
+}
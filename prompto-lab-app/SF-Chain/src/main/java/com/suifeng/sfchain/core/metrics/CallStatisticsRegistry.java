@@ -0,0 +1,372 @@
+package com.suifeng.sfchain.core.metrics;
+
+import com.suifeng.sfchain.core.logging.AICallLog;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 描述: 调用统计
+ * 按操作和模型增量维护调用次数、成功率和耗时分布，记录只做计数器累加和直方图桶自增；
+ * 滑动窗口由固定数量的时间片环组成，查询时合并窗口内的时间片，开销与流量无关
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Component
+@RequiredArgsConstructor
+public class CallStatisticsRegistry {
+
+    private final MetricsConfig config;
+    private final MetricTags tags;
+
+    private final Map<Key, CallStats> stats = new ConcurrentHashMap<>();
+
+    /** 重试次数，key为操作类型和重试原因 */
+    private final Map<Key, LongAdder> retries = new ConcurrentHashMap<>();
+
+    private long sliceMillis;
+    private int sliceCount;
+
+    @PostConstruct
+    public void init() {
+        sliceMillis = Math.max(1, config.getSliceSeconds()) * 1000L;
+        long maxWindowMillis = config.getWindowMinutes().stream()
+                .mapToLong(minutes -> minutes * 60_000L)
+                .max()
+                .orElse(sliceMillis);
+        sliceCount = (int) Math.max(1, (maxWindowMillis + sliceMillis - 1) / sliceMillis);
+    }
+
+    /**
+     * 记录一次调用
+     */
+    public void record(String operationType, String modelName, AICallLog.CallStatus status, long durationMillis) {
+        record(operationType, modelName, status, durationMillis, null);
+    }
+
+    /**
+     * 记录一次调用及其分阶段耗时
+     *
+     * @param breakdown 分阶段耗时，可为空
+     */
+    public void record(String operationType, String modelName, AICallLog.CallStatus status, long durationMillis,
+                       LatencyBreakdown breakdown) {
+        Key key = new Key(tags.operation(operationType), tags.model(modelName));
+        CallStats target = stats.computeIfAbsent(key, k -> new CallStats(sliceCount));
+        boolean success = status == AICallLog.CallStatus.SUCCESS;
+        target.total.record(success, durationMillis);
+        target.currentSlice(System.currentTimeMillis() / sliceMillis).record(success, durationMillis);
+        if (breakdown != null) {
+            target.recordPhases(breakdown);
+        }
+    }
+
+    /**
+     * 记录一次重试
+     *
+     * @param reason 重试原因，如 json_repair
+     */
+    public void recordRetry(String operationType, String reason) {
+        retries.computeIfAbsent(new Key(tags.operation(operationType), reason), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 获取所有操作/模型的统计
+     */
+    public List<CallStatistics> getStatistics() {
+        long nowSlice = System.currentTimeMillis() / sliceMillis;
+        return stats.entrySet().stream()
+                .map(entry -> toStatistics(entry.getKey(), entry.getValue(), nowSlice))
+                .sorted(Comparator.comparing(CallStatistics::getOperationType)
+                        .thenComparing(CallStatistics::getModelName))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 获取累计汇总：总调用数、成功数、耗时总和，以及按操作和按模型的调用次数
+     */
+    public Totals getTotals() {
+        long calls = 0;
+        long success = 0;
+        long durationSum = 0;
+        Map<String, Long> operationCounts = new LinkedHashMap<>();
+        Map<String, Long> modelCounts = new LinkedHashMap<>();
+        for (Map.Entry<Key, CallStats> entry : stats.entrySet()) {
+            Counters total = entry.getValue().total;
+            long keyCalls = total.calls.sum();
+            calls += keyCalls;
+            success += total.success.sum();
+            durationSum += total.durationSum.sum();
+            operationCounts.merge(entry.getKey().getOperationType(), keyCalls, Long::sum);
+            modelCounts.merge(entry.getKey().getModelName(), keyCalls, Long::sum);
+        }
+        return new Totals(calls, success, durationSum, operationCounts, modelCounts);
+    }
+
+    /**
+     * 获取指定操作和模型在一个滑动窗口内的统计，无记录时返回null
+     */
+    public WindowStatistics getWindowStatistics(String operationType, String modelName, int windowMinutes) {
+        CallStats callStats = stats.get(new Key(tags.operation(operationType), tags.model(modelName)));
+        if (callStats == null) {
+            return null;
+        }
+        long windowSlices = Math.max(1, Math.min(sliceCount, windowMinutes * 60_000L / sliceMillis));
+        return callStats.window(System.currentTimeMillis() / sliceMillis, windowSlices, windowSlices * sliceMillis);
+    }
+
+    public void reset() {
+        stats.clear();
+        retries.clear();
+    }
+
+    /**
+     * 遍历各操作/模型的累计计数和耗时分布，供指标导出使用
+     */
+    void forEachSeries(SeriesVisitor visitor) {
+        stats.forEach((key, callStats) -> visitor.visit(key.getOperationType(), key.getModelName(),
+                callStats.total.calls.sum(), callStats.total.success.sum(), callStats.total.latency.snapshot()));
+    }
+
+    /**
+     * 遍历重试计数，供指标导出使用
+     */
+    void forEachRetry(RetryVisitor visitor) {
+        retries.forEach((key, count) -> visitor.visit(key.getOperationType(), key.getModelName(), count.sum()));
+    }
+
+    /**
+     * 遍历各操作/模型的分阶段累计耗时，供指标导出使用
+     */
+    void forEachPhase(PhaseVisitor visitor) {
+        stats.forEach((key, callStats) -> {
+            for (LatencyBreakdown.Phase phase : LatencyBreakdown.Phase.values()) {
+                long nanos = callStats.phaseNanos[phase.ordinal()].sum();
+                if (nanos > 0) {
+                    visitor.visit(key.getOperationType(), key.getModelName(), phase.getKey(), nanos);
+                }
+            }
+        });
+    }
+
+    interface SeriesVisitor {
+        void visit(String operationType, String modelName, long calls, long successCalls,
+                   LatencyHistogram.Snapshot latency);
+    }
+
+    interface RetryVisitor {
+        void visit(String operationType, String reason, long count);
+    }
+
+    interface PhaseVisitor {
+        void visit(String operationType, String modelName, String phase, long nanos);
+    }
+
+    private CallStatistics toStatistics(Key key, CallStats callStats, long nowSlice) {
+        Map<String, WindowStatistics> windows = new LinkedHashMap<>();
+        for (Integer minutes : config.getWindowMinutes()) {
+            long windowSlices = Math.max(1, Math.min(sliceCount, minutes * 60_000L / sliceMillis));
+            windows.put(minutes + "m", callStats.window(nowSlice, windowSlices, windowSlices * sliceMillis));
+        }
+        Counters total = callStats.total;
+        LatencyHistogram.Snapshot latency = total.latency.snapshot();
+        long calls = total.calls.sum();
+        long success = total.success.sum();
+        return CallStatistics.builder()
+                .operationType(key.getOperationType())
+                .modelName(key.getModelName())
+                .calls(calls)
+                .successCalls(success)
+                .failedCalls(calls - success)
+                .successRate(calls > 0 ? (double) success / calls : 0.0)
+                .averageDuration(latency.getMean())
+                .p50(latency.percentile(0.5))
+                .p90(latency.percentile(0.9))
+                .p99(latency.percentile(0.99))
+                .maxDuration(latency.getMax())
+                .averagePhaseMillis(callStats.averagePhaseMillis())
+                .windows(windows)
+                .build();
+    }
+
+    @Value
+    private static class Key {
+        String operationType;
+        String modelName;
+    }
+
+    /**
+     * 一组计数器和耗时直方图
+     */
+    private static class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder success = new LongAdder();
+        final LongAdder durationSum = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        void record(boolean succeeded, long durationMillis) {
+            calls.increment();
+            if (succeeded) {
+                success.increment();
+            }
+            durationSum.add(durationMillis);
+            latency.record(durationMillis);
+        }
+    }
+
+    /**
+     * 时间片，epoch为时间片序号
+     */
+    private static final class Slice extends Counters {
+        final long epoch;
+
+        Slice(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private static final class CallStats {
+        final Counters total = new Counters();
+        final AtomicReferenceArray<Slice> slices;
+        /** 各阶段累计耗时，按 {@link LatencyBreakdown.Phase} 序号索引 */
+        final LongAdder[] phaseNanos = new LongAdder[LatencyBreakdown.Phase.values().length];
+        final LongAdder phaseSamples = new LongAdder();
+
+        CallStats(int sliceCount) {
+            this.slices = new AtomicReferenceArray<>(sliceCount);
+            for (int i = 0; i < phaseNanos.length; i++) {
+                phaseNanos[i] = new LongAdder();
+            }
+        }
+
+        void recordPhases(LatencyBreakdown breakdown) {
+            phaseSamples.increment();
+            for (LatencyBreakdown.Phase phase : LatencyBreakdown.Phase.values()) {
+                long nanos = breakdown.getNanos(phase);
+                if (nanos > 0) {
+                    phaseNanos[phase.ordinal()].add(nanos);
+                }
+            }
+        }
+
+        /**
+         * 各阶段平均耗时（毫秒），未出现的阶段不输出
+         */
+        Map<String, Double> averagePhaseMillis() {
+            long samples = phaseSamples.sum();
+            Map<String, Double> averages = new LinkedHashMap<>();
+            if (samples == 0) {
+                return averages;
+            }
+            for (LatencyBreakdown.Phase phase : LatencyBreakdown.Phase.values()) {
+                long nanos = phaseNanos[phase.ordinal()].sum();
+                if (nanos > 0) {
+                    averages.put(phase.getKey(), nanos / 1_000_000.0 / samples);
+                }
+            }
+            return averages;
+        }
+
+        /**
+         * 获取当前时间片，过期的槽位用CAS替换为新时间片，竞争失败时使用胜出方放入的时间片
+         */
+        Slice currentSlice(long epoch) {
+            int index = (int) (epoch % slices.length());
+            while (true) {
+                Slice slice = slices.get(index);
+                if (slice != null && slice.epoch == epoch) {
+                    return slice;
+                }
+                if (slice != null && slice.epoch > epoch) {
+                    // 时钟回拨或记录线程被长时间挂起，计入更新的时间片
+                    return slice;
+                }
+                Slice fresh = new Slice(epoch);
+                if (slices.compareAndSet(index, slice, fresh)) {
+                    return fresh;
+                }
+            }
+        }
+
+        WindowStatistics window(long nowSlice, long windowSlices, long windowMillis) {
+            long calls = 0;
+            long success = 0;
+            LatencyHistogram.Snapshot latency = LatencyHistogram.Snapshot.empty();
+            for (int i = 0; i < slices.length(); i++) {
+                Slice slice = slices.get(i);
+                if (slice != null && slice.epoch > nowSlice - windowSlices && slice.epoch <= nowSlice) {
+                    calls += slice.calls.sum();
+                    success += slice.success.sum();
+                    latency = latency.merge(slice.latency.snapshot());
+                }
+            }
+            return WindowStatistics.builder()
+                    .calls(calls)
+                    .failedCalls(calls - success)
+                    .successRate(calls > 0 ? (double) success / calls : 0.0)
+                    .callsPerSecond(calls * 1000.0 / windowMillis)
+                    .p50(latency.percentile(0.5))
+                    .p90(latency.percentile(0.9))
+                    .p95(latency.percentile(0.95))
+                    .p99(latency.percentile(0.99))
+                    .maxDuration(latency.getMax())
+                    .build();
+        }
+    }
+
+    @Value
+    public static class Totals {
+        long calls;
+        long successCalls;
+        long durationSum;
+        Map<String, Long> operationCounts;
+        Map<String, Long> modelCounts;
+    }
+
+    @Data
+    @Builder
+    public static class CallStatistics {
+        private String operationType;
+        private String modelName;
+        private long calls;
+        private long successCalls;
+        private long failedCalls;
+        private double successRate;
+        private double averageDuration;
+        private long p50;
+        private long p90;
+        private long p99;
+        private long maxDuration;
+        /** 各阶段平均耗时(毫秒)，key见 LatencyBreakdown.Phase */
+        private Map<String, Double> averagePhaseMillis;
+        /** 各滑动窗口的统计，key如 1m / 5m / 15m */
+        private Map<String, WindowStatistics> windows;
+    }
+
+    @Data
+    @Builder
+    public static class WindowStatistics {
+        private long calls;
+        private long failedCalls;
+        private double successRate;
+        private double callsPerSecond;
+        private long p50;
+        private long p90;
+        private long p95;
+        private long p99;
+        private long maxDuration;
+    }
+}
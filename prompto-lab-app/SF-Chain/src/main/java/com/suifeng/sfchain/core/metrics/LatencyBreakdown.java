@@ -0,0 +1,160 @@
+package com.suifeng.sfchain.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * 描述: 单次调用的分阶段耗时
+ * 执行线程通过 {@link #begin()} 绑定当前调用，HTTP客户端等下游组件用 {@link #current()} 取得并累加各阶段耗时；
+ * 流式调用的后续阶段在其他线程完成，因此计数使用原子数组，由发起线程在装配时取得实例后传递
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public final class LatencyBreakdown {
+
+    /**
+     * 调用阶段，key用于日志和指标
+     */
+    public enum Phase {
+        /** 模型解析与操作配置合并 */
+        MODEL_RESOLUTION("model_resolution"),
+        /** 子类构建基础提示词 */
+        PROMPT_BUILD("prompt_build"),
+        /** 拼接会话上下文 */
+        CONTEXT_ASSEMBLY("context_assembly"),
+        /** 请求等待执行线程 */
+        QUEUE_WAIT("queue_wait"),
+        /** 建立连接 */
+        CONNECT("connect"),
+        /** 发送请求体到收到响应头 */
+        TIME_TO_FIRST_BYTE("ttfb"),
+        /** 读取响应体，流式调用为读取全部chunk */
+        DOWNLOAD("download"),
+        /** 从响应中提取JSON */
+        JSON_EXTRACT("json_extract"),
+        /** 解析为输出对象 */
+        PARSE("parse"),
+        /** JSON修复 */
+        REPAIR("repair"),
+        /** 未归入以上阶段的耗时，如响应解码、用量记录和日志准备 */
+        POST_PROCESS("post_process");
+
+        private final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static final ThreadLocal<LatencyBreakdown> CURRENT = new ThreadLocal<>();
+
+    /** 未绑定调用时返回的实例，累加无效果 */
+    private static final LatencyBreakdown DETACHED = new LatencyBreakdown(false, null);
+
+    private final boolean active;
+    private final LatencyBreakdown previous;
+    private final AtomicLongArray nanos = new AtomicLongArray(PHASES.length);
+
+    private LatencyBreakdown(boolean active, LatencyBreakdown previous) {
+        this.active = active;
+        this.previous = previous;
+    }
+
+    /**
+     * 开始记录并绑定到当前线程，嵌套调用（如JSON修复）结束后恢复外层实例
+     */
+    public static LatencyBreakdown begin() {
+        LatencyBreakdown breakdown = new LatencyBreakdown(true, CURRENT.get());
+        CURRENT.set(breakdown);
+        return breakdown;
+    }
+
+    /**
+     * 当前线程绑定的实例，未绑定时返回不记录的实例
+     */
+    public static LatencyBreakdown current() {
+        LatencyBreakdown breakdown = CURRENT.get();
+        return breakdown != null ? breakdown : DETACHED;
+    }
+
+    /**
+     * 包装有返回值的任务，使其在执行线程上绑定提交时的实例，用于线程池等异步交接
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        LatencyBreakdown breakdown = CURRENT.get();
+        if (breakdown == null) {
+            return task;
+        }
+        return () -> {
+            LatencyBreakdown previous = CURRENT.get();
+            CURRENT.set(breakdown);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * 解除当前线程绑定，已记录的耗时仍可读取
+     */
+    public void detach() {
+        if (!active || CURRENT.get() != this) {
+            return;
+        }
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public void add(Phase phase, long elapsedNanos) {
+        if (active && elapsedNanos > 0) {
+            nanos.addAndGet(phase.ordinal(), elapsedNanos);
+        }
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos.get(phase.ordinal());
+    }
+
+    /**
+     * 将总耗时中未归入任何阶段的部分记为 {@link Phase#POST_PROCESS}，使各阶段之和等于总耗时
+     */
+    public void attributeRemainder(long totalNanos) {
+        long attributed = 0;
+        for (Phase phase : PHASES) {
+            attributed += nanos.get(phase.ordinal());
+        }
+        add(Phase.POST_PROCESS, totalNanos - attributed);
+    }
+
+    /**
+     * 按阶段顺序输出非零阶段的耗时（微秒）
+     */
+    public Map<String, Long> toMicros() {
+        Map<String, Long> micros = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            long value = nanos.get(phase.ordinal());
+            if (value > 0) {
+                micros.put(phase.getKey(), value / 1000);
+            }
+        }
+        return micros;
+    }
+}
@@ -0,0 +1,179 @@
+package com.suifeng.sfchain.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 描述: 延迟直方图
+ * 按几何级数划分的固定桶（相邻桶边界相差约25%），记录无锁，快照可合并，用于估算分位数
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class LatencyHistogram {
+
+    /** 各桶的上界（毫秒），最后一个桶之外的值计入溢出桶 */
+    private static final long[] BOUNDS;
+
+    static {
+        List<Long> bounds = new ArrayList<>();
+        long bound = 1;
+        while (bound < 3_600_000L) {
+            bounds.add(bound);
+            bound = Math.max(bound + 1, Math.round(bound * 1.25));
+        }
+        bounds.add(bound);
+        BOUNDS = bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    /**
+     * 记录一个值（毫秒）
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucketIndex(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * 把快照中的计数累加到当前直方图
+     */
+    public void add(Snapshot snapshot) {
+        if (snapshot == null || snapshot.count == 0) {
+            return;
+        }
+        for (int i = 0; i < snapshot.counts.length; i++) {
+            if (snapshot.counts[i] > 0) {
+                counts.addAndGet(i, snapshot.counts[i]);
+            }
+        }
+        count.add(snapshot.count);
+        sum.add(snapshot.sum);
+        max.accumulate(snapshot.max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * 获取当前快照
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, count.sum(), sum.sum(), max.get());
+    }
+
+    private static int bucketIndex(long value) {
+        int index = Arrays.binarySearch(BOUNDS, value);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * 直方图快照，不可变，可与其他快照合并
+     */
+    public static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(new long[BOUNDS.length + 1], 0, 0, 0);
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public static Snapshot empty() {
+            return EMPTY;
+        }
+
+        public Snapshot merge(Snapshot other) {
+            if (other == null || other.count == 0) {
+                return this;
+            }
+            if (count == 0) {
+                return other;
+            }
+            long[] merged = new long[counts.length];
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] = counts[i] + other.counts[i];
+            }
+            return new Snapshot(merged, count + other.count, sum + other.sum, Math.max(max, other.max));
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        /**
+         * 统计不超过给定值的记录数，按桶上界判断，跨越该值的桶不计入
+         */
+        public long countAtOrBelow(long value) {
+            long total = 0;
+            for (int i = 0; i < BOUNDS.length && BOUNDS[i] <= value; i++) {
+                total += counts[i];
+            }
+            return total;
+        }
+
+        public double getMean() {
+            return count > 0 ? (double) sum / count : 0.0;
+        }
+
+        /**
+         * 估算分位数，返回所在桶的上界（不超过最大值）
+         *
+         * @param quantile 分位，取值0~1
+         */
+        public long percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(Math.min(1.0, Math.max(0.0, quantile)) * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(1, rank)) {
+                    return i < BOUNDS.length ? Math.min(BOUNDS[i], max) : max;
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.suifeng.sfchain.core.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 描述: 指标标签取值约束
+ * 操作和模型标签各自最多接受配置数量的取值，先到先得，超出后统一归入 __other__，
+ * 保证按标签拆分的统计序列数有上限
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricTags {
+
+    public static final String OTHER = "__other__";
+    public static final String UNKNOWN = "unknown";
+
+    private final MetricsConfig config;
+
+    private final Map<String, Set<String>> accepted = new ConcurrentHashMap<>();
+
+    public String operation(String operationType) {
+        return normalize("operation", operationType);
+    }
+
+    public String model(String modelName) {
+        return normalize("model", modelName);
+    }
+
+    private String normalize(String tag, String value) {
+        if (value == null || value.isEmpty()) {
+            return UNKNOWN;
+        }
+        Set<String> values = accepted.computeIfAbsent(tag, k -> ConcurrentHashMap.newKeySet());
+        if (values.contains(value)) {
+            return value;
+        }
+        // 并发时可能略超上限，只影响少量序列
+        if (values.size() >= config.getMaxTagValues()) {
+            return OTHER;
+        }
+        values.add(value);
+        return value;
+    }
+}
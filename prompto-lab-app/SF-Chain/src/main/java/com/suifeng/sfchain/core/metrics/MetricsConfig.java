@@ -0,0 +1,41 @@
+package com.suifeng.sfchain.core.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 描述: 调用指标配置
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.metrics")
+public class MetricsConfig {
+
+    /**
+     * 滑动窗口的时间片长度（秒），窗口按时间片整体滚动
+     */
+    private int sliceSeconds = 10;
+
+    /**
+     * 统计的滑动窗口（分钟），保留的时间片数量由最大窗口决定
+     */
+    private List<Integer> windowMinutes = new ArrayList<>(List.of(1, 5, 15));
+
+    /**
+     * 每个指标标签（操作、模型）最多保留的取值数，超出的取值归入 __other__，防止指标序列无限增长
+     */
+    private int maxTagValues = 64;
+
+    /**
+     * 导出为Prometheus直方图时使用的耗时桶上界（毫秒）
+     */
+    private List<Long> histogramBucketsMillis = new ArrayList<>(
+            List.of(50L, 100L, 250L, 500L, 1000L, 2500L, 5000L, 10000L, 30000L, 60000L, 120000L));
+}
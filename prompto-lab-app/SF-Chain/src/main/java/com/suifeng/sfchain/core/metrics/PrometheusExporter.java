@@ -0,0 +1,208 @@
+package com.suifeng.sfchain.core.metrics;
+
+import com.suifeng.sfchain.core.logging.CallLogPipeline;
+import com.suifeng.sfchain.core.startup.StartupReadiness;
+import com.suifeng.sfchain.core.usage.TokenUsageLedger;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * 描述: Prometheus文本格式指标导出
+ * 直接读取调用统计、流式统计、token台账和日志管道的计数器，按操作和模型打标签输出；
+ * 用户和会话维度不导出；所有指标的标签取值数都由 {@link MetricTags} 限制，超出部分合并到溢出标签
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Component
+@RequiredArgsConstructor
+public class PrometheusExporter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsConfig config;
+    private final MetricTags tags;
+    private final CallStatisticsRegistry callStatistics;
+    private final StreamStatisticsRegistry streamStatistics;
+    private final TokenUsageLedger usageLedger;
+    private final CallLogPipeline callLogPipeline;
+    private final StartupReadiness startupReadiness;
+
+    /**
+     * 生成抓取内容
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        writeCalls(out);
+        writeStreams(out);
+        writeTokens(out);
+        writePipeline(out);
+        writeStartup(out);
+        return out.toString();
+    }
+
+    private void writeCalls(StringBuilder out) {
+        header(out, "sfchain_calls_total", "counter", "AI operation calls");
+        callStatistics.forEachSeries((operation, model, calls, success, latency) ->
+                sample(out, "sfchain_calls_total", labels(operation, model), calls));
+
+        header(out, "sfchain_call_errors_total", "counter", "AI operation calls that did not succeed");
+        callStatistics.forEachSeries((operation, model, calls, success, latency) ->
+                sample(out, "sfchain_call_errors_total", labels(operation, model), calls - success));
+
+        header(out, "sfchain_call_duration_seconds", "histogram", "AI operation call duration");
+        callStatistics.forEachSeries((operation, model, calls, success, latency) ->
+                histogram(out, "sfchain_call_duration_seconds", labels(operation, model), latency));
+
+        header(out, "sfchain_call_phase_seconds_total", "counter", "Time spent in each call phase");
+        callStatistics.forEachPhase((operation, model, phase, nanos) ->
+                sample(out, "sfchain_call_phase_seconds_total",
+                        labels(operation, model) + ",phase=\"" + phase + "\"", nanos / 1e9));
+
+        header(out, "sfchain_retries_total", "counter", "AI operation retries by reason");
+        callStatistics.forEachRetry((operation, reason, count) ->
+                sample(out, "sfchain_retries_total",
+                        "operation=\"" + escape(operation) + "\",reason=\"" + escape(reason) + "\"", count));
+    }
+
+    private void writeStreams(StringBuilder out) {
+        header(out, "sfchain_stream_time_to_first_token_seconds", "histogram", "Streaming time to first chunk");
+        streamStatistics.forEachSeries((operation, model, ttft, completed, cancelled, failed) ->
+                histogram(out, "sfchain_stream_time_to_first_token_seconds", labels(operation, model), ttft));
+
+        header(out, "sfchain_streams_total", "counter", "Streaming calls by end reason");
+        streamStatistics.forEachSeries((operation, model, ttft, completed, cancelled, failed) -> {
+            String base = labels(operation, model);
+            sample(out, "sfchain_streams_total", base + ",reason=\"completed\"", completed);
+            sample(out, "sfchain_streams_total", base + ",reason=\"cancelled\"", cancelled);
+            sample(out, "sfchain_streams_total", base + ",reason=\"failed\"", failed);
+        });
+    }
+
+    private void writeTokens(StringBuilder out) {
+        // 与调用统计使用同一组受限标签，超出上限的key合并到溢出标签，序列不随抓取时的用量排名变化
+        Map<String, TokenSeries> byOperation =
+                aggregate(TokenUsageLedger.Dimension.OPERATION, tags::operation);
+        Map<String, TokenSeries> byModel = aggregate(TokenUsageLedger.Dimension.MODEL, tags::model);
+
+        header(out, "sfchain_operation_tokens_total", "counter", "Tokens by operation and type");
+        byOperation.forEach((operation, series) -> tokens(out, "sfchain_operation_tokens_total",
+                "operation=\"" + escape(operation) + "\"", series));
+
+        header(out, "sfchain_model_tokens_total", "counter", "Tokens by model and type, cached counts prompt cache hits");
+        byModel.forEach((model, series) -> tokens(out, "sfchain_model_tokens_total",
+                "model=\"" + escape(model) + "\"", series));
+
+        header(out, "sfchain_model_cost_total", "counter", "Cost by model in configured price units");
+        byModel.forEach((model, series) -> sample(out, "sfchain_model_cost_total",
+                "model=\"" + escape(model) + "\"", series.cost));
+    }
+
+    private Map<String, TokenSeries> aggregate(TokenUsageLedger.Dimension dimension, UnaryOperator<String> label) {
+        Map<String, TokenSeries> result = new TreeMap<>();
+        usageLedger.getUsage(dimension, 0).forEach((key, usage) -> {
+            // 台账淘汰的用量已归入同名溢出key，不再占用标签名额
+            String name = TokenUsageLedger.OTHER_KEY.equals(key) ? MetricTags.OTHER : label.apply(key);
+            result.computeIfAbsent(name, k -> new TokenSeries()).add(usage);
+        });
+        return result;
+    }
+
+    private void writePipeline(StringBuilder out) {
+        CallLogPipeline.PipelineStatistics pipeline = callLogPipeline.getStatistics();
+        header(out, "sfchain_call_log_queue_depth", "gauge", "Call logs waiting to be written");
+        sample(out, "sfchain_call_log_queue_depth", null, pipeline.getQueueDepth());
+        header(out, "sfchain_call_log_dropped_total", "counter", "Call logs dropped because the queue was full");
+        sample(out, "sfchain_call_log_dropped_total", null, pipeline.getDropped());
+        header(out, "sfchain_call_log_queue_wait_seconds", "histogram", "Time call logs spend in the queue");
+        histogram(out, "sfchain_call_log_queue_wait_seconds", null, callLogPipeline.getQueueWaitSnapshot());
+    }
+
+    private void writeStartup(StringBuilder out) {
+        StartupReadiness.Snapshot startup = startupReadiness.snapshot();
+        startupGauge(out, "sfchain_startup_serving_seconds", "Seconds from JVM start until requests were accepted",
+                startup.getServingAtMillis());
+        startupGauge(out, "sfchain_startup_ready_seconds", "Seconds from JVM start until all startup phases finished",
+                startup.getReadyAtMillis());
+        startupGauge(out, "sfchain_startup_first_request_seconds", "Seconds from JVM start until the first AI operation call",
+                startup.getFirstRequestAtMillis());
+    }
+
+    private static void startupGauge(StringBuilder out, String name, String help, long uptimeMillis) {
+        if (uptimeMillis < 0) {
+            return;
+        }
+        header(out, name, "gauge", help);
+        sample(out, name, null, uptimeMillis / 1000.0);
+    }
+
+    private void tokens(StringBuilder out, String name, String labels, TokenSeries series) {
+        sample(out, name, labels + ",type=\"prompt\"", series.promptTokens);
+        sample(out, name, labels + ",type=\"completion\"", series.completionTokens);
+        sample(out, name, labels + ",type=\"cached\"", series.cachedTokens);
+    }
+
+    private void histogram(StringBuilder out, String name, String labels, LatencyHistogram.Snapshot snapshot) {
+        String prefix = labels != null ? labels + "," : "";
+        List<Long> buckets = config.getHistogramBucketsMillis();
+        for (Long bucket : buckets) {
+            sample(out, name + "_bucket", prefix + "le=\"" + seconds(bucket) + "\"", snapshot.countAtOrBelow(bucket));
+        }
+        sample(out, name + "_bucket", prefix + "le=\"+Inf\"", snapshot.getCount());
+        sample(out, name + "_sum", labels, snapshot.getSum() / 1000.0);
+        sample(out, name + "_count", labels, snapshot.getCount());
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null && !labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String labels(String operation, String model) {
+        return "operation=\"" + escape(operation) + "\",model=\"" + escape(model) + "\"";
+    }
+
+    private static String seconds(long millis) {
+        return String.valueOf(millis / 1000.0);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * 同一标签下的token用量合计
+     */
+    private static final class TokenSeries {
+        private long promptTokens;
+        private long completionTokens;
+        private long cachedTokens;
+        private double cost;
+
+        void add(TokenUsageLedger.UsageSnapshot usage) {
+            promptTokens += usage.getPromptTokens();
+            completionTokens += usage.getCompletionTokens();
+            cachedTokens += usage.getCachedTokens();
+            cost += usage.getCost();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.suifeng.sfchain.core.metrics;
+
+import com.suifeng.sfchain.core.TokenEstimator;
+import com.suifeng.sfchain.core.logging.AICallLog;
+import com.suifeng.sfchain.core.usage.TokenUsage;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 描述: 单次流式调用的指标记录器
+ * 由Flux的信号回调驱动，Reactor保证onNext串行执行，结束信号只处理一次
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class StreamCallRecorder {
+
+    private final long createdNanos = System.nanoTime();
+    private volatile long subscribedNanos;
+    private long firstChunkNanos;
+    private long lastChunkNanos;
+    private long finishedNanos;
+
+    private int chunks;
+    private int estimatedTokens;
+    private final StringBuilder content = new StringBuilder();
+    private final LatencyHistogram interChunk = new LatencyHistogram();
+
+    @Getter
+    private volatile TokenUsage usage;
+
+    @Getter
+    private volatile double cost;
+
+    @Getter
+    private volatile String errorMessage;
+
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    public void onSubscribe() {
+        subscribedNanos = System.nanoTime();
+    }
+
+    public void onChunk(String chunk) {
+        long now = System.nanoTime();
+        if (chunks == 0) {
+            firstChunkNanos = now;
+        } else {
+            interChunk.record(TimeUnit.NANOSECONDS.toMillis(now - lastChunkNanos));
+        }
+        lastChunkNanos = now;
+        chunks++;
+        estimatedTokens += TokenEstimator.estimate(chunk);
+        content.append(chunk);
+    }
+
+    public void onUsage(TokenUsage usage, double cost) {
+        this.usage = usage;
+        this.cost = cost;
+    }
+
+    /**
+     * 模型未返回usage时按提示词和已收到的内容估算用量
+     *
+     * @param prompt 提示词
+     * @return 估算的token用量
+     */
+    public TokenUsage estimateUsage(String prompt) {
+        return new TokenUsage(TokenEstimator.estimate(prompt), estimatedTokens, 0);
+    }
+
+    public void onError(Throwable error) {
+        this.errorMessage = error.getMessage();
+    }
+
+    /**
+     * 标记结束
+     *
+     * @return 首次结束时返回true
+     */
+    public boolean finish() {
+        if (!finished.compareAndSet(false, true)) {
+            return false;
+        }
+        finishedNanos = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * 从订阅（未订阅时从创建）到结束的总耗时
+     */
+    public long getDurationMillis() {
+        long start = subscribedNanos != 0 ? subscribedNanos : createdNanos;
+        return TimeUnit.NANOSECONDS.toMillis(finishedNanos - start);
+    }
+
+    public String getContent() {
+        return content.toString();
+    }
+
+    public int getContentLength() {
+        return content.length();
+    }
+
+    /**
+     * 生成本次调用的流式指标
+     */
+    public AICallLog.StreamMetrics toMetrics(AICallLog.StreamEndReason reason) {
+        long start = subscribedNanos != 0 ? subscribedNanos : createdNanos;
+        TokenUsage reported = usage;
+        int outputTokens = reported != null ? reported.getCompletionTokens() : estimatedTokens;
+        long generationNanos = chunks > 0 ? lastChunkNanos - firstChunkNanos : 0;
+        LatencyHistogram.Snapshot gaps = interChunk.snapshot();
+        return AICallLog.StreamMetrics.builder()
+                .timeToFirstTokenMillis(chunks > 0 ? TimeUnit.NANOSECONDS.toMillis(firstChunkNanos - start) : null)
+                .chunks(chunks)
+                .outputTokens(outputTokens)
+                .usageReported(reported != null)
+                .tokensPerSecond(generationNanos > 0 ? outputTokens * 1_000_000_000.0 / generationNanos : 0.0)
+                .interChunkP50Millis(gaps.percentile(0.5))
+                .interChunkP90Millis(gaps.percentile(0.9))
+                .interChunkMaxMillis(gaps.getMax())
+                .endReason(reason)
+                .build();
+    }
+
+    /**
+     * chunk间隔直方图快照，用于汇总统计
+     */
+    public LatencyHistogram.Snapshot getInterChunkSnapshot() {
+        return interChunk.snapshot();
+    }
+}
@@ -0,0 +1,149 @@
+package com.suifeng.sfchain.core.metrics;
+
+import com.suifeng.sfchain.core.logging.AICallLog;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 描述: 流式调用汇总统计
+ * 按操作和模型汇总首token耗时、chunk间隔分布、输出速度和结束原因
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Component
+@RequiredArgsConstructor
+public class StreamStatisticsRegistry {
+
+    private final MetricTags tags;
+
+    private final Map<Key, StreamStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次流式调用
+     */
+    public void record(String operationType, String modelName, AICallLog.StreamMetrics metrics,
+                       LatencyHistogram.Snapshot interChunk) {
+        StreamStats target = stats.computeIfAbsent(new Key(tags.operation(operationType), tags.model(modelName)),
+                k -> new StreamStats());
+        target.streams.increment();
+        switch (metrics.getEndReason()) {
+            case COMPLETED -> target.completed.increment();
+            case CANCELLED -> target.cancelled.increment();
+            case FAILED -> target.failed.increment();
+        }
+        if (metrics.getTimeToFirstTokenMillis() != null) {
+            target.timeToFirstToken.record(metrics.getTimeToFirstTokenMillis());
+        }
+        target.interChunk.add(interChunk);
+        target.chunks.add(metrics.getChunks());
+        target.outputTokens.add(metrics.getOutputTokens());
+        if (metrics.getTokensPerSecond() > 0) {
+            target.tokensPerSecondSum.add(metrics.getTokensPerSecond());
+            target.tokensPerSecondSamples.increment();
+        }
+    }
+
+    /**
+     * 获取所有操作/模型的流式统计
+     */
+    public List<StreamStatistics> getStatistics() {
+        return stats.entrySet().stream()
+                .map(entry -> entry.getValue().toStatistics(entry.getKey()))
+                .sorted(Comparator.comparing(StreamStatistics::getOperationType)
+                        .thenComparing(StreamStatistics::getModelName))
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * 遍历各操作/模型的首token耗时分布和结束原因计数，供指标导出使用
+     */
+    void forEachSeries(SeriesVisitor visitor) {
+        stats.forEach((key, streamStats) -> visitor.visit(key.getOperationType(), key.getModelName(),
+                streamStats.timeToFirstToken.snapshot(), streamStats.completed.sum(),
+                streamStats.cancelled.sum(), streamStats.failed.sum()));
+    }
+
+    interface SeriesVisitor {
+        void visit(String operationType, String modelName, LatencyHistogram.Snapshot timeToFirstToken,
+                   long completed, long cancelled, long failed);
+    }
+
+    @Value
+    private static class Key {
+        String operationType;
+        String modelName;
+    }
+
+    private static final class StreamStats {
+        private final LongAdder streams = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder chunks = new LongAdder();
+        private final LongAdder outputTokens = new LongAdder();
+        private final DoubleAdder tokensPerSecondSum = new DoubleAdder();
+        private final LongAdder tokensPerSecondSamples = new LongAdder();
+        private final LatencyHistogram timeToFirstToken = new LatencyHistogram();
+        private final LatencyHistogram interChunk = new LatencyHistogram();
+
+        StreamStatistics toStatistics(Key key) {
+            long total = streams.sum();
+            long samples = tokensPerSecondSamples.sum();
+            LatencyHistogram.Snapshot ttft = timeToFirstToken.snapshot();
+            LatencyHistogram.Snapshot gaps = interChunk.snapshot();
+            return StreamStatistics.builder()
+                    .operationType(key.getOperationType())
+                    .modelName(key.getModelName())
+                    .streams(total)
+                    .completed(completed.sum())
+                    .cancelled(cancelled.sum())
+                    .failed(failed.sum())
+                    .timeToFirstTokenP50(ttft.percentile(0.5))
+                    .timeToFirstTokenP90(ttft.percentile(0.9))
+                    .timeToFirstTokenP99(ttft.percentile(0.99))
+                    .interChunkP50(gaps.percentile(0.5))
+                    .interChunkP90(gaps.percentile(0.9))
+                    .interChunkP99(gaps.percentile(0.99))
+                    .averageChunks(total > 0 ? (double) chunks.sum() / total : 0.0)
+                    .averageOutputTokens(total > 0 ? (double) outputTokens.sum() / total : 0.0)
+                    .averageTokensPerSecond(samples > 0 ? tokensPerSecondSum.sum() / samples : 0.0)
+                    .build();
+        }
+    }
+
+    @Data
+    @Builder
+    public static class StreamStatistics {
+        private String operationType;
+        private String modelName;
+        private long streams;
+        private long completed;
+        private long cancelled;
+        private long failed;
+        private long timeToFirstTokenP50;
+        private long timeToFirstTokenP90;
+        private long timeToFirstTokenP99;
+        private long interChunkP50;
+        private long interChunkP90;
+        private long interChunkP99;
+        private double averageChunks;
+        private double averageOutputTokens;
+        private double averageTokensPerSecond;
+    }
+}
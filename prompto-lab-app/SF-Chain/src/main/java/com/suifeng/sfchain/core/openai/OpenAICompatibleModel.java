@@ -8,6 +8,8 @@ import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
 
 /**
  * 描述: OpenAI兼容的通用模型实现
@@ -17,6 +19,11 @@ import java.util.Map;
 @Slf4j
 public class OpenAICompatibleModel implements AIModel {
 
+    /**
+     * 流式请求要求最后一个chunk返回usage，仅对开启streamUsage的模型发送
+     */
+    private static final Map<String, Object> STREAM_USAGE_OPTIONS = Map.of("include_usage", true);
+
     /**
      * -- GETTER --
      *  获取模型配置
@@ -75,10 +82,33 @@ public class OpenAICompatibleModel implements AIModel {
      * 生成响应 - 支持自定义参数
      */
     public String generate(String prompt, Integer maxTokens, Double temperature, Boolean jsonOutput) {
+        return extractContent(chatCompletion(prompt, maxTokens, temperature, jsonOutput));
+    }
+    
+    /**
+     * 生成响应 - 支持思考模式
+     */
+    public String generateWithThinking(String prompt, Integer maxTokens, Double temperature) {
+        return extractContent(chatCompletionWithThinking(prompt, maxTokens, temperature));
+    }
+    
+    /**
+     * 发送请求并返回完整响应（包含usage）
+     */
+    public OpenAIResponse chatCompletion(String prompt, Integer maxTokens, Double temperature, Boolean jsonOutput) {
+        return chatCompletion(prompt, maxTokens, temperature, jsonOutput, null);
+    }
+    
+    /**
+     * 发送请求并返回完整响应，通过句柄报告首字节并支持取消
+     */
+    public OpenAIResponse chatCompletion(String prompt, Integer maxTokens, Double temperature, Boolean jsonOutput,
+                                         RequestHandle handle) {
         try {
             OpenAIRequest request = buildRequest(prompt, maxTokens, temperature, jsonOutput);
-            OpenAIResponse response = httpClient.chatCompletion(request);
-            return httpClient.extractContent(response);
+            return httpClient.chatCompletion(request, handle);
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             log.error("模型{}生成失败", config.getModelName(), e);
             throw new RuntimeException("模型生成失败: " + e.getMessage(), e);
@@ -86,24 +116,40 @@ public class OpenAICompatibleModel implements AIModel {
     }
     
     /**
-     * 生成响应 - 支持思考模式
+     * 以思考模式发送请求并返回完整响应（包含usage）
      */
-    public String generateWithThinking(String prompt, Integer maxTokens, Double temperature) {
+    public OpenAIResponse chatCompletionWithThinking(String prompt, Integer maxTokens, Double temperature) {
+        return chatCompletionWithThinking(prompt, maxTokens, temperature, null);
+    }
+    
+    /**
+     * 以思考模式发送请求并返回完整响应，通过句柄报告首字节并支持取消
+     */
+    public OpenAIResponse chatCompletionWithThinking(String prompt, Integer maxTokens, Double temperature,
+                                                     RequestHandle handle) {
         if (!Boolean.TRUE.equals(config.getSupportThinking())) {
             log.warn("模型{}不支持思考模式，使用普通模式", config.getModelName());
-            return generate(prompt, maxTokens, temperature, null);
+            return chatCompletion(prompt, maxTokens, temperature, null, handle);
         }
         
         try {
             OpenAIRequest request = buildRequestWithThinking(prompt, maxTokens, temperature);
-            OpenAIResponse response = httpClient.chatCompletion(request);
-            return httpClient.extractContent(response);
+            return httpClient.chatCompletion(request, handle);
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             log.error("模型{}思考模式生成失败", config.getModelName(), e);
             throw new RuntimeException("思考模式生成失败: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * 提取响应内容
+     */
+    public String extractContent(OpenAIResponse response) {
+        return httpClient.extractContent(response);
+    }
+    
     /**
      * 构建请求对象
      */
@@ -165,9 +211,17 @@ public class OpenAICompatibleModel implements AIModel {
      * 流式生成响应 - 支持自定义参数
      */
     public Flux<String> generateStream(String prompt, Integer maxTokens, Double temperature, Boolean jsonOutput) {
+        return generateStream(prompt, maxTokens, temperature, jsonOutput, null);
+    }
+    
+    /**
+     * 流式生成响应 - 流结束时通过回调返回usage
+     */
+    public Flux<String> generateStream(String prompt, Integer maxTokens, Double temperature, Boolean jsonOutput,
+                                       Consumer<OpenAIResponse.Usage> usageConsumer) {
         try {
             OpenAIRequest request = buildStreamRequest(prompt, maxTokens, temperature, jsonOutput);
-            return httpClient.chatCompletionStream(request);
+            return httpClient.chatCompletionStream(request, usageConsumer);
         } catch (Exception e) {
             log.error("模型{}流式生成失败", config.getModelName(), e);
             return Flux.error(new RuntimeException("模型流式生成失败: " + e.getMessage(), e));
@@ -178,14 +232,22 @@ public class OpenAICompatibleModel implements AIModel {
      * 流式生成响应 - 支持思考模式
      */
     public Flux<String> generateStreamWithThinking(String prompt, Integer maxTokens, Double temperature) {
+        return generateStreamWithThinking(prompt, maxTokens, temperature, null);
+    }
+    
+    /**
+     * 流式生成响应 - 支持思考模式，流结束时通过回调返回usage
+     */
+    public Flux<String> generateStreamWithThinking(String prompt, Integer maxTokens, Double temperature,
+                                                   Consumer<OpenAIResponse.Usage> usageConsumer) {
         if (!Boolean.TRUE.equals(config.getSupportThinking())) {
             log.warn("模型{}不支持思考模式，使用普通流式模式", config.getModelName());
-            return generateStream(prompt, maxTokens, temperature, null);
+            return generateStream(prompt, maxTokens, temperature, null, usageConsumer);
         }
         
         try {
             OpenAIRequest request = buildStreamRequestWithThinking(prompt, maxTokens, temperature);
-            return httpClient.chatCompletionStream(request);
+            return httpClient.chatCompletionStream(request, usageConsumer);
         } catch (Exception e) {
             log.error("模型{}思考模式流式生成失败", config.getModelName(), e);
             return Flux.error(new RuntimeException("思考模式流式生成失败: " + e.getMessage(), e));
@@ -206,7 +268,8 @@ public class OpenAICompatibleModel implements AIModel {
             ))
             .max_tokens(maxTokens != null ? maxTokens : config.getDefaultMaxTokens())
             .temperature(temperature != null ? temperature : config.getDefaultTemperature())
-            .stream(true);  // 设置为true以启用流式输出
+            .stream(true)  // 设置为true以启用流式输出
+            .stream_options(config.isStreamUsageEnabled() ? STREAM_USAGE_OPTIONS : null);
         
         // 设置JSON输出格式
         if (Boolean.TRUE.equals(jsonOutput) && Boolean.TRUE.equals(config.getSupportJsonOutput())) {
@@ -231,6 +294,7 @@ public class OpenAICompatibleModel implements AIModel {
             .max_tokens(maxTokens != null ? maxTokens : config.getDefaultMaxTokens())
             .temperature(temperature != null ? temperature : config.getDefaultTemperature())
             .stream(true)
+            .stream_options(config.isStreamUsageEnabled() ? STREAM_USAGE_OPTIONS : null)
             .enable_thinking(true)
             .build();
     }
@@ -1,6 +1,12 @@
 package com.suifeng.sfchain.core.openai;
 
 import com.alibaba.fastjson2.JSON;
+import com.suifeng.sfchain.core.jfr.ModelRequestEvent;
+import com.suifeng.sfchain.core.jfr.StreamChunkEvent;
+import com.suifeng.sfchain.core.metrics.LatencyBreakdown;
+import com.suifeng.sfchain.core.tracing.Span;
+import com.suifeng.sfchain.core.tracing.Tracing;
+import jdk.jfr.EventType;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
@@ -13,7 +19,9 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * 描述: OpenAI兼容的HTTP客户端
@@ -22,6 +30,9 @@ import java.util.concurrent.CompletableFuture;
  */
 @Slf4j
 public class OpenAIHttpClient {
+
+    private static final EventType REQUEST_EVENT = EventType.getEventType(ModelRequestEvent.class);
+    private static final EventType CHUNK_EVENT = EventType.getEventType(StreamChunkEvent.class);
     
     private final String baseUrl;
     private final String apiKey;
@@ -51,6 +62,23 @@ public class OpenAIHttpClient {
      * 发送聊天完成请求
      */
     public OpenAIResponse chatCompletion(OpenAIRequest request) {
+        return chatCompletion(request, null);
+    }
+
+    /**
+     * 发送聊天完成请求，通过句柄报告首字节并支持取消
+     *
+     * @param handle 请求句柄，可为空
+     */
+    public OpenAIResponse chatCompletion(OpenAIRequest request, RequestHandle handle) {
+        Span span = Tracing.startSpan("llm.http.request").setAttribute("llm.model", request.getModel());
+        ModelRequestEvent event = beginRequestEvent();
+        long requestBytes = 0;
+        int httpStatus = 0;
+        long responseChars = 0;
+        boolean success = false;
+        String error = null;
+        LatencyBreakdown phases = LatencyBreakdown.current();
         try {
             // 智能构建endpoint，避免重复的/v1路径
             String endpoint;
@@ -61,17 +89,31 @@ public class OpenAIHttpClient {
             log.debug("请求体: {}", requestBody);
             log.info("构建的API端点: {}", endpoint);
             
-             HttpURLConnection connection = createConnection(endpoint);
+            long phaseStart = System.nanoTime();
+            HttpURLConnection connection = createConnection(endpoint);
+            if (handle != null) {
+                handle.attach(connection);
+            }
+            connection.connect();
+            phaseStart = markPhase(phases, LatencyBreakdown.Phase.CONNECT, phaseStart);
             
             // 发送请求体
             try (OutputStream os = connection.getOutputStream()) {
                 byte[] input = requestBody.getBytes(StandardCharsets.UTF_8);
                 os.write(input, 0, input.length);
+                span.setAttribute("http.request.bytes", input.length);
+                requestBytes = input.length;
             }
 
             // 读取响应
             StringBuilder response = new StringBuilder();
             int responseCode = connection.getResponseCode();
+            span.setAttribute("http.status", responseCode);
+            httpStatus = responseCode;
+            phaseStart = markPhase(phases, LatencyBreakdown.Phase.TIME_TO_FIRST_BYTE, phaseStart);
+            if (handle != null) {
+                handle.onFirstByte();
+            }
 
             if (responseCode == HttpURLConnection.HTTP_OK) {
                 try (BufferedReader br = new BufferedReader(
@@ -93,14 +135,30 @@ public class OpenAIHttpClient {
                 throw new RuntimeException("HTTP请求失败，状态码: " + responseCode + ", 响应: " + response.toString());
             }
 
+            markPhase(phases, LatencyBreakdown.Phase.DOWNLOAD, phaseStart);
             String responseBody = response.toString();
             log.debug("响应体: {}", responseBody);
+            span.setAttribute("http.response.chars", responseBody.length());
+            responseChars = responseBody.length();
             
-            return JSON.parseObject(responseBody, OpenAIResponse.class);
+            OpenAIResponse parsed = JSON.parseObject(responseBody, OpenAIResponse.class);
+            success = true;
+            return parsed;
             
         } catch (Exception e) {
+            if (handle != null && handle.isCancelled()) {
+                // 对冲请求的落败方被取消，不视为错误
+                span.setAttribute("http.cancelled", true);
+                error = "cancelled";
+                throw new CancellationException("请求已取消");
+            }
+            span.recordError(e);
+            error = e.getMessage();
             log.error("OpenAI API调用失败", e);
             throw new RuntimeException("OpenAI API调用失败: " + e.getMessage(), e);
+        } finally {
+            span.close();
+            commit(event, request.getModel(), false, requestBytes, httpStatus, responseChars, 0, success, error);
         }
     }
 
@@ -142,9 +200,31 @@ public class OpenAIHttpClient {
      * 发送流式聊天完成请求
      */
     public Flux<String> chatCompletionStream(OpenAIRequest request) {
+        return chatCompletionStream(request, null);
+    }
+    
+    /**
+     * 发送流式聊天完成请求，最后一个chunk携带的usage通过回调返回
+     *
+     * @param request       请求
+     * @param usageConsumer usage回调，可为空
+     */
+    public Flux<String> chatCompletionStream(OpenAIRequest request, Consumer<OpenAIResponse.Usage> usageConsumer) {
+        // 分阶段耗时在装配线程取得，后续阶段在流式线程中累加
+        LatencyBreakdown phases = LatencyBreakdown.current();
         return Flux.create(sink -> {
-            // 在新线程中异步处理流式响应
-            CompletableFuture.runAsync(() -> {
+            long submitted = System.nanoTime();
+            // 在新线程中异步处理流式响应，链路上下文随任务传递
+            CompletableFuture.runAsync(Tracing.wrap(() -> {
+                long phaseStart = markPhase(phases, LatencyBreakdown.Phase.QUEUE_WAIT, submitted);
+                Span span = Tracing.startSpan("llm.http.stream").setAttribute("llm.model", request.getModel());
+                ModelRequestEvent event = beginRequestEvent();
+                long requestBytes = 0;
+                int httpStatus = 0;
+                long responseChars = 0;
+                int chunks = 0;
+                boolean success = false;
+                String error = null;
                 try {
                     // 设置流式请求
                     OpenAIRequest streamRequest = request.toBuilder().stream(true).build();
@@ -162,21 +242,31 @@ public class OpenAIHttpClient {
                     log.debug("请求体: {}", requestBody);
                     
                     HttpURLConnection connection = createConnection(endpoint);
+                    connection.connect();
+                    phaseStart = markPhase(phases, LatencyBreakdown.Phase.CONNECT, phaseStart);
                     
                     // 发送请求体
                     try (OutputStream os = connection.getOutputStream()) {
                         byte[] input = requestBody.getBytes(StandardCharsets.UTF_8);
                         os.write(input, 0, input.length);
+                        requestBytes = input.length;
                     }
                     
                     // 读取流式响应
                     int responseCode = connection.getResponseCode();
+                    span.setAttribute("http.status", responseCode);
+                    httpStatus = responseCode;
+                    phaseStart = markPhase(phases, LatencyBreakdown.Phase.TIME_TO_FIRST_BYTE, phaseStart);
                     if (responseCode == HttpURLConnection.HTTP_OK) {
                         try (BufferedReader reader = new BufferedReader(
                             new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
                             
+                            // chunk事件的持续时间为两个chunk之间的等待，未录制时不创建事件
+                            StreamChunkEvent chunkEvent = beginChunkEvent();
                             String line;
                             while ((line = reader.readLine()) != null && !sink.isCancelled()) {
+                                // 下载耗时在chunk下发前累加，下游在complete中结束流时已包含全部读取时间
+                                phaseStart = markPhase(phases, LatencyBreakdown.Phase.DOWNLOAD, phaseStart);
                                 if (line.trim().isEmpty()) {
                                     continue;
                                 }
@@ -194,12 +284,27 @@ public class OpenAIHttpClient {
                                     try {
                                         // 解析流式响应
                                         OpenAIStreamResponse streamResponse = JSON.parseObject(data, OpenAIStreamResponse.class);
+                                        if (usageConsumer != null && streamResponse != null && streamResponse.getUsage() != null) {
+                                            usageConsumer.accept(streamResponse.getUsage());
+                                        }
                                         String content = extractStreamContent(streamResponse);
                                         if (content != null && !content.isEmpty()) {
+                                            if (chunkEvent != null) {
+                                                chunkEvent.end();
+                                                if (chunkEvent.shouldCommit()) {
+                                                    chunkEvent.model = request.getModel();
+                                                    chunkEvent.index = chunks;
+                                                    chunkEvent.chars = content.length();
+                                                    chunkEvent.commit();
+                                                }
+                                            }
+                                            chunks++;
+                                            responseChars += content.length();
                                             // 立即发送内容，而不是缓存
                                             sink.next(content);
                                             // 添加小延迟以确保流式效果
                                             Thread.sleep(10);
+                                            chunkEvent = beginChunkEvent();
                                         }
                                     } catch (Exception e) {
                                         log.warn("解析流式响应失败: {}", data, e);
@@ -210,6 +315,7 @@ public class OpenAIHttpClient {
                             if (!sink.isCancelled()) {
                                 sink.complete();
                             }
+                            success = true;
                         }
                     } else {
                         // 读取错误响应
@@ -221,17 +327,77 @@ public class OpenAIHttpClient {
                                 errorResponse.append(line);
                             }
                         }
+                        error = "HTTP " + responseCode;
                         sink.error(new RuntimeException("HTTP请求失败，状态码: " + responseCode + ", 响应: " + errorResponse.toString()));
                     }
                     
                 } catch (Exception e) {
+                    span.recordError(e);
+                    error = e.getMessage();
                     log.error("流式OpenAI API调用失败", e);
                     sink.error(new RuntimeException("流式OpenAI API调用失败: " + e.getMessage(), e));
+                } finally {
+                    span.setAttribute("stream.cancelled", sink.isCancelled());
+                    span.close();
+                    commit(event, request.getModel(), true, requestBytes, httpStatus, responseChars, chunks,
+                            success, error);
                 }
-            });
+            }));
         }, FluxSink.OverflowStrategy.BUFFER);
     }
     
+    /**
+     * 将距起点的耗时计入指定阶段，返回新的起点
+     */
+    private static long markPhase(LatencyBreakdown phases, LatencyBreakdown.Phase phase, long phaseStart) {
+        long now = System.nanoTime();
+        phases.add(phase, now - phaseStart);
+        return now;
+    }
+
+    /**
+     * JFR未录制该事件时返回null，请求路径上不分配事件对象
+     */
+    private static ModelRequestEvent beginRequestEvent() {
+        if (!REQUEST_EVENT.isEnabled()) {
+            return null;
+        }
+        ModelRequestEvent event = new ModelRequestEvent();
+        event.begin();
+        return event;
+    }
+
+    private static StreamChunkEvent beginChunkEvent() {
+        if (!CHUNK_EVENT.isEnabled()) {
+            return null;
+        }
+        StreamChunkEvent event = new StreamChunkEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 结束并按录制设置提交模型请求事件，字段只在确定提交时填充
+     */
+    private static void commit(ModelRequestEvent event, String model, boolean stream, long requestBytes,
+                               int httpStatus, long responseChars, int chunks, boolean success, String error) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.model = model;
+            event.stream = stream;
+            event.requestBytes = requestBytes;
+            event.httpStatus = httpStatus;
+            event.responseChars = responseChars;
+            event.chunks = chunks;
+            event.success = success;
+            event.error = error;
+            event.commit();
+        }
+    }
+
     /**
      * 提取流式响应内容
      */
@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 描述: OpenAI兼容的模型配置
@@ -19,6 +21,11 @@ import java.util.Map;
 @NoArgsConstructor
 public class OpenAIModelConfig {
     
+    /**
+     * 已知支持stream_options.include_usage的提供商
+     */
+    private static final Set<String> STREAM_USAGE_PROVIDERS = Set.of("openai", "deepseek", "dashscope", "qwen", "aliyun");
+    
     /**
      * 模型名称
      */
@@ -79,6 +86,27 @@ public class OpenAIModelConfig {
      */
     private Boolean enabled;
     
+    /**
+     * 输入token单价（每百万token），用于成本统计
+     */
+    private Double inputPricePerMillion;
+    
+    /**
+     * 输出token单价（每百万token）
+     */
+    private Double outputPricePerMillion;
+    
+    /**
+     * 命中缓存的输入token单价（每百万token），为空时按输入单价计
+     */
+    private Double cachedInputPricePerMillion;
+    
+    /**
+     * 流式请求是否携带stream_options.include_usage，让最后一个chunk返回usage
+     * 为空时按提供商判断，仅对已知支持的提供商开启
+     */
+    private Boolean streamUsage;
+    
     /**
      * 获取额外请求头，如果为null则返回空Map
      */
@@ -96,6 +124,17 @@ public class OpenAIModelConfig {
         additionalHeaders.put(key, value);
     }
     
+    /**
+     * 流式请求是否要求返回usage
+     * 未显式配置时，仅对已知支持stream_options的提供商开启，避免不兼容的服务拒绝请求
+     */
+    public boolean isStreamUsageEnabled() {
+        if (streamUsage != null) {
+            return streamUsage;
+        }
+        return provider != null && STREAM_USAGE_PROVIDERS.contains(provider.trim().toLowerCase(Locale.ROOT));
+    }
+    
     /**
      * 检查配置是否有效
      */
@@ -44,6 +44,11 @@ public class OpenAIRequest {
      */
     private Boolean stream;
     
+    /**
+     * 流式选项，例如 {"include_usage": true} 让最后一个chunk携带usage
+     */
+    private Map<String, Object> stream_options;
+    
     /**
      * 响应格式
      */
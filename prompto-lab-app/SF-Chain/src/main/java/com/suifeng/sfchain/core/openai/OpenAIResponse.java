@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 描述: OpenAI兼容的响应体
@@ -104,5 +105,25 @@ public class OpenAIResponse {
          * 完成token详情 (可选)
          */
         private Object completion_tokens_details;
+        
+        /**
+         * 命中缓存的提示token数 (DeepSeek等提供商)
+         */
+        private Integer prompt_cache_hit_tokens;
+        
+        /**
+         * 解析命中缓存的提示token数
+         * 兼容OpenAI的prompt_tokens_details.cached_tokens和DeepSeek的prompt_cache_hit_tokens
+         */
+        public int resolveCachedTokens() {
+            if (prompt_cache_hit_tokens != null) {
+                return prompt_cache_hit_tokens;
+            }
+            if (prompt_tokens_details instanceof Map<?, ?> details
+                    && details.get("cached_tokens") instanceof Number cached) {
+                return cached.intValue();
+            }
+            return 0;
+        }
     }
 }
\ No newline at end of file
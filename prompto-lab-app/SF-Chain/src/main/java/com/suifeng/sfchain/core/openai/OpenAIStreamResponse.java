@@ -46,6 +46,11 @@ public class OpenAIStreamResponse {
      */
     private String system_fingerprint;
     
+    /**
+     * 使用情况 (仅在请求了stream_options.include_usage时出现在最后一个chunk中)
+     */
+    private OpenAIResponse.Usage usage;
+    
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
@@ -0,0 +1,69 @@
+package com.suifeng.sfchain.core.openai;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 描述: 进行中的模型请求句柄
+ * 由HTTP客户端回填连接和首字节时间，调用方可等待首字节或取消请求（断开连接使阻塞的读取立即失败）
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class RequestHandle {
+
+    private final long startNanos = System.nanoTime();
+    private final CountDownLatch firstByte = new CountDownLatch(1);
+
+    private volatile HttpURLConnection connection;
+    private volatile boolean cancelled;
+    private volatile long firstByteNanos = -1;
+
+    /**
+     * 绑定连接，请求已被取消时立即断开
+     */
+    void attach(HttpURLConnection connection) {
+        this.connection = connection;
+        if (cancelled) {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * 收到响应头
+     */
+    void onFirstByte() {
+        firstByteNanos = System.nanoTime();
+        firstByte.countDown();
+    }
+
+    /**
+     * 等待首字节
+     *
+     * @return 超时前是否已收到首字节
+     */
+    public boolean awaitFirstByte(long timeoutMillis) throws InterruptedException {
+        return firstByte.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 从创建句柄到收到首字节的耗时，尚未收到时返回-1
+     */
+    public long getFirstByteMillis() {
+        long at = firstByteNanos;
+        return at < 0 ? -1 : (at - startNanos) / 1_000_000;
+    }
+
+    public void cancel() {
+        cancelled = true;
+        HttpURLConnection current = connection;
+        if (current != null) {
+            current.disconnect();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,211 @@
+package com.suifeng.sfchain.core.routing;
+
+import com.suifeng.sfchain.core.health.ModelHealth;
+import com.suifeng.sfchain.core.health.ModelHealthProber;
+import com.suifeng.sfchain.core.metrics.CallStatisticsRegistry;
+import com.suifeng.sfchain.core.openai.OpenAIModelConfig;
+import com.suifeng.sfchain.core.openai.OpenAIModelFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 描述: 模型路由
+ * 在操作声明的 {@code supportedModels} 中按策略为每次调用选择模型，依据滑动窗口内的p95延迟和错误率、
+ * 当前在途请求数以及模型配置的单价；健康探测判定不可用或未启用的模型不参与选择
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ModelRouter {
+
+    private final ModelRoutingConfig config;
+    private final CallStatisticsRegistry callStatistics;
+    private final ModelHealthProber healthProber;
+    private final OpenAIModelFactory modelFactory;
+
+    /** 各模型的在途请求数 */
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /** 候选统计缓存，key为操作类型和模型 */
+    private final Map<StatsKey, CachedStats> statsCache = new ConcurrentHashMap<>();
+
+    /**
+     * 为一次调用选择模型
+     *
+     * @param operationType   操作类型
+     * @param supportedModels 操作声明的候选模型
+     * @return 路由决策；策略为 PINNED、没有候选或候选全部不可用时返回null，由调用方使用固定模型
+     */
+    public RoutingDecision route(String operationType, String[] supportedModels) {
+        RoutingPolicy policy = config.policyFor(operationType);
+        if (policy == RoutingPolicy.PINNED || supportedModels == null || supportedModels.length == 0) {
+            return null;
+        }
+        List<RoutingDecision.Candidate> candidates = new ArrayList<>();
+        for (String modelName : new LinkedHashSet<>(List.of(supportedModels))) {
+            RoutingDecision.Candidate candidate = evaluate(operationType, modelName);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+        if (candidates.isEmpty()) {
+            log.debug("操作 {} 没有可用的候选模型，使用固定模型", operationType);
+            return null;
+        }
+
+        List<RoutingDecision.Candidate> pool = candidates.stream()
+                .filter(RoutingDecision.Candidate::isEligible)
+                .collect(Collectors.toList());
+        String reason;
+        if (pool.isEmpty()) {
+            pool = candidates;
+            reason = "所有候选错误率超限，忽略错误率";
+        } else {
+            reason = null;
+        }
+
+        RoutingDecision.Candidate selected;
+        if (policy == RoutingPolicy.CHEAPEST_WITHIN_SLA) {
+            long sla = config.slaFor(operationType);
+            List<RoutingDecision.Candidate> withinSla = pool.stream()
+                    .filter(c -> c.getEstimatedLatencyMillis() <= sla)
+                    .collect(Collectors.toList());
+            if (withinSla.isEmpty()) {
+                selected = fastest(pool);
+                reason = join(reason, "无候选满足" + sla + "ms SLA，选择最快模型");
+            } else {
+                selected = withinSla.stream()
+                        .min(Comparator.comparingDouble(RoutingDecision.Candidate::getBlendedPrice)
+                                .thenComparingLong(RoutingDecision.Candidate::getEstimatedLatencyMillis))
+                        .orElseThrow();
+                reason = join(reason, "满足" + sla + "ms SLA的最低单价模型");
+            }
+        } else {
+            selected = fastest(pool);
+            reason = join(reason, "预估延迟最低");
+        }
+
+        return RoutingDecision.builder()
+                .policy(policy)
+                .selectedModel(selected.getModelName())
+                .reason(reason)
+                .candidates(candidates)
+                .build();
+    }
+
+    /**
+     * 模型请求开始，计入在途请求数
+     */
+    public void onStart(String modelName) {
+        if (modelName != null) {
+            inFlight.computeIfAbsent(modelName, k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    /**
+     * 模型请求结束
+     */
+    public void onFinish(String modelName) {
+        AtomicInteger counter = modelName != null ? inFlight.get(modelName) : null;
+        if (counter != null) {
+            counter.decrementAndGet();
+        }
+    }
+
+    public int getInFlight(String modelName) {
+        AtomicInteger counter = inFlight.get(modelName);
+        return counter != null ? counter.get() : 0;
+    }
+
+    private RoutingDecision.Candidate evaluate(String operationType, String modelName) {
+        if (!modelFactory.isModelRegistered(modelName)) {
+            return null;
+        }
+        OpenAIModelConfig modelConfig = modelFactory.getModelConfig(modelName);
+        if (modelConfig == null || !Boolean.TRUE.equals(modelConfig.getEnabled())) {
+            return null;
+        }
+        ModelHealth health = healthProber.getHealth(modelName);
+        if (!health.isAvailable()) {
+            return null;
+        }
+
+        CallStatisticsRegistry.WindowStatistics window = window(operationType, modelName);
+        boolean measured = window != null && window.getCalls() >= config.getMinSamples();
+        long p95;
+        double errorRate;
+        if (measured) {
+            p95 = window.getP95();
+            errorRate = (double) window.getFailedCalls() / window.getCalls();
+        } else {
+            // 样本不足时使用探测延迟，未探测过视为0，使新模型能积累样本
+            p95 = health.getEwmaLatencyMillis() != null ? Math.round(health.getEwmaLatencyMillis()) : 0;
+            errorRate = 0.0;
+        }
+        int load = getInFlight(modelName);
+        long estimated = Math.round(p95 * (1 + config.getLoadPenaltyRatio() * load));
+        double price = (modelConfig.getInputPricePerMillion() != null ? modelConfig.getInputPricePerMillion() : 0.0)
+                + (modelConfig.getOutputPricePerMillion() != null ? modelConfig.getOutputPricePerMillion() : 0.0);
+
+        return RoutingDecision.Candidate.builder()
+                .modelName(modelName)
+                .estimatedLatencyMillis(estimated)
+                .measured(measured)
+                .errorRate(errorRate)
+                .inFlight(load)
+                .blendedPrice(price)
+                .eligible(errorRate <= config.getMaxErrorRate())
+                .build();
+    }
+
+    private CallStatisticsRegistry.WindowStatistics window(String operationType, String modelName) {
+        StatsKey key = new StatsKey(operationType, modelName);
+        long now = System.currentTimeMillis();
+        CachedStats cached = statsCache.get(key);
+        if (cached != null && now - cached.getLoadedAt() < config.getStatsCacheMillis()) {
+            return cached.getStatistics();
+        }
+        CallStatisticsRegistry.WindowStatistics statistics =
+                callStatistics.getWindowStatistics(operationType, modelName, config.getWindowMinutes());
+        statsCache.put(key, new CachedStats(now, statistics));
+        return statistics;
+    }
+
+    private static RoutingDecision.Candidate fastest(List<RoutingDecision.Candidate> pool) {
+        return pool.stream()
+                .min(Comparator.comparingLong(RoutingDecision.Candidate::getEstimatedLatencyMillis)
+                        .thenComparingDouble(RoutingDecision.Candidate::getBlendedPrice))
+                .orElseThrow();
+    }
+
+    private static String join(String first, String second) {
+        return first == null ? second : first + "；" + second;
+    }
+
+    @Value
+    private static class StatsKey {
+        String operationType;
+        String modelName;
+    }
+
+    @Value
+    private static class CachedStats {
+        long loadedAt;
+        CallStatisticsRegistry.WindowStatistics statistics;
+    }
+}
@@ -0,0 +1,74 @@
+package com.suifeng.sfchain.core.routing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 描述: 模型路由配置
+ * 路由只在调用方未指定模型、且操作的 {@code @AIOp.supportedModels} 非空时生效
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.routing")
+public class ModelRoutingConfig {
+
+    /**
+     * 默认路由策略，PINNED 保持原有的固定模型行为
+     */
+    private RoutingPolicy defaultPolicy = RoutingPolicy.PINNED;
+
+    /**
+     * 按操作覆盖路由策略，key为操作类型
+     */
+    private Map<String, RoutingPolicy> operationPolicies = new HashMap<>();
+
+    /**
+     * 默认延迟SLA（毫秒），与候选模型的预估p95延迟比较
+     */
+    private long slaMillis = 10000;
+
+    /**
+     * 按操作覆盖延迟SLA，key为操作类型
+     */
+    private Map<String, Long> operationSlaMillis = new HashMap<>();
+
+    /**
+     * 错误率上限，超过的候选不参与选择（全部超过时忽略该条件）
+     */
+    private double maxErrorRate = 0.2;
+
+    /**
+     * 在途请求对预估延迟的放大系数：预估延迟 = p95 × (1 + 系数 × 在途请求数)
+     */
+    private double loadPenaltyRatio = 0.1;
+
+    /**
+     * 统计使用的滑动窗口（分钟），需为 sf-chain.metrics 中保留范围内的值
+     */
+    private int windowMinutes = 5;
+
+    /**
+     * 窗口内样本数少于该值时不使用窗口统计，改用健康探测的延迟EWMA，使新模型有机会被选中
+     */
+    private int minSamples = 5;
+
+    /**
+     * 候选统计的缓存时间（毫秒），避免每次调用都合并窗口直方图
+     */
+    private long statsCacheMillis = 1000;
+
+    public RoutingPolicy policyFor(String operationType) {
+        return operationPolicies.getOrDefault(operationType, defaultPolicy);
+    }
+
+    public long slaFor(String operationType) {
+        return operationSlaMillis.getOrDefault(operationType, slaMillis);
+    }
+}
@@ -0,0 +1,47 @@
+package com.suifeng.sfchain.core.routing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 描述: 一次模型路由决策，随调用日志记录
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutingDecision {
+
+    private RoutingPolicy policy;
+
+    private String selectedModel;
+
+    /** 选择原因 */
+    private String reason;
+
+    private List<Candidate> candidates;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Candidate {
+        private String modelName;
+        /** 预估延迟：p95加上排队请求的预期等待 */
+        private long estimatedLatencyMillis;
+        /** 延迟是否来自窗口统计，false表示样本不足 */
+        private boolean measured;
+        private double errorRate;
+        private int inFlight;
+        /** 输入与输出单价之和（每百万token），用于比较相对成本 */
+        private double blendedPrice;
+        private boolean eligible;
+    }
+}
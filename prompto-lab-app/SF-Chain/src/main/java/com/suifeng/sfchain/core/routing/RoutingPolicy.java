@@ -0,0 +1,19 @@
+package com.suifeng.sfchain.core.routing;
+
+/**
+ * 描述: 模型路由策略
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public enum RoutingPolicy {
+
+    /** 固定使用操作映射或注解默认模型，不做路由 */
+    PINNED,
+
+    /** 在满足延迟SLA和错误率上限的候选中选择单价最低的模型，没有满足的候选时退化为 FASTEST */
+    CHEAPEST_WITHIN_SLA,
+
+    /** 选择预估延迟最低的模型 */
+    FASTEST
+}
@@ -0,0 +1,23 @@
+package com.suifeng.sfchain.core.startup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 描述: 启动模式配置
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.startup")
+public class StartupConfig {
+
+    /**
+     * 是否快速启动：应用就绪后立即以@AIOp注解默认配置提供服务，
+     * 数据库初始化、持久化配置同步和模型预热在后台线程中依次执行
+     */
+    private boolean fastStart = false;
+}
@@ -0,0 +1,31 @@
+package com.suifeng.sfchain.core.startup;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 描述: 启动阶段状态，时间均为距JVM启动的毫秒数
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Value
+@Builder
+public class StartupPhase {
+
+    public enum Status {
+        RUNNING, DONE, FAILED
+    }
+
+    String name;
+
+    Status status;
+
+    long startedAtMillis;
+
+    /** 阶段耗时，执行中为-1 */
+    long durationMillis;
+
+    /** 失败原因 */
+    String error;
+}
@@ -0,0 +1,157 @@
+package com.suifeng.sfchain.core.startup;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 描述: 启动就绪状态
+ * 按阶段记录启动过程，并记录开始接收请求和首个AI操作请求距JVM启动的时间，用于跟踪启动耗时
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupReadiness {
+
+    public enum State {
+        /** 应用上下文启动中 */
+        STARTING,
+        /** 快速启动：以注解默认配置提供服务，后台同步尚未完成 */
+        SERVING_DEFAULTS,
+        /** 持久化配置已同步，模型已预热 */
+        READY,
+        /** 可以提供服务，但有启动阶段失败 */
+        DEGRADED
+    }
+
+    private final StartupConfig config;
+
+    private final Map<String, StartupPhase> phases = new LinkedHashMap<>();
+
+    private volatile State state = State.STARTING;
+
+    private volatile long servingAtMillis = -1;
+
+    private volatile long readyAtMillis = -1;
+
+    private final AtomicLong firstRequestAtMillis = new AtomicLong(-1);
+
+    public boolean isFastStart() {
+        return config.isFastStart();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 开始接收请求，快速启动时此后由后台线程继续同步
+     */
+    public synchronized void markServing() {
+        if (servingAtMillis < 0) {
+            servingAtMillis = uptimeMillis();
+        }
+        if (state == State.STARTING) {
+            state = State.SERVING_DEFAULTS;
+        }
+        log.info("SF-Chain开始提供服务，距JVM启动: {}ms", servingAtMillis);
+    }
+
+    /**
+     * 全部启动阶段结束，有阶段失败时进入降级状态
+     */
+    public synchronized void markReady() {
+        if (servingAtMillis < 0) {
+            servingAtMillis = uptimeMillis();
+        }
+        readyAtMillis = uptimeMillis();
+        boolean failed = phases.values().stream().anyMatch(phase -> phase.getStatus() == StartupPhase.Status.FAILED);
+        state = failed ? State.DEGRADED : State.READY;
+        log.info("SF-Chain启动完成: {}，距JVM启动: {}ms", state, readyAtMillis);
+    }
+
+    public synchronized void beginPhase(String name) {
+        phases.put(name, StartupPhase.builder()
+                .name(name)
+                .status(StartupPhase.Status.RUNNING)
+                .startedAtMillis(uptimeMillis())
+                .durationMillis(-1)
+                .build());
+    }
+
+    public synchronized void completePhase(String name) {
+        finishPhase(name, StartupPhase.Status.DONE, null);
+    }
+
+    public synchronized void failPhase(String name, String error) {
+        finishPhase(name, StartupPhase.Status.FAILED, error);
+        log.warn("启动阶段失败: {} - {}", name, error);
+    }
+
+    /**
+     * 记录首个AI操作请求，只在第一次调用时生效
+     */
+    public void recordFirstRequest() {
+        if (firstRequestAtMillis.get() >= 0) {
+            return;
+        }
+        long now = uptimeMillis();
+        if (firstRequestAtMillis.compareAndSet(-1, now)) {
+            log.info("首个AI操作请求，距JVM启动: {}ms，启动状态: {}", now, state);
+        }
+    }
+
+    public synchronized Snapshot snapshot() {
+        return Snapshot.builder()
+                .state(state)
+                .fastStart(config.isFastStart())
+                .servingAtMillis(servingAtMillis)
+                .readyAtMillis(readyAtMillis)
+                .firstRequestAtMillis(firstRequestAtMillis.get())
+                .phases(new ArrayList<>(phases.values()))
+                .build();
+    }
+
+    private void finishPhase(String name, StartupPhase.Status status, String error) {
+        StartupPhase phase = phases.get(name);
+        long now = uptimeMillis();
+        long startedAt = phase != null ? phase.getStartedAtMillis() : now;
+        phases.put(name, StartupPhase.builder()
+                .name(name)
+                .status(status)
+                .startedAtMillis(startedAt)
+                .durationMillis(now - startedAt)
+                .error(error)
+                .build());
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    /**
+     * 就绪状态快照，时间均为距JVM启动的毫秒数，尚未发生时为-1
+     */
+    @Value
+    @Builder
+    public static class Snapshot {
+        State state;
+        boolean fastStart;
+        long servingAtMillis;
+        long readyAtMillis;
+        long firstRequestAtMillis;
+        List<StartupPhase> phases;
+    }
+}
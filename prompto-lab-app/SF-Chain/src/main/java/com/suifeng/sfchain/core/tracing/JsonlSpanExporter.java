@@ -0,0 +1,156 @@
+package com.suifeng.sfchain.core.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 描述: JSONL文件span导出器
+ * 结束span的线程只负责入队（队列满时丢弃），后台线程按批写入滚动文件，每行一个span
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+public class JsonlSpanExporter implements SpanExporter {
+
+    private static final String FILE_PREFIX = "sf-chain-traces-";
+    private static final String FILE_SUFFIX = ".jsonl";
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final int BATCH_SIZE = 256;
+
+    private final TracingConfig config;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<SpanData> queue;
+    private final Thread writerThread;
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean running = true;
+
+    private BufferedWriter writer;
+    private Path currentFile;
+    private long currentBytes;
+
+    public JsonlSpanExporter(TracingConfig config, ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+        this.writerThread = new Thread(this::drainLoop, "sf-chain-trace-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void export(SpanData span) {
+        if (!queue.offer(span)) {
+            dropped.increment();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void drainLoop() {
+        List<SpanData> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                SpanData first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.warn("写入链路文件失败: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+        closeWriter();
+    }
+
+    private void write(List<SpanData> spans) throws IOException {
+        for (SpanData span : spans) {
+            String line = objectMapper.writeValueAsString(span);
+            ensureWriter();
+            writer.write(line);
+            writer.newLine();
+            currentBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        writer.flush();
+    }
+
+    private void ensureWriter() throws IOException {
+        if (writer != null && currentBytes < config.getMaxFileBytes()) {
+            return;
+        }
+        closeWriter();
+        Path directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+        currentFile = directory.resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_TIME_FORMAT) + FILE_SUFFIX);
+        writer = Files.newBufferedWriter(currentFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        currentBytes = Files.size(currentFile);
+        log.info("链路数据写入新文件: {}", currentFile);
+        purgeOldFiles(directory);
+    }
+
+    private void purgeOldFiles(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        int excess = files.size() - Math.max(1, config.getMaxFiles());
+        for (int i = 0; i < excess; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("关闭链路文件失败: {} - {}", currentFile, e.getMessage());
+        }
+        writer = null;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.suifeng.sfchain.core.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 描述: 链路中的一个span
+ * 通过 {@link Tracing#startSpan(String)} 创建并成为当前线程的当前span，close时结束并恢复上一个span；
+ * 通过 {@link Tracing#startDetachedSpan(String, TraceContext)} 创建的span不绑定线程，可在其他线程调用end
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class Span implements AutoCloseable {
+
+    /** 未启用链路追踪时使用的空span */
+    static final Span NOOP = new Span(null, null, null, false, null);
+
+    private final TraceContext context;
+    private final String parentSpanId;
+    private final String name;
+    private final boolean recording;
+    /** 绑定线程时，close需要恢复的上一个上下文 */
+    private final TraceContext previous;
+    private final long startMicros;
+    private final long startNanos;
+    private final AtomicBoolean ended = new AtomicBoolean();
+    /** 属性和错误信息可能由不同线程写入，统一在this上加锁 */
+    private Map<String, Object> attributes;
+    private String error;
+
+    Span(TraceContext context, String parentSpanId, String name, boolean recording, TraceContext previous) {
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.recording = recording;
+        this.previous = previous;
+        this.startMicros = recording ? TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()) : 0;
+        this.startNanos = recording ? System.nanoTime() : 0;
+    }
+
+    /**
+     * span上下文，未启用链路追踪时为null
+     */
+    public TraceContext getContext() {
+        return context;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (recording && value != null) {
+            synchronized (this) {
+                if (attributes == null) {
+                    attributes = new LinkedHashMap<>();
+                }
+                attributes.put(key, value);
+            }
+        }
+        return this;
+    }
+
+    public Span recordError(Throwable throwable) {
+        if (recording && throwable != null) {
+            synchronized (this) {
+                error = throwable.getClass().getSimpleName() + ": " + throwable.getMessage();
+            }
+        }
+        return this;
+    }
+
+    public Span recordError(String message) {
+        if (recording && message != null) {
+            synchronized (this) {
+                error = message;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 结束span，重复调用只生效一次
+     */
+    public void end() {
+        if (this == NOOP || !ended.compareAndSet(false, true)) {
+            return;
+        }
+        if (recording) {
+            Map<String, Object> snapshot;
+            String errorSnapshot;
+            synchronized (this) {
+                snapshot = attributes != null ? new LinkedHashMap<>(attributes) : Map.of();
+                errorSnapshot = error;
+            }
+            Tracing.export(SpanData.builder()
+                    .traceId(context.getTraceId())
+                    .spanId(context.getSpanId())
+                    .parentSpanId(parentSpanId)
+                    .name(name)
+                    .startMicros(startMicros)
+                    .durationMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos))
+                    .thread(Thread.currentThread().getName())
+                    .status(errorSnapshot == null ? "OK" : "ERROR")
+                    .error(errorSnapshot)
+                    .attributes(snapshot)
+                    .build());
+        }
+    }
+
+    /**
+     * 不结束span，只恢复当前线程的上一个上下文；之后可在其他线程调用end
+     */
+    public void detach() {
+        if (this != NOOP) {
+            Tracing.restore(context, previous);
+        }
+    }
+
+    /**
+     * 结束span并恢复当前线程的上一个上下文
+     */
+    @Override
+    public void close() {
+        end();
+        detach();
+    }
+}
@@ -0,0 +1,30 @@
+package com.suifeng.sfchain.core.tracing;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 描述: 已结束的span，交给导出器输出
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Builder
+public class SpanData {
+    private String traceId;
+    private String spanId;
+    private String parentSpanId;
+    private String name;
+    /** 开始时间（epoch微秒） */
+    private long startMicros;
+    /** 持续时间（微秒） */
+    private long durationMicros;
+    private String thread;
+    /** OK / ERROR */
+    private String status;
+    private String error;
+    private Map<String, Object> attributes;
+}
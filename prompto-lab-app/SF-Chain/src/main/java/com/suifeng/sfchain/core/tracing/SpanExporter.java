@@ -0,0 +1,16 @@
+package com.suifeng.sfchain.core.tracing;
+
+/**
+ * 描述: span导出器
+ * export在结束span的线程上调用，实现需快速返回
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public interface SpanExporter {
+
+    void export(SpanData span);
+
+    default void close() {
+    }
+}
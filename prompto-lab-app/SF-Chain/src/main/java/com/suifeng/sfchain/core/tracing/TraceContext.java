@@ -0,0 +1,63 @@
+package com.suifeng.sfchain.core.tracing;
+
+import lombok.Value;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 描述: 链路上下文
+ * traceId为32位十六进制、spanId为16位十六进制，与W3C traceparent格式一致
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Value
+public class TraceContext {
+
+    String traceId;
+    String spanId;
+    boolean sampled;
+
+    static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return hex(random.nextLong()) + hex(random.nextLong());
+    }
+
+    static String newSpanId() {
+        return hex(ThreadLocalRandom.current().nextLong());
+    }
+
+    private static String hex(long value) {
+        String hex = Long.toHexString(value);
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+
+    /**
+     * 格式化为traceparent请求头
+     */
+    public String toTraceparent() {
+        return "00-" + traceId + "-" + spanId + (sampled ? "-01" : "-00");
+    }
+
+    /**
+     * 解析traceparent请求头，格式不正确时返回null
+     */
+    public static TraceContext fromTraceparent(String header) {
+        if (header == null) {
+            return null;
+        }
+        String[] parts = header.trim().split("-");
+        if (parts.length < 4 || parts[1].length() != 32 || parts[2].length() != 16 || parts[3].length() != 2) {
+            return null;
+        }
+        try {
+            int flags = Integer.parseInt(parts[3], 16);
+            Long.parseUnsignedLong(parts[1].substring(0, 16), 16);
+            Long.parseUnsignedLong(parts[1].substring(16), 16);
+            Long.parseUnsignedLong(parts[2], 16);
+            return new TraceContext(parts[1], parts[2], (flags & 0x01) != 0);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.suifeng.sfchain.core.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 描述: 进程内链路追踪
+ * 当前上下文保存在ThreadLocal中；跨线程时用 {@link #wrap(Runnable)} 等方法携带上下文，
+ * Reactor流在组装时通过 {@link #currentContext()} 捕获父上下文。未启用时所有操作均为空操作
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+public final class Tracing {
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+
+    private static volatile boolean enabled;
+    private static volatile double sampleRatio = 1.0;
+    private static volatile SpanExporter exporter;
+
+    private Tracing() {
+    }
+
+    /**
+     * 配置链路追踪，由 {@link TracingBootstrap} 在启动时调用
+     */
+    public static void configure(boolean enabled, double sampleRatio, SpanExporter exporter) {
+        Tracing.sampleRatio = sampleRatio;
+        Tracing.exporter = exporter;
+        Tracing.enabled = enabled && exporter != null;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 当前线程的链路上下文，可能为null
+     */
+    public static TraceContext currentContext() {
+        return enabled ? CURRENT.get() : null;
+    }
+
+    /**
+     * 以当前上下文为父span创建span并设为当前span，需在finally中或用try-with-resources关闭
+     */
+    public static Span startSpan(String name) {
+        return startSpan(name, CURRENT.get());
+    }
+
+    /**
+     * 以指定上下文为父span创建span并设为当前span，parent为null时开启新链路
+     */
+    public static Span startSpan(String name, TraceContext parent) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+        Span span = newSpan(name, parent, CURRENT.get());
+        CURRENT.set(span.getContext());
+        return span;
+    }
+
+    /**
+     * 创建不绑定线程的span，用于跨线程结束的异步过程（如流式输出）
+     */
+    public static Span startDetachedSpan(String name, TraceContext parent) {
+        return enabled ? newSpan(name, parent, null) : Span.NOOP;
+    }
+
+    private static Span newSpan(String name, TraceContext parent, TraceContext previous) {
+        boolean sampled = parent != null ? parent.isSampled()
+                : sampleRatio >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRatio;
+        String traceId = parent != null ? parent.getTraceId() : TraceContext.newTraceId();
+        TraceContext context = new TraceContext(traceId, TraceContext.newSpanId(), sampled);
+        return new Span(context, parent != null ? parent.getSpanId() : null, name, sampled, previous);
+    }
+
+    /**
+     * span关闭时恢复上一个上下文（仅当当前上下文仍是该span时）
+     */
+    static void restore(TraceContext closing, TraceContext previous) {
+        if (closing == null || CURRENT.get() != closing) {
+            return;
+        }
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    static void export(SpanData span) {
+        SpanExporter current = exporter;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.export(span);
+        } catch (Exception e) {
+            log.debug("导出span失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 在给定上下文中执行
+     */
+    public static void runWithContext(TraceContext context, Runnable task) {
+        if (!enabled || context == null) {
+            task.run();
+            return;
+        }
+        TraceContext previous = CURRENT.get();
+        CURRENT.set(context);
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * 包装任务，使其在提交时的上下文中执行，用于线程池等异步交接
+     */
+    public static Runnable wrap(Runnable task) {
+        TraceContext context = currentContext();
+        return context == null ? task : () -> runWithContext(context, task);
+    }
+
+    /**
+     * 包装有返回值的任务，使其在提交时的上下文中执行
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        TraceContext context = currentContext();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            Object[] result = new Object[1];
+            runWithContext(context, () -> result[0] = task.get());
+            @SuppressWarnings("unchecked")
+            T value = (T) result[0];
+            return value;
+        };
+    }
+}
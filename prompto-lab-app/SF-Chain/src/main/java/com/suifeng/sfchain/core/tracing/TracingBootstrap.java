@@ -0,0 +1,43 @@
+package com.suifeng.sfchain.core.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+/**
+ * 描述: 按配置启用链路追踪并安装文件导出器
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TracingBootstrap {
+
+    private final TracingConfig config;
+    private final ObjectMapper objectMapper;
+
+    private JsonlSpanExporter exporter;
+
+    @PostConstruct
+    public void init() {
+        if (config.isEnabled()) {
+            exporter = new JsonlSpanExporter(config, objectMapper);
+            log.info("链路追踪已启用: directory={}, sampleRatio={}", config.getDirectory(), config.getSampleRatio());
+        }
+        Tracing.configure(config.isEnabled(), config.getSampleRatio(), exporter);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Tracing.configure(false, config.getSampleRatio(), null);
+        if (exporter != null) {
+            exporter.close();
+        }
+    }
+}
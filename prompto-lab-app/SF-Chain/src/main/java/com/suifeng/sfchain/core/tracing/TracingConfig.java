@@ -0,0 +1,47 @@
+package com.suifeng.sfchain.core.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 描述: 链路追踪配置
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.tracing")
+public class TracingConfig {
+
+    /**
+     * 是否启用链路追踪
+     */
+    private boolean enabled = false;
+
+    /**
+     * 新链路的采样比例（0~1），子span跟随父span的采样结果
+     */
+    private double sampleRatio = 1.0;
+
+    /**
+     * 链路文件目录
+     */
+    private String directory = "logs/sf-chain/traces";
+
+    /**
+     * 单个文件最大字节数，超过后滚动
+     */
+    private long maxFileBytes = 64L * 1024 * 1024;
+
+    /**
+     * 最多保留的文件数
+     */
+    private int maxFiles = 10;
+
+    /**
+     * 待写入span队列容量，队列满时丢弃
+     */
+    private int queueCapacity = 10000;
+}
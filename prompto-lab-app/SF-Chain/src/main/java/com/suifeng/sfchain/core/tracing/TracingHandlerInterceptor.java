@@ -0,0 +1,109 @@
+package com.suifeng.sfchain.core.tracing;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 描述: HTTP请求入口span
+ * 读取请求头traceparent延续上游链路，并在响应头中返回本次请求的traceparent
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Component
+public class TracingHandlerInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String TRACEPARENT = "traceparent";
+    private static final String SPAN_ATTR = TracingHandlerInterceptor.class.getName() + ".span";
+    /** 异步处理中的span，异步派发回来时不再新建span */
+    private static final String ASYNC_SPAN_ATTR = TracingHandlerInterceptor.class.getName() + ".asyncSpan";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!Tracing.isEnabled() || request.getAttribute(SPAN_ATTR) != null
+                || request.getAttribute(ASYNC_SPAN_ATTR) != null) {
+            return true;
+        }
+        Span span = Tracing.startSpan(request.getMethod() + " " + request.getRequestURI(),
+                TraceContext.fromTraceparent(request.getHeader(TRACEPARENT)));
+        span.setAttribute("http.method", request.getMethod())
+                .setAttribute("http.path", request.getRequestURI());
+        request.setAttribute(SPAN_ATTR, span);
+        if (span.getContext() != null) {
+            response.setHeader(TRACEPARENT, span.getContext().toTraceparent());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object attribute = request.getAttribute(SPAN_ATTR);
+        if (attribute instanceof Span span) {
+            request.removeAttribute(SPAN_ATTR);
+            span.setAttribute("http.status", response.getStatus()).recordError(ex);
+            span.close();
+        }
+    }
+
+    /**
+     * 异步请求（如SSE）在请求线程返回时只解除span与请求线程的绑定，
+     * 等异步处理完成（含超时、出错）后再结束span，使耗时覆盖整个响应过程
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object attribute = request.getAttribute(SPAN_ATTR);
+        if (!(attribute instanceof Span span)) {
+            return;
+        }
+        request.removeAttribute(SPAN_ATTR);
+        span.setAttribute("http.async", true);
+        span.detach();
+        if (!request.isAsyncStarted()) {
+            span.end();
+            return;
+        }
+        request.setAttribute(ASYNC_SPAN_ATTR, span);
+        request.getAsyncContext().addListener(new AsyncSpanListener(span, response));
+    }
+
+    /**
+     * 超时和出错时只记录错误，容器随后总会回调onComplete，此时响应状态已确定
+     */
+    private static class AsyncSpanListener implements AsyncListener {
+
+        private final Span span;
+        private final HttpServletResponse response;
+
+        AsyncSpanListener(Span span, HttpServletResponse response) {
+            this.span = span;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            span.setAttribute("http.status", response.getStatus());
+            span.end();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            span.recordError("async request timeout");
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            span.recordError(event.getThrowable());
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // 再次startAsync会清空监听器，需要重新注册
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
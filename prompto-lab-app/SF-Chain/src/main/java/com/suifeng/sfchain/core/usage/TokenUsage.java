@@ -0,0 +1,69 @@
+package com.suifeng.sfchain.core.usage;
+
+import com.suifeng.sfchain.core.openai.OpenAIModelConfig;
+import com.suifeng.sfchain.core.openai.OpenAIResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 描述: 单次调用的token用量
+ * 由模型返回的usage构建，并可按模型单价计算成本
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class TokenUsage {
+
+    private static final double TOKENS_PER_MILLION = 1_000_000.0;
+
+    /** 提示token数（包含命中缓存的部分） */
+    private final int promptTokens;
+
+    /** 完成token数 */
+    private final int completionTokens;
+
+    /** 命中缓存的提示token数 */
+    private final int cachedTokens;
+
+    /**
+     * 从模型返回的usage构建
+     *
+     * @param usage 模型返回的usage，可为空
+     * @return token用量，usage为空时返回null
+     */
+    public static TokenUsage of(OpenAIResponse.Usage usage) {
+        if (usage == null) {
+            return null;
+        }
+        int prompt = usage.getPrompt_tokens() != null ? usage.getPrompt_tokens() : 0;
+        int completion = usage.getCompletion_tokens() != null ? usage.getCompletion_tokens() : 0;
+        return new TokenUsage(prompt, completion, Math.min(prompt, usage.resolveCachedTokens()));
+    }
+
+    public int getTotalTokens() {
+        return promptTokens + completionTokens;
+    }
+
+    /**
+     * 按模型单价计算成本
+     * 命中缓存的输入token使用缓存单价，未配置缓存单价时按普通输入单价计
+     *
+     * @param config 模型配置，可为空
+     * @return 成本，未配置单价时为0
+     */
+    public double cost(OpenAIModelConfig config) {
+        if (config == null) {
+            return 0.0;
+        }
+        double inputPrice = config.getInputPricePerMillion() != null ? config.getInputPricePerMillion() : 0.0;
+        double outputPrice = config.getOutputPricePerMillion() != null ? config.getOutputPricePerMillion() : 0.0;
+        double cachedPrice = config.getCachedInputPricePerMillion() != null ? config.getCachedInputPricePerMillion() : inputPrice;
+        return ((promptTokens - cachedTokens) * inputPrice
+                + cachedTokens * cachedPrice
+                + completionTokens * outputPrice) / TOKENS_PER_MILLION;
+    }
+}
@@ -0,0 +1,37 @@
+package com.suifeng.sfchain.core.usage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 描述: Token用量统计配置
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.usage")
+public class TokenUsageConfig {
+
+    /**
+     * 是否启用token用量统计
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个统计维度最多保留的key数量，达到上限时先淘汰空闲和最久未使用的key，被淘汰的用量并入"__other__"
+     */
+    private int maxKeysPerDimension = 10000;
+
+    /**
+     * key空闲超过该时长（分钟）后可被淘汰
+     */
+    private int idleTtlMinutes = 60;
+
+    /**
+     * 没有空闲key可淘汰时，一次按最久未使用淘汰的key占上限的比例，摊薄淘汰时的排序开销
+     */
+    private double evictionBatchRatio = 0.1;
+}
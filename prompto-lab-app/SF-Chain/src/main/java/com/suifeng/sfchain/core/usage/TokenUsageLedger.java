@@ -0,0 +1,320 @@
+package com.suifeng.sfchain.core.usage;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 描述: Token用量与成本台账
+ * 按操作、模型、用户、会话四个维度累计token用量和成本，计数使用LongAdder/DoubleAdder，记录路径无锁
+ * 维度key达到上限时淘汰空闲或最久未使用的key，被淘汰的用量并入"__other__"，新会话仍能单独统计；
+ * 流式调用未返回用量时的估算值单独累计，不与计费用量和成本混在一起
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenUsageLedger {
+
+    /** 被淘汰key的用量归并key */
+    public static final String OTHER_KEY = "__other__";
+
+    private static final String UNKNOWN_KEY = "unknown";
+
+    private final TokenUsageConfig config;
+
+    private final UsageCounter total = new UsageCounter();
+
+    private final Map<Dimension, ConcurrentHashMap<String, UsageCounter>> counters = new EnumMap<>(Dimension.class);
+
+    {
+        for (Dimension dimension : Dimension.values()) {
+            counters.put(dimension, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * 记录一次调用的用量
+     *
+     * @param operationType 操作类型
+     * @param modelName     模型名称
+     * @param sessionId     会话ID，可为空
+     * @param userId        用户ID，可为空
+     * @param usage         token用量
+     * @param cost          成本
+     */
+    public void record(String operationType, String modelName, String sessionId, String userId,
+                       TokenUsage usage, double cost) {
+        if (!config.isEnabled() || usage == null) {
+            return;
+        }
+        total.tryAdd(usage, cost, false);
+        add(Dimension.OPERATION, operationType, usage, cost, false);
+        add(Dimension.MODEL, modelName, usage, cost, false);
+        add(Dimension.USER, userId, usage, cost, false);
+        if (sessionId != null) {
+            add(Dimension.SESSION, sessionId, usage, cost, false);
+        }
+    }
+
+    /**
+     * 记录模型未返回用量时的估算值，与计费用量分开累计，不计入token合计和成本
+     *
+     * @param operationType 操作类型
+     * @param modelName     模型名称
+     * @param sessionId     会话ID，可为空
+     * @param userId        用户ID，可为空
+     * @param usage         估算的token用量
+     */
+    public void recordEstimated(String operationType, String modelName, String sessionId, String userId,
+                                TokenUsage usage) {
+        if (!config.isEnabled() || usage == null) {
+            return;
+        }
+        total.tryAdd(usage, 0.0, true);
+        add(Dimension.OPERATION, operationType, usage, 0.0, true);
+        add(Dimension.MODEL, modelName, usage, 0.0, true);
+        add(Dimension.USER, userId, usage, 0.0, true);
+        if (sessionId != null) {
+            add(Dimension.SESSION, sessionId, usage, 0.0, true);
+        }
+    }
+
+    /**
+     * 写入维度计数器；计数器在写入前已被淘汰时重新获取，写入不会落在已合并的计数器上
+     */
+    private void add(Dimension dimension, String key, TokenUsage usage, double cost, boolean estimated) {
+        while (!counter(dimension, key).tryAdd(usage, cost, estimated)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private UsageCounter counter(Dimension dimension, String key) {
+        ConcurrentHashMap<String, UsageCounter> map = counters.get(dimension);
+        String safeKey = key != null ? key : UNKNOWN_KEY;
+        UsageCounter counter = map.get(safeKey);
+        if (counter == null) {
+            if (map.size() >= config.getMaxKeysPerDimension()) {
+                evict(map);
+            }
+            counter = map.computeIfAbsent(safeKey, k -> new UsageCounter());
+        }
+        counter.touch();
+        return counter;
+    }
+
+    /**
+     * 淘汰空闲超时的key，没有空闲key时按最久未使用淘汰一批，被淘汰的用量并入OTHER_KEY
+     */
+    private void evict(ConcurrentHashMap<String, UsageCounter> map) {
+        synchronized (map) {
+            int max = config.getMaxKeysPerDimension();
+            if (map.size() < max) {
+                return;
+            }
+            UsageCounter other = map.computeIfAbsent(OTHER_KEY, k -> new UsageCounter());
+            long idleBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(config.getIdleTtlMinutes());
+            List<Map.Entry<String, UsageCounter>> candidates = new ArrayList<>();
+            for (Map.Entry<String, UsageCounter> entry : map.entrySet()) {
+                if (OTHER_KEY.equals(entry.getKey())) {
+                    continue;
+                }
+                if (entry.getValue().lastSeenMillis < idleBefore) {
+                    removeInto(map, entry.getKey(), other);
+                } else {
+                    candidates.add(entry);
+                }
+            }
+            if (map.size() < max) {
+                return;
+            }
+            int batch = Math.max(map.size() - max + 1, (int) (max * config.getEvictionBatchRatio()));
+            candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastSeenMillis));
+            for (int i = 0; i < batch && i < candidates.size(); i++) {
+                removeInto(map, candidates.get(i).getKey(), other);
+            }
+        }
+    }
+
+    private void removeInto(ConcurrentHashMap<String, UsageCounter> map, String key, UsageCounter other) {
+        UsageCounter removed = map.remove(key);
+        if (removed != null) {
+            // 等待进行中的写入完成后再合并，之后的写入会重新获取计数器
+            removed.retire();
+            other.merge(removed);
+        }
+    }
+
+    /**
+     * 获取总用量
+     */
+    public UsageSnapshot getTotal() {
+        return total.snapshot();
+    }
+
+    /**
+     * 获取某个维度的用量，按成本、token数降序
+     *
+     * @param dimension 维度
+     * @param limit     最多返回条数，小于等于0时返回全部
+     */
+    public Map<String, UsageSnapshot> getUsage(Dimension dimension, int limit) {
+        Map<String, UsageSnapshot> result = new LinkedHashMap<>();
+        counters.get(dimension).entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().snapshot()))
+                .sorted(Comparator.comparingDouble((Map.Entry<String, UsageSnapshot> e) -> e.getValue().getCost())
+                        .thenComparingLong(e -> e.getValue().getTotalTokens())
+                        .reversed())
+                .limit(limit > 0 ? limit : Long.MAX_VALUE)
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    /**
+     * 获取某个维度下指定key的用量
+     */
+    public UsageSnapshot getUsage(Dimension dimension, String key) {
+        UsageCounter counter = counters.get(dimension).get(key);
+        return counter != null ? counter.snapshot() : null;
+    }
+
+    /**
+     * 清空所有用量
+     */
+    public void reset() {
+        total.reset();
+        counters.values().forEach(Map::clear);
+    }
+
+    /**
+     * 统计维度
+     */
+    public enum Dimension {
+        OPERATION, MODEL, USER, SESSION
+    }
+
+    /**
+     * 用量计数器
+     */
+    private static final class UsageCounter {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder cachedTokens = new LongAdder();
+        private final DoubleAdder cost = new DoubleAdder();
+        private final LongAdder estimatedCalls = new LongAdder();
+        private final LongAdder estimatedTokens = new LongAdder();
+        private volatile long lastSeenMillis = System.currentTimeMillis();
+        /** 正在写入的线程数，淘汰时等待其归零再合并 */
+        private final AtomicInteger writers = new AtomicInteger();
+        private volatile boolean retired;
+
+        void touch() {
+            lastSeenMillis = System.currentTimeMillis();
+        }
+
+        void merge(UsageCounter other) {
+            calls.add(other.calls.sum());
+            promptTokens.add(other.promptTokens.sum());
+            completionTokens.add(other.completionTokens.sum());
+            cachedTokens.add(other.cachedTokens.sum());
+            cost.add(other.cost.sum());
+            estimatedCalls.add(other.estimatedCalls.sum());
+            estimatedTokens.add(other.estimatedTokens.sum());
+        }
+
+        /**
+         * 先登记写入再检查淘汰标记，与retire的顺序相反，两者至少有一方能看到对方
+         *
+         * @return 计数器已被淘汰时返回false，调用方需重新获取
+         */
+        boolean tryAdd(TokenUsage usage, double callCost, boolean estimated) {
+            writers.incrementAndGet();
+            try {
+                if (retired) {
+                    return false;
+                }
+                if (estimated) {
+                    estimatedCalls.increment();
+                    estimatedTokens.add(usage.getTotalTokens());
+                } else {
+                    calls.increment();
+                    promptTokens.add(usage.getPromptTokens());
+                    completionTokens.add(usage.getCompletionTokens());
+                    cachedTokens.add(usage.getCachedTokens());
+                    cost.add(callCost);
+                }
+                return true;
+            } finally {
+                writers.decrementAndGet();
+            }
+        }
+
+        void retire() {
+            retired = true;
+            while (writers.get() > 0) {
+                Thread.onSpinWait();
+            }
+        }
+
+        void reset() {
+            calls.reset();
+            promptTokens.reset();
+            completionTokens.reset();
+            cachedTokens.reset();
+            cost.reset();
+            estimatedCalls.reset();
+            estimatedTokens.reset();
+        }
+
+        UsageSnapshot snapshot() {
+            long prompt = promptTokens.sum();
+            long completion = completionTokens.sum();
+            long cached = cachedTokens.sum();
+            return UsageSnapshot.builder()
+                    .calls(calls.sum())
+                    .promptTokens(prompt)
+                    .completionTokens(completion)
+                    .cachedTokens(cached)
+                    .totalTokens(prompt + completion)
+                    .cacheHitRate(prompt > 0 ? (double) cached / prompt : 0.0)
+                    .cost(cost.sum())
+                    .estimatedCalls(estimatedCalls.sum())
+                    .estimatedTokens(estimatedTokens.sum())
+                    .build();
+        }
+    }
+
+    /**
+     * 用量快照
+     */
+    @Data
+    @Builder
+    public static class UsageSnapshot {
+        private long calls;
+        private long promptTokens;
+        private long completionTokens;
+        private long cachedTokens;
+        private long totalTokens;
+        private double cacheHitRate;
+        private double cost;
+        /** 模型未返回用量、按估算值记录的调用数，不含在calls中 */
+        private long estimatedCalls;
+        /** 估算的token数，不计入totalTokens和cost */
+        private long estimatedTokens;
+    }
+}
@@ -0,0 +1,54 @@
+package com.suifeng.sfchain.core.usage;
+
+import java.util.function.Supplier;
+
+/**
+ * 描述: 调用方上下文
+ * 由接入方在请求入口设置当前用户，用于按用户统计token用量
+ *
+ * @author suifeng
+ * 日期: 2025/8/21
+ */
+public final class UsageContext {
+
+    private static final ThreadLocal<String> USER_ID = new ThreadLocal<>();
+
+    private UsageContext() {
+        throw new UnsupportedOperationException("工具类不允许实例化");
+    }
+
+    public static void setUserId(String userId) {
+        USER_ID.set(userId);
+    }
+
+    public static String getUserId() {
+        return USER_ID.get();
+    }
+
+    public static void clear() {
+        USER_ID.remove();
+    }
+
+    /**
+     * 包装有返回值的任务，使其在执行线程上使用提交时的用户，用于线程池等异步交接
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        String userId = USER_ID.get();
+        if (userId == null) {
+            return task;
+        }
+        return () -> {
+            String previous = USER_ID.get();
+            USER_ID.set(userId);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    USER_ID.set(previous);
+                } else {
+                    USER_ID.remove();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.suifeng.sfchain.operations;
+
+import com.suifeng.sfchain.annotation.AIOp;
+import com.suifeng.sfchain.core.BaseAIOperation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import static com.suifeng.sfchain.constants.AIOperationConstant.CONTEXT_SUMMARY_OP;
+
+/**
+ * 描述: 上下文摘要操作
+ * 将较早的对话历史压缩为一段摘要，由后台压缩任务调用，不在请求链路上执行
+ *
+ * @author suifeng
+ * 日期: 2025/8/20
+ */
+@AIOp(
+        value = CONTEXT_SUMMARY_OP,
+        description = "将较早的对话历史压缩为摘要",
+        requireJsonOutput = false,
+        autoRepairJson = false,
+        defaultMaxTokens = 1024,
+        defaultTemperature = 0.3
+)
+@Component
+public class ContextSummaryOperation extends BaseAIOperation<ContextSummaryOperation.SummaryRequest, String> {
+
+    @Override
+    protected String buildPrompt(SummaryRequest input) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("""
+                你是一位对话记录整理专家，需要把一段较早的对话历史压缩成简洁的摘要，供后续对话继续使用。
+
+                ## 要求
+                1. 保留所有关键事实：用户的目标、约束、偏好、已确认的结论和尚未解决的问题
+                2. 保留具体的数字、名称、选项和用户原话中的关键词
+                3. 删除寒暄、重复内容和与任务无关的细节
+                4. 使用第三人称陈述，不要编造对话中没有的信息
+                5. 直接输出摘要正文，不要添加标题、解释或任何额外文字
+                """);
+        prompt.append("6. 摘要长度不超过").append(input.getMaxChars()).append("字\n\n");
+
+        if (input.getPreviousSummary() != null && !input.getPreviousSummary().isBlank()) {
+            prompt.append("## 已有摘要（需要与新内容合并）\n")
+                    .append(input.getPreviousSummary())
+                    .append("\n\n");
+        }
+
+        prompt.append("## 待压缩的对话历史\n").append(input.getConversation());
+        return prompt.toString();
+    }
+
+    @Override
+    protected String parseResult(String jsonContent, SummaryRequest input) {
+        return jsonContent == null ? null : jsonContent.trim();
+    }
+
+    /**
+     * 摘要请求
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SummaryRequest {
+        /**
+         * 已有的历史摘要（可为空）
+         */
+        private String previousSummary;
+
+        /**
+         * 待压缩的对话文本
+         */
+        private String conversation;
+
+        /**
+         * 摘要最大字数
+         */
+        private int maxChars;
+    }
+}
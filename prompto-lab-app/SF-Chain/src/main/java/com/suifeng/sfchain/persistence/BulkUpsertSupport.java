@@ -0,0 +1,148 @@
+package com.suifeng.sfchain.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suifeng.sfchain.persistence.config.DatabaseType;
+import com.suifeng.sfchain.persistence.entity.ModelConfigEntity;
+import com.suifeng.sfchain.persistence.entity.OperationConfigEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * 描述: 配置批量写入
+ * 每批生成一条多行 INSERT，PostgreSQL 用 ON CONFLICT、MySQL 用 ON DUPLICATE KEY 按唯一键更新，
+ * 已存在的行保留 created_at，新行使用实体上的 created_at（未设置时为当前时间）
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+final class BulkUpsertSupport {
+
+    /** 每条语句的最大行数 */
+    private static final int CHUNK_SIZE = 200;
+
+    private static final List<String> MODEL_COLUMNS = List.of(
+            "model_name", "provider", "api_key", "base_url", "enabled", "description", "custom_params",
+            "created_at", "updated_at");
+
+    private static final List<String> OPERATION_COLUMNS = List.of(
+            "operation_type", "description", "enabled", "max_tokens", "temperature", "json_output",
+            "thinking_mode", "custom_params", "model_name", "created_at", "updated_at");
+
+    private BulkUpsertSupport() {
+    }
+
+    /**
+     * 批量写入模型配置
+     *
+     * @return 执行的语句数
+     */
+    static int upsertModels(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, DatabaseType databaseType,
+                            List<ModelConfigEntity> entities) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(entities.size());
+        for (ModelConfigEntity entity : entities) {
+            rows.add(new Object[]{
+                    entity.getModelName(),
+                    entity.getProvider(),
+                    entity.getApiKey(),
+                    entity.getBaseUrl(),
+                    entity.getEnabled() != null ? entity.getEnabled() : Boolean.TRUE,
+                    entity.getDescription(),
+                    toJson(objectMapper, entity.getCustomParams()),
+                    entity.getCreatedAt() != null ? Timestamp.valueOf(entity.getCreatedAt()) : now,
+                    now
+            });
+        }
+        return execute(jdbcTemplate, databaseType, "sfchain_model_configs", MODEL_COLUMNS, "model_name", rows);
+    }
+
+    /**
+     * 批量写入操作配置
+     *
+     * @return 执行的语句数
+     */
+    static int upsertOperations(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, DatabaseType databaseType,
+                                List<OperationConfigEntity> entities) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(entities.size());
+        for (OperationConfigEntity entity : entities) {
+            rows.add(new Object[]{
+                    entity.getOperationType(),
+                    entity.getDescription(),
+                    entity.getEnabled() != null ? entity.getEnabled() : Boolean.TRUE,
+                    entity.getMaxTokens(),
+                    entity.getTemperature(),
+                    entity.getJsonOutput() != null ? entity.getJsonOutput() : Boolean.FALSE,
+                    entity.getThinkingMode() != null ? entity.getThinkingMode() : Boolean.FALSE,
+                    toJson(objectMapper, entity.getCustomParams()),
+                    entity.getModelName(),
+                    entity.getCreatedAt() != null ? Timestamp.valueOf(entity.getCreatedAt()) : now,
+                    now
+            });
+        }
+        return execute(jdbcTemplate, databaseType, "sfchain_operation_configs", OPERATION_COLUMNS, "operation_type", rows);
+    }
+
+    private static int execute(JdbcTemplate jdbcTemplate, DatabaseType databaseType, String table,
+                               List<String> columns, String keyColumn, List<Object[]> rows) {
+        int statements = 0;
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            List<Object[]> chunk = rows.subList(from, Math.min(rows.size(), from + CHUNK_SIZE));
+            List<Object> args = new ArrayList<>(chunk.size() * columns.size());
+            chunk.forEach(row -> Collections.addAll(args, row));
+            jdbcTemplate.update(buildSql(databaseType, table, columns, keyColumn, chunk.size()), args.toArray());
+            statements++;
+        }
+        return statements;
+    }
+
+    /**
+     * 生成rowCount行的批量写入语句，唯一键和created_at不参与更新
+     */
+    static String buildSql(DatabaseType databaseType, String table, List<String> columns,
+                           String keyColumn, int rowCount) {
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        for (String column : columns) {
+            placeholders.add("custom_params".equals(column) && databaseType == DatabaseType.POSTGRESQL
+                    ? "CAST(? AS jsonb)" : "?");
+        }
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rowCount; i++) {
+            values.add(placeholders.toString());
+        }
+
+        StringJoiner updates = new StringJoiner(", ");
+        for (String column : columns) {
+            if (column.equals(keyColumn) || "created_at".equals(column)) {
+                continue;
+            }
+            updates.add(databaseType == DatabaseType.POSTGRESQL
+                    ? column + " = EXCLUDED." + column
+                    : column + " = VALUES(" + column + ")");
+        }
+
+        String conflict = databaseType == DatabaseType.POSTGRESQL
+                ? " ON CONFLICT (" + keyColumn + ") DO UPDATE SET "
+                : " ON DUPLICATE KEY UPDATE ";
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES " + values + conflict + updates;
+    }
+
+    private static String toJson(ObjectMapper objectMapper, Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("自定义参数无法序列化: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.suifeng.sfchain.persistence;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 描述: 带缓存的持久化服务
+ * 包装具体的持久化实现，读操作首次访问时整体加载模型或操作配置，写操作先写入底层存储再使缓存失效；
+ * 操作配置缓存同时维护模型到操作的索引，用于删除模型时的占用检查。
+ * 其他节点的单项变更只替换缓存中的对应项，不整体重新加载。
+ * 缓存按代次校验，加载期间发生写入时丢弃本次加载结果，避免旧数据覆盖失效标记；返回的配置均为副本
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+public class CachingPersistenceService implements PersistenceService {
+
+    private final PersistenceService delegate;
+
+    private final AtomicLong modelGeneration = new AtomicLong();
+    private final AtomicLong operationGeneration = new AtomicLong();
+    private final AtomicReference<Cached<ModelConfigData>> models = new AtomicReference<>();
+    private final AtomicReference<Cached<OperationConfigData>> operations = new AtomicReference<>();
+
+    public CachingPersistenceService(PersistenceService delegate) {
+        this.delegate = delegate;
+    }
+
+    // ==================== 模型配置管理 ====================
+
+    @Override
+    public void saveModelConfig(String modelName, ModelConfigData config) {
+        try {
+            delegate.saveModelConfig(modelName, config);
+        } finally {
+            invalidateModels();
+        }
+    }
+
+    @Override
+    public void saveModelConfigs(Map<String, ModelConfigData> configs) {
+        try {
+            delegate.saveModelConfigs(configs);
+        } finally {
+            invalidateModels();
+        }
+    }
+
+    @Override
+    public Optional<ModelConfigData> getModelConfig(String modelName) {
+        return Optional.ofNullable(models().getConfigs().get(modelName)).map(ModelConfigData::copy);
+    }
+
+    @Override
+    public Map<String, ModelConfigData> getAllModelConfigs() {
+        return models().getConfigs().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().copy()));
+    }
+
+    @Override
+    public boolean deleteModelConfig(String modelName) {
+        try {
+            return delegate.deleteModelConfig(modelName);
+        } finally {
+            // 外键置空会改动引用该模型的操作配置
+            invalidateModels();
+            invalidateOperations();
+        }
+    }
+
+    @Override
+    public boolean existsModelConfig(String modelName) {
+        return models().getConfigs().containsKey(modelName);
+    }
+
+    @Override
+    public List<String> getAllModelNames() {
+        return models().getConfigs().values().stream()
+                .filter(config -> Boolean.TRUE.equals(config.getEnabled()))
+                .map(ModelConfigData::getModelName)
+                .collect(Collectors.toList());
+    }
+
+    // ==================== 操作配置管理 ====================
+
+    @Override
+    public void saveOperationConfig(String operationType, OperationConfigData config) {
+        try {
+            delegate.saveOperationConfig(operationType, config);
+        } finally {
+            invalidateOperations();
+        }
+    }
+
+    @Override
+    public void saveOperationConfigs(Map<String, OperationConfigData> configs) {
+        try {
+            delegate.saveOperationConfigs(configs);
+        } finally {
+            invalidateOperations();
+        }
+    }
+
+    @Override
+    public Optional<OperationConfigData> getOperationConfig(String operationType) {
+        return Optional.ofNullable(operations().getConfigs().get(operationType)).map(OperationConfigData::copy);
+    }
+
+    @Override
+    public Map<String, OperationConfigData> getAllOperationConfigs() {
+        return operations().getConfigs().entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().copy()));
+    }
+
+    @Override
+    public boolean deleteOperationConfig(String operationType) {
+        try {
+            return delegate.deleteOperationConfig(operationType);
+        } finally {
+            invalidateOperations();
+        }
+    }
+
+    @Override
+    public Set<String> getOperationsUsingModel(String modelName) {
+        return operations().getOperationsByModel().getOrDefault(modelName, Collections.emptySet());
+    }
+
+    // ==================== 数据同步和备份 ====================
+
+    @Override
+    public void flush() {
+        delegate.flush();
+    }
+
+    /**
+     * 清空缓存并重新加载底层存储，其他节点修改了配置时调用
+     */
+    @Override
+    public void reload() {
+        invalidateModels();
+        invalidateOperations();
+        delegate.reload();
+    }
+
+    /**
+     * 只替换缓存中的单个模型配置；删除模型会经外键改动操作配置，此时同时使操作配置缓存失效
+     */
+    @Override
+    public void reloadModelConfig(String modelName) {
+        long generation = modelGeneration.get();
+        Optional<ModelConfigData> fresh = delegate.getModelConfig(modelName);
+        refresh(models, modelGeneration, generation, modelName, fresh.orElse(null),
+                configs -> new Cached<>(generation, configs, Map.of()));
+        if (fresh.isEmpty()) {
+            invalidateOperations();
+        }
+    }
+
+    @Override
+    public void reloadOperationConfig(String operationType) {
+        long generation = operationGeneration.get();
+        Optional<OperationConfigData> fresh = delegate.getOperationConfig(operationType);
+        refresh(operations, operationGeneration, generation, operationType, fresh.orElse(null),
+                configs -> new Cached<>(generation, configs, indexByModel(configs)));
+    }
+
+    @Override
+    public void backup(String backupName) {
+        delegate.backup(backupName);
+    }
+
+    @Override
+    public void restoreFromBackup(String backupName) {
+        try {
+            delegate.restoreFromBackup(backupName);
+        } finally {
+            invalidateModels();
+            invalidateOperations();
+        }
+    }
+
+    @Override
+    public List<String> getAllBackupNames() {
+        return delegate.getAllBackupNames();
+    }
+
+    // ==================== 缓存 ====================
+
+    private void invalidateModels() {
+        modelGeneration.incrementAndGet();
+        models.set(null);
+    }
+
+    private void invalidateOperations() {
+        operationGeneration.incrementAndGet();
+        operations.set(null);
+    }
+
+    private Cached<ModelConfigData> models() {
+        return load(models, modelGeneration, () -> new Cached<>(modelGeneration.get(),
+                Map.copyOf(delegate.getAllModelConfigs()), Map.of()));
+    }
+
+    private Cached<OperationConfigData> operations() {
+        return load(operations, operationGeneration, () -> {
+            long generation = operationGeneration.get();
+            Map<String, OperationConfigData> configs = Map.copyOf(delegate.getAllOperationConfigs());
+            return new Cached<>(generation, configs, indexByModel(configs));
+        });
+    }
+
+    private static Map<String, Set<String>> indexByModel(Map<String, OperationConfigData> configs) {
+        Map<String, Set<String>> byModel = new HashMap<>();
+        configs.forEach((operationType, config) -> {
+            if (config.getModelName() != null && !config.getModelName().isEmpty()) {
+                byModel.computeIfAbsent(config.getModelName(), k -> new HashSet<>()).add(operationType);
+            }
+        });
+        byModel.replaceAll((modelName, operationTypes) -> Set.copyOf(operationTypes));
+        return Map.copyOf(byModel);
+    }
+
+    /**
+     * 读取缓存，未加载或代次过期时从底层存储加载；加载期间代次变化的结果不写入缓存
+     */
+    private static <T> Cached<T> load(AtomicReference<Cached<T>> holder, AtomicLong generation,
+                                      Supplier<Cached<T>> loader) {
+        Cached<T> cached = holder.get();
+        if (cached != null && cached.getGeneration() == generation.get()) {
+            return cached;
+        }
+        Cached<T> loaded = loader.get();
+        if (loaded.getGeneration() == generation.get()) {
+            holder.compareAndSet(cached, loaded);
+            log.debug("持久化配置缓存已加载: {}项", loaded.getConfigs().size());
+        }
+        return loaded;
+    }
+
+    /**
+     * 用读取到的最新值替换缓存中的一项，value为null表示已删除；
+     * 读取期间代次变化或缓存尚未加载时改为整体失效，避免与进行中的加载或本地写入交错
+     */
+    private static <T> void refresh(AtomicReference<Cached<T>> holder, AtomicLong generation, long readGeneration,
+                                    String key, T value, Function<Map<String, T>, Cached<T>> rebuild) {
+        Cached<T> cached = holder.get();
+        if (cached != null && cached.getGeneration() == readGeneration && generation.get() == readGeneration) {
+            Map<String, T> configs = new HashMap<>(cached.getConfigs());
+            if (value != null) {
+                configs.put(key, value);
+            } else {
+                configs.remove(key);
+            }
+            if (holder.compareAndSet(cached, rebuild.apply(Map.copyOf(configs)))
+                    && generation.get() == readGeneration) {
+                return;
+            }
+        }
+        generation.incrementAndGet();
+        holder.set(null);
+    }
+
+    @Value
+    private static class Cached<T> {
+        long generation;
+        Map<String, T> configs;
+        /** 模型到使用它的操作，只用于操作配置缓存 */
+        Map<String, Set<String>> operationsByModel;
+    }
+}
@@ -0,0 +1,170 @@
+package com.suifeng.sfchain.persistence;
+
+import com.suifeng.sfchain.persistence.entity.ModelConfigEntity;
+import com.suifeng.sfchain.persistence.entity.OperationConfigEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 描述: 配置数据与数据表实体的转换
+ * 模型配置中数据表没有对应列的字段保存在customParams中；各持久化实现和配置快照共用
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+final class ConfigEntityConverter {
+
+    private ConfigEntityConverter() {
+    }
+
+    /**
+     * 将ModelConfigData转换为ModelConfigEntity
+     */
+    static ModelConfigEntity toEntity(ModelConfigData data) {
+        ModelConfigEntity entity = new ModelConfigEntity();
+        
+        // 映射基本字段
+        entity.setModelName(data.getModelName());
+        entity.setProvider(data.getProvider());
+        entity.setApiKey(data.getApiKey());
+        entity.setBaseUrl(data.getBaseUrl());
+        entity.setEnabled(data.getEnabled());
+        entity.setDescription(data.getDescription());
+        
+        // 将扩展字段映射到customParams
+        Map<String, Object> customParams = new HashMap<>();
+        if (data.getDefaultMaxTokens() != null) {
+            customParams.put("defaultMaxTokens", data.getDefaultMaxTokens());
+        }
+        if (data.getDefaultTemperature() != null) {
+            customParams.put("defaultTemperature", data.getDefaultTemperature());
+        }
+        if (data.getSupportStream() != null) {
+            customParams.put("supportStream", data.getSupportStream());
+        }
+        if (data.getSupportJsonOutput() != null) {
+            customParams.put("supportJsonOutput", data.getSupportJsonOutput());
+        }
+        if (data.getSupportThinking() != null) {
+            customParams.put("supportThinking", data.getSupportThinking());
+        }
+        if (data.getAdditionalHeaders() != null && !data.getAdditionalHeaders().isEmpty()) {
+            customParams.put("additionalHeaders", data.getAdditionalHeaders());
+        }
+        if (data.getInputPricePerMillion() != null) {
+            customParams.put("inputPricePerMillion", data.getInputPricePerMillion());
+        }
+        if (data.getOutputPricePerMillion() != null) {
+            customParams.put("outputPricePerMillion", data.getOutputPricePerMillion());
+        }
+        if (data.getCachedInputPricePerMillion() != null) {
+            customParams.put("cachedInputPricePerMillion", data.getCachedInputPricePerMillion());
+        }
+        if (data.getStreamUsage() != null) {
+            customParams.put("streamUsage", data.getStreamUsage());
+        }
+        if (data.getCreatedAt() != null) {
+            customParams.put("createdAt", data.getCreatedAt());
+        }
+        if (data.getUpdatedAt() != null) {
+            customParams.put("updatedAt", data.getUpdatedAt());
+        }
+        
+        entity.setCustomParams(customParams);
+        return entity;
+    }
+    
+    /**
+     * 将ModelConfigEntity转换为ModelConfigData
+     */
+    static ModelConfigData toData(ModelConfigEntity entity) {
+        ModelConfigData.ModelConfigDataBuilder builder = ModelConfigData.builder()
+                .modelName(entity.getModelName())
+                .provider(entity.getProvider())
+                .apiKey(entity.getApiKey())
+                .baseUrl(entity.getBaseUrl())
+                .enabled(entity.getEnabled())
+                .description(entity.getDescription());
+        
+        // 从customParams中提取扩展字段
+        Map<String, Object> customParams = entity.getCustomParams();
+        if (customParams != null) {
+            if (customParams.containsKey("defaultMaxTokens")) {
+                builder.defaultMaxTokens((Integer) customParams.get("defaultMaxTokens"));
+            }
+            if (customParams.containsKey("defaultTemperature")) {
+                builder.defaultTemperature((Double) customParams.get("defaultTemperature"));
+            }
+            if (customParams.containsKey("supportStream")) {
+                builder.supportStream((Boolean) customParams.get("supportStream"));
+            }
+            if (customParams.containsKey("supportJsonOutput")) {
+                builder.supportJsonOutput((Boolean) customParams.get("supportJsonOutput"));
+            }
+            if (customParams.containsKey("supportThinking")) {
+                builder.supportThinking((Boolean) customParams.get("supportThinking"));
+            }
+            if (customParams.containsKey("additionalHeaders")) {
+                @SuppressWarnings("unchecked")
+                Map<String, String> headers = (Map<String, String>) customParams.get("additionalHeaders");
+                builder.additionalHeaders(headers != null ? headers : new HashMap<>());
+            }
+            // 价格在JSON中可能被解析为整数，统一按Number读取
+            if (customParams.get("inputPricePerMillion") instanceof Number price) {
+                builder.inputPricePerMillion(price.doubleValue());
+            }
+            if (customParams.get("outputPricePerMillion") instanceof Number price) {
+                builder.outputPricePerMillion(price.doubleValue());
+            }
+            if (customParams.get("cachedInputPricePerMillion") instanceof Number price) {
+                builder.cachedInputPricePerMillion(price.doubleValue());
+            }
+            if (customParams.get("streamUsage") instanceof Boolean streamUsage) {
+                builder.streamUsage(streamUsage);
+            }
+            if (customParams.containsKey("createdAt")) {
+                builder.createdAt((Long) customParams.get("createdAt"));
+            }
+            if (customParams.containsKey("updatedAt")) {
+                builder.updatedAt((Long) customParams.get("updatedAt"));
+            }
+        }
+        
+        return builder.build();
+    }
+    
+    /**
+     * 将OperationConfigData转换为OperationConfigEntity
+     */
+    static OperationConfigEntity toEntity(OperationConfigData data) {
+        OperationConfigEntity entity = new OperationConfigEntity();
+        entity.setOperationType(data.getOperationType());
+        entity.setDescription(data.getDescription());
+        entity.setEnabled(data.getEnabled());
+        entity.setMaxTokens(data.getMaxTokens());
+        entity.setTemperature(data.getTemperature());
+        entity.setJsonOutput(data.getJsonOutput());
+        entity.setThinkingMode(data.getThinkingMode());
+        entity.setCustomParams(data.getCustomParams());
+        entity.setModelName(data.getModelName());
+        return entity;
+    }
+    
+    /**
+     * 将OperationConfigEntity转换为OperationConfigData
+     */
+    static OperationConfigData toData(OperationConfigEntity entity) {
+        return OperationConfigData.builder()
+                .operationType(entity.getOperationType())
+                .description(entity.getDescription())
+                .enabled(entity.getEnabled())
+                .maxTokens(entity.getMaxTokens())
+                .temperature(entity.getTemperature())
+                .jsonOutput(entity.getJsonOutput())
+                .thinkingMode(entity.getThinkingMode())
+                .customParams(entity.getCustomParams())
+                .modelName(entity.getModelName())
+                .build();
+    }
+}
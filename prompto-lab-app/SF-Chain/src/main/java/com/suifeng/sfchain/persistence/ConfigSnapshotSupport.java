@@ -0,0 +1,474 @@
+package com.suifeng.sfchain.persistence;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suifeng.sfchain.persistence.config.DatabaseType;
+import com.suifeng.sfchain.persistence.entity.ModelConfigEntity;
+import com.suifeng.sfchain.persistence.entity.OperationConfigEntity;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 描述: 配置快照备份
+ * 逐行读取模型和操作配置写入gzip压缩的JSON快照，不在内存中汇总整表；
+ * 恢复时流式解析快照，按批批量写入，并删除快照中不存在的配置，须在同一事务内调用。
+ * 文件存储以相同的行结构读写内存中的配置，各存储方式的备份可以互相恢复
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+final class ConfigSnapshotSupport {
+
+    static final String FORMAT = "sf-chain-config-snapshot";
+    static final int VERSION = 1;
+    static final String FILE_SUFFIX = ".json.gz";
+
+    private static final int FETCH_SIZE = 200;
+    private static final int RESTORE_CHUNK_SIZE = 500;
+    private static final Pattern BACKUP_NAME = Pattern.compile("[A-Za-z0-9_.-]{1,100}");
+    private static final TypeReference<Map<String, Object>> PARAMS_TYPE = new TypeReference<>() {
+    };
+
+    private ConfigSnapshotSupport() {
+    }
+
+    /**
+     * 写入一类配置的全部行，返回行数
+     */
+    @FunctionalInterface
+    interface RowWriter {
+        int write(JsonGenerator generator) throws IOException;
+    }
+
+    /**
+     * 将两张配置表写入快照文件，先写临时文件再原子替换，失败时不留下残缺快照
+     */
+    static SnapshotSummary write(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, DatabaseType databaseType,
+                                 Path directory, String backupName) {
+        return write(objectMapper, databaseType, directory, backupName,
+                generator -> streamRows(jdbcTemplate, generator,
+                        "SELECT model_name, provider, api_key, base_url, enabled, description, custom_params, " +
+                        "created_at, updated_at FROM sfchain_model_configs ORDER BY model_name"),
+                generator -> streamRows(jdbcTemplate, generator,
+                        "SELECT operation_type, description, enabled, max_tokens, temperature, json_output, " +
+                        "thinking_mode, custom_params, model_name, created_at, updated_at " +
+                        "FROM sfchain_operation_configs ORDER BY operation_type"));
+    }
+
+    /**
+     * 将内存中的配置按与数据表相同的行结构写入快照文件，供不使用数据库的存储共用同一备份格式
+     */
+    static SnapshotSummary write(ObjectMapper objectMapper, DatabaseType databaseType, Path directory,
+                                 String backupName, Collection<ModelConfigEntity> models,
+                                 Collection<OperationConfigEntity> operations) {
+        return write(objectMapper, databaseType, directory, backupName,
+                generator -> writeModelRows(generator, models),
+                generator -> writeOperationRows(generator, operations));
+    }
+
+    private static SnapshotSummary write(ObjectMapper objectMapper, DatabaseType databaseType, Path directory,
+                                         String backupName, RowWriter modelRows, RowWriter operationRows) {
+        Path target = resolve(directory, backupName);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            int models;
+            int operations;
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp));
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                generator.writeStartObject();
+                generator.writeStringField("format", FORMAT);
+                generator.writeNumberField("version", VERSION);
+                generator.writeStringField("databaseType", databaseType.name());
+                generator.writeStringField("createdAt", LocalDateTime.now().toString());
+
+                generator.writeArrayFieldStart("models");
+                models = modelRows.write(generator);
+                generator.writeEndArray();
+
+                generator.writeArrayFieldStart("operations");
+                operations = operationRows.write(generator);
+                generator.writeEndArray();
+
+                generator.writeObjectFieldStart("summary");
+                generator.writeNumberField("models", models);
+                generator.writeNumberField("operations", operations);
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new SnapshotSummary(models, operations, Files.size(target));
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("写入配置快照失败: " + backupName, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * 用快照内容替换两张配置表
+     */
+    static SnapshotSummary restore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, DatabaseType databaseType,
+                                   Path directory, String backupName) {
+        Set<String> modelNames = new HashSet<>();
+        Set<String> operationTypes = new HashSet<>();
+        // 先写模型，操作配置的外键依赖模型
+        SnapshotSummary summary = read(objectMapper, directory, backupName,
+                chunk -> {
+                    chunk.forEach(entity -> modelNames.add(entity.getModelName()));
+                    BulkUpsertSupport.upsertModels(jdbcTemplate, objectMapper, databaseType, chunk);
+                },
+                chunk -> {
+                    chunk.forEach(entity -> operationTypes.add(entity.getOperationType()));
+                    BulkUpsertSupport.upsertOperations(jdbcTemplate, objectMapper, databaseType, chunk);
+                });
+
+        deleteMissing(jdbcTemplate, "sfchain_operation_configs", "operation_type", operationTypes);
+        deleteMissing(jdbcTemplate, "sfchain_model_configs", "model_name", modelNames);
+        return summary;
+    }
+
+    /**
+     * 流式解析快照，按批回调模型和操作配置；快照被截断或格式不符时抛出异常
+     */
+    static SnapshotSummary read(ObjectMapper objectMapper, Path directory, String backupName,
+                                Consumer<List<ModelConfigEntity>> modelSink,
+                                Consumer<List<OperationConfigEntity>> operationSink) {
+        Path source = resolve(directory, backupName);
+        if (!Files.isRegularFile(source)) {
+            throw new IllegalArgumentException("备份不存在: " + backupName);
+        }
+        Set<String> modelNames = new HashSet<>();
+        Set<String> operationTypes = new HashSet<>();
+        JsonNode summary = null;
+        boolean formatChecked = false;
+
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(source));
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, backupName);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "format":
+                        if (!FORMAT.equals(parser.getText())) {
+                            throw new IllegalArgumentException("不是配置快照文件: " + backupName);
+                        }
+                        formatChecked = true;
+                        break;
+                    case "version":
+                        if (parser.getIntValue() > VERSION) {
+                            throw new IllegalArgumentException("不支持的快照版本: " + parser.getIntValue());
+                        }
+                        break;
+                    case "models":
+                        requireFormat(formatChecked, backupName);
+                        restoreRows(parser, row -> toModelEntity(row, objectMapper), ModelConfigEntity::getModelName,
+                                modelNames, backupName, modelSink);
+                        break;
+                    case "operations":
+                        requireFormat(formatChecked, backupName);
+                        restoreRows(parser, row -> toOperationEntity(row, objectMapper),
+                                OperationConfigEntity::getOperationType, operationTypes, backupName, operationSink);
+                        break;
+                    case "summary":
+                        summary = parser.readValueAsTree();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取配置快照失败: " + backupName, e);
+        }
+
+        // 快照被截断时缺少尾部统计，抛出异常回滚整个事务
+        if (summary == null
+                || summary.path("models").asInt(-1) != modelNames.size()
+                || summary.path("operations").asInt(-1) != operationTypes.size()) {
+            throw new IllegalStateException("配置快照不完整: " + backupName);
+        }
+        return new SnapshotSummary(modelNames.size(), operationTypes.size(), 0L);
+    }
+
+    /**
+     * 目录中的快照名称，按修改时间由新到旧
+     */
+    static List<String> list(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取备份目录失败: " + directory, e);
+        }
+        files.sort(Comparator.comparing(ConfigSnapshotSupport::lastModified).reversed());
+        List<String> names = new ArrayList<>(files.size());
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            names.add(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()));
+        }
+        return names;
+    }
+
+    /**
+     * 校验备份名称并返回快照文件路径
+     */
+    static Path resolve(Path directory, String backupName) {
+        if (backupName == null || !BACKUP_NAME.matcher(backupName).matches()) {
+            throw new IllegalArgumentException("无效的备份名称: " + backupName);
+        }
+        return directory.resolve(backupName + FILE_SUFFIX);
+    }
+
+    private static int streamRows(JdbcTemplate jdbcTemplate, JsonGenerator generator, String sql) {
+        int[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            // PostgreSQL在事务内才按fetchSize分批拉取，否则一次读入整个结果集
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            try {
+                writeRow(rs, generator);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    private static void writeRow(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        generator.writeStartObject();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String column = metaData.getColumnLabel(i).toLowerCase();
+            Object value = rs.getObject(i);
+            generator.writeFieldName(column);
+            if (value == null) {
+                generator.writeNull();
+            } else if ("custom_params".equals(column)) {
+                // JSON列原样写入，MySQL返回字符串，PostgreSQL返回PGobject
+                generator.writeRawValue(rs.getString(i));
+            } else if (value instanceof Timestamp timestamp) {
+                generator.writeString(timestamp.toLocalDateTime().toString());
+            } else if (value instanceof Boolean bool) {
+                generator.writeBoolean(bool);
+            } else if (value instanceof Number number) {
+                generator.writeNumber(number.toString());
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static int writeModelRows(JsonGenerator generator, Collection<ModelConfigEntity> entities)
+            throws IOException {
+        for (ModelConfigEntity entity : entities) {
+            generator.writeStartObject();
+            generator.writeStringField("model_name", entity.getModelName());
+            generator.writeStringField("provider", entity.getProvider());
+            generator.writeStringField("api_key", entity.getApiKey());
+            generator.writeStringField("base_url", entity.getBaseUrl());
+            generator.writeObjectField("enabled", entity.getEnabled());
+            generator.writeStringField("description", entity.getDescription());
+            generator.writeObjectField("custom_params", entity.getCustomParams());
+            writeTimestamp(generator, "created_at", entity.getCreatedAt());
+            writeTimestamp(generator, "updated_at", entity.getUpdatedAt());
+            generator.writeEndObject();
+        }
+        return entities.size();
+    }
+
+    private static int writeOperationRows(JsonGenerator generator, Collection<OperationConfigEntity> entities)
+            throws IOException {
+        for (OperationConfigEntity entity : entities) {
+            generator.writeStartObject();
+            generator.writeStringField("operation_type", entity.getOperationType());
+            generator.writeStringField("description", entity.getDescription());
+            generator.writeObjectField("enabled", entity.getEnabled());
+            generator.writeObjectField("max_tokens", entity.getMaxTokens());
+            generator.writeObjectField("temperature", entity.getTemperature());
+            generator.writeObjectField("json_output", entity.getJsonOutput());
+            generator.writeObjectField("thinking_mode", entity.getThinkingMode());
+            generator.writeObjectField("custom_params", entity.getCustomParams());
+            generator.writeStringField("model_name", entity.getModelName());
+            writeTimestamp(generator, "created_at", entity.getCreatedAt());
+            writeTimestamp(generator, "updated_at", entity.getUpdatedAt());
+            generator.writeEndObject();
+        }
+        return entities.size();
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, LocalDateTime value) throws IOException {
+        generator.writeStringField(field, value != null ? value.toString() : null);
+    }
+
+    private static <T> void restoreRows(JsonParser parser, Function<JsonNode, T> mapper, Function<T, String> key,
+                                        Set<String> keys, String backupName, Consumer<List<T>> sink)
+            throws IOException {
+        expect(parser.currentToken(), JsonToken.START_ARRAY, backupName);
+        List<T> chunk = new ArrayList<>(RESTORE_CHUNK_SIZE);
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            T entity = mapper.apply(parser.readValueAsTree());
+            if (!keys.add(key.apply(entity))) {
+                throw new IllegalStateException("配置快照中存在重复项: " + key.apply(entity));
+            }
+            chunk.add(entity);
+            if (chunk.size() == RESTORE_CHUNK_SIZE) {
+                sink.accept(chunk);
+                chunk = new ArrayList<>(RESTORE_CHUNK_SIZE);
+            }
+        }
+        expect(parser.currentToken(), JsonToken.END_ARRAY, backupName);
+        if (!chunk.isEmpty()) {
+            sink.accept(chunk);
+        }
+    }
+
+    private static ModelConfigEntity toModelEntity(JsonNode row, ObjectMapper objectMapper) {
+        ModelConfigEntity entity = new ModelConfigEntity();
+        entity.setModelName(requiredText(row, "model_name"));
+        entity.setProvider(text(row, "provider"));
+        entity.setApiKey(text(row, "api_key"));
+        entity.setBaseUrl(text(row, "base_url"));
+        entity.setEnabled(row.path("enabled").asBoolean(true));
+        entity.setDescription(text(row, "description"));
+        entity.setCustomParams(params(row, objectMapper));
+        entity.setCreatedAt(timestamp(row, "created_at"));
+        return entity;
+    }
+
+    private static OperationConfigEntity toOperationEntity(JsonNode row, ObjectMapper objectMapper) {
+        OperationConfigEntity entity = new OperationConfigEntity();
+        entity.setOperationType(requiredText(row, "operation_type"));
+        entity.setDescription(text(row, "description"));
+        entity.setEnabled(row.path("enabled").asBoolean(true));
+        entity.setMaxTokens(row.hasNonNull("max_tokens") ? row.get("max_tokens").asInt() : null);
+        entity.setTemperature(row.hasNonNull("temperature") ? row.get("temperature").asDouble() : null);
+        entity.setJsonOutput(row.path("json_output").asBoolean(false));
+        entity.setThinkingMode(row.path("thinking_mode").asBoolean(false));
+        entity.setCustomParams(params(row, objectMapper));
+        entity.setModelName(text(row, "model_name"));
+        entity.setCreatedAt(timestamp(row, "created_at"));
+        return entity;
+    }
+
+    private static String requiredText(JsonNode row, String field) {
+        String value = text(row, field);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalStateException("配置快照缺少字段: " + field);
+        }
+        return value;
+    }
+
+    private static String text(JsonNode row, String field) {
+        return row.hasNonNull(field) ? row.get(field).asText() : null;
+    }
+
+    private static LocalDateTime timestamp(JsonNode row, String field) {
+        return row.hasNonNull(field) ? LocalDateTime.parse(row.get(field).asText()) : null;
+    }
+
+    private static Map<String, Object> params(JsonNode row, ObjectMapper objectMapper) {
+        JsonNode node = row.get("custom_params");
+        // 部分驱动把JSON列读成字符串，写入快照后是带引号的文本
+        if (node != null && node.isTextual()) {
+            try {
+                node = objectMapper.readTree(node.asText());
+            } catch (IOException e) {
+                throw new IllegalStateException("配置快照中的自定义参数无法解析", e);
+            }
+        }
+        return node != null && node.isObject() ? objectMapper.convertValue(node, PARAMS_TYPE) : null;
+    }
+
+    private static void deleteMissing(JdbcTemplate jdbcTemplate, String table, String keyColumn, Set<String> keep) {
+        List<Object[]> stale = new ArrayList<>();
+        for (String key : jdbcTemplate.queryForList("SELECT " + keyColumn + " FROM " + table, String.class)) {
+            if (!keep.contains(key)) {
+                stale.add(new Object[]{key});
+            }
+        }
+        if (!stale.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM " + table + " WHERE " + keyColumn + " = ?", stale);
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, String backupName) {
+        if (actual != expected) {
+            throw new IllegalStateException("配置快照格式错误: " + backupName + "，期望 " + expected + "，实际 " + actual);
+        }
+    }
+
+    private static void requireFormat(boolean formatChecked, String backupName) {
+        if (!formatChecked) {
+            throw new IllegalArgumentException("不是配置快照文件: " + backupName);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // 临时文件清理失败不影响结果
+        }
+    }
+
+    /**
+     * 快照写入或恢复的统计
+     */
+    @Value
+    static class SnapshotSummary {
+        int models;
+        int operations;
+        /** 快照文件字节数，恢复时为0 */
+        long bytes;
+    }
+}
@@ -1,5 +1,7 @@
 package com.suifeng.sfchain.persistence;
 
+import com.suifeng.sfchain.core.startup.StartupConfig;
+import com.suifeng.sfchain.persistence.config.ConditionalOnJdbcPersistence;
 import com.suifeng.sfchain.persistence.config.DatabaseType;
 import com.suifeng.sfchain.persistence.config.PersistenceConfig;
 import lombok.RequiredArgsConstructor;
@@ -27,16 +29,29 @@ import java.sql.SQLException;
 @Service
 @RequiredArgsConstructor
 @ConditionalOnProperty(prefix = "sf-chain.persistence", name = "database-type")
+@ConditionalOnJdbcPersistence
 public class DatabaseInitializationService {
     
     private final PersistenceConfig persistenceConfig;
     private final DataSource dataSource;
     private final JdbcTemplate jdbcTemplate;
+    private final StartupConfig startupConfig;
     
     /**
-     * 应用启动后自动执行数据库初始化
+     * 应用启动后自动执行数据库初始化，快速启动模式下由持久化管理器在后台执行
      */
     @PostConstruct
+    public void initializeOnStartup() {
+        if (startupConfig.isFastStart()) {
+            log.info("快速启动模式，数据库初始化延迟到后台执行");
+            return;
+        }
+        initializeDatabase();
+    }
+    
+    /**
+     * 执行数据库初始化，表已存在时跳过
+     */
     @Transactional
     public void initializeDatabase() {
         try {
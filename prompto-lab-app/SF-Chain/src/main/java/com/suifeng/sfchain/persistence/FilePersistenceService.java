@@ -0,0 +1,458 @@
+package com.suifeng.sfchain.persistence;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suifeng.sfchain.persistence.config.DatabaseType;
+import com.suifeng.sfchain.persistence.config.PersistenceConfig;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 描述: 基于本地文件的持久化服务实现
+ * 配置全部保存在内存中，每次写入先追加到变更日志再更新内存；日志达到阈值后把当前状态写成新快照（临时文件+原子替换）并清空日志。
+ * 启动时读取快照并重放日志，遇到第一条损坏或写了一半的记录即视为日志结束，截断后立即合并。
+ * 适用于单节点部署和测试，不依赖数据库，也不参与集群配置同步
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "sf-chain.persistence.database-type", havingValue = "file")
+public class FilePersistenceService implements PersistenceService {
+
+    private static final String SNAPSHOT_FILE = "snapshot.json";
+    private static final String LOG_FILE = "changes.log";
+    private static final String FORMAT = "sf-chain-file-store";
+    private static final int VERSION = 1;
+
+    private final PersistenceConfig persistenceConfig;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, ModelConfigData> models = new ConcurrentHashMap<>();
+    private final Map<String, OperationConfigData> operations = new ConcurrentHashMap<>();
+
+    private FileChannel logChannel;
+
+    /** 上次合并后追加的日志条数 */
+    private int logEntries;
+
+    @PostConstruct
+    public synchronized void init() {
+        load();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        closeLog();
+    }
+
+    // ==================== 模型配置管理 ====================
+
+    @Override
+    public void saveModelConfig(String modelName, ModelConfigData config) {
+        append(List.of(LogEntry.putModel(modelName, config)));
+        log.debug("[File] 模型配置已保存: {}", modelName);
+    }
+
+    @Override
+    public void saveModelConfigs(Map<String, ModelConfigData> configs) {
+        if (configs.isEmpty()) {
+            return;
+        }
+        List<LogEntry> entries = new ArrayList<>(configs.size());
+        configs.forEach((modelName, config) -> entries.add(LogEntry.putModel(modelName, config)));
+        append(entries);
+        log.info("[File] 批量保存模型配置: {}个", entries.size());
+    }
+
+    @Override
+    public Optional<ModelConfigData> getModelConfig(String modelName) {
+        return Optional.ofNullable(models.get(modelName)).map(ModelConfigData::copy);
+    }
+
+    @Override
+    public Map<String, ModelConfigData> getAllModelConfigs() {
+        return models.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().copy()));
+    }
+
+    @Override
+    public boolean deleteModelConfig(String modelName) {
+        if (!models.containsKey(modelName)) {
+            log.warn("[File] 模型配置不存在，无法删除: {}", modelName);
+            return false;
+        }
+        append(List.of(new LogEntry(LogEntry.Type.MODEL_DELETE, modelName, null, null)));
+        log.info("[File] 模型配置已删除: {}", modelName);
+        return true;
+    }
+
+    @Override
+    public boolean existsModelConfig(String modelName) {
+        return models.containsKey(modelName);
+    }
+
+    @Override
+    public List<String> getAllModelNames() {
+        return models.values().stream()
+                .filter(config -> Boolean.TRUE.equals(config.getEnabled()))
+                .map(ModelConfigData::getModelName)
+                .collect(Collectors.toList());
+    }
+
+    // ==================== 操作配置管理 ====================
+
+    @Override
+    public void saveOperationConfig(String operationType, OperationConfigData config) {
+        append(List.of(LogEntry.putOperation(operationType, config)));
+        log.debug("[File] 操作配置已保存: {}", operationType);
+    }
+
+    @Override
+    public void saveOperationConfigs(Map<String, OperationConfigData> configs) {
+        if (configs.isEmpty()) {
+            return;
+        }
+        List<LogEntry> entries = new ArrayList<>(configs.size());
+        configs.forEach((operationType, config) -> entries.add(LogEntry.putOperation(operationType, config)));
+        append(entries);
+        log.info("[File] 批量保存操作配置: {}个", entries.size());
+    }
+
+    @Override
+    public Optional<OperationConfigData> getOperationConfig(String operationType) {
+        return Optional.ofNullable(operations.get(operationType)).map(OperationConfigData::copy);
+    }
+
+    @Override
+    public Map<String, OperationConfigData> getAllOperationConfigs() {
+        return operations.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().copy()));
+    }
+
+    @Override
+    public boolean deleteOperationConfig(String operationType) {
+        if (!operations.containsKey(operationType)) {
+            log.warn("[File] 操作配置不存在，无法删除: {}", operationType);
+            return false;
+        }
+        append(List.of(new LogEntry(LogEntry.Type.OPERATION_DELETE, operationType, null, null)));
+        log.info("[File] 操作配置已删除: {}", operationType);
+        return true;
+    }
+
+    // ==================== 数据同步和备份 ====================
+
+    @Override
+    public synchronized void flush() {
+        try {
+            logChannel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("刷新配置变更日志失败", e);
+        }
+    }
+
+    /**
+     * 重新读取快照和日志，文件被外部替换后调用
+     */
+    @Override
+    public synchronized void reload() {
+        closeLog();
+        load();
+    }
+
+    /**
+     * 写入与数据库存储相同格式的配置快照，两种存储方式的备份可以互相恢复
+     */
+    @Override
+    public synchronized void backup(String backupName) {
+        ConfigSnapshotSupport.SnapshotSummary summary = ConfigSnapshotSupport.write(objectMapper, DatabaseType.FILE,
+                backupDirectory(), backupName,
+                models.values().stream().map(ConfigEntityConverter::toEntity).collect(Collectors.toList()),
+                operations.values().stream().map(ConfigEntityConverter::toEntity).collect(Collectors.toList()));
+        log.info("[File] 配置快照已创建: {}，模型: {}，操作: {}，大小: {}字节",
+                backupName, summary.getModels(), summary.getOperations(), summary.getBytes());
+    }
+
+    /**
+     * 用备份替换当前配置并立即合并；快照完整读取并校验后才替换内存中的配置，替换在写入新快照时原子生效
+     */
+    @Override
+    public synchronized void restoreFromBackup(String backupName) {
+        Map<String, ModelConfigData> restoredModels = new HashMap<>();
+        Map<String, OperationConfigData> restoredOperations = new HashMap<>();
+        ConfigSnapshotSupport.read(objectMapper, backupDirectory(), backupName,
+                chunk -> chunk.forEach(entity -> restoredModels.put(entity.getModelName(),
+                        ConfigEntityConverter.toData(entity))),
+                chunk -> chunk.forEach(entity -> restoredOperations.put(entity.getOperationType(),
+                        ConfigEntityConverter.toData(entity))));
+        models.clear();
+        operations.clear();
+        models.putAll(restoredModels);
+        operations.putAll(restoredOperations);
+        compact();
+        log.info("[File] 已从配置快照恢复: {}，模型: {}，操作: {}", backupName, models.size(), operations.size());
+    }
+
+    @Override
+    public List<String> getAllBackupNames() {
+        return ConfigSnapshotSupport.list(backupDirectory());
+    }
+
+    // ==================== 快照和日志 ====================
+
+    private void load() {
+        long start = System.nanoTime();
+        Path directory = directory();
+        models.clear();
+        operations.clear();
+        boolean truncated = false;
+        int replayed = 0;
+        try {
+            Files.createDirectories(directory);
+            // 合并中途崩溃留下的临时快照，正式快照和日志仍然完整
+            Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE + ".tmp"));
+
+            Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshotFile)) {
+                try (InputStream in = Files.newInputStream(snapshotFile)) {
+                    applySnapshot(readSnapshot(in, SNAPSHOT_FILE));
+                }
+            }
+
+            Path logFile = directory.resolve(LOG_FILE);
+            if (Files.exists(logFile)) {
+                List<String> lines = Files.readAllLines(logFile, StandardCharsets.UTF_8);
+                for (int i = 0; i < lines.size(); i++) {
+                    String line = lines.get(i);
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        apply(objectMapper.readValue(line, LogEntry.class));
+                        replayed++;
+                    } catch (IOException e) {
+                        // 与调用日志恢复一致，第一条损坏的记录即视为日志结束；原日志另存一份便于排查
+                        Path corrupt = logFile.resolveSibling(LOG_FILE + ".corrupt");
+                        Files.copy(logFile, corrupt, StandardCopyOption.REPLACE_EXISTING);
+                        log.warn("[File] 变更日志第{}行损坏，截断后续{}行记录，原日志已保存到: {}",
+                                i + 1, lines.size() - i, corrupt);
+                        truncated = true;
+                        break;
+                    }
+                }
+            }
+            logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("加载文件配置存储失败: " + directory, e);
+        }
+        logEntries = replayed;
+        if (truncated) {
+            compact();
+        }
+        log.info("[File] 文件配置存储已加载: {}，模型: {}，操作: {}，重放日志: {}条，耗时: {}ms",
+                directory, models.size(), operations.size(), replayed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 先写日志再更新内存，同一批记录只刷盘一次
+     */
+    private synchronized void append(List<LogEntry> entries) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try {
+            for (LogEntry entry : entries) {
+                buffer.write(objectMapper.writeValueAsBytes(entry));
+                buffer.write('\n');
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                logChannel.write(bytes);
+            }
+            if (persistenceConfig.getFile().isSyncOnWrite()) {
+                logChannel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入配置变更日志失败", e);
+        }
+        entries.forEach(this::apply);
+        logEntries += entries.size();
+        if (logEntries >= persistenceConfig.getFile().getCompactThreshold()) {
+            // 记录已写入日志并生效，合并失败只推迟到下次写入重试
+            try {
+                compact();
+            } catch (UncheckedIOException e) {
+                log.warn("[File] 合并配置快照失败，保留变更日志稍后重试: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 当前状态写成新快照后清空日志；替换快照和清空日志之间崩溃时，重放的日志与快照内容一致，结果不变
+     */
+    private synchronized void compact() {
+        Path snapshotFile = directory().resolve(SNAPSHOT_FILE);
+        Path temp = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer bytes = ByteBuffer.wrap(objectMapper.writeValueAsBytes(currentSnapshot()));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logChannel.truncate(0);
+            logChannel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("合并配置快照失败: " + snapshotFile, e);
+        }
+        log.debug("[File] 配置快照已合并，日志条数: {}", logEntries);
+        logEntries = 0;
+    }
+
+    private void apply(LogEntry entry) {
+        switch (entry.getType()) {
+            case MODEL_PUT:
+                models.put(entry.getKey(), entry.getModel());
+                break;
+            case MODEL_DELETE:
+                models.remove(entry.getKey());
+                // 与数据库外键 ON DELETE SET NULL 一致
+                operations.replaceAll((operationType, config) -> entry.getKey().equals(config.getModelName())
+                        ? config.toBuilder().modelName(null).build() : config);
+                break;
+            case OPERATION_PUT:
+                operations.put(entry.getKey(), entry.getOperation());
+                break;
+            case OPERATION_DELETE:
+                operations.remove(entry.getKey());
+                break;
+            default:
+                throw new IllegalStateException("未知的配置变更类型: " + entry.getType());
+        }
+    }
+
+    private StoreSnapshot readSnapshot(InputStream in, String source) throws IOException {
+        StoreSnapshot snapshot = objectMapper.readValue(in, StoreSnapshot.class);
+        if (!FORMAT.equals(snapshot.getFormat())) {
+            throw new IllegalArgumentException("不是文件配置快照: " + source);
+        }
+        if (snapshot.getVersion() > VERSION) {
+            throw new IllegalArgumentException("不支持的快照版本: " + snapshot.getVersion());
+        }
+        return snapshot;
+    }
+
+    private void applySnapshot(StoreSnapshot snapshot) {
+        if (snapshot.getModels() != null) {
+            models.putAll(snapshot.getModels());
+        }
+        if (snapshot.getOperations() != null) {
+            operations.putAll(snapshot.getOperations());
+        }
+    }
+
+    private StoreSnapshot currentSnapshot() {
+        return new StoreSnapshot(FORMAT, VERSION, LocalDateTime.now().toString(), Map.copyOf(models),
+                Map.copyOf(operations));
+    }
+
+    private void closeLog() {
+        if (logChannel == null) {
+            return;
+        }
+        try {
+            logChannel.close();
+        } catch (IOException e) {
+            log.warn("[File] 关闭配置变更日志失败: {}", e.getMessage());
+        }
+        logChannel = null;
+    }
+
+    private Path directory() {
+        return Path.of(persistenceConfig.getFile().getDirectory());
+    }
+
+    private Path backupDirectory() {
+        return Path.of(persistenceConfig.getBackupDirectory());
+    }
+
+    /**
+     * 变更日志中的一条记录，按行保存为JSON
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class LogEntry {
+
+        enum Type {
+            MODEL_PUT, MODEL_DELETE, OPERATION_PUT, OPERATION_DELETE
+        }
+
+        private Type type;
+        private String key;
+        private ModelConfigData model;
+        private OperationConfigData operation;
+
+        /**
+         * 保存副本并在副本上设置模型名，不修改调用方的对象
+         */
+        static LogEntry putModel(String modelName, ModelConfigData config) {
+            ModelConfigData copy = config.copy();
+            copy.setModelName(modelName);
+            return new LogEntry(Type.MODEL_PUT, modelName, copy, null);
+        }
+
+        static LogEntry putOperation(String operationType, OperationConfigData config) {
+            OperationConfigData copy = config.copy();
+            copy.setOperationType(operationType);
+            return new LogEntry(Type.OPERATION_PUT, operationType, null, copy);
+        }
+    }
+
+    /**
+     * 快照文件内容
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class StoreSnapshot {
+        private String format;
+        private int version;
+        private String createdAt;
+        private Map<String, ModelConfigData> models;
+        private Map<String, OperationConfigData> operations;
+    }
+}
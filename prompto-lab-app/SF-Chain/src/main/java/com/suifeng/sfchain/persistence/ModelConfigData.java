@@ -18,7 +18,7 @@ import java.util.Map;
  * 日期: 2025/1/27
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -92,6 +92,26 @@ public class ModelConfigData {
     @Builder.Default
     private Boolean enabled = true;
     
+    /**
+     * 输入token单价（每百万token），用于成本统计
+     */
+    private Double inputPricePerMillion;
+    
+    /**
+     * 输出token单价（每百万token）
+     */
+    private Double outputPricePerMillion;
+    
+    /**
+     * 命中缓存的输入token单价（每百万token），为空时按输入单价计
+     */
+    private Double cachedInputPricePerMillion;
+    
+    /**
+     * 流式请求是否要求返回usage，为空时按提供商判断
+     */
+    private Boolean streamUsage;
+    
     /**
      * 创建时间戳
      */
@@ -113,6 +133,15 @@ public class ModelConfigData {
                apiKey != null && !apiKey.trim().isEmpty();
     }
     
+    /**
+     * 复制配置，请求头单独复制
+     */
+    public ModelConfigData copy() {
+        return toBuilder()
+                .additionalHeaders(additionalHeaders != null ? new HashMap<>(additionalHeaders) : null)
+                .build();
+    }
+    
     /**
      * 更新时间戳
      */
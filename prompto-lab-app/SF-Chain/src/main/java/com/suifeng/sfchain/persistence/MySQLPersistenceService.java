@@ -1,5 +1,8 @@
 package com.suifeng.sfchain.persistence;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suifeng.sfchain.persistence.config.DatabaseType;
+import com.suifeng.sfchain.persistence.config.PersistenceConfig;
 import com.suifeng.sfchain.persistence.entity.ModelConfigEntity;
 import com.suifeng.sfchain.persistence.entity.OperationConfigEntity;
 import com.suifeng.sfchain.persistence.repository.ModelConfigRepository;
@@ -7,11 +10,12 @@ import com.suifeng.sfchain.persistence.repository.OperationConfigRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -32,6 +36,9 @@ public class MySQLPersistenceService implements PersistenceService {
     
     private final ModelConfigRepository modelConfigRepository;
     private final OperationConfigRepository operationConfigRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PersistenceConfig persistenceConfig;
     
     @Override
     @Transactional
@@ -46,13 +53,13 @@ public class MySQLPersistenceService implements PersistenceService {
                 Long id = existing.getId();
                 LocalDateTime createdAt = existing.getCreatedAt();
                 
-                ModelConfigEntity updatedEntity = convertToEntity(config);
+                ModelConfigEntity updatedEntity = ConfigEntityConverter.toEntity(config);
                 updatedEntity.setId(id);
                 updatedEntity.setCreatedAt(createdAt);
                 
                 return updatedEntity;
             })
-            .orElseGet(() -> convertToEntity(config));
+            .orElseGet(() -> ConfigEntityConverter.toEntity(config));
         
         modelConfigRepository.save(entity);
         log.info("[MySQL] 模型配置保存成功: {}", modelName);
@@ -62,7 +69,7 @@ public class MySQLPersistenceService implements PersistenceService {
     public Optional<ModelConfigData> getModelConfig(String modelName) {
         log.debug("[MySQL] 获取模型配置: {}", modelName);
         return modelConfigRepository.findByModelName(modelName)
-                .map(this::convertToData);
+                .map(ConfigEntityConverter::toData);
     }
     
     @Override
@@ -71,7 +78,7 @@ public class MySQLPersistenceService implements PersistenceService {
         return modelConfigRepository.findAll().stream()
                 .collect(Collectors.toMap(
                     ModelConfigEntity::getModelName,
-                    this::convertToData
+                    ConfigEntityConverter::toData
                 ));
     }
     
@@ -110,13 +117,13 @@ public class MySQLPersistenceService implements PersistenceService {
                 Long id = existing.getId();
                 LocalDateTime createdAt = existing.getCreatedAt();
                 
-                OperationConfigEntity updatedEntity = convertToEntity(config);
+                OperationConfigEntity updatedEntity = ConfigEntityConverter.toEntity(config);
                 updatedEntity.setId(id);
                 updatedEntity.setCreatedAt(createdAt);
                 
                 return updatedEntity;
             })
-            .orElseGet(() -> convertToEntity(config));
+            .orElseGet(() -> ConfigEntityConverter.toEntity(config));
         
         operationConfigRepository.save(entity);
         log.info("[MySQL] 操作配置保存成功: {}", operationType);
@@ -126,7 +133,7 @@ public class MySQLPersistenceService implements PersistenceService {
     public Optional<OperationConfigData> getOperationConfig(String operationType) {
         log.debug("[MySQL] 获取操作配置: {}", operationType);
         return operationConfigRepository.findByOperationType(operationType)
-                .map(this::convertToData);
+                .map(ConfigEntityConverter::toData);
     }
     
     @Override
@@ -135,10 +142,46 @@ public class MySQLPersistenceService implements PersistenceService {
         return operationConfigRepository.findAll().stream()
                 .collect(Collectors.toMap(
                     OperationConfigEntity::getOperationType,
-                    this::convertToData
+                    ConfigEntityConverter::toData
                 ));
     }
     
+    @Override
+    @Transactional
+    public void saveModelConfigs(Map<String, ModelConfigData> configs) {
+        if (configs.isEmpty()) {
+            return;
+        }
+        List<ModelConfigEntity> entities = configs.entrySet().stream()
+                .map(entry -> {
+                    // 复制后再补全主键字段，不修改调用方传入的配置
+                    ModelConfigData config = entry.getValue().copy();
+                    config.setModelName(entry.getKey());
+                    return ConfigEntityConverter.toEntity(config);
+                })
+                .collect(Collectors.toList());
+        int statements = BulkUpsertSupport.upsertModels(jdbcTemplate, objectMapper, DatabaseType.MYSQL, entities);
+        log.info("[MySQL] 批量保存模型配置: {}个，语句数: {}", entities.size(), statements);
+    }
+    
+    @Override
+    @Transactional
+    public void saveOperationConfigs(Map<String, OperationConfigData> configs) {
+        if (configs.isEmpty()) {
+            return;
+        }
+        List<OperationConfigEntity> entities = configs.entrySet().stream()
+                .map(entry -> {
+                    // 复制后再补全主键字段，不修改调用方传入的配置
+                    OperationConfigData config = entry.getValue().copy();
+                    config.setOperationType(entry.getKey());
+                    return ConfigEntityConverter.toEntity(config);
+                })
+                .collect(Collectors.toList());
+        int statements = BulkUpsertSupport.upsertOperations(jdbcTemplate, objectMapper, DatabaseType.MYSQL, entities);
+        log.info("[MySQL] 批量保存操作配置: {}个，语句数: {}", entities.size(), statements);
+    }
+    
     @Override
     @Transactional
     public boolean deleteOperationConfig(String operationType) {
@@ -166,149 +209,29 @@ public class MySQLPersistenceService implements PersistenceService {
     }
     
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public void backup(String backupName) {
-        log.info("[MySQL] 创建备份: {}", backupName);
-        // MySQL特定的备份实现
-        // 可以使用CREATE TABLE ... AS SELECT语句
+        ConfigSnapshotSupport.SnapshotSummary summary = ConfigSnapshotSupport.write(
+                jdbcTemplate, objectMapper, DatabaseType.MYSQL, backupDirectory(), backupName);
+        log.info("[MySQL] 配置快照已创建: {}，模型: {}，操作: {}，大小: {}字节",
+                backupName, summary.getModels(), summary.getOperations(), summary.getBytes());
     }
     
     @Override
     @Transactional
     public void restoreFromBackup(String backupName) {
-        log.info("[MySQL] 从备份恢复: {}", backupName);
-        // MySQL特定的恢复实现
+        ConfigSnapshotSupport.SnapshotSummary summary = ConfigSnapshotSupport.restore(
+                jdbcTemplate, objectMapper, DatabaseType.MYSQL, backupDirectory(), backupName);
+        log.info("[MySQL] 已从配置快照恢复: {}，模型: {}，操作: {}",
+                backupName, summary.getModels(), summary.getOperations());
     }
     
     @Override
     public List<String> getAllBackupNames() {
-        log.debug("[MySQL] 获取所有备份名称");
-        // 返回备份列表
-        return List.of();
-    }
-    
-    /**
-     * 将ModelConfigData转换为ModelConfigEntity
-     */
-    private ModelConfigEntity convertToEntity(ModelConfigData data) {
-        ModelConfigEntity entity = new ModelConfigEntity();
-        
-        // 映射基本字段
-        entity.setModelName(data.getModelName());
-        entity.setProvider(data.getProvider());
-        entity.setApiKey(data.getApiKey());
-        entity.setBaseUrl(data.getBaseUrl());
-        entity.setEnabled(data.getEnabled());
-        entity.setDescription(data.getDescription());
-        
-        // 将扩展字段映射到customParams
-        Map<String, Object> customParams = new HashMap<>();
-        if (data.getDefaultMaxTokens() != null) {
-            customParams.put("defaultMaxTokens", data.getDefaultMaxTokens());
-        }
-        if (data.getDefaultTemperature() != null) {
-            customParams.put("defaultTemperature", data.getDefaultTemperature());
-        }
-        if (data.getSupportStream() != null) {
-            customParams.put("supportStream", data.getSupportStream());
-        }
-        if (data.getSupportJsonOutput() != null) {
-            customParams.put("supportJsonOutput", data.getSupportJsonOutput());
-        }
-        if (data.getSupportThinking() != null) {
-            customParams.put("supportThinking", data.getSupportThinking());
-        }
-        if (data.getAdditionalHeaders() != null && !data.getAdditionalHeaders().isEmpty()) {
-            customParams.put("additionalHeaders", data.getAdditionalHeaders());
-        }
-        if (data.getCreatedAt() != null) {
-            customParams.put("createdAt", data.getCreatedAt());
-        }
-        if (data.getUpdatedAt() != null) {
-            customParams.put("updatedAt", data.getUpdatedAt());
-        }
-        
-        entity.setCustomParams(customParams);
-        return entity;
-    }
-    
-    /**
-     * 将ModelConfigEntity转换为ModelConfigData
-     */
-    private ModelConfigData convertToData(ModelConfigEntity entity) {
-        ModelConfigData.ModelConfigDataBuilder builder = ModelConfigData.builder()
-                .modelName(entity.getModelName())
-                .provider(entity.getProvider())
-                .apiKey(entity.getApiKey())
-                .baseUrl(entity.getBaseUrl())
-                .enabled(entity.getEnabled())
-                .description(entity.getDescription());
-        
-        // 从customParams中提取扩展字段
-        Map<String, Object> customParams = entity.getCustomParams();
-        if (customParams != null) {
-            if (customParams.containsKey("defaultMaxTokens")) {
-                builder.defaultMaxTokens((Integer) customParams.get("defaultMaxTokens"));
-            }
-            if (customParams.containsKey("defaultTemperature")) {
-                builder.defaultTemperature((Double) customParams.get("defaultTemperature"));
-            }
-            if (customParams.containsKey("supportStream")) {
-                builder.supportStream((Boolean) customParams.get("supportStream"));
-            }
-            if (customParams.containsKey("supportJsonOutput")) {
-                builder.supportJsonOutput((Boolean) customParams.get("supportJsonOutput"));
-            }
-            if (customParams.containsKey("supportThinking")) {
-                builder.supportThinking((Boolean) customParams.get("supportThinking"));
-            }
-            if (customParams.containsKey("additionalHeaders")) {
-                @SuppressWarnings("unchecked")
-                Map<String, String> headers = (Map<String, String>) customParams.get("additionalHeaders");
-                builder.additionalHeaders(headers != null ? headers : new HashMap<>());
-            }
-            if (customParams.containsKey("createdAt")) {
-                builder.createdAt((Long) customParams.get("createdAt"));
-            }
-            if (customParams.containsKey("updatedAt")) {
-                builder.updatedAt((Long) customParams.get("updatedAt"));
-            }
-        }
-        
-        return builder.build();
-    }
-    
-    /**
-     * 将OperationConfigData转换为OperationConfigEntity
-     */
-    private OperationConfigEntity convertToEntity(OperationConfigData data) {
-        OperationConfigEntity entity = new OperationConfigEntity();
-        entity.setOperationType(data.getOperationType());
-        entity.setDescription(data.getDescription());
-        entity.setEnabled(data.getEnabled());
-        entity.setMaxTokens(data.getMaxTokens());
-        entity.setTemperature(data.getTemperature());
-        entity.setJsonOutput(data.getJsonOutput());
-        entity.setThinkingMode(data.getThinkingMode());
-        entity.setCustomParams(data.getCustomParams());
-        entity.setModelName(data.getModelName());
-        return entity;
+        return ConfigSnapshotSupport.list(backupDirectory());
     }
     
-    /**
-     * 将OperationConfigEntity转换为OperationConfigData
-     */
-    private OperationConfigData convertToData(OperationConfigEntity entity) {
-        return OperationConfigData.builder()
-                .operationType(entity.getOperationType())
-                .description(entity.getDescription())
-                .enabled(entity.getEnabled())
-                .maxTokens(entity.getMaxTokens())
-                .temperature(entity.getTemperature())
-                .jsonOutput(entity.getJsonOutput())
-                .thinkingMode(entity.getThinkingMode())
-                .customParams(entity.getCustomParams())
-                .modelName(entity.getModelName())
-                .build();
+    private Path backupDirectory() {
+        return Path.of(persistenceConfig.getBackupDirectory());
     }
-}
\ No newline at end of file
+}
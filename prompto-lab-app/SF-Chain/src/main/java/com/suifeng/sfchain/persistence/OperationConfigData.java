@@ -18,7 +18,7 @@ import java.util.Map;
  * 日期: 2025/1/27
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -111,6 +111,15 @@ public class OperationConfigData {
      */
     private String modelName;
     
+    /**
+     * 复制配置，自定义参数单独复制
+     */
+    public OperationConfigData copy() {
+        return toBuilder()
+                .customParams(customParams != null ? new HashMap<>(customParams) : null)
+                .build();
+    }
+    
     /**
      * 验证配置是否有效
      * @return 是否有效
@@ -4,15 +4,23 @@ import com.suifeng.sfchain.core.AIOperationRegistry;
 import com.suifeng.sfchain.core.ModelRegistry;
 import com.suifeng.sfchain.core.openai.OpenAIModelConfig;
 import com.suifeng.sfchain.core.openai.OpenAIModelFactory;
+import com.suifeng.sfchain.core.startup.StartupReadiness;
+import com.suifeng.sfchain.persistence.sync.ConfigChange;
+import com.suifeng.sfchain.persistence.sync.ConfigChangeLog;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
@@ -23,6 +31,11 @@ public class PersistenceManager {
     private final AIOperationRegistry operationRegistry;
     private final OpenAIModelFactory modelFactory;
     private final DynamicOperationConfigService dynamicOperationConfigService;
+    private final ObjectProvider<ConfigChangeLog> changeLog;
+    private final ObjectProvider<DatabaseInitializationService> databaseInitializationService;
+    private final StartupReadiness startupReadiness;
+    
+    private volatile PersistenceStartupReport startupReport;
     
     // 统一使用构造函数注入
     public PersistenceManager(
@@ -30,28 +43,97 @@ public class PersistenceManager {
             ModelRegistry modelRegistry,
             AIOperationRegistry operationRegistry,
             OpenAIModelFactory modelFactory,
-            DynamicOperationConfigService dynamicOperationConfigService) {
+            DynamicOperationConfigService dynamicOperationConfigService,
+            ObjectProvider<ConfigChangeLog> changeLog,
+            ObjectProvider<DatabaseInitializationService> databaseInitializationService,
+            StartupReadiness startupReadiness) {
         this.persistenceService = persistenceServiceFactory.createPersistenceService();
         this.modelRegistry = modelRegistry;
         this.operationRegistry = operationRegistry;
         this.modelFactory = modelFactory;
         this.dynamicOperationConfigService = dynamicOperationConfigService;
+        this.changeLog = changeLog;
+        this.databaseInitializationService = databaseInitializationService;
+        this.startupReadiness = startupReadiness;
     }
     
     /**
-     * 应用启动完成后同步配置
+     * 应用启动完成后同步配置；快速启动时立即返回，数据库初始化、配置同步和模型预热在后台线程执行
      */
     @EventListener(ApplicationReadyEvent.class)
     public void onApplicationReady() {
+        if (startupReadiness.isFastStart()) {
+            startupReadiness.markServing();
+            Thread thread = new Thread(this::runStartupPhases, "sf-chain-startup");
+            thread.setDaemon(true);
+            thread.start();
+            return;
+        }
+        runPhase("persistence", this::synchronizePersistence);
+        startupReadiness.markReady();
+    }
+    
+    /**
+     * 快速启动的后台阶段，按依赖顺序执行，某阶段失败不影响后续阶段
+     */
+    private void runStartupPhases() {
+        DatabaseInitializationService initializer = databaseInitializationService.getIfAvailable();
+        if (initializer != null) {
+            runPhase("schema", initializer::initializeDatabase);
+        }
+        runPhase("persistence", this::synchronizePersistence);
+        runPhase("warmup", this::warmUpModels);
+        startupReadiness.markReady();
+    }
+    
+    private void runPhase(String name, Runnable phase) {
+        startupReadiness.beginPhase(name);
+        try {
+            phase.run();
+            startupReadiness.completePhase(name);
+        } catch (Exception e) {
+            startupReadiness.failPhase(name, e.getMessage());
+        }
+    }
+    
+    private void synchronizePersistence() {
         log.info("开始同步持久化配置...");
-        
-        // 同步现有配置到持久化存储
-        syncExistingConfigurations();
-        
-        // 从持久化存储加载额外配置
-        loadPersistedConfigurations();
-        
-        log.info("持久化配置同步完成");
+        startupReport = synchronizeOnStartup();
+        log.info("持久化配置同步完成: {}", startupReport);
+        if (startupReport.getError() != null) {
+            throw new IllegalStateException(startupReport.getError());
+        }
+    }
+    
+    /**
+     * 设置各操作的默认模型映射，并提前创建已映射的模型实例
+     */
+    private void warmUpModels() {
+        Set<String> modelNames = new LinkedHashSet<>();
+        for (String operationType : operationRegistry.getAllOperations()) {
+            operationRegistry.getOperation(operationType).applyDefaultModelMapping();
+            String modelName = operationRegistry.getModelForOperation(operationType);
+            if (modelName != null) {
+                modelNames.add(modelName);
+            }
+        }
+        int warmed = 0;
+        for (String modelName : modelNames) {
+            try {
+                modelRegistry.getModel(modelName);
+                warmed++;
+            } catch (Exception e) {
+                log.warn("模型预热失败: {} - {}", modelName, e.getMessage());
+            }
+        }
+        log.info("模型预热完成: {}/{}", warmed, modelNames.size());
+    }
+    
+    /**
+     * 获取启动同步的耗时报告，同步尚未执行时返回null
+     */
+    public PersistenceStartupReport getStartupReport() {
+        return startupReport;
     }
     
     // ==================== 模型配置管理 ====================
@@ -77,6 +159,7 @@ public class PersistenceManager {
             
             // 保存到持久化存储
             persistenceService.saveModelConfig(modelName, config);
+            broadcast(ConfigChange.EntityType.MODEL, modelName, ConfigChange.Action.UPSERT);
             
             log.info("成功添加模型配置: {}", modelName);
         } catch (Exception e) {
@@ -114,6 +197,7 @@ public class PersistenceManager {
             
             // 更新持久化存储
             persistenceService.saveModelConfig(modelName, config);
+            broadcast(ConfigChange.EntityType.MODEL, modelName, ConfigChange.Action.UPSERT);
             
             log.info("成功更新模型配置: {}", modelName);
         } catch (Exception e) {
@@ -130,9 +214,7 @@ public class PersistenceManager {
     public void deleteModelConfig(String modelName) {
         try {
             // 检查是否有操作正在使用此模型（从操作配置中检查）
-            Map<String, OperationConfigData> allConfigs = persistenceService.getAllOperationConfigs();
-            boolean inUse = allConfigs.values().stream()
-                    .anyMatch(config -> modelName.equals(config.getModelName()));
+            boolean inUse = !persistenceService.getOperationsUsingModel(modelName).isEmpty();
             if (inUse) {
                 throw new IllegalStateException("模型正在被操作使用，无法删除: " + modelName);
             }
@@ -142,6 +224,7 @@ public class PersistenceManager {
             
             // 从持久化存储删除
             persistenceService.deleteModelConfig(modelName);
+            broadcast(ConfigChange.EntityType.MODEL, modelName, ConfigChange.Action.DELETE);
             
             log.info("成功删除模型配置: {}", modelName);
         } catch (Exception e) {
@@ -203,6 +286,7 @@ public class PersistenceManager {
             
             // 2. ✅ 完整同步所有配置到框架（包括模型映射和其他参数）
             syncDatabaseConfigToFramework(operationType, config);
+            broadcast(ConfigChange.EntityType.OPERATION, operationType, ConfigChange.Action.UPSERT);
             
             log.info("成功保存操作配置并完整同步到框架: {} -> 模型: {}", operationType, config.getModelName());
         } catch (Exception e) {
@@ -268,7 +352,8 @@ public class PersistenceManager {
             persistenceService.deleteOperationConfig(operationType);
             
             // 同时从操作注册中心移除模型映射
-            operationRegistry.getModelMapping().remove(operationType);
+            operationRegistry.removeModelForOperation(operationType);
+            broadcast(ConfigChange.EntityType.OPERATION, operationType, ConfigChange.Action.DELETE);
             
             log.info("成功删除操作配置: {}", operationType);
         } catch (Exception e) {
@@ -289,19 +374,34 @@ public class PersistenceManager {
     }
     
     /**
-     * 从备份恢复配置
+     * 从备份恢复配置，只重新加载恢复前后发生变化的模型和操作，并逐项广播
      * 
      * @param backupName 备份名称
      */
     public void restoreFromBackup(String backupName) {
         try {
+            Map<String, ModelConfigData> modelsBefore = persistenceService.getAllModelConfigs();
+            Map<String, OperationConfigData> operationsBefore = persistenceService.getAllOperationConfigs();
+            
             // 恢复配置
             persistenceService.restoreFromBackup(backupName);
             
-            // 重新同步配置
-            loadPersistedConfigurations();
-            
-            log.info("成功从备份恢复配置: {}", backupName);
+            // 只同步有变化的配置项
+            Map<String, ConfigChange.Action> changedModels =
+                    diff(modelsBefore, persistenceService.getAllModelConfigs());
+            Map<String, ConfigChange.Action> changedOperations =
+                    diff(operationsBefore, persistenceService.getAllOperationConfigs());
+            changedModels.forEach((modelName, action) -> {
+                applyPersistedModelConfig(modelName);
+                broadcast(ConfigChange.EntityType.MODEL, modelName, action);
+            });
+            changedOperations.forEach((operationType, action) -> {
+                applyPersistedOperationConfig(operationType);
+                broadcast(ConfigChange.EntityType.OPERATION, operationType, action);
+            });
+            
+            log.info("成功从备份恢复配置: {}，变更模型: {}，变更操作: {}",
+                    backupName, changedModels.size(), changedOperations.size());
         } catch (Exception e) {
             log.error("从备份恢复配置失败: {} - {}", backupName, e.getMessage());
             throw new RuntimeException("从备份恢复配置失败: " + backupName, e);
@@ -340,51 +440,179 @@ public class PersistenceManager {
         }
     }
     
+    // ==================== 集群同步 ====================
+    
+    /**
+     * 从持久化存储重新加载单个模型配置，存储中已删除时从模型工厂移除；不再广播
+     * 
+     * @param modelName 模型名称
+     */
+    public void reloadModelConfig(String modelName) {
+        persistenceService.reloadModelConfig(modelName);
+        applyPersistedModelConfig(modelName);
+    }
+    
+    /**
+     * 从持久化存储重新加载单个操作配置，存储中已删除时移除模型映射；不再广播
+     * 
+     * @param operationType 操作类型
+     */
+    public void reloadOperationConfig(String operationType) {
+        persistenceService.reloadOperationConfig(operationType);
+        applyPersistedOperationConfig(operationType);
+    }
+    
+    /**
+     * 从持久化存储重新加载全部模型和操作配置；不再广播
+     */
+    public void reloadAllFromStore() {
+        persistenceService.reload();
+        for (String modelName : persistenceService.getAllModelConfigs().keySet()) {
+            try {
+                applyPersistedModelConfig(modelName);
+            } catch (Exception e) {
+                log.warn("重新加载模型配置失败: {} - {}", modelName, e.getMessage());
+            }
+        }
+        for (String operationType : persistenceService.getAllOperationConfigs().keySet()) {
+            try {
+                applyPersistedOperationConfig(operationType);
+            } catch (Exception e) {
+                log.warn("重新加载操作配置失败: {} - {}", operationType, e.getMessage());
+            }
+        }
+    }
+    
+    private void applyPersistedModelConfig(String modelName) {
+        Optional<ModelConfigData> persisted = persistenceService.getModelConfig(modelName);
+        modelFactory.removeModel(modelName);
+        if (persisted.isPresent()) {
+            modelFactory.registerModel(convertToOpenAIConfig(persisted.get()));
+        }
+    }
+    
+    private void applyPersistedOperationConfig(String operationType) {
+        if (!operationRegistry.isOperationRegistered(operationType)) {
+            return;
+        }
+        Optional<OperationConfigData> persisted = persistenceService.getOperationConfig(operationType);
+        if (persisted.isPresent()) {
+            syncDatabaseConfigToFramework(operationType, persisted.get());
+        } else {
+            operationRegistry.removeModelForOperation(operationType);
+        }
+    }
+    
     // ==================== 私有方法 ====================
     
+    /**
+     * 通知其他节点配置已变更，失败只记录日志，由其他节点的轮询或手动刷新兜底
+     */
+    private void broadcast(ConfigChange.EntityType entityType, String entityKey, ConfigChange.Action action) {
+        ConfigChangeLog changes = changeLog.getIfAvailable();
+        if (changes == null) {
+            return;
+        }
+        try {
+            changes.append(entityType, entityKey, action);
+        } catch (Exception e) {
+            log.warn("广播配置变更失败: {} {} - {}", entityType, entityKey, e.getMessage());
+        }
+    }
+    
+    /**
+     * 启动同步：模型和操作配置各批量读取一次，新增项批量写入，其余比对和注册都在内存中完成
+     */
+    private PersistenceStartupReport synchronizeOnStartup() {
+        long start = System.nanoTime();
+        Map<String, Long> phases = new LinkedHashMap<>();
+        PersistenceStartupReport.PersistenceStartupReportBuilder report = PersistenceStartupReport.builder();
+        try {
+            // 1. 并行读取模型和操作配置
+            long phaseStart = System.nanoTime();
+            CompletableFuture<Map<String, OperationConfigData>> operationsFuture =
+                    CompletableFuture.supplyAsync(persistenceService::getAllOperationConfigs);
+            Map<String, ModelConfigData> dbModels = persistenceService.getAllModelConfigs();
+            Map<String, OperationConfigData> dbOperations = operationsFuture.join();
+            phases.put("load", elapsedMillis(phaseStart));
+            report.persistedModels(dbModels.size()).persistedOperations(dbOperations.size());
+            
+            // 2. 配置文件中的模型写入数据库，数据库中的模型注册到模型工厂
+            phaseStart = System.nanoTime();
+            Map<String, ModelConfigData> newModels = collectUnpersistedModels(dbModels);
+            persistenceService.saveModelConfigs(newModels);
+            report.modelsSaved(newModels.size()).modelsLoaded(registerPersistedModels(dbModels));
+            phases.put("models", elapsedMillis(phaseStart));
+            
+            // 3. 操作配置比对、新增和同步到注册中心
+            phaseStart = System.nanoTime();
+            initializeOperationConfigs(dbOperations, report);
+            phases.put("operations", elapsedMillis(phaseStart));
+        } catch (Exception e) {
+            log.error("同步持久化配置失败: {}", e.getMessage(), e);
+            report.error(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        return report.totalMillis(elapsedMillis(start)).phaseMillis(phases).build();
+    }
+    
     /**
      * 同步现有配置到持久化存储
      */
     private void syncExistingConfigurations() {
         try {
             // 同步现有的模型配置
-            for (String modelName : modelFactory.getRegisteredModelNames()) {
-                OpenAIModelConfig openAIConfig = modelFactory.getModelConfig(modelName);
-                if (openAIConfig != null && !persistenceService.existsModelConfig(modelName)) {
-                    ModelConfigData configData = convertFromOpenAIConfig(openAIConfig);
-                    persistenceService.saveModelConfig(modelName, configData);
-                }
-            }
+            persistenceService.saveModelConfigs(collectUnpersistedModels(persistenceService.getAllModelConfigs()));
             
             // 初始化操作配置：从@AIOp注解获取配置并保存到数据库
-            initializeOperationConfigs();
+            initializeOperationConfigs(persistenceService.getAllOperationConfigs(), PersistenceStartupReport.builder());
             
         } catch (Exception e) {
             log.warn("同步现有配置时出现警告: {}", e.getMessage());
         }
     }
     
+    /**
+     * 收集模型工厂中已注册但数据库中没有的模型配置
+     */
+    private Map<String, ModelConfigData> collectUnpersistedModels(Map<String, ModelConfigData> dbModels) {
+        Map<String, ModelConfigData> newModels = new LinkedHashMap<>();
+        for (String modelName : modelFactory.getRegisteredModelNames()) {
+            OpenAIModelConfig openAIConfig = modelFactory.getModelConfig(modelName);
+            if (openAIConfig != null && !dbModels.containsKey(modelName)) {
+                newModels.put(modelName, convertFromOpenAIConfig(openAIConfig));
+            }
+        }
+        return newModels;
+    }
+    
+    /**
+     * 将数据库中有但模型工厂未注册的模型注册到模型工厂
+     * 
+     * @return 注册的模型数
+     */
+    private int registerPersistedModels(Map<String, ModelConfigData> dbModels) {
+        int registered = 0;
+        for (Map.Entry<String, ModelConfigData> entry : dbModels.entrySet()) {
+            if (!modelFactory.isModelRegistered(entry.getKey())) {
+                try {
+                    modelFactory.registerModel(convertToOpenAIConfig(entry.getValue()));
+                    registered++;
+                    log.info("从持久化存储加载模型配置: {}", entry.getKey());
+                } catch (Exception e) {
+                    log.warn("加载模型配置失败: {} - {}", entry.getKey(), e.getMessage());
+                }
+            }
+        }
+        return registered;
+    }
+    
     /**
      * 从持久化存储加载配置
      */
     private void loadPersistedConfigurations() {
         try {
             // 加载模型配置
-            Map<String, ModelConfigData> modelConfigs = persistenceService.getAllModelConfigs();
-            for (Map.Entry<String, ModelConfigData> entry : modelConfigs.entrySet()) {
-                String modelName = entry.getKey();
-                ModelConfigData config = entry.getValue();
-                
-                if (!modelFactory.isModelRegistered(modelName)) {
-                    try {
-                        OpenAIModelConfig openAIConfig = convertToOpenAIConfig(config);
-                        modelFactory.registerModel(openAIConfig);
-                        log.info("从持久化存储加载模型配置: {}", modelName);
-                    } catch (Exception e) {
-                        log.warn("加载模型配置失败: {} - {}", modelName, e.getMessage());
-                    }
-                }
-            }
+            registerPersistedModels(persistenceService.getAllModelConfigs());
             
             // 加载操作配置并同步模型映射到操作注册中心
             Map<String, OperationConfigData> operationConfigs = persistenceService.getAllOperationConfigs();
@@ -411,48 +639,63 @@ public class PersistenceManager {
     
     /**
      * 初始化操作配置
-     * 1. 从数据库获取所有操作配置
-     * 2. 与框架中的操作进行对比
-     * 3. 数据库没有的操作新增到数据库
-     * 4. 数据库有的操作以数据库配置为准同步到框架
+     * 1. 与框架中的操作进行对比
+     * 2. 数据库没有的操作从注解获取，批量新增到数据库
+     * 3. 数据库有但框架中未注册的操作从数据库删除
+     * 4. 以数据库配置为准同步到框架
+     * 
+     * @param dbConfigs 数据库中的操作配置
+     * @param report 记录各项数量
      */
-    private void initializeOperationConfigs() {
+    private void initializeOperationConfigs(Map<String, OperationConfigData> dbConfigs,
+                                            PersistenceStartupReport.PersistenceStartupReportBuilder report) {
         try {
-            // 1. 获取数据库中所有的操作配置
-            Map<String, OperationConfigData> dbConfigs = persistenceService.getAllOperationConfigs();
+            Set<String> frameworkOperations = new LinkedHashSet<>(operationRegistry.getAllOperations());
+            Map<String, OperationConfigData> toSync = new LinkedHashMap<>();
+            Map<String, OperationConfigData> toSave = new LinkedHashMap<>();
             
-            // 2. 获取框架中所有已注册的操作
-            List<String> frameworkOperations = operationRegistry.getAllOperations();
-            
-            // 3. 处理框架中的操作
             for (String operationType : frameworkOperations) {
-                if (dbConfigs.containsKey(operationType)) {
-                    // 数据库中存在该操作配置，以数据库配置为准同步到框架
-                    OperationConfigData dbConfig = dbConfigs.get(operationType);
-                    syncDatabaseConfigToFramework(operationType, dbConfig);
-                    log.info("使用数据库配置同步到框架: {} -> 模型: {}", operationType, dbConfig.getModelName());
+                OperationConfigData dbConfig = dbConfigs.get(operationType);
+                if (dbConfig != null) {
+                    toSync.put(operationType, dbConfig);
+                    continue;
+                }
+                // 数据库中不存在该操作配置，从注解获取并新增到数据库
+                Optional<OperationConfigData> annotationConfig = dynamicOperationConfigService.getOperationConfig(operationType);
+                if (annotationConfig.isPresent()) {
+                    toSave.put(operationType, annotationConfig.get());
+                    toSync.put(operationType, annotationConfig.get());
+                    log.info("从注解新增操作配置到数据库: {} -> 模型: {}", operationType, annotationConfig.get().getModelName());
                 } else {
-                    // 数据库中不存在该操作配置，从注解获取并新增到数据库
-                    Optional<OperationConfigData> annotationConfig = dynamicOperationConfigService.getOperationConfig(operationType);
-                    if (annotationConfig.isPresent()) {
-                        OperationConfigData config = annotationConfig.get();
-                        persistenceService.saveOperationConfig(operationType, config);
-                        syncDatabaseConfigToFramework(operationType, config);
-                        log.info("从注解新增操作配置到数据库: {} -> 模型: {}", operationType, config.getModelName());
-                    } else {
-                        log.debug("操作 {} 没有@AIOp注解配置，跳过初始化", operationType);
-                    }
+                    log.debug("操作 {} 没有@AIOp注解配置，跳过初始化", operationType);
                 }
             }
+            persistenceService.saveOperationConfigs(toSave);
             
-            // 4. 处理数据库中存在但框架中不存在的操作（可能是已删除的操作）
+            // 处理数据库中存在但框架中不存在的操作（可能是已删除的操作）
+            int removed = 0;
             for (String dbOperationType : dbConfigs.keySet()) {
                 if (!frameworkOperations.contains(dbOperationType)) {
-                    log.warn("数据库中存在操作配置但框架中未注册该操作: {}，建议清理数据库配置", dbOperationType);
-                    // 可选：自动删除数据库中的无效配置
-                     persistenceService.deleteOperationConfig(dbOperationType);
+                    log.warn("数据库中存在操作配置但框架中未注册该操作: {}，已从数据库删除", dbOperationType);
+                    persistenceService.deleteOperationConfig(dbOperationType);
+                    removed++;
+                }
+            }
+            
+            int synced = 0;
+            int failures = 0;
+            for (Map.Entry<String, OperationConfigData> entry : toSync.entrySet()) {
+                try {
+                    syncDatabaseConfigToFramework(entry.getKey(), entry.getValue());
+                    synced++;
+                } catch (Exception e) {
+                    failures++;
                 }
             }
+            report.operationsSaved(toSave.size())
+                    .operationsSynced(synced)
+                    .operationsRemoved(removed)
+                    .failures(failures);
             
         } catch (Exception e) {
             log.error("初始化操作配置时发生错误: {}", e.getMessage(), e);
@@ -469,12 +712,17 @@ public class PersistenceManager {
         try {
             log.debug("同步数据库配置到框架: {} -> {}", operationType, dbConfig);
             
-            // 1. 更新AIOperationRegistry中的操作配置
-            updateOperationConfigInRegistry(operationType, dbConfig);
-            
-            // 2. 同步模型映射关系
-            if (dbConfig.getModelName() != null && !dbConfig.getModelName().trim().isEmpty()) {
-                syncModelMapping(operationType, dbConfig.getModelName());
+            // 操作配置和模型映射在同一个执行配置快照中发布
+            String modelName = resolveModelMapping(operationType, dbConfig);
+            try {
+                updateOperationConfigInRegistry(operationType, dbConfig, modelName);
+            } catch (RuntimeException e) {
+                if (modelName == null) {
+                    throw e;
+                }
+                // 模型校验在修改配置之前完成，映射失败时仍同步其余配置
+                log.warn("同步模型映射失败: {} -> {} - {}", operationType, modelName, e.getMessage());
+                updateOperationConfigInRegistry(operationType, dbConfig, null);
             }
             
             log.info("成功同步操作配置到框架: {}", operationType);
@@ -487,94 +735,75 @@ public class PersistenceManager {
     
     /**
      * 更新AIOperationRegistry中的操作配置
+     * 在注册中心锁内基于当前配置的副本修改，并发同步不会丢失彼此的修改
      * 
      * @param operationType 操作类型
      * @param dbConfig 数据库配置
+     * @param modelName 同时发布的模型映射，为null时保留当前映射
      */
-    private void updateOperationConfigInRegistry(String operationType, OperationConfigData dbConfig) {
-        // 获取或创建操作配置
-        AIOperationRegistry.OperationConfig registryConfig = 
-            operationRegistry.getOperationConfig(operationType);
-        
-        if (registryConfig == null) {
-            registryConfig = new AIOperationRegistry.OperationConfig();
-        }
-        
-        // 将数据库配置映射到注册中心配置
-        if (dbConfig.getEnabled() != null) {
-            registryConfig.setEnabled(dbConfig.getEnabled());
-        }
-        
-        if (dbConfig.getMaxTokens() != null && dbConfig.getMaxTokens() > 0) {
-            registryConfig.setMaxTokens(dbConfig.getMaxTokens());
-        }
-        
-        if (dbConfig.getTemperature() != null && dbConfig.getTemperature() >= 0) {
-            registryConfig.setTemperature(dbConfig.getTemperature());
-        }
-        
-        if (dbConfig.getJsonOutput() != null) {
-            registryConfig.setRequireJsonOutput(dbConfig.getJsonOutput());
-        }
-        
-        if (dbConfig.getThinkingMode() != null) {
-            registryConfig.setSupportThinking(dbConfig.getThinkingMode());
-        }
-        
-        if (dbConfig.getRetryCount() != null && dbConfig.getRetryCount() >= 0) {
-            registryConfig.setRetryCount(dbConfig.getRetryCount());
-        }
-        
-        // 处理超时时间转换（数据库存储毫秒，注册中心使用秒）
-        if (dbConfig.getTimeout() != null && dbConfig.getTimeout() > 0) {
-            int timeoutSeconds = (int) (dbConfig.getTimeout() / 1000);
-            registryConfig.setTimeoutSeconds(Math.max(1, timeoutSeconds));
-        }
-        
-        // 将更新后的配置设置回注册中心
-        operationRegistry.getConfigs().put(operationType, registryConfig);
+    private void updateOperationConfigInRegistry(String operationType, OperationConfigData dbConfig, String modelName) {
+        operationRegistry.updateOperationConfig(operationType, registryConfig -> {
+            // 将数据库配置映射到注册中心配置
+            if (dbConfig.getEnabled() != null) {
+                registryConfig.setEnabled(dbConfig.getEnabled());
+            }
+            
+            if (dbConfig.getMaxTokens() != null && dbConfig.getMaxTokens() > 0) {
+                registryConfig.setMaxTokens(dbConfig.getMaxTokens());
+            }
+            
+            if (dbConfig.getTemperature() != null && dbConfig.getTemperature() >= 0) {
+                registryConfig.setTemperature(dbConfig.getTemperature());
+            }
+            
+            if (dbConfig.getJsonOutput() != null) {
+                registryConfig.setRequireJsonOutput(dbConfig.getJsonOutput());
+            }
+            
+            if (dbConfig.getThinkingMode() != null) {
+                registryConfig.setSupportThinking(dbConfig.getThinkingMode());
+            }
+            
+            if (dbConfig.getRetryCount() != null && dbConfig.getRetryCount() >= 0) {
+                registryConfig.setRetryCount(dbConfig.getRetryCount());
+            }
+            
+            // 处理超时时间转换（数据库存储毫秒，注册中心使用秒）
+            if (dbConfig.getTimeout() != null && dbConfig.getTimeout() > 0) {
+                int timeoutSeconds = (int) (dbConfig.getTimeout() / 1000);
+                registryConfig.setTimeoutSeconds(Math.max(1, timeoutSeconds));
+            }
+            return registryConfig;
+        }, modelName);
         
-        log.debug("已更新操作配置到注册中心: {} -> {}", operationType, registryConfig);
+        log.debug("已更新操作配置到注册中心: {} -> model={}", operationType, modelName);
     }
     
     /**
-     * 同步模型映射关系
+     * 解析需要同步的模型映射，模型不存在或未启用时返回null，保留当前映射
      * 
      * @param operationType 操作类型
-     * @param modelName 模型名称
+     * @param dbConfig 数据库配置
+     * @return 模型名称
      */
-    private void syncModelMapping(String operationType, String modelName) {
-        try {
-            // 验证模型是否存在
-            if (!isValidModel(modelName)) {
-                log.warn("模型不存在，跳过映射同步: {} -> {}", operationType, modelName);
-                return;
-            }
-            
-            // 设置模型映射
-            operationRegistry.setModelForOperation(operationType, modelName);
-            log.debug("已同步模型映射: {} -> {}", operationType, modelName);
-            
-        } catch (Exception e) {
-            log.warn("同步模型映射失败: {} -> {} - {}", operationType, modelName, e.getMessage());
-            // 模型映射失败不应该阻止整个同步过程
+    private String resolveModelMapping(String operationType, OperationConfigData dbConfig) {
+        String modelName = dbConfig.getModelName();
+        if (modelName == null || modelName.trim().isEmpty()) {
+            return null;
+        }
+        if (!isValidModel(modelName)) {
+            log.warn("模型不存在，跳过映射同步: {} -> {}", operationType, modelName);
+            return null;
         }
+        return modelName;
     }
     
     /**
-     * 验证模型是否有效
-     * 
-     * @param modelName 模型名称
-     * @return 是否有效
+     * 按模型配置校验模型已注册且已启用，不创建模型实例
      */
     private boolean isValidModel(String modelName) {
-        try {
-            // 检查模型是否在模型注册中心中存在
-            return modelRegistry.getModel(modelName) != null;
-        } catch (Exception e) {
-            log.debug("验证模型时出错: {} - {}", modelName, e.getMessage());
-            return false;
-        }
+        OpenAIModelConfig config = modelFactory.getModelConfig(modelName);
+        return config != null && Boolean.TRUE.equals(config.getEnabled());
     }
     
     /**
@@ -601,6 +830,22 @@ public class PersistenceManager {
         }
     }
     
+    /**
+     * 比较恢复前后的配置，返回新增、修改或删除的键
+     */
+    private static <T> Map<String, ConfigChange.Action> diff(Map<String, T> before, Map<String, T> after) {
+        Map<String, ConfigChange.Action> changed = new LinkedHashMap<>();
+        after.forEach((key, config) -> {
+            if (!config.equals(before.get(key))) {
+                changed.put(key, ConfigChange.Action.UPSERT);
+            }
+        });
+        before.keySet().stream()
+                .filter(key -> !after.containsKey(key))
+                .forEach(key -> changed.put(key, ConfigChange.Action.DELETE));
+        return changed;
+    }
+    
     /**
      * 批量同步所有数据库配置到框架
      */
@@ -631,6 +876,10 @@ public class PersistenceManager {
         }
     }
     
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+    
     /**
      * 转换为OpenAI模型配置
      */
@@ -648,6 +897,10 @@ public class PersistenceManager {
                 .description(config.getDescription())
                 .provider(config.getProvider())
                 .enabled(config.getEnabled())
+                .inputPricePerMillion(config.getInputPricePerMillion())
+                .outputPricePerMillion(config.getOutputPricePerMillion())
+                .cachedInputPricePerMillion(config.getCachedInputPricePerMillion())
+                .streamUsage(config.getStreamUsage())
                 .build();
     }
     
@@ -668,6 +921,10 @@ public class PersistenceManager {
         data.setDescription(config.getDescription());
         data.setProvider(config.getProvider());
         data.setEnabled(config.getEnabled());
+        data.setInputPricePerMillion(config.getInputPricePerMillion());
+        data.setOutputPricePerMillion(config.getOutputPricePerMillion());
+        data.setCachedInputPricePerMillion(config.getCachedInputPricePerMillion());
+        data.setStreamUsage(config.getStreamUsage());
         data.updateTimestamp();
         return data;
     }
@@ -3,6 +3,8 @@ package com.suifeng.sfchain.persistence;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 描述: 持久化服务接口
@@ -22,6 +24,15 @@ public interface PersistenceService {
      */
     void saveModelConfig(String modelName, ModelConfigData config);
     
+    /**
+     * 批量保存模型配置，已存在的按模型名称更新
+     * 
+     * @param configs 模型名称到配置的映射
+     */
+    default void saveModelConfigs(Map<String, ModelConfigData> configs) {
+        configs.forEach(this::saveModelConfig);
+    }
+    
     /**
      * 获取模型配置
      * 
@@ -71,6 +82,15 @@ public interface PersistenceService {
      */
     void saveOperationConfig(String operationType, OperationConfigData config);
     
+    /**
+     * 批量保存操作配置，已存在的按操作类型更新
+     * 
+     * @param configs 操作类型到配置的映射
+     */
+    default void saveOperationConfigs(Map<String, OperationConfigData> configs) {
+        configs.forEach(this::saveOperationConfig);
+    }
+    
     /**
      * 获取操作配置
      * 
@@ -94,6 +114,19 @@ public interface PersistenceService {
      */
     boolean deleteOperationConfig(String operationType);
     
+    /**
+     * 获取使用指定模型的操作
+     * 
+     * @param modelName 模型名称
+     * @return 操作类型集合
+     */
+    default Set<String> getOperationsUsingModel(String modelName) {
+        return getAllOperationConfigs().entrySet().stream()
+                .filter(entry -> modelName.equals(entry.getValue().getModelName()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+    
     // ==================== 数据同步和备份 ====================
     
     /**
@@ -106,6 +139,24 @@ public interface PersistenceService {
      */
     void reload();
     
+    /**
+     * 其他节点修改了单个模型配置时调用，只重新加载该项；默认整体重新加载
+     * 
+     * @param modelName 模型名称
+     */
+    default void reloadModelConfig(String modelName) {
+        reload();
+    }
+    
+    /**
+     * 其他节点修改了单个操作配置时调用，只重新加载该项；默认整体重新加载
+     * 
+     * @param operationType 操作类型
+     */
+    default void reloadOperationConfig(String operationType) {
+        reload();
+    }
+    
     /**
      * 备份当前配置
      * 
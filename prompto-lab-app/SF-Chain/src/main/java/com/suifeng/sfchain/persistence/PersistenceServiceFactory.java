@@ -19,6 +19,13 @@ public class PersistenceServiceFactory {
     private PersistenceConfig persistenceConfig;
     
     public PersistenceService createPersistenceService() {
+        PersistenceService service = createStorageService();
+        // 文件存储本身常驻内存，无需再加缓存
+        return persistenceConfig.isCacheEnabled() && persistenceConfig.getDatabaseTypeEnum().isJdbc()
+                ? new CachingPersistenceService(service) : service;
+    }
+    
+    private PersistenceService createStorageService() {
         DatabaseType dbType = persistenceConfig.getDatabaseTypeEnum();
         
         switch (dbType) {
@@ -26,6 +33,8 @@ public class PersistenceServiceFactory {
                 return applicationContext.getBean(MySQLPersistenceService.class);
             case POSTGRESQL:
                 return applicationContext.getBean(PostgreSQLPersistenceService.class);
+            case FILE:
+                return applicationContext.getBean(FilePersistenceService.class);
             default:
                 throw new IllegalArgumentException("Unsupported database type: " + dbType);
         }
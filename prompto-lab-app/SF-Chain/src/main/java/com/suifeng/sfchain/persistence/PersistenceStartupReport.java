@@ -0,0 +1,59 @@
+package com.suifeng.sfchain.persistence;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * 描述: 启动时持久化配置同步的耗时报告
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Value
+@Builder
+public class PersistenceStartupReport {
+
+    /** 总耗时（毫秒） */
+    long totalMillis;
+
+    /** 各阶段耗时（毫秒），按执行顺序 */
+    Map<String, Long> phaseMillis;
+
+    /** 数据库中已有的模型配置数 */
+    int persistedModels;
+
+    /** 写入数据库的配置文件模型数 */
+    int modelsSaved;
+
+    /** 从数据库注册到模型工厂的模型数 */
+    int modelsLoaded;
+
+    /** 数据库中已有的操作配置数 */
+    int persistedOperations;
+
+    /** 从注解新增到数据库的操作数 */
+    int operationsSaved;
+
+    /** 同步到注册中心的操作数 */
+    int operationsSynced;
+
+    /** 从数据库删除的未注册操作数 */
+    int operationsRemoved;
+
+    /** 同步失败的配置项数 */
+    int failures;
+
+    /** 同步中断的原因，正常完成时为null */
+    String error;
+
+    @Override
+    public String toString() {
+        return "总耗时" + totalMillis + "ms " + phaseMillis
+                + "，模型: 已有" + persistedModels + "/新增" + modelsSaved + "/加载" + modelsLoaded
+                + "，操作: 已有" + persistedOperations + "/新增" + operationsSaved + "/同步" + operationsSynced
+                + "/删除" + operationsRemoved + "，失败: " + failures
+                + (error != null ? "，中断: " + error : "");
+    }
+}
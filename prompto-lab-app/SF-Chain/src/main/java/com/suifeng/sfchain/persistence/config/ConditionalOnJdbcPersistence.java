@@ -0,0 +1,22 @@
+package com.suifeng.sfchain.persistence.config;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 描述: 仅在使用数据库持久化时生效，database-type为file时跳过依赖数据源的组件
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Conditional(JdbcPersistenceCondition.class)
+public @interface ConditionalOnJdbcPersistence {
+}
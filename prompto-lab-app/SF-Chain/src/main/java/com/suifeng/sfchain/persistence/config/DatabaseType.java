@@ -9,7 +9,11 @@ package com.suifeng.sfchain.persistence.config;
 public enum DatabaseType {
 
     MYSQL("mysql"),
-    POSTGRESQL("postgresql");
+    POSTGRESQL("postgresql"),
+    /**
+     * 本地文件存储，不依赖数据库
+     */
+    FILE("file");
     
     private final String value;
     
@@ -17,6 +21,13 @@ public enum DatabaseType {
         this.value = value;
     }
     
+    /**
+     * 是否需要数据源和JPA
+     */
+    public boolean isJdbc() {
+        return this != FILE;
+    }
+    
     public String getValue() {
         return value;
     }
@@ -0,0 +1,49 @@
+package com.suifeng.sfchain.persistence.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 描述: 文件持久化模式下按需排除数据源、JPA和事务的自动配置
+ * 排除对整个宿主应用生效，因此需显式开启 sf-chain.persistence.file.exclude-data-source；
+ * 开启后启动时不再连接数据库和校验实体映射，已有的spring.autoconfigure.exclude会保留
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class FilePersistenceEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    private static final String EXCLUDE_PROPERTY = "spring.autoconfigure.exclude";
+
+    private static final List<String> JDBC_AUTO_CONFIGURATIONS = List.of(
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration",
+            "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration",
+            "org.springframework.boot.autoconfigure.sql.init.SqlInitializationAutoConfiguration");
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        Binder binder = Binder.get(environment);
+        String databaseType = binder.bind("sf-chain.persistence.database-type", String.class).orElse(null);
+        if (databaseType == null || DatabaseType.fromString(databaseType).isJdbc()
+                || !binder.bind("sf-chain.persistence.file.exclude-data-source", Boolean.class).orElse(false)) {
+            return;
+        }
+        Set<String> excludes = new LinkedHashSet<>(binder
+                .bind(EXCLUDE_PROPERTY, Bindable.listOf(String.class))
+                .orElse(List.of()));
+        excludes.addAll(JDBC_AUTO_CONFIGURATIONS);
+        environment.getPropertySources().addFirst(new MapPropertySource("sfChainFilePersistence",
+                Map.of(EXCLUDE_PROPERTY, String.join(",", excludes))));
+    }
+}
@@ -0,0 +1,24 @@
+package com.suifeng.sfchain.persistence.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * 描述: 未配置数据库类型或配置为数据库时匹配
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+class JdbcPersistenceCondition extends SpringBootCondition {
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        String databaseType = context.getEnvironment().getProperty("sf-chain.persistence.database-type");
+        if (databaseType == null || DatabaseType.fromString(databaseType).isJdbc()) {
+            return ConditionOutcome.match("使用数据库持久化: " + databaseType);
+        }
+        return ConditionOutcome.noMatch("使用文件持久化");
+    }
+}
@@ -20,10 +20,49 @@ public class PersistenceConfig {
      */
     private String databaseType = "mysql";
     
+    /**
+     * 是否在持久化服务前启用读缓存，写入时失效
+     */
+    private boolean cacheEnabled = true;
+    
+    /**
+     * 配置快照备份目录
+     */
+    private String backupDirectory = "sf-chain-backups";
+    
+    /**
+     * 文件存储配置，database-type为file时生效
+     */
+    private FileStore file = new FileStore();
+    
     /**
      * 获取数据库类型枚举
      */
     public DatabaseType getDatabaseTypeEnum() {
         return DatabaseType.fromString(databaseType);
     }
+    
+    @Data
+    public static class FileStore {
+        
+        /**
+         * 快照和变更日志所在目录
+         */
+        private String directory = "data/sf-chain/config";
+        
+        /**
+         * 变更日志达到该条数后合并为新快照
+         */
+        private int compactThreshold = 1000;
+        
+        /**
+         * 每次写入后是否强制刷盘
+         */
+        private boolean syncOnWrite = true;
+        
+        /**
+         * 是否排除数据源和JPA自动配置；会作用于整个宿主应用，只有应用自身不使用数据库时才开启
+         */
+        private boolean excludeDataSource = false;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.suifeng.sfchain.persistence.context;
 
+import com.suifeng.sfchain.core.MemoryFootprint;
+
 import java.util.List;
 
 /**
@@ -84,4 +86,12 @@ public interface ChatContextService {
      * @return 消息数量
      */
     int getConversationMessageCount(String sessionId);
+
+    /**
+     * 统计对话历史的内存占用（压缩前后对比）
+     * @return 内存占用，不在本地内存保存上下文的实现返回空统计
+     */
+    default MemoryFootprint getMemoryFootprint() {
+        return new MemoryFootprint();
+    }
 }
\ No newline at end of file
@@ -1,31 +1,62 @@
 package com.suifeng.sfchain.persistence.context;
 
-import lombok.AllArgsConstructor;
+import com.suifeng.sfchain.core.CompactText;
+import com.suifeng.sfchain.core.TokenEstimator;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class ChatMessage {
 
     /**
-     * 消息类型：SYSTEM, USER, ASSISTANT
+     * 消息类型：SYSTEM, USER, ASSISTANT, SUMMARY
      */
     public enum MessageType {
         SYSTEM,     // 系统提示词
         USER,       // 用户消息
-        ASSISTANT   // AI回复
+        ASSISTANT,  // AI回复
+        SUMMARY     // 压缩后的历史摘要
     }
 
     private String id;
     private MessageType type;
-    private String content;
+    /** 消息内容，长文本压缩保存 */
+    private CompactText content;
+    /** 创建时估算的token数，判断是否需要压缩时不必再解压内容 */
+    @Setter(AccessLevel.NONE)
+    private int estimatedTokens;
     private LocalDateTime timestamp;
     private String sessionId;
 
+    public ChatMessage(String id, MessageType type, String content, LocalDateTime timestamp, String sessionId) {
+        this.id = id;
+        this.type = type;
+        setContent(content);
+        this.timestamp = timestamp;
+        this.sessionId = sessionId;
+    }
+
+    public String getContent() {
+        return content != null ? content.text() : null;
+    }
+
+    public void setContent(String content) {
+        this.content = CompactText.of(content);
+        this.estimatedTokens = TokenEstimator.estimate(content);
+    }
+
+    /**
+     * 获取紧凑存储的内容，用于内存统计
+     */
+    public CompactText compactContent() {
+        return content;
+    }
+
     public static ChatMessage systemMessage(String sessionId, String content) {
         return new ChatMessage(
                 generateId(),
@@ -56,6 +87,16 @@ public class ChatMessage {
         );
     }
 
+    public static ChatMessage summaryMessage(String sessionId, String content) {
+        return new ChatMessage(
+                generateId(),
+                MessageType.SUMMARY,
+                content,
+                LocalDateTime.now(),
+                sessionId
+        );
+    }
+
     private static String generateId() {
         return System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
     }
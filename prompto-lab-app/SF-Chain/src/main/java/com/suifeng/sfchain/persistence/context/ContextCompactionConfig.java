@@ -0,0 +1,57 @@
+package com.suifeng.sfchain.persistence.context;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 描述: 会话上下文压缩配置
+ *
+ * @author suifeng
+ * 日期: 2025/8/20
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.context.compaction")
+public class ContextCompactionConfig {
+
+    /**
+     * 是否启用后台摘要压缩；启用后会话消息上限放宽到hardMaxMessages，并在后台调用模型生成摘要
+     */
+    private boolean enabled = false;
+
+    /**
+     * 单个会话对话历史的token预算，超过后触发压缩
+     */
+    private int tokenBudget = 3000;
+
+    /**
+     * 压缩时原样保留的最近消息条数
+     */
+    private int keepRecentMessages = 6;
+
+    /**
+     * 摘要最大字数
+     */
+    private int summaryMaxChars = 800;
+
+    /**
+     * 启用压缩时单个会话的消息条数硬上限，防止压缩跟不上时无限增长
+     */
+    private int hardMaxMessages = 200;
+
+    /**
+     * 压缩失败或未启用时回退使用的消息条数上限（丢弃最旧消息）
+     */
+    private int fallbackMaxMessages = 20;
+
+    /**
+     * 后台压缩线程数
+     */
+    private int workerThreads = 1;
+
+    /**
+     * 等待压缩的会话队列长度，队列满时跳过本次压缩
+     */
+    private int queueCapacity = 256;
+}
@@ -0,0 +1,258 @@
+package com.suifeng.sfchain.persistence.context;
+
+import com.suifeng.sfchain.core.AIOperationRegistry;
+import com.suifeng.sfchain.core.BaseAIOperation;
+import com.suifeng.sfchain.core.TokenEstimator;
+import com.suifeng.sfchain.operations.ContextSummaryOperation;
+import lombok.Builder;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.suifeng.sfchain.constants.AIOperationConstant.CONTEXT_SUMMARY_OP;
+
+/**
+ * 描述: 会话上下文后台压缩服务
+ * 会话历史超过token预算时，在后台线程调用摘要操作，把较早的消息替换为一条摘要消息，
+ * 最近的N条消息原样保留，压缩不占用请求线程
+ *
+ * @author suifeng
+ * 日期: 2025/8/20
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContextCompactionService {
+
+    private final ContextCompactionConfig config;
+    private final AIOperationRegistry operationRegistry;
+
+    /** 正在排队或压缩中的会话，避免同一会话重复提交 */
+    private final Set<String> pendingSessions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong messagesCompacted = new AtomicLong();
+    private final AtomicLong tokensBefore = new AtomicLong();
+    private final AtomicLong tokensAfter = new AtomicLong();
+    private final AtomicLong totalDurationMillis = new AtomicLong();
+
+    /** 摘要操作没有可用模型的告警只打印一次 */
+    private final AtomicBoolean noModelWarned = new AtomicBoolean();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        int threads = Math.max(1, config.getWorkerThreads());
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                r -> {
+                    Thread thread = new Thread(r, "sf-chain-context-compaction-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    public int getHardMaxMessages() {
+        return config.getHardMaxMessages();
+    }
+
+    public int getFallbackMaxMessages() {
+        return config.getFallbackMaxMessages();
+    }
+
+    /**
+     * 判断会话历史是否需要压缩
+     * 调用方需持有messages的锁，使用消息创建时的token估算值，不解压消息内容
+     *
+     * @param messages 对话历史
+     * @return 是否超出token预算且有可压缩的旧消息
+     */
+    public boolean shouldCompact(List<ChatMessage> messages) {
+        int keepRecent = Math.max(0, config.getKeepRecentMessages());
+        if (messages.size() <= keepRecent + 1) {
+            return false;
+        }
+        return estimateTokens(messages) > config.getTokenBudget();
+    }
+
+    /**
+     * 提交后台压缩任务
+     *
+     * @param sessionId 会话ID
+     * @param store     会话存储
+     */
+    public void compactAsync(String sessionId, MapBasedChatContextService store) {
+        // 摘要操作没有可用模型时不发起注定失败的调用，直接回退为丢弃最旧消息
+        if (!isSummaryModelAvailable()) {
+            skipped.incrementAndGet();
+            store.trimOldestMessages(sessionId, config.getFallbackMaxMessages());
+            if (noModelWarned.compareAndSet(false, true)) {
+                log.warn("上下文摘要操作 {} 未配置可用模型，跳过摘要压缩并回退为保留最近{}条消息",
+                        CONTEXT_SUMMARY_OP, config.getFallbackMaxMessages());
+            }
+            return;
+        }
+        noModelWarned.set(false);
+        if (!pendingSessions.add(sessionId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    compact(sessionId, store);
+                } finally {
+                    pendingSessions.remove(sessionId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingSessions.remove(sessionId);
+            skipped.incrementAndGet();
+            log.debug("压缩队列已满，跳过本次上下文压缩: sessionId={}", sessionId);
+        }
+    }
+
+    /**
+     * 执行一次压缩
+     */
+    private void compact(String sessionId, MapBasedChatContextService store) {
+        List<ChatMessage> snapshot = store.getConversationHistory(sessionId);
+        int keepRecent = Math.max(0, config.getKeepRecentMessages());
+        if (snapshot.size() <= keepRecent + 1 || estimateTokens(snapshot) <= config.getTokenBudget()) {
+            return;
+        }
+
+        List<ChatMessage> older = snapshot.subList(0, snapshot.size() - keepRecent);
+        long start = System.currentTimeMillis();
+        try {
+            String previousSummary = null;
+            StringBuilder conversation = new StringBuilder();
+            for (ChatMessage message : older) {
+                if (message.getType() == ChatMessage.MessageType.SUMMARY) {
+                    previousSummary = message.getContent();
+                    continue;
+                }
+                conversation.append(message.getType() == ChatMessage.MessageType.USER ? "用户" : "助手")
+                        .append(": ")
+                        .append(message.getContent())
+                        .append("\n");
+            }
+
+            String summary = summarize(new ContextSummaryOperation.SummaryRequest(
+                    previousSummary, conversation.toString(), config.getSummaryMaxChars()));
+            if (summary == null || summary.isBlank()) {
+                throw new IllegalStateException("摘要结果为空");
+            }
+
+            ChatMessage summaryMessage = ChatMessage.summaryMessage(sessionId, summary);
+            if (!store.replaceOldestMessages(sessionId, older, summaryMessage)) {
+                log.debug("会话在压缩期间被修改，放弃本次压缩结果: sessionId={}", sessionId);
+                return;
+            }
+
+            int before = estimateTokens(older);
+            int after = TokenEstimator.estimate(summary);
+            compactions.incrementAndGet();
+            messagesCompacted.addAndGet(older.size());
+            tokensBefore.addAndGet(before);
+            tokensAfter.addAndGet(after);
+            totalDurationMillis.addAndGet(System.currentTimeMillis() - start);
+            log.info("会话上下文压缩完成: sessionId={}, 压缩消息{}条, token {} -> {}",
+                    sessionId, older.size(), before, after);
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            store.trimOldestMessages(sessionId, config.getFallbackMaxMessages());
+            log.warn("会话上下文压缩失败，回退为丢弃最旧消息: sessionId={} - {}", sessionId, e.getMessage());
+        }
+    }
+
+    private boolean isSummaryModelAvailable() {
+        try {
+            return operationRegistry.getOperation(CONTEXT_SUMMARY_OP).hasAvailableModel();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private String summarize(ContextSummaryOperation.SummaryRequest request) {
+        // 通过操作注册中心获取摘要操作，避免循环依赖
+        BaseAIOperation<ContextSummaryOperation.SummaryRequest, String> operation =
+                (BaseAIOperation<ContextSummaryOperation.SummaryRequest, String>) operationRegistry.getOperation(CONTEXT_SUMMARY_OP);
+        return operation.execute(request);
+    }
+
+    private int estimateTokens(List<ChatMessage> messages) {
+        int tokens = 0;
+        for (ChatMessage message : messages) {
+            tokens += message.getEstimatedTokens();
+        }
+        return tokens;
+    }
+
+    /**
+     * 获取压缩统计信息
+     */
+    public CompactionStatistics getStatistics() {
+        long count = compactions.get();
+        long before = tokensBefore.get();
+        long after = tokensAfter.get();
+        return CompactionStatistics.builder()
+                .enabled(config.isEnabled())
+                .compactions(count)
+                .failures(failures.get())
+                .skipped(skipped.get())
+                .pending(pendingSessions.size())
+                .messagesCompacted(messagesCompacted.get())
+                .tokensBefore(before)
+                .tokensAfter(after)
+                .tokensSaved(before - after)
+                .averageDuration(count > 0 ? (double) totalDurationMillis.get() / count : 0.0)
+                .build();
+    }
+
+    @Data
+    @Builder
+    public static class CompactionStatistics {
+        private boolean enabled;
+        private long compactions;
+        private long failures;
+        private long skipped;
+        private int pending;
+        private long messagesCompacted;
+        private long tokensBefore;
+        private long tokensAfter;
+        private long tokensSaved;
+        private double averageDuration;
+    }
+}
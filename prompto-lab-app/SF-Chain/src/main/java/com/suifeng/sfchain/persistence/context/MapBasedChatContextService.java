@@ -1,10 +1,12 @@
 package com.suifeng.sfchain.persistence.context;
 
-
+import com.suifeng.sfchain.core.MemoryFootprint;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -26,6 +28,10 @@ public class MapBasedChatContextService implements ChatContextService {
 
     private static final int MAX_MESSAGES_PER_SESSION = 20;
 
+    // 后台上下文压缩（可选）
+    @Autowired(required = false)
+    private ContextCompactionService compactionService;
+
     @Override
     public void setSystemPrompt(String sessionId, String systemPrompt) {
         if (sessionId == null || systemPrompt == null) {
@@ -70,10 +76,71 @@ public class MapBasedChatContextService implements ChatContextService {
     }
 
     private void addConversationMessage(String sessionId, ChatMessage message) {
-        conversationHistories.computeIfAbsent(sessionId, k -> new ArrayList<>()).add(message);
+        List<ChatMessage> messages = conversationHistories.computeIfAbsent(
+                sessionId, k -> Collections.synchronizedList(new ArrayList<>()));
+
+        boolean compactionEnabled = compactionService != null && compactionService.isEnabled();
+        boolean needCompaction;
+        synchronized (messages) {
+            messages.add(message);
+            int limit = compactionEnabled ? compactionService.getHardMaxMessages() : MAX_MESSAGES_PER_SESSION;
+            trimOldest(sessionId, messages, limit);
+            needCompaction = compactionEnabled && compactionService.shouldCompact(messages);
+        }
+
+        // 超出token预算时交给后台压缩，不阻塞当前请求
+        if (needCompaction) {
+            compactionService.compactAsync(sessionId, this);
+        }
+    }
 
+    /**
+     * 用摘要消息替换最旧的一段消息
+     * 仅当会话开头仍是压缩时看到的那批消息时才替换，否则放弃（期间会话被清空或裁剪过）
+     *
+     * @param sessionId 会话ID
+     * @param compacted 被压缩的消息（压缩开始时的快照前缀）
+     * @param summary   摘要消息
+     * @return 是否替换成功
+     */
+    boolean replaceOldestMessages(String sessionId, List<ChatMessage> compacted, ChatMessage summary) {
         List<ChatMessage> messages = conversationHistories.get(sessionId);
-        while (messages.size() > MAX_MESSAGES_PER_SESSION) {
+        if (messages == null) {
+            return false;
+        }
+        synchronized (messages) {
+            if (messages.size() < compacted.size()) {
+                return false;
+            }
+            for (int i = 0; i < compacted.size(); i++) {
+                if (messages.get(i) != compacted.get(i)) {
+                    return false;
+                }
+            }
+            messages.subList(0, compacted.size()).clear();
+            messages.add(0, summary);
+            return true;
+        }
+    }
+
+    /**
+     * 丢弃最旧的消息直到不超过上限
+     *
+     * @param sessionId 会话ID
+     * @param limit     消息条数上限
+     */
+    void trimOldestMessages(String sessionId, int limit) {
+        List<ChatMessage> messages = conversationHistories.get(sessionId);
+        if (messages == null) {
+            return;
+        }
+        synchronized (messages) {
+            trimOldest(sessionId, messages, limit);
+        }
+    }
+
+    private void trimOldest(String sessionId, List<ChatMessage> messages, int limit) {
+        while (messages.size() > limit) {
             messages.remove(0);
             log.debug("对话历史超限，移除最旧消息: sessionId={}", sessionId);
         }
@@ -105,7 +172,13 @@ public class MapBasedChatContextService implements ChatContextService {
             return new ArrayList<>();
         }
 
-        return new ArrayList<>(conversationHistories.getOrDefault(sessionId, new ArrayList<>()));
+        List<ChatMessage> messages = conversationHistories.get(sessionId);
+        if (messages == null) {
+            return new ArrayList<>();
+        }
+        synchronized (messages) {
+            return new ArrayList<>(messages);
+        }
     }
 
     @Override
@@ -162,6 +235,22 @@ public class MapBasedChatContextService implements ChatContextService {
         return conversationHistories.getOrDefault(sessionId, new ArrayList<>()).size();
     }
 
+    /**
+     * 统计对话历史的内存占用（压缩前后对比）
+     */
+    @Override
+    public MemoryFootprint getMemoryFootprint() {
+        MemoryFootprint footprint = new MemoryFootprint();
+        for (List<ChatMessage> messages : conversationHistories.values()) {
+            synchronized (messages) {
+                for (ChatMessage message : messages) {
+                    footprint.add(message.compactContent());
+                }
+            }
+        }
+        return footprint;
+    }
+
     private String getRoleString(ChatMessage.MessageType type) {
         switch (type) {
             case SYSTEM:
@@ -170,6 +259,8 @@ public class MapBasedChatContextService implements ChatContextService {
                 return "用户";
             case ASSISTANT:
                 return "助手";
+            case SUMMARY:
+                return "历史摘要";
             default:
                 return "未知";
         }
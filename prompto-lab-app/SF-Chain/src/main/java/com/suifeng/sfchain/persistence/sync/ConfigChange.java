@@ -0,0 +1,38 @@
+package com.suifeng.sfchain.persistence.sync;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * 描述: 配置变更记录
+ * 只记录变更了哪一项，接收方按键从持久化存储读取最新配置，因此重复或乱序应用的结果一致
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Value
+@Builder
+public class ConfigChange {
+
+    public enum EntityType {
+        MODEL,
+        OPERATION,
+        /** 整体恢复等无法逐项描述的变更，接收方重新加载全部配置 */
+        ALL
+    }
+
+    public enum Action {
+        UPSERT,
+        DELETE
+    }
+
+    long id;
+    EntityType entityType;
+    /** 模型名或操作类型，ALL时为null */
+    String entityKey;
+    Action action;
+    String nodeId;
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,180 @@
+package com.suifeng.sfchain.persistence.sync;
+
+import com.suifeng.sfchain.persistence.PersistenceManager;
+import com.suifeng.sfchain.persistence.config.ConditionalOnJdbcPersistence;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 描述: 配置变更监听
+ * 定时轮询变更日志，PostgreSQL下由 {@link PgNotificationListener} 监听通知通道，收到通知后立即触发一次轮询；
+ * 只按键重新加载发生变更的模型或操作配置，本节点发出的变更已在本地生效，直接跳过
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "sf-chain.config-sync", name = "enabled", havingValue = "true")
+@ConditionalOnJdbcPersistence
+public class ConfigChangeListener {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long PURGE_INTERVAL_MILLIS = 3600_000L;
+
+    private final ConfigChangeLog changeLog;
+    private final ConfigSyncConfig config;
+    private final PersistenceManager persistenceManager;
+    private final ObjectProvider<PgNotificationListener> notificationListener;
+
+    /** 已读取的最大变更ID */
+    private long cursor;
+
+    /** 回看范围内已处理的变更ID */
+    private final Set<Long> seen = new HashSet<>();
+
+    private long lastPurgeAt;
+
+    private ScheduledExecutorService scheduler;
+    private PgNotificationListener activeListener;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        try {
+            cursor = changeLog.latestId();
+            for (ConfigChange change : changeLog.fetchAfter(Math.max(0, cursor - config.getLookbackIds()), BATCH_SIZE)) {
+                seen.add(change.getId());
+            }
+        } catch (Exception e) {
+            log.warn("读取配置变更日志失败，集群配置同步未启动: {}", e.getMessage());
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sf-chain-config-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, config.getPollIntervalMillis(),
+                Math.max(100, config.getPollIntervalMillis()), TimeUnit.MILLISECONDS);
+
+        if (changeLog.isPostgreSQL() && config.isNotifyEnabled()) {
+            activeListener = notificationListener.getIfAvailable();
+            if (activeListener != null) {
+                activeListener.start(() -> scheduler.execute(this::pollQuietly));
+            }
+        }
+        log.info("集群配置同步已启动，节点: {}，起始变更ID: {}，通知: {}", config.getNodeId(), cursor,
+                activeListener != null ? config.getChannel() : "未启用");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (activeListener != null) {
+            activeListener.stop();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 读取并应用新的变更
+     *
+     * @return 应用的配置项数
+     */
+    public synchronized int poll() {
+        int applied = 0;
+        List<ConfigChange> changes;
+        long previousCursor;
+        do {
+            previousCursor = cursor;
+            changes = changeLog.fetchAfter(Math.max(0, cursor - config.getLookbackIds()), BATCH_SIZE);
+            Map<String, ConfigChange> pending = new LinkedHashMap<>();
+            boolean reloadAll = false;
+            for (ConfigChange change : changes) {
+                if (!seen.add(change.getId())) {
+                    continue;
+                }
+                cursor = Math.max(cursor, change.getId());
+                if (config.getNodeId().equals(change.getNodeId())) {
+                    continue;
+                }
+                if (change.getEntityType() == ConfigChange.EntityType.ALL) {
+                    reloadAll = true;
+                } else {
+                    // 同一项的多次变更只需应用一次，应用时读取的是最新状态
+                    pending.put(change.getEntityType() + ":" + change.getEntityKey(), change);
+                }
+            }
+            long floor = cursor - config.getLookbackIds();
+            seen.removeIf(id -> id <= floor);
+
+            if (reloadAll) {
+                persistenceManager.reloadAllFromStore();
+                applied++;
+            } else {
+                for (ConfigChange change : pending.values()) {
+                    if (apply(change)) {
+                        applied++;
+                    }
+                }
+            }
+        } while (changes.size() == BATCH_SIZE && cursor > previousCursor);
+        purgeIfDue();
+        return applied;
+    }
+
+    private boolean apply(ConfigChange change) {
+        try {
+            if (change.getEntityType() == ConfigChange.EntityType.MODEL) {
+                persistenceManager.reloadModelConfig(change.getEntityKey());
+            } else {
+                persistenceManager.reloadOperationConfig(change.getEntityKey());
+            }
+            log.info("应用集群配置变更: #{} {} {} {}（来自节点 {}）", change.getId(), change.getEntityType(),
+                    change.getEntityKey(), change.getAction(), change.getNodeId());
+            return true;
+        } catch (Exception e) {
+            log.warn("应用集群配置变更失败: #{} {} {} - {}", change.getId(), change.getEntityType(),
+                    change.getEntityKey(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.warn("轮询配置变更失败: {}", e.getMessage());
+        }
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurgeAt < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPurgeAt = now;
+        int purged = changeLog.purgeBefore(LocalDateTime.now().minusHours(config.getRetentionHours()));
+        if (purged > 0) {
+            log.debug("清理过期配置变更: {}条", purged);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.suifeng.sfchain.persistence.sync;
+
+import com.suifeng.sfchain.persistence.config.ConditionalOnJdbcPersistence;
+import com.suifeng.sfchain.persistence.config.DatabaseType;
+import com.suifeng.sfchain.persistence.config.PersistenceConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 描述: 配置变更日志
+ * 变更先写入日志表，再通过 pg_notify 唤醒其他节点；日志表同时是轮询兜底和断线补偿的依据
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "sf-chain.config-sync", name = "enabled", havingValue = "true")
+@ConditionalOnJdbcPersistence
+public class ConfigChangeLog {
+
+    private static final String TABLE = "sfchain_config_changes";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PersistenceConfig persistenceConfig;
+    private final ConfigSyncConfig config;
+
+    /**
+     * 已有库不会重新执行migration脚本，日志表在此处按需创建
+     */
+    @PostConstruct
+    public void ensureTable() {
+        String ddl = isPostgreSQL()
+                ? "CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                  "id BIGSERIAL PRIMARY KEY, " +
+                  "entity_type VARCHAR(20) NOT NULL, " +
+                  "entity_key VARCHAR(100), " +
+                  "action VARCHAR(20) NOT NULL, " +
+                  "node_id VARCHAR(100), " +
+                  "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)"
+                : "CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+                  "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                  "entity_type VARCHAR(20) NOT NULL, " +
+                  "entity_key VARCHAR(100), " +
+                  "action VARCHAR(20) NOT NULL, " +
+                  "node_id VARCHAR(100), " +
+                  "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+                  "INDEX idx_sfchain_config_changes_created_at (created_at))";
+        try {
+            jdbcTemplate.execute(ddl);
+        } catch (Exception e) {
+            log.warn("创建配置变更日志表失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 追加一条变更并通知其他节点
+     *
+     * @return 变更ID
+     */
+    public long append(ConfigChange.EntityType entityType, String entityKey, ConfigChange.Action action) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO " + TABLE + " (entity_type, entity_key, action, node_id, created_at) VALUES (?, ?, ?, ?, ?)",
+                    new String[]{"id"});
+            statement.setString(1, entityType.name());
+            statement.setString(2, entityKey);
+            statement.setString(3, action.name());
+            statement.setString(4, config.getNodeId());
+            statement.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+            return statement;
+        }, keyHolder);
+        long id = keyHolder.getKey() != null ? keyHolder.getKey().longValue() : 0L;
+
+        if (isPostgreSQL() && config.isNotifyEnabled()) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, config.getChannel(), String.valueOf(id));
+        }
+        log.debug("记录配置变更: #{} {} {} {}", id, entityType, entityKey, action);
+        return id;
+    }
+
+    /**
+     * 按ID顺序读取指定ID之后的变更
+     */
+    public List<ConfigChange> fetchAfter(long afterId, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, entity_type, entity_key, action, node_id, created_at FROM " + TABLE +
+                        " WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> ConfigChange.builder()
+                        .id(rs.getLong("id"))
+                        .entityType(ConfigChange.EntityType.valueOf(rs.getString("entity_type")))
+                        .entityKey(rs.getString("entity_key"))
+                        .action(ConfigChange.Action.valueOf(rs.getString("action")))
+                        .nodeId(rs.getString("node_id"))
+                        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .build(),
+                afterId, limit);
+    }
+
+    /**
+     * 当前最大变更ID，日志为空时返回0
+     */
+    public long latestId() {
+        Long id = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + TABLE, Long.class);
+        return id != null ? id : 0L;
+    }
+
+    /**
+     * 清理早于指定时间的变更
+     */
+    public int purgeBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE created_at < ?", Timestamp.valueOf(before));
+    }
+
+    public boolean isPostgreSQL() {
+        return persistenceConfig.getDatabaseTypeEnum() == DatabaseType.POSTGRESQL;
+    }
+}
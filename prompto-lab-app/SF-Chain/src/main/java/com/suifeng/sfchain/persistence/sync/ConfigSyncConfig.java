@@ -0,0 +1,59 @@
+package com.suifeng.sfchain.persistence.sync;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * 描述: 集群配置同步配置
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "sf-chain.config-sync")
+public class ConfigSyncConfig {
+
+    /**
+     * 是否启用配置变更广播和同步，需显式开启；开启后会创建变更日志表、定时轮询，PostgreSQL下占用一个监听连接
+     */
+    private boolean enabled = false;
+
+    /**
+     * 当前节点标识，用于跳过本节点发出的变更，默认每次启动随机生成
+     */
+    private String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * PostgreSQL通知通道名
+     */
+    private String channel = "sfchain_config_changes";
+
+    /**
+     * PostgreSQL下是否使用LISTEN/NOTIFY即时唤醒，关闭后只依赖轮询
+     */
+    private boolean notifyEnabled = true;
+
+    /**
+     * 变更日志轮询间隔（毫秒），通知不可用时的兜底
+     */
+    private long pollIntervalMillis = 1000;
+
+    /**
+     * 每次读取通知的等待时间（毫秒）
+     */
+    private int listenTimeoutMillis = 500;
+
+    /**
+     * 每次轮询回看的已读ID范围，用于补齐提交顺序晚于ID顺序的变更
+     */
+    private int lookbackIds = 50;
+
+    /**
+     * 变更日志保留时长（小时）
+     */
+    private int retentionHours = 24;
+}
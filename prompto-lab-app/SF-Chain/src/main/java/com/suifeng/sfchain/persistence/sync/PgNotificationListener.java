@@ -0,0 +1,95 @@
+package com.suifeng.sfchain.persistence.sync;
+
+import com.suifeng.sfchain.persistence.config.ConditionalOnJdbcPersistence;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * 描述: PostgreSQL配置变更通知监听
+ * 独占一个连接LISTEN通知通道，收到通知后回调；只在类路径上有PostgreSQL驱动时创建，
+ * 驱动作为可选依赖，不会传递到使用方的类路径
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnClass(name = "org.postgresql.PGConnection")
+@ConditionalOnProperty(prefix = "sf-chain.config-sync", name = "enabled", havingValue = "true")
+@ConditionalOnJdbcPersistence
+public class PgNotificationListener {
+
+    private static final long RECONNECT_DELAY_MILLIS = 5000L;
+
+    private final ConfigSyncConfig config;
+    private final DataSource dataSource;
+
+    private Thread listenThread;
+    private volatile boolean running;
+
+    /**
+     * 启动监听线程
+     *
+     * @param onNotify 收到通知时在监听线程上调用，需快速返回
+     */
+    public synchronized void start(Runnable onNotify) {
+        if (listenThread != null) {
+            return;
+        }
+        running = true;
+        listenThread = new Thread(() -> listen(onNotify), "sf-chain-config-listen");
+        listenThread.setDaemon(true);
+        listenThread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (listenThread != null) {
+            listenThread.interrupt();
+            listenThread = null;
+        }
+    }
+
+    /**
+     * 连接断开后重连，重连期间由轮询兜底
+     */
+    private void listen(Runnable onNotify) {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + config.getChannel());
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.debug("已监听配置变更通道: {}", config.getChannel());
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(config.getListenTimeoutMillis());
+                    if (notifications != null && notifications.length > 0) {
+                        onNotify.run();
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("监听配置变更通道失败，{}ms后重连: {}", RECONNECT_DELAY_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.suifeng.sfchain.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suifeng.sfchain.annotation.AIOp;
+import com.suifeng.sfchain.core.cascade.CascadeConfig;
+import com.suifeng.sfchain.core.cascade.CascadeStatistics;
+import com.suifeng.sfchain.core.logging.AICallLog;
+import com.suifeng.sfchain.core.logging.AICallLogConfig;
+import com.suifeng.sfchain.core.logging.CallCapturePolicy;
+import com.suifeng.sfchain.core.logging.CallLogPipeline;
+import com.suifeng.sfchain.core.logging.CallLogSink;
+import com.suifeng.sfchain.core.metrics.CallStatisticsRegistry;
+import com.suifeng.sfchain.core.metrics.MetricTags;
+import com.suifeng.sfchain.core.metrics.MetricsConfig;
+import com.suifeng.sfchain.core.routing.ModelRouter;
+import com.suifeng.sfchain.core.routing.ModelRoutingConfig;
+import com.suifeng.sfchain.core.startup.StartupConfig;
+import com.suifeng.sfchain.core.startup.StartupReadiness;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: AI操作级联执行测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class BaseAIOperationCascadeTest {
+
+    private static final List<String> TIERS = List.of("fast", "medium", "strong");
+
+    /** 各模型的返回内容，以bad开头的结果不能通过校验，null表示调用失败 */
+    private final Map<String, String> replies = new HashMap<>();
+    private final List<String> calledModels = new CopyOnWriteArrayList<>();
+    private final List<AICallLog> callLogs = new CopyOnWriteArrayList<>();
+
+    private AIOperationRegistry operationRegistry;
+    private CascadeStatistics cascadeStatistics;
+    private ModelRouter modelRouter;
+    private CascadeOperation operation;
+
+    @BeforeEach
+    void setUp() {
+        MetricsConfig metricsConfig = new MetricsConfig();
+        CallStatisticsRegistry callStatistics = new CallStatisticsRegistry(metricsConfig, new MetricTags(metricsConfig));
+        callStatistics.init();
+        AICallLogConfig logConfig = new AICallLogConfig();
+        // 同步写入，调用返回时日志已到达输出端
+        logConfig.getPipeline().setEnabled(false);
+        CallLogPipeline pipeline = new CallLogPipeline(logConfig, List.of(new CollectingSink()));
+        pipeline.init();
+        StubModelRegistry modelRegistry = new StubModelRegistry();
+        operationRegistry = new AIOperationRegistry();
+        ReflectionTestUtils.setField(operationRegistry, "modelRegistry", modelRegistry);
+        cascadeStatistics = new CascadeStatistics();
+        modelRouter = new ModelRouter(new ModelRoutingConfig(), callStatistics, null, null);
+
+        operation = new CascadeOperation();
+        ReflectionTestUtils.setField(operation, "operationRegistry", operationRegistry);
+        ReflectionTestUtils.setField(operation, "modelRegistry", modelRegistry);
+        ReflectionTestUtils.setField(operation, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(operation, "startupReadiness", new StartupReadiness(new StartupConfig()));
+        ReflectionTestUtils.setField(operation, "callLogPipeline", pipeline);
+        ReflectionTestUtils.setField(operation, "capturePolicy", new CallCapturePolicy(logConfig));
+        ReflectionTestUtils.setField(operation, "callStatistics", callStatistics);
+        ReflectionTestUtils.setField(operation, "modelRouter", modelRouter);
+        ReflectionTestUtils.setField(operation, "cascadeConfig", new CascadeConfig());
+        ReflectionTestUtils.setField(operation, "cascadeStatistics", cascadeStatistics);
+        operation.init();
+    }
+
+    @Test
+    void testEscalatesOnInvalidOutputAndCallFailure() {
+        replies.put("fast", "bad answer");
+        replies.put("medium", null);
+        replies.put("strong", "good answer");
+
+        assertEquals("good answer", operation.execute("question"));
+        assertEquals(TIERS, calledModels);
+
+        assertEquals(3, callLogs.size());
+        assertEquals(AICallLog.CallStatus.FAILED, callLogs.get(0).getStatus());
+        assertTrue(callLogs.get(0).getErrorMessage().contains("输出校验失败"));
+        assertEquals(1, callLogs.get(1).getCascadeTier());
+        assertEquals(AICallLog.CallStatus.SUCCESS, callLogs.get(2).getStatus());
+        assertEquals("strong", callLogs.get(2).getModelName());
+
+        CascadeStatistics.Statistics statistics = cascadeStatistics.getStatistics().get(0);
+        assertEquals(1, statistics.getCalls());
+        assertEquals(1, statistics.getEscalations());
+        assertEquals(0, statistics.getFailures());
+        assertEquals(Map.of("strong", 1L), statistics.getServedBy());
+        TIERS.forEach(model -> assertEquals(0, modelRouter.getInFlight(model)));
+    }
+
+    @Test
+    void testStopsAtFirstValidTier() {
+        replies.put("fast", "bad answer");
+        replies.put("medium", "good answer");
+        replies.put("strong", "unused");
+
+        assertEquals("good answer", operation.execute("question"));
+        assertEquals(List.of("fast", "medium"), calledModels);
+        assertEquals(Map.of("medium", 1L), cascadeStatistics.getStatistics().get(0).getServedBy());
+    }
+
+    @Test
+    void testFirstTierServesWithoutEscalation() {
+        replies.put("fast", "good answer");
+
+        assertEquals("good answer", operation.execute("question"));
+        assertEquals(List.of("fast"), calledModels);
+        assertEquals(0, cascadeStatistics.getStatistics().get(0).getEscalations());
+    }
+
+    @Test
+    void testExhaustionThrowsLastTierFailure() {
+        replies.put("fast", "bad answer");
+        replies.put("medium", "bad answer");
+        replies.put("strong", null);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> operation.execute("question"));
+        assertTrue(error.getMessage().contains("strong unavailable"));
+        assertEquals(TIERS, calledModels);
+
+        CascadeStatistics.Statistics statistics = cascadeStatistics.getStatistics().get(0);
+        assertEquals(1, statistics.getFailures());
+        assertTrue(statistics.getServedBy().isEmpty());
+    }
+
+    @Test
+    void testExplicitModelSkipsCascade() {
+        replies.put("strong", "bad answer");
+
+        assertThrows(RuntimeException.class, () -> operation.execute("question", "strong"));
+        assertEquals(List.of("strong"), calledModels);
+        assertTrue(cascadeStatistics.getStatistics().isEmpty());
+    }
+
+    @Test
+    void testAvailabilityFollowsPublishedExecutionConfig() {
+        // 未配置模型映射且注解没有默认模型，不传模型名执行时无模型可用
+        assertFalse(operation.hasAvailableModel());
+
+        operationRegistry.setModelForOperation("CASCADE_TEST_OP", "strong");
+        assertTrue(operation.hasAvailableModel());
+
+        operationRegistry.setModelForOperation("CASCADE_TEST_OP", "retired");
+        assertFalse(operation.hasAvailableModel());
+    }
+
+    @AIOp(value = "CASCADE_TEST_OP", requireJsonOutput = false, autoRepairJson = false,
+            cascadeModels = {"fast", "medium", "strong"})
+    private static class CascadeOperation extends BaseAIOperation<String, String> {
+
+        @Override
+        protected String buildPrompt(String input) {
+            return input;
+        }
+
+        @Override
+        protected String parseResult(String jsonContent, String input) {
+            return jsonContent;
+        }
+
+        @Override
+        protected String validateOutput(String output, String input) {
+            return output.startsWith("bad") ? "答案不完整" : null;
+        }
+    }
+
+    private class StubModelRegistry extends ModelRegistry {
+
+        StubModelRegistry() {
+            super(null, null);
+        }
+
+        @Override
+        public AIModel getModel(String modelName) {
+            return new StubModel(modelName);
+        }
+
+        @Override
+        public boolean isModelRegistered(String modelName) {
+            return TIERS.contains(modelName);
+        }
+    }
+
+    private class StubModel implements AIModel {
+        private final String name;
+
+        StubModel(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String description() {
+            return name;
+        }
+
+        @Override
+        public String generate(String prompt) {
+            calledModels.add(name);
+            String reply = replies.get(name);
+            if (reply == null) {
+                throw new IllegalStateException(name + " unavailable");
+            }
+            return reply;
+        }
+
+        @Override
+        public <T> T generate(String prompt, Class<T> responseType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+
+    private class CollectingSink implements CallLogSink {
+
+        @Override
+        public String getName() {
+            return "collecting";
+        }
+
+        @Override
+        public void write(List<AICallLog> logs) {
+            callLogs.addAll(logs);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.suifeng.sfchain.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 紧凑文本测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class CompactTextTest {
+
+    @BeforeEach
+    void setUp() {
+        CompactText.configure(true, 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        CompactText.configure(true, 1024);
+    }
+
+    @Test
+    void testShortTextKeptPlain() {
+        CompactText text = CompactText.of("hello");
+        assertFalse(text.isCompressed());
+        assertEquals("hello", text.text());
+        assertNull(CompactText.of(null));
+    }
+
+    @Test
+    void testLongTextRoundTrip() {
+        String original = "上下文压缩测试 context compaction ".repeat(200);
+        CompactText text = CompactText.of(original);
+        assertTrue(text.isCompressed());
+        assertTrue(text.getRetainedBytes() < text.getOriginalBytes());
+        assertEquals(original, text.text());
+        // 每次访问都解压出相同内容
+        assertEquals(original, text.text());
+    }
+
+    @Test
+    void testSurrogatePairsRoundTrip() {
+        // 表情和扩展区汉字在UTF-16中占两个char，UTF-8中占4个字节
+        String original = "😀🚀𠀀𩸽 emoji 与扩展汉字 ".repeat(100) + "🎉";
+        CompactText text = CompactText.of(original);
+        assertTrue(text.isCompressed());
+        String restored = text.text();
+        assertEquals(original, restored);
+        assertEquals(original.codePointCount(0, original.length()), restored.codePointCount(0, restored.length()));
+    }
+
+    @Test
+    void testEqualsAcrossStorageForms() {
+        String original = "abcdefghij".repeat(50);
+        CompactText compressed = CompactText.of(original);
+        CompactText.configure(false, 64);
+        CompactText plain = CompactText.of(original);
+
+        assertTrue(compressed.isCompressed());
+        assertFalse(plain.isCompressed());
+        assertEquals(compressed, plain);
+        assertEquals(compressed.hashCode(), plain.hashCode());
+    }
+}
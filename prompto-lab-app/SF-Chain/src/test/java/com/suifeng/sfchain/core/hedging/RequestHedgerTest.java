@@ -0,0 +1,171 @@
+package com.suifeng.sfchain.core.hedging;
+
+import com.suifeng.sfchain.core.metrics.CallStatisticsRegistry;
+import com.suifeng.sfchain.core.metrics.LatencyBreakdown;
+import com.suifeng.sfchain.core.metrics.MetricTags;
+import com.suifeng.sfchain.core.metrics.MetricsConfig;
+import com.suifeng.sfchain.core.openai.OpenAICompatibleModel;
+import com.suifeng.sfchain.core.openai.OpenAIModelConfig;
+import com.suifeng.sfchain.core.openai.OpenAIResponse;
+import com.suifeng.sfchain.core.openai.RequestHandle;
+import com.suifeng.sfchain.core.usage.UsageContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 对冲请求测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class RequestHedgerTest {
+
+    private HedgingConfig config;
+    private RequestHedger hedger;
+    private OpenAICompatibleModel model;
+
+    @BeforeEach
+    void setUp() {
+        config = new HedgingConfig();
+        config.setDefaultDelayMillis(20);
+        MetricsConfig metricsConfig = new MetricsConfig();
+        CallStatisticsRegistry statistics = new CallStatisticsRegistry(metricsConfig, new MetricTags(metricsConfig));
+        statistics.init();
+        // 未配置备用模型时对冲发往同一模型，不会访问模型注册表和健康探测
+        hedger = new RequestHedger(config, null, null, statistics);
+        hedger.init();
+        model = new OpenAICompatibleModel(OpenAIModelConfig.builder()
+                .modelName("test-model").baseUrl("http://localhost").apiKey("key").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+        UsageContext.clear();
+    }
+
+    @Test
+    void testBudgetDeniesHedge() {
+        config.setMaxHedgeRatio(0.05);
+        AtomicInteger sends = new AtomicInteger();
+        OpenAIResponse response = new OpenAIResponse();
+
+        RequestHedger.Outcome outcome = hedger.execute("op", model, (target, handle) -> {
+            sends.incrementAndGet();
+            sleep(100);
+            return response;
+        });
+
+        assertSame(response, outcome.getResponse());
+        assertFalse(outcome.isHedged());
+        assertEquals(1, sends.get());
+        assertEquals(0, hedger.getStatistics().getHedges());
+        assertEquals(1, hedger.getStatistics().getBudgetDenied());
+    }
+
+    @Test
+    void testHedgeWinsAndCancelsPrimary() {
+        config.setMaxHedgeRatio(1.0);
+        AtomicInteger sends = new AtomicInteger();
+        List<RequestHandle> handles = new CopyOnWriteArrayList<>();
+        OpenAIResponse hedgeResponse = new OpenAIResponse();
+
+        RequestHedger.Outcome outcome = hedger.execute("op", model, (target, handle) -> {
+            handles.add(handle);
+            if (sends.incrementAndGet() == 1) {
+                // 主请求一直收不到首字节，直到被取消
+                while (!handle.isCancelled()) {
+                    sleep(5);
+                }
+                throw new IllegalStateException("cancelled");
+            }
+            return hedgeResponse;
+        });
+
+        assertSame(hedgeResponse, outcome.getResponse());
+        assertTrue(outcome.isHedged());
+        assertTrue(handles.get(0).isCancelled());
+        assertFalse(handles.get(1).isCancelled());
+        assertEquals(1, hedger.getStatistics().getHedges());
+        assertEquals(1, hedger.getStatistics().getHedgeWins());
+    }
+
+    @Test
+    void testLoserCompletedAfterWinnerReported() throws InterruptedException {
+        config.setMaxHedgeRatio(1.0);
+        AtomicInteger sends = new AtomicInteger();
+        OpenAIResponse primaryResponse = new OpenAIResponse();
+        OpenAIResponse hedgeResponse = new OpenAIResponse();
+        CountDownLatch reported = new CountDownLatch(1);
+        List<RequestHedger.Outcome> losers = new CopyOnWriteArrayList<>();
+
+        RequestHedger.Outcome outcome = hedger.execute("op", model, (target, handle) -> {
+            if (sends.incrementAndGet() == 1) {
+                // 主请求忽略取消，在对冲请求胜出后仍正常返回
+                sleep(80);
+                return primaryResponse;
+            }
+            return hedgeResponse;
+        }, loser -> {
+            losers.add(loser);
+            reported.countDown();
+        });
+
+        assertSame(hedgeResponse, outcome.getResponse());
+        assertTrue(reported.await(1, TimeUnit.SECONDS));
+        assertSame(primaryResponse, losers.get(0).getResponse());
+        assertFalse(losers.get(0).isHedged());
+    }
+
+    @Test
+    void testBothFailedPropagatesError() {
+        config.setMaxHedgeRatio(1.0);
+        AtomicInteger sends = new AtomicInteger();
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> hedger.execute("op", model, (target, handle) -> {
+                    int index = sends.incrementAndGet();
+                    sleep(index == 1 ? 60 : 10);
+                    throw new IllegalStateException("failed-" + index);
+                }));
+        assertTrue(error.getMessage().startsWith("failed-"));
+        assertEquals(2, sends.get());
+    }
+
+    @Test
+    void testCallerContextPropagatedToWorker() {
+        config.setMaxHedgeRatio(0.05);
+        UsageContext.setUserId("user-1");
+        LatencyBreakdown breakdown = LatencyBreakdown.begin();
+        try {
+            List<Object> seen = new CopyOnWriteArrayList<>();
+            hedger.execute("op", model, (target, handle) -> {
+                seen.add(UsageContext.getUserId());
+                seen.add(LatencyBreakdown.current());
+                return new OpenAIResponse();
+            });
+            assertEquals("user-1", seen.get(0));
+            assertSame(breakdown, seen.get(1));
+        } finally {
+            breakdown.detach();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.suifeng.sfchain.core.logging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 调用日志环形缓冲区测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class AICallLogManagerTest {
+
+    private AICallLogConfig config;
+    private AICallLogManager manager;
+
+    @BeforeEach
+    void setUp() {
+        config = new AICallLogConfig();
+        config.setCapacity(5);
+        manager = new AICallLogManager(config, null);
+        manager.init();
+    }
+
+    @Test
+    void testRingEvictsOldest() {
+        for (int i = 0; i < 8; i++) {
+            manager.addLog(callLog("call-" + i, "op"));
+        }
+
+        List<AICallLogSummary> summaries = manager.getAllLogSummaries();
+        assertEquals(5, summaries.size());
+        // 按写入顺序倒序，最早的3条被覆盖
+        assertEquals("call-7", summaries.get(0).getCallId());
+        assertEquals("call-3", summaries.get(4).getCallId());
+        assertNull(manager.getFullLog("call-2"));
+        assertNotNull(manager.getFullLog("call-3"));
+    }
+
+    @Test
+    void testEvictionKeepsIndexOfNewerLogWithSameCallId() {
+        manager.addLog(callLog("dup", "op"));
+        for (int i = 0; i < 4; i++) {
+            manager.addLog(callLog("call-" + i, "op"));
+        }
+        AICallLog newer = callLog("dup", "op");
+        // 覆盖最早那条dup，索引应指向新写入的dup
+        manager.addLog(newer);
+        assertSame(newer, manager.getFullLog("dup"));
+    }
+
+    @Test
+    void testCursorPagingAcrossWrappedRing() {
+        for (int i = 0; i < 8; i++) {
+            manager.addLog(callLog("call-" + i, i % 2 == 0 ? "even" : "odd"));
+        }
+
+        CallLogPage first = manager.query(CallLogQuery.builder().limit(2).build());
+        assertEquals(List.of("call-7", "call-6"), ids(first));
+        assertNotNull(first.getNextCursor());
+
+        CallLogPage second = manager.query(CallLogQuery.builder().limit(2).cursor(first.getNextCursor()).build());
+        assertEquals(List.of("call-5", "call-4"), ids(second));
+
+        CallLogPage last = manager.query(CallLogQuery.builder().limit(2).cursor(second.getNextCursor()).build());
+        assertEquals(List.of("call-3"), ids(last));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void testFilteredPagingRespectsScanLimit() {
+        for (int i = 0; i < 5; i++) {
+            manager.addLog(callLog("call-" + i, i == 0 ? "rare" : "common"));
+        }
+
+        // 扫描上限为2时第一页没有匹配项，但返回游标继续扫描
+        CallLogQuery query = CallLogQuery.builder().operationType("rare").scanLimit(2).build();
+        CallLogPage page = manager.query(query);
+        assertTrue(page.getItems().isEmpty());
+        assertNotNull(page.getNextCursor());
+
+        List<String> found = new ArrayList<>();
+        while (page.getNextCursor() != null) {
+            query.setCursor(page.getNextCursor());
+            page = manager.query(query);
+            found.addAll(ids(page));
+        }
+        assertEquals(List.of("call-0"), found);
+    }
+
+    @Test
+    void testClearLogs() {
+        manager.addLog(callLog("call-0", "op"));
+        manager.clearLogs();
+        assertTrue(manager.getAllLogSummaries().isEmpty());
+        assertNull(manager.getFullLog("call-0"));
+    }
+
+    private static List<String> ids(CallLogPage page) {
+        return page.getItems().stream().map(AICallLogSummary::getCallId).collect(Collectors.toList());
+    }
+
+    static AICallLog callLog(String callId, String operationType) {
+        return AICallLog.builder()
+                .callId(callId)
+                .operationType(operationType)
+                .modelName("model")
+                .callTime(LocalDateTime.now())
+                .status(AICallLog.CallStatus.SUCCESS)
+                .build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.suifeng.sfchain.core.logging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 调用日志采集策略测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class CallCapturePolicyTest {
+
+    private AICallLogConfig config;
+    private CallCapturePolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        config = new AICallLogConfig();
+        config.getCapture().setMaxPayloadChars(100);
+        policy = new CallCapturePolicy(config);
+    }
+
+    @Test
+    void testShortPayloadUnchanged() {
+        String payload = "x".repeat(100);
+        assertSame(payload, policy.truncate(payload));
+        assertNull(policy.truncate(null));
+        assertEquals(0, policy.getStatistics().getTruncated());
+    }
+
+    @Test
+    void testKeepsHeadAndTail() {
+        String payload = "H".repeat(50) + "M".repeat(1000) + "T".repeat(50);
+        String result = policy.truncate(payload);
+
+        assertTrue(result.startsWith("H".repeat(50)));
+        assertTrue(result.endsWith("T".repeat(50)));
+        assertTrue(result.contains("[已省略 1000 字符]"));
+        assertFalse(result.contains("M"));
+        assertEquals(1, policy.getStatistics().getTruncated());
+    }
+
+    @Test
+    void testDoesNotSplitSurrogatePairs() {
+        // 截断点正好落在表情字符中间
+        String payload = "a".repeat(49) + "😀" + "b".repeat(500) + "😀" + "c".repeat(49);
+        String result = policy.truncate(payload);
+
+        for (int i = 0; i < result.length(); i++) {
+            char c = result.charAt(i);
+            if (Character.isHighSurrogate(c)) {
+                assertTrue(i + 1 < result.length() && Character.isLowSurrogate(result.charAt(i + 1)));
+            } else if (Character.isLowSurrogate(c)) {
+                assertTrue(i > 0 && Character.isHighSurrogate(result.charAt(i - 1)));
+            }
+        }
+        int omitted = payload.length() - result.indexOf('\n') - (result.length() - result.lastIndexOf('\n') - 1);
+        assertTrue(result.contains("[已省略 " + omitted + " 字符]"));
+    }
+
+    @Test
+    void testDisabledWhenZero() {
+        config.getCapture().setMaxPayloadChars(0);
+        String payload = "x".repeat(100_000);
+        assertSame(payload, policy.truncate(payload));
+    }
+
+    @Test
+    void testTinyLimitClampedToMinimum() {
+        // 过小的上限由截断策略统一按最小值处理
+        config.getCapture().setMaxPayloadChars(1);
+        String payload = "😀".repeat(200);
+        String result = policy.truncate(payload);
+
+        assertTrue(result.contains("已省略"));
+        assertTrue(result.startsWith("😀"));
+        assertTrue(result.endsWith("😀"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.suifeng.sfchain.core.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 调用日志写入管道测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class CallLogPipelineTest {
+
+    @Test
+    void testShutdownFlushesQueuedLogsAndDropsLateOnes() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        CallLogPipeline pipeline = new CallLogPipeline(pipelineConfig(true), List.of(sink));
+        pipeline.init();
+
+        // 提交线程在关闭过程中持续提交，输出端不能被并发调用，也不能在关闭后被写入
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger submitted = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            started.countDown();
+            while (!stop.get()) {
+                pipeline.submit(AICallLogManagerTest.callLog("call-" + submitted.incrementAndGet(), "op"));
+            }
+        });
+        producer.start();
+        started.await();
+        Thread.sleep(50);
+        pipeline.shutdown();
+        stop.set(true);
+        producer.join();
+
+        CallLogPipeline.PipelineStatistics statistics = pipeline.getStatistics();
+        assertEquals(CallLogPipeline.State.CLOSED, statistics.getState());
+        assertFalse(sink.concurrentWrite.get());
+        assertFalse(sink.writeAfterClose.get());
+        assertEquals(submitted.get(), statistics.getWritten() + statistics.getDropped() + statistics.getDroppedAfterClose());
+        assertEquals(sink.received.size(), statistics.getWritten());
+    }
+
+    @Test
+    void testSyncModeDropsAfterClose() {
+        RecordingSink sink = new RecordingSink();
+        CallLogPipeline pipeline = new CallLogPipeline(pipelineConfig(false), List.of(sink));
+        pipeline.init();
+
+        pipeline.submit(AICallLogManagerTest.callLog("before", "op"));
+        pipeline.shutdown();
+        pipeline.submit(AICallLogManagerTest.callLog("after", "op"));
+
+        assertEquals(1, sink.received.size());
+        assertEquals(1, pipeline.getStatistics().getDroppedAfterClose());
+        assertFalse(sink.writeAfterClose.get());
+    }
+
+    private static AICallLogConfig pipelineConfig(boolean async) {
+        AICallLogConfig config = new AICallLogConfig();
+        config.getPipeline().setEnabled(async);
+        config.getPipeline().setQueueCapacity(64);
+        config.getPipeline().setBatchSize(8);
+        config.getPipeline().setFlushIntervalMillis(10);
+        config.getPipeline().setOverflowPolicy(AICallLogConfig.OverflowPolicy.BLOCK);
+        return config;
+    }
+
+    private static class RecordingSink implements CallLogSink {
+        private final List<AICallLog> received = new ArrayList<>();
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final AtomicBoolean concurrentWrite = new AtomicBoolean();
+        private final AtomicBoolean writeAfterClose = new AtomicBoolean();
+        private volatile boolean closed;
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public void write(List<AICallLog> logs) {
+            if (!writing.compareAndSet(false, true)) {
+                concurrentWrite.set(true);
+            }
+            if (closed) {
+                writeAfterClose.set(true);
+            }
+            received.addAll(logs);
+            writing.set(false);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
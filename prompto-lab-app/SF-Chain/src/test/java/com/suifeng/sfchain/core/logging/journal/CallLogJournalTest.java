@@ -0,0 +1,215 @@
+package com.suifeng.sfchain.core.logging.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suifeng.sfchain.core.logging.AICallLog;
+import com.suifeng.sfchain.core.logging.AICallLogConfig;
+import com.suifeng.sfchain.core.logging.AICallLogSummary;
+import com.suifeng.sfchain.core.logging.CallLogPage;
+import com.suifeng.sfchain.core.logging.CallLogQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 调用日志内存映射文件测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class CallLogJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private AICallLogConfig config;
+    private CallLogJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        config = new AICallLogConfig();
+        config.getJournal().setDirectory(directory.toString());
+        config.getJournal().setSegmentBytes(64 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void testRecoverRebuildsIndex() throws IOException {
+        journal = open();
+        journal.write(List.of(callLog("call-1", "op-a"), callLog("call-2", "op-b"), callLog("call-3", "op-a")));
+        journal.close();
+
+        journal = open();
+        assertEquals(3, journal.getStatistics().getRecords());
+        assertEquals("call-2", journal.getFullLog("call-2").getCallId());
+        assertEquals(2, journal.getSummariesByOperation("op-a", 0).size());
+        assertEquals("call-3", journal.getRecentSummaries(1).get(0).getCallId());
+    }
+
+    @Test
+    void testRecoverTruncatesBadCrcTail() throws IOException {
+        journal = open();
+        journal.write(List.of(callLog("call-1", "op"), callLog("call-2", "op"), callLog("call-3", "op")));
+        int tailOffset = journal.getStatistics().getActiveSegmentUsedBytes();
+        journal.close();
+
+        // 破坏最后一条记录的记录体，模拟写入中途崩溃
+        Path segment = directory.resolve("calls-0000000001.seg");
+        int lastOffset = lastRecordOffset(segment, tailOffset);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            long bodyByte = lastOffset + JournalSegment.RECORD_HEADER_BYTES + 2;
+            channel.read(one, bodyByte);
+            one.flip();
+            byte original = one.get();
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~original}), bodyByte);
+        }
+
+        journal = open();
+        assertEquals(2, journal.getStatistics().getRecords());
+        assertNull(journal.getFullLog("call-3"));
+        assertEquals(lastOffset, journal.getStatistics().getActiveSegmentUsedBytes());
+
+        // 新记录从截断处继续写入，重启后仍可读取
+        journal.write(List.of(callLog("call-4", "op")));
+        journal.close();
+        journal = open();
+        assertEquals(3, journal.getStatistics().getRecords());
+        assertEquals("call-4", journal.getRecentSummaries(1).get(0).getCallId());
+        assertNull(journal.getFullLog("call-3"));
+    }
+
+    @Test
+    void testQueryPagesWithCursor() throws IOException {
+        journal = open();
+        writeHourly(10);
+
+        List<String> ids = new ArrayList<>();
+        int pages = 0;
+        CallLogQuery query = CallLogQuery.builder().limit(4).build();
+        while (true) {
+            CallLogPage page = journal.query(query);
+            pages++;
+            page.getItems().forEach(item -> ids.add(item.getCallId()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            query.setCursor(page.getNextCursor());
+        }
+        assertEquals(List.of("call-9", "call-8", "call-7", "call-6", "call-5", "call-4", "call-3", "call-2",
+                "call-1", "call-0"), ids);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void testTimeRangeSeeksAndStopsEarly() throws IOException {
+        journal = open();
+        LocalDateTime base = writeHourly(30);
+
+        // 扫描上限为3时，只有时间范围内的10条记录被扫描，最多4页即可取完
+        CallLogQuery query = CallLogQuery.builder()
+                .from(base.plusHours(10)).to(base.plusHours(19))
+                .limit(50).scanLimit(3)
+                .build();
+        List<String> ids = new ArrayList<>();
+        int pages = 0;
+        while (true) {
+            CallLogPage page = journal.query(query);
+            pages++;
+            assertTrue(page.getItems().size() <= 3);
+            ids.addAll(page.getItems().stream().map(AICallLogSummary::getCallId).collect(Collectors.toList()));
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            query.setCursor(page.getNextCursor());
+        }
+        assertEquals(10, ids.size());
+        assertEquals("call-19", ids.get(0));
+        assertEquals("call-10", ids.get(9));
+        assertTrue(pages <= 4, "时间范围外的记录不应被扫描: pages=" + pages);
+    }
+
+    @Test
+    void testTimeRangeWithoutRecords() throws IOException {
+        journal = open();
+        LocalDateTime base = writeHourly(5);
+
+        CallLogPage before = journal.query(CallLogQuery.builder().to(base.minusHours(1)).build());
+        CallLogPage after = journal.query(CallLogQuery.builder().from(base.plusHours(10)).build());
+        assertTrue(before.getItems().isEmpty());
+        assertNull(before.getNextCursor());
+        assertTrue(after.getItems().isEmpty());
+        assertNull(after.getNextCursor());
+    }
+
+    /**
+     * 按小时间隔写入若干条日志，返回第一条的调用时间
+     */
+    private LocalDateTime writeHourly(int count) throws IOException {
+        LocalDateTime base = LocalDateTime.now().minusDays(2).withNano(0);
+        List<AICallLog> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logs.add(callLog("call-" + i, "op", base.plusHours(i)));
+        }
+        journal.write(logs);
+        return base;
+    }
+
+    private CallLogJournal open() throws IOException {
+        CallLogJournal opened = new CallLogJournal(config, new ObjectMapper().findAndRegisterModules());
+        opened.init();
+        return opened;
+    }
+
+    /**
+     * 沿记录长度前进，找到结束位置之前的最后一条记录的偏移
+     */
+    private static int lastRecordOffset(Path segment, int end) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            int offset = 0;
+            int last = -1;
+            ByteBuffer header = ByteBuffer.allocate(4);
+            while (offset < end) {
+                header.clear();
+                channel.read(header, offset);
+                header.flip();
+                last = offset;
+                offset += JournalSegment.RECORD_HEADER_BYTES + header.getInt();
+            }
+            return last;
+        }
+    }
+
+    static AICallLog callLog(String callId, String operationType) {
+        return callLog(callId, operationType, LocalDateTime.now());
+    }
+
+    static AICallLog callLog(String callId, String operationType, LocalDateTime callTime) {
+        return AICallLog.builder()
+                .callId(callId)
+                .operationType(operationType)
+                .modelName("model")
+                .callTime(callTime)
+                .status(AICallLog.CallStatus.SUCCESS)
+                .duration(10)
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.suifeng.sfchain.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 延迟直方图测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    void testEmptySnapshot() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.percentile(0.99));
+        assertEquals(0.0, snapshot.getMean());
+    }
+
+    @Test
+    void testPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500.5, snapshot.getMean(), 1e-9);
+        // 桶边界相差约25%，估算值不低于真实分位数且误差在一个桶以内
+        assertWithinBucket(500, snapshot.percentile(0.5));
+        assertWithinBucket(900, snapshot.percentile(0.9));
+        assertWithinBucket(990, snapshot.percentile(0.99));
+        // 最高分位不超过最大值
+        assertEquals(1000, snapshot.percentile(1.0));
+    }
+
+    @Test
+    void testNegativeAndOverflowValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(10_000_000L);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // 负值按0记录，落在最小的桶（上界1ms）
+        assertEquals(1, snapshot.percentile(0.5));
+        assertEquals(1, snapshot.countAtOrBelow(1));
+        // 超出最大桶的值计入溢出桶，分位数返回最大值
+        assertEquals(10_000_000L, snapshot.percentile(1.0));
+    }
+
+    @Test
+    void testMergeEqualsCombinedRecording() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        LatencyHistogram combined = new LatencyHistogram();
+        for (int i = 0; i < 900; i++) {
+            fast.record(10);
+            combined.record(10);
+        }
+        for (int i = 0; i < 100; i++) {
+            slow.record(2000);
+            combined.record(2000);
+        }
+
+        LatencyHistogram.Snapshot merged = fast.snapshot().merge(slow.snapshot());
+        LatencyHistogram.Snapshot expected = combined.snapshot();
+        assertEquals(expected.getCount(), merged.getCount());
+        assertEquals(expected.getSum(), merged.getSum());
+        assertEquals(expected.getMax(), merged.getMax());
+        for (double quantile : new double[]{0.5, 0.9, 0.95, 0.99}) {
+            assertEquals(expected.percentile(quantile), merged.percentile(quantile));
+        }
+        assertEquals(10, merged.percentile(0.9));
+        assertWithinBucket(2000, merged.percentile(0.95));
+
+        // 与空快照合并不改变结果
+        assertSame(merged, merged.merge(LatencyHistogram.Snapshot.empty()));
+        assertSame(merged, LatencyHistogram.Snapshot.empty().merge(merged));
+    }
+
+    @Test
+    void testAddSnapshotAndReset() {
+        LatencyHistogram source = new LatencyHistogram();
+        source.record(5);
+        source.record(50);
+        LatencyHistogram target = new LatencyHistogram();
+        target.record(500);
+
+        target.add(source.snapshot());
+        assertEquals(3, target.getCount());
+        assertEquals(500, target.snapshot().getMax());
+        // 按桶上界统计，跨越给定值的桶不计入
+        assertEquals(2, target.snapshot().countAtOrBelow(100));
+        assertEquals(1, target.snapshot().countAtOrBelow(49));
+
+        target.reset();
+        assertEquals(0, target.getCount());
+        assertEquals(0, target.snapshot().getMax());
+    }
+
+    private static void assertWithinBucket(long actual, long estimated) {
+        assertTrue(estimated >= actual, "估算值" + estimated + "低于真实值" + actual);
+        assertTrue(estimated <= Math.ceil(actual * 1.25) + 1, "估算值" + estimated + "超出一个桶的误差: " + actual);
+    }
+}
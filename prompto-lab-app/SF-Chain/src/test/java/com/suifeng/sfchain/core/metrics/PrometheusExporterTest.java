@@ -0,0 +1,63 @@
+package com.suifeng.sfchain.core.metrics;
+
+import com.suifeng.sfchain.core.logging.AICallLogConfig;
+import com.suifeng.sfchain.core.logging.CallLogPipeline;
+import com.suifeng.sfchain.core.startup.StartupConfig;
+import com.suifeng.sfchain.core.startup.StartupReadiness;
+import com.suifeng.sfchain.core.usage.TokenUsage;
+import com.suifeng.sfchain.core.usage.TokenUsageConfig;
+import com.suifeng.sfchain.core.usage.TokenUsageLedger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: Prometheus指标导出测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class PrometheusExporterTest {
+
+    private TokenUsageLedger ledger;
+    private PrometheusExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        MetricsConfig config = new MetricsConfig();
+        config.setMaxTagValues(2);
+        MetricTags tags = new MetricTags(config);
+        CallStatisticsRegistry callStatistics = new CallStatisticsRegistry(config, tags);
+        callStatistics.init();
+        AICallLogConfig logConfig = new AICallLogConfig();
+        logConfig.getPipeline().setEnabled(false);
+        CallLogPipeline pipeline = new CallLogPipeline(logConfig, List.of());
+        pipeline.init();
+        ledger = new TokenUsageLedger(new TokenUsageConfig());
+        exporter = new PrometheusExporter(config, tags, callStatistics, new StreamStatisticsRegistry(tags),
+                ledger, pipeline, new StartupReadiness(new StartupConfig()));
+    }
+
+    @Test
+    void testTokenSeriesStableWhenRankingChanges() {
+        ledger.record("op", "cheap", null, null, new TokenUsage(10, 5, 0), 0.1);
+        ledger.record("op", "medium", null, null, new TokenUsage(10, 5, 0), 0.2);
+        String first = exporter.scrape();
+        assertTrue(first.contains("sfchain_model_cost_total{model=\"cheap\"} 0.1\n"));
+        assertTrue(first.contains("sfchain_model_cost_total{model=\"medium\"} 0.2\n"));
+
+        // 新模型用量排名第一，但标签名额已满，并入溢出标签；已有序列不会消失
+        ledger.record("op", "expensive", null, null, new TokenUsage(100, 50, 0), 5.0);
+        ledger.record("op", "premium", null, null, new TokenUsage(10, 5, 0), 1.0);
+        String second = exporter.scrape();
+        assertTrue(second.contains("sfchain_model_cost_total{model=\"cheap\"} 0.1\n"));
+        assertTrue(second.contains("sfchain_model_cost_total{model=\"medium\"} 0.2\n"));
+        assertTrue(second.contains("sfchain_model_cost_total{model=\"" + MetricTags.OTHER + "\"} 6\n"));
+        assertTrue(second.contains("sfchain_model_tokens_total{model=\"" + MetricTags.OTHER + "\",type=\"prompt\"} 110\n"));
+        assertFalse(second.contains("model=\"expensive\""));
+        assertTrue(second.contains("sfchain_operation_tokens_total{operation=\"op\",type=\"completion\"} 65\n"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.suifeng.sfchain.core.tracing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.AsyncEvent;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: HTTP请求入口span测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class TracingHandlerInterceptorTest {
+
+    private final List<SpanData> exported = new CopyOnWriteArrayList<>();
+    private final TracingHandlerInterceptor interceptor = new TracingHandlerInterceptor();
+
+    @BeforeEach
+    void setUp() {
+        Tracing.configure(true, 1.0, exported::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Tracing.configure(false, 1.0, null);
+    }
+
+    @Test
+    void testSyncRequestEndsOnCompletion() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sync");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        assertNotNull(response.getHeader(TracingHandlerInterceptor.TRACEPARENT));
+        interceptor.afterCompletion(request, response, null, null);
+
+        assertEquals(1, exported.size());
+        assertEquals("OK", exported.get(0).getStatus());
+        assertNull(Tracing.currentContext());
+    }
+
+    @Test
+    void testAsyncRequestEndsWhenAsyncCompletes() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stream");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        request.startAsync();
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+
+        // 请求线程返回时解除绑定，但span尚未结束
+        assertNull(Tracing.currentContext());
+        assertTrue(exported.isEmpty());
+
+        // 异步派发回来时不新建span
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        assertTrue(exported.isEmpty());
+
+        response.setStatus(500);
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        asyncContext.getListeners().forEach(listener -> {
+            try {
+                listener.onError(new AsyncEvent(asyncContext, new IllegalStateException("boom")));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        asyncContext.complete();
+
+        assertEquals(1, exported.size());
+        SpanData span = exported.get(0);
+        assertEquals("ERROR", span.getStatus());
+        assertEquals(500, span.getAttributes().get("http.status"));
+        assertEquals(true, span.getAttributes().get("http.async"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.suifeng.sfchain.core.usage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: Token用量台账测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class TokenUsageLedgerTest {
+
+    private TokenUsageConfig config;
+    private TokenUsageLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        config = new TokenUsageConfig();
+        config.setMaxKeysPerDimension(4);
+        config.setEvictionBatchRatio(0.5);
+        ledger = new TokenUsageLedger(config);
+    }
+
+    @Test
+    void testNewSessionStillTrackedAfterLimit() {
+        for (int i = 0; i < 10; i++) {
+            ledger.record("op", "model", "session-" + i, "user", new TokenUsage(10, 5, 0), 0.1);
+        }
+
+        // 最新的会话单独统计，而不是被归并到__other__
+        TokenUsageLedger.UsageSnapshot latest = ledger.getUsage(TokenUsageLedger.Dimension.SESSION, "session-9");
+        assertNotNull(latest);
+        assertEquals(1, latest.getCalls());
+
+        // 被淘汰会话的用量并入__other__，维度总量不丢失
+        long calls = ledger.getUsage(TokenUsageLedger.Dimension.SESSION, 0).values().stream()
+                .mapToLong(TokenUsageLedger.UsageSnapshot::getCalls)
+                .sum();
+        assertEquals(10, calls);
+        assertNotNull(ledger.getUsage(TokenUsageLedger.Dimension.SESSION, TokenUsageLedger.OTHER_KEY));
+        assertTrue(ledger.getUsage(TokenUsageLedger.Dimension.SESSION, 0).size() <= config.getMaxKeysPerDimension() + 1);
+    }
+
+    @Test
+    void testIdleSessionsEvictedFirst() {
+        ledger.record("op", "model", "old", "user", new TokenUsage(1, 1, 0), 0.0);
+        ledger.record("op", "model", "a", "user", new TokenUsage(1, 1, 0), 0.0);
+        ledger.record("op", "model", "b", "user", new TokenUsage(1, 1, 0), 0.0);
+        ledger.record("op", "model", "c", "user", new TokenUsage(1, 1, 0), 0.0);
+
+        // 空闲超时设为负数，模拟已有key全部空闲超时
+        config.setIdleTtlMinutes(-1);
+        ledger.record("op", "model", "d", "user", new TokenUsage(1, 1, 0), 0.0);
+
+        assertNull(ledger.getUsage(TokenUsageLedger.Dimension.SESSION, "old"));
+        assertNotNull(ledger.getUsage(TokenUsageLedger.Dimension.SESSION, "d"));
+        assertEquals(4, ledger.getUsage(TokenUsageLedger.Dimension.SESSION, TokenUsageLedger.OTHER_KEY).getCalls());
+    }
+
+    @Test
+    void testEstimatedUsageKeptOutOfBilledTotals() {
+        ledger.record("op", "model", "session", "user", new TokenUsage(100, 50, 0), 1.5);
+        ledger.recordEstimated("op", "model", "session", "user", new TokenUsage(40, 20, 0));
+
+        TokenUsageLedger.UsageSnapshot model = ledger.getUsage(TokenUsageLedger.Dimension.MODEL, "model");
+        assertEquals(1, model.getCalls());
+        assertEquals(150, model.getTotalTokens());
+        assertEquals(1.5, model.getCost(), 1e-9);
+        assertEquals(1, model.getEstimatedCalls());
+        assertEquals(60, model.getEstimatedTokens());
+        assertEquals(60, ledger.getTotal().getEstimatedTokens());
+        assertEquals(1.5, ledger.getTotal().getCost(), 1e-9);
+    }
+
+    @Test
+    void testConcurrentRecordsSurviveEviction() throws InterruptedException {
+        int threads = 4;
+        int perThread = 5000;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // 会话数远超上限，记录与淘汰持续交错
+                    ledger.record("op", "model", "session-" + (i % 50) + "-" + offset, "user",
+                            new TokenUsage(1, 1, 0), 0.0);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long calls = ledger.getUsage(TokenUsageLedger.Dimension.SESSION, 0).values().stream()
+                .mapToLong(TokenUsageLedger.UsageSnapshot::getCalls)
+                .sum();
+        assertEquals((long) threads * perThread, calls);
+        assertEquals((long) threads * perThread, ledger.getTotal().getCalls());
+    }
+}
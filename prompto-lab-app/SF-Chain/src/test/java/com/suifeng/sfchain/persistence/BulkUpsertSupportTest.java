@@ -0,0 +1,54 @@
+package com.suifeng.sfchain.persistence;
+
+import com.suifeng.sfchain.persistence.config.DatabaseType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 配置批量写入语句测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class BulkUpsertSupportTest {
+
+    private static final List<String> COLUMNS = List.of("model_name", "custom_params", "created_at", "updated_at");
+
+    @Test
+    void testMySqlUpsert() {
+        String sql = BulkUpsertSupport.buildSql(DatabaseType.MYSQL, "sfchain_model_configs", COLUMNS,
+                "model_name", 2);
+
+        assertEquals("INSERT INTO sfchain_model_configs (model_name, custom_params, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?), (?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE custom_params = VALUES(custom_params), updated_at = VALUES(updated_at)",
+                sql);
+    }
+
+    @Test
+    void testPostgreSqlUpsert() {
+        String sql = BulkUpsertSupport.buildSql(DatabaseType.POSTGRESQL, "sfchain_model_configs", COLUMNS,
+                "model_name", 2);
+
+        assertEquals("INSERT INTO sfchain_model_configs (model_name, custom_params, created_at, updated_at) "
+                + "VALUES (?, CAST(? AS jsonb), ?, ?), (?, CAST(? AS jsonb), ?, ?) "
+                + "ON CONFLICT (model_name) DO UPDATE SET custom_params = EXCLUDED.custom_params, "
+                + "updated_at = EXCLUDED.updated_at", sql);
+    }
+
+    @Test
+    void testPlaceholderCountMatchesRows() {
+        for (DatabaseType databaseType : new DatabaseType[]{DatabaseType.MYSQL, DatabaseType.POSTGRESQL}) {
+            String sql = BulkUpsertSupport.buildSql(databaseType, "t", COLUMNS, "model_name", 200);
+            long placeholders = sql.chars().filter(c -> c == '?').count();
+            assertEquals(200L * COLUMNS.size(), placeholders, databaseType.name());
+            // 唯一键和创建时间不出现在更新子句中
+            String updates = sql.substring(sql.indexOf(" ON "));
+            assertFalse(updates.contains("model_name ="), databaseType.name());
+            assertFalse(updates.contains("created_at"), databaseType.name());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.suifeng.sfchain.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 带缓存的持久化服务测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class CachingPersistenceServiceTest {
+
+    private InMemoryPersistenceService delegate;
+    private CachingPersistenceService caching;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new InMemoryPersistenceService();
+        delegate.saveModelConfig("gpt", model("gpt", 1000));
+        delegate.saveOperationConfig("summary", operation("summary", "gpt"));
+        caching = new CachingPersistenceService(delegate);
+    }
+
+    @Test
+    void testReadsServedFromCacheAsCopies() {
+        assertEquals(1000, caching.getModelConfig("gpt").orElseThrow().getDefaultMaxTokens());
+        caching.getModelConfig("gpt").orElseThrow().setDefaultMaxTokens(1);
+        caching.getAllModelConfigs().get("gpt").setDefaultMaxTokens(2);
+
+        assertEquals(1000, caching.getModelConfig("gpt").orElseThrow().getDefaultMaxTokens());
+        assertTrue(caching.existsModelConfig("gpt"));
+        assertEquals(1, delegate.modelLoads.get());
+    }
+
+    @Test
+    void testWriteInvalidatesCache() {
+        caching.getModelConfig("gpt");
+        caching.saveModelConfig("gpt", model("gpt", 2000));
+
+        assertEquals(2000, caching.getModelConfig("gpt").orElseThrow().getDefaultMaxTokens());
+        assertEquals(2, delegate.modelLoads.get());
+    }
+
+    @Test
+    void testWriteDuringLoadDiscardsStaleResult() {
+        // 加载读到旧数据后、写入缓存前发生了一次写入
+        delegate.duringModelLoad = () -> caching.saveModelConfig("gpt", model("gpt", 3000));
+
+        assertEquals(1000, caching.getModelConfig("gpt").orElseThrow().getDefaultMaxTokens());
+        // 旧的加载结果未写入缓存，下次读取重新加载
+        assertEquals(3000, caching.getModelConfig("gpt").orElseThrow().getDefaultMaxTokens());
+        assertEquals(3000, caching.getModelConfig("gpt").orElseThrow().getDefaultMaxTokens());
+        assertEquals(2, delegate.modelLoads.get());
+    }
+
+    @Test
+    void testDeleteModelInvalidatesOperationIndex() {
+        assertEquals(Set.of("summary"), caching.getOperationsUsingModel("gpt"));
+
+        caching.deleteModelConfig("gpt");
+
+        assertFalse(caching.existsModelConfig("gpt"));
+        assertTrue(caching.getOperationsUsingModel("gpt").isEmpty());
+        assertNull(caching.getOperationConfig("summary").orElseThrow().getModelName());
+        assertEquals(2, delegate.operationLoads.get());
+    }
+
+    @Test
+    void testReloadSingleKeyWithoutFullLoad() {
+        caching.getAllModelConfigs();
+        caching.getAllOperationConfigs();
+        // 其他节点直接修改了底层存储
+        delegate.saveModelConfig("gpt", model("gpt", 4000));
+        delegate.saveOperationConfig("summary", operation("summary", "qwen"));
+
+        caching.reloadModelConfig("gpt");
+        caching.reloadOperationConfig("summary");
+
+        assertEquals(4000, caching.getModelConfig("gpt").orElseThrow().getDefaultMaxTokens());
+        assertEquals(Set.of("summary"), caching.getOperationsUsingModel("qwen"));
+        assertTrue(caching.getOperationsUsingModel("gpt").isEmpty());
+        assertEquals(1, delegate.modelLoads.get());
+        assertEquals(1, delegate.operationLoads.get());
+    }
+
+    @Test
+    void testReloadDeletedModelInvalidatesOperations() {
+        caching.getAllModelConfigs();
+        caching.getAllOperationConfigs();
+        delegate.deleteModelConfig("gpt");
+
+        caching.reloadModelConfig("gpt");
+
+        assertFalse(caching.existsModelConfig("gpt"));
+        assertNull(caching.getOperationConfig("summary").orElseThrow().getModelName());
+        assertEquals(1, delegate.modelLoads.get());
+        assertEquals(2, delegate.operationLoads.get());
+    }
+
+    @Test
+    void testReloadInvalidatesBothCaches() {
+        caching.getAllModelConfigs();
+        caching.getAllOperationConfigs();
+        caching.reload();
+        caching.getAllModelConfigs();
+        caching.getAllOperationConfigs();
+
+        assertEquals(2, delegate.modelLoads.get());
+        assertEquals(2, delegate.operationLoads.get());
+    }
+
+    private static ModelConfigData model(String name, int maxTokens) {
+        return ModelConfigData.builder().modelName(name).defaultMaxTokens(maxTokens).enabled(true).build();
+    }
+
+    private static OperationConfigData operation(String operationType, String modelName) {
+        return OperationConfigData.builder().operationType(operationType).modelName(modelName).build();
+    }
+
+    /**
+     * 内存实现，记录整体加载次数；删除模型时与数据库外键一样置空引用它的操作配置
+     */
+    private static class InMemoryPersistenceService implements PersistenceService {
+
+        final Map<String, ModelConfigData> models = new HashMap<>();
+        final Map<String, OperationConfigData> operations = new HashMap<>();
+        final AtomicInteger modelLoads = new AtomicInteger();
+        final AtomicInteger operationLoads = new AtomicInteger();
+        /** 下一次加载模型配置时在读取之后执行一次 */
+        Runnable duringModelLoad;
+
+        @Override
+        public void saveModelConfig(String modelName, ModelConfigData config) {
+            models.put(modelName, config.copy());
+        }
+
+        @Override
+        public Optional<ModelConfigData> getModelConfig(String modelName) {
+            return Optional.ofNullable(models.get(modelName)).map(ModelConfigData::copy);
+        }
+
+        @Override
+        public Map<String, ModelConfigData> getAllModelConfigs() {
+            modelLoads.incrementAndGet();
+            Map<String, ModelConfigData> snapshot = new HashMap<>();
+            models.forEach((name, config) -> snapshot.put(name, config.copy()));
+            Runnable hook = duringModelLoad;
+            duringModelLoad = null;
+            if (hook != null) {
+                hook.run();
+            }
+            return snapshot;
+        }
+
+        @Override
+        public boolean deleteModelConfig(String modelName) {
+            operations.values().stream()
+                    .filter(config -> modelName.equals(config.getModelName()))
+                    .forEach(config -> config.setModelName(null));
+            return models.remove(modelName) != null;
+        }
+
+        @Override
+        public boolean existsModelConfig(String modelName) {
+            return models.containsKey(modelName);
+        }
+
+        @Override
+        public List<String> getAllModelNames() {
+            return new ArrayList<>(models.keySet());
+        }
+
+        @Override
+        public void saveOperationConfig(String operationType, OperationConfigData config) {
+            operations.put(operationType, config.copy());
+        }
+
+        @Override
+        public Optional<OperationConfigData> getOperationConfig(String operationType) {
+            return Optional.ofNullable(operations.get(operationType)).map(OperationConfigData::copy);
+        }
+
+        @Override
+        public Map<String, OperationConfigData> getAllOperationConfigs() {
+            operationLoads.incrementAndGet();
+            Map<String, OperationConfigData> snapshot = new HashMap<>();
+            operations.forEach((type, config) -> snapshot.put(type, config.copy()));
+            return snapshot;
+        }
+
+        @Override
+        public boolean deleteOperationConfig(String operationType) {
+            return operations.remove(operationType) != null;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void reload() {
+        }
+
+        @Override
+        public void backup(String backupName) {
+        }
+
+        @Override
+        public void restoreFromBackup(String backupName) {
+        }
+
+        @Override
+        public List<String> getAllBackupNames() {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.suifeng.sfchain.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.suifeng.sfchain.persistence.config.PersistenceConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 基于本地文件的持久化服务测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class FilePersistenceServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private PersistenceConfig config;
+    private FilePersistenceService service;
+
+    @BeforeEach
+    void setUp() {
+        config = new PersistenceConfig();
+        config.getFile().setDirectory(directory.toString());
+        config.getFile().setSyncOnWrite(false);
+        config.setBackupDirectory(directory.resolve("backups").toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void testSaveDoesNotMutateCallerConfig() {
+        service = open();
+        ModelConfigData model = ModelConfigData.builder().baseUrl("http://localhost").build();
+        OperationConfigData operation = OperationConfigData.builder().modelName("gpt").build();
+
+        service.saveModelConfig("gpt", model);
+        service.saveOperationConfigs(Map.of("summary", operation));
+
+        assertNull(model.getModelName());
+        assertNull(operation.getOperationType());
+        assertEquals("gpt", service.getModelConfig("gpt").orElseThrow().getModelName());
+        assertEquals("summary", service.getOperationConfig("summary").orElseThrow().getOperationType());
+    }
+
+    @Test
+    void testReplayAfterRestart() {
+        service = open();
+        service.saveModelConfig("gpt", model(1000));
+        service.saveModelConfig("qwen", model(2000));
+        service.saveOperationConfig("summary", OperationConfigData.builder().modelName("qwen").build());
+        service.deleteModelConfig("qwen");
+        service.close();
+
+        service = open();
+        assertEquals(1000, service.getModelConfig("gpt").orElseThrow().getDefaultMaxTokens());
+        assertFalse(service.existsModelConfig("qwen"));
+        // 删除模型时与外键一样置空引用它的操作配置
+        assertNull(service.getOperationConfig("summary").orElseThrow().getModelName());
+    }
+
+    @Test
+    void testTornTailDiscardedAndCompacted() throws IOException {
+        service = open();
+        service.saveModelConfig("gpt", model(1000));
+        service.saveModelConfig("qwen", model(2000));
+        service.close();
+
+        // 模拟写入中途崩溃，日志末尾只有半条记录
+        Path logFile = directory.resolve("changes.log");
+        Files.write(logFile, "{\"type\":\"MODEL_PUT\",\"key\":\"torn\",\"mod".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        service = open();
+        assertEquals(2, service.getAllModelConfigs().size());
+        assertFalse(service.existsModelConfig("torn"));
+        // 丢弃残留后立即合并，日志清空
+        assertEquals(0, Files.size(logFile));
+        assertTrue(Files.exists(directory.resolve("snapshot.json")));
+
+        service.saveModelConfig("deepseek", model(3000));
+        service.close();
+        service = open();
+        assertEquals(3, service.getAllModelConfigs().size());
+        assertEquals(2000, service.getModelConfig("qwen").orElseThrow().getDefaultMaxTokens());
+    }
+
+    @Test
+    void testCorruptLineTruncatesRemainingLog() throws IOException {
+        service = open();
+        service.saveModelConfig("gpt", model(1000));
+        service.close();
+
+        Path logFile = directory.resolve("changes.log");
+        String valid = Files.readString(logFile, StandardCharsets.UTF_8);
+        Files.writeString(logFile, valid + "{broken\n" + valid.replace("gpt", "qwen"), StandardCharsets.UTF_8);
+
+        service = open();
+        assertTrue(service.existsModelConfig("gpt"));
+        // 损坏记录之后的内容不再重放
+        assertFalse(service.existsModelConfig("qwen"));
+        assertEquals(0, Files.size(logFile));
+        assertTrue(Files.readString(directory.resolve("changes.log.corrupt"), StandardCharsets.UTF_8)
+                .contains("{broken"));
+
+        service.close();
+        service = open();
+        assertEquals(1, service.getAllModelConfigs().size());
+    }
+
+    @Test
+    void testCompactionAtThreshold() throws IOException {
+        config.getFile().setCompactThreshold(3);
+        service = open();
+        service.saveModelConfig("a", model(1));
+        service.saveModelConfig("b", model(2));
+        assertTrue(Files.size(directory.resolve("changes.log")) > 0);
+
+        service.saveModelConfig("c", model(3));
+        assertEquals(0, Files.size(directory.resolve("changes.log")));
+        assertTrue(Files.exists(directory.resolve("snapshot.json")));
+
+        service.deleteModelConfig("a");
+        service.close();
+        service = open();
+        assertEquals(2, service.getModelConfig("b").orElseThrow().getDefaultMaxTokens());
+        assertEquals(3, service.getModelConfig("c").orElseThrow().getDefaultMaxTokens());
+        assertFalse(service.existsModelConfig("a"));
+    }
+
+    @Test
+    void testBackupUsesSharedSnapshotFormat() throws IOException {
+        service = open();
+        service.saveModelConfig("gpt", model(1000));
+        service.saveOperationConfig("summary", OperationConfigData.builder().modelName("gpt").build());
+        service.backup("daily");
+
+        Path backupFile = ConfigSnapshotSupport.resolve(directory.resolve("backups"), "daily");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(backupFile))) {
+            assertEquals(ConfigSnapshotSupport.FORMAT,
+                    new ObjectMapper().readTree(in).get("format").asText());
+        }
+        assertTrue(service.getAllBackupNames().contains("daily"));
+
+        service.saveModelConfig("qwen", model(2000));
+        service.deleteOperationConfig("summary");
+        service.restoreFromBackup("daily");
+
+        assertFalse(service.existsModelConfig("qwen"));
+        assertEquals(1000, service.getModelConfig("gpt").orElseThrow().getDefaultMaxTokens());
+        assertEquals("gpt", service.getOperationConfig("summary").orElseThrow().getModelName());
+
+        // 恢复结果已合并进快照，重启后仍然生效
+        service.close();
+        service = open();
+        assertEquals(1, service.getAllModelConfigs().size());
+        assertTrue(service.getOperationConfig("summary").isPresent());
+    }
+
+    private FilePersistenceService open() {
+        FilePersistenceService opened = new FilePersistenceService(config, new ObjectMapper());
+        opened.init();
+        return opened;
+    }
+
+    private static ModelConfigData model(int maxTokens) {
+        return ModelConfigData.builder().baseUrl("http://localhost").defaultMaxTokens(maxTokens).enabled(true).build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.suifeng.sfchain.persistence.context;
+
+import com.suifeng.sfchain.core.AIOperationRegistry;
+import com.suifeng.sfchain.core.BaseAIOperation;
+import com.suifeng.sfchain.operations.ContextSummaryOperation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 描述: 会话上下文后台压缩测试
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+public class ContextCompactionServiceTest {
+
+    private static final String SESSION = "session-1";
+    private static final String CONTENT = "message content used for token estimation ".repeat(4);
+
+    private ContextCompactionConfig config;
+    private StubSummaryOperation summaryOperation;
+    private ContextCompactionService compactionService;
+    private MapBasedChatContextService store;
+
+    @BeforeEach
+    void setUp() {
+        config = new ContextCompactionConfig();
+        config.setEnabled(true);
+        config.setKeepRecentMessages(2);
+        config.setFallbackMaxMessages(3);
+        // 预算容纳4条消息，第5条消息写入后触发压缩
+        int messageTokens = ChatMessage.userMessage(SESSION, CONTENT + 0).getEstimatedTokens();
+        config.setTokenBudget(messageTokens * 4 + messageTokens / 2);
+
+        summaryOperation = new StubSummaryOperation();
+        compactionService = new ContextCompactionService(config, new StubRegistry(summaryOperation));
+        compactionService.init();
+        store = new MapBasedChatContextService();
+        ReflectionTestUtils.setField(store, "compactionService", compactionService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        compactionService.shutdown();
+    }
+
+    @Test
+    void testDisabledByDefault() {
+        assertFalse(new ContextCompactionConfig().isEnabled());
+    }
+
+    @Test
+    void testCompactsOnlyAfterBudgetExceeded() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            store.addUserMessage(SESSION, CONTENT + i);
+        }
+        awaitIdle();
+        assertTrue(summaryOperation.requests.isEmpty());
+        assertEquals(4, store.getConversationMessageCount(SESSION));
+
+        store.addUserMessage(SESSION, CONTENT + 4);
+        awaitIdle();
+
+        assertEquals(1, summaryOperation.requests.size());
+        List<ChatMessage> history = store.getConversationHistory(SESSION);
+        assertEquals(3, history.size());
+        assertEquals(ChatMessage.MessageType.SUMMARY, history.get(0).getType());
+        assertEquals("summary-1", history.get(0).getContent());
+        // 最近的消息原样保留
+        assertEquals(CONTENT + 3, history.get(1).getContent());
+        assertEquals(CONTENT + 4, history.get(2).getContent());
+
+        ContextCompactionService.CompactionStatistics statistics = compactionService.getStatistics();
+        assertEquals(1, statistics.getCompactions());
+        assertEquals(3, statistics.getMessagesCompacted());
+        assertTrue(statistics.getTokensSaved() > 0);
+    }
+
+    @Test
+    void testPreviousSummaryMergedIntoNextCompaction() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            store.addUserMessage(SESSION, CONTENT + i);
+        }
+        awaitIdle();
+        for (int i = 5; i < 9; i++) {
+            store.addAiResponse(SESSION, CONTENT + i);
+        }
+        awaitIdle();
+
+        assertEquals(2, summaryOperation.requests.size());
+        ContextSummaryOperation.SummaryRequest second = summaryOperation.requests.get(1);
+        assertEquals("summary-1", second.getPreviousSummary());
+        assertFalse(second.getConversation().contains("summary-1"));
+        assertTrue(second.getConversation().startsWith("用户: "));
+        assertEquals("summary-2", store.getConversationHistory(SESSION).get(0).getContent());
+    }
+
+    @Test
+    void testReplaceOldestMessagesRequiresUnchangedPrefix() {
+        config.setEnabled(false);
+        for (int i = 0; i < 4; i++) {
+            store.addUserMessage(SESSION, CONTENT + i);
+        }
+        List<ChatMessage> snapshot = store.getConversationHistory(SESSION);
+        List<ChatMessage> older = snapshot.subList(0, 2);
+
+        // 压缩期间会话被裁剪过，开头已不是快照中的消息
+        store.trimOldestMessages(SESSION, 3);
+        assertFalse(store.replaceOldestMessages(SESSION, older, ChatMessage.summaryMessage(SESSION, "stale")));
+        assertEquals(3, store.getConversationMessageCount(SESSION));
+
+        List<ChatMessage> current = store.getConversationHistory(SESSION);
+        assertTrue(store.replaceOldestMessages(SESSION, current.subList(0, 2),
+                ChatMessage.summaryMessage(SESSION, "fresh")));
+        List<ChatMessage> history = store.getConversationHistory(SESSION);
+        assertEquals(2, history.size());
+        assertEquals("fresh", history.get(0).getContent());
+        assertSame(current.get(2), history.get(1));
+
+        assertFalse(store.replaceOldestMessages("missing", older, ChatMessage.summaryMessage(SESSION, "x")));
+    }
+
+    @Test
+    void testSummaryFailureFallsBackToTrim() throws InterruptedException {
+        summaryOperation.failure = new IllegalStateException("model unavailable");
+        for (int i = 0; i < 5; i++) {
+            store.addUserMessage(SESSION, CONTENT + i);
+        }
+        awaitIdle();
+
+        List<ChatMessage> history = store.getConversationHistory(SESSION);
+        assertEquals(3, history.size());
+        assertTrue(history.stream().noneMatch(message -> message.getType() == ChatMessage.MessageType.SUMMARY));
+        assertEquals(CONTENT + 4, history.get(2).getContent());
+        assertEquals(1, compactionService.getStatistics().getFailures());
+        assertEquals(0, compactionService.getStatistics().getCompactions());
+    }
+
+    @Test
+    void testNoSummaryModelSkipsCall() {
+        summaryOperation.available = false;
+        for (int i = 0; i < 5; i++) {
+            store.addUserMessage(SESSION, CONTENT + i);
+        }
+
+        assertTrue(summaryOperation.requests.isEmpty());
+        assertEquals(3, store.getConversationMessageCount(SESSION));
+        assertEquals(1, compactionService.getStatistics().getSkipped());
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (compactionService.getStatistics().getPending() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "后台压缩未在超时前完成");
+            Thread.sleep(10);
+        }
+    }
+
+    private static class StubSummaryOperation extends ContextSummaryOperation {
+        final List<SummaryRequest> requests = new CopyOnWriteArrayList<>();
+        volatile boolean available = true;
+        volatile RuntimeException failure;
+
+        @Override
+        public String execute(SummaryRequest input) {
+            requests.add(input);
+            if (failure != null) {
+                throw failure;
+            }
+            return "summary-" + requests.size();
+        }
+
+        @Override
+        public boolean hasAvailableModel() {
+            return available;
+        }
+    }
+
+    private static class StubRegistry extends AIOperationRegistry {
+        private final BaseAIOperation<?, ?> operation;
+
+        StubRegistry(BaseAIOperation<?, ?> operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public BaseAIOperation<?, ?> getOperation(String operationType) {
+            return operation;
+        }
+    }
+}
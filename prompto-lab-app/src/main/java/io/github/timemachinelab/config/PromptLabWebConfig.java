@@ -1,5 +1,6 @@
 package io.github.timemachinelab.config;
 
+import com.suifeng.sfchain.core.tracing.TracingHandlerInterceptor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -19,8 +20,15 @@ public class PromptLabWebConfig implements WebMvcConfigurer {
     @Resource
     private LogInterceptor logInterceptor;
     
+    @Resource
+    private TracingHandlerInterceptor tracingHandlerInterceptor;
+    
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // 注册链路追踪拦截器（最先执行，后续拦截器和业务代码都在请求span内）
+        registry.addInterceptor(tracingHandlerInterceptor)
+                .addPathPatterns("/api/**");
+        
         // 注册日志拦截器
         registry.addInterceptor(logInterceptor)
                 .addPathPatterns("/api/**");
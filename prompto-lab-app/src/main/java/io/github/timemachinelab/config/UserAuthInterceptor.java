@@ -1,5 +1,6 @@
 package io.github.timemachinelab.config;
 
+import com.suifeng.sfchain.core.usage.UsageContext;
 import io.github.timemachinelab.annotation.UserCheck;
 import io.github.timemachinelab.entity.User;
 import io.github.timemachinelab.exception.BusinessException;
@@ -60,6 +61,8 @@ public class UserAuthInterceptor implements HandlerInterceptor {
 
         // 将用户信息存储到ThreadLocal
         UserContextUtil.setUser(user);
+        // 供SF-Chain按用户统计token用量
+        UsageContext.setUserId(userId);
         log.debug("用户认证成功: userId={}, URI={}", userId, request.getRequestURI());
         
         return true;
@@ -69,6 +72,7 @@ public class UserAuthInterceptor implements HandlerInterceptor {
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
         // 清除ThreadLocal，避免内存泄漏
         UserContextUtil.clear();
+        UsageContext.clear();
     }
     
     /**
@@ -0,0 +1,28 @@
+package io.github.timemachinelab.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * QA树序列化JFR事件
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Name("promptolab.QaTreeSerialize")
+@Label("QaTree Serialize")
+@Description("Serializing a QA tree to its flat JSON form")
+@Category({"PromptoLab", "Serialization"})
+@StackTrace(false)
+public class QaTreeSerializeEvent extends Event {
+
+    @Label("Nodes")
+    public int nodes;
+
+    @Label("Output Characters")
+    public int outputChars;
+}
@@ -0,0 +1,35 @@
+package io.github.timemachinelab.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 问题解析JFR事件
+ * 覆盖 {@code QuestionParser.parseQuestion} 的完整解析链
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Name("promptolab.QuestionParse")
+@Label("Question Parse")
+@Description("Parsing a generated question JSON into a typed question")
+@Category({"PromptoLab", "Parsing"})
+@StackTrace(false)
+public class QuestionParseEvent extends Event {
+
+    @Label("Input Characters")
+    public int inputChars;
+
+    @Label("Question Type")
+    public String questionType;
+
+    @Label("Attempts")
+    public int attempts;
+
+    @Label("Success")
+    public boolean success;
+}
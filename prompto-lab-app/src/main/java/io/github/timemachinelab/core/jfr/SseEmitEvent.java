@@ -0,0 +1,32 @@
+package io.github.timemachinelab.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SSE发送JFR事件
+ * 持续时间包含消息序列化和写入连接
+ *
+ * @author suifeng
+ * 日期: 2025/8/22
+ */
+@Name("promptolab.SseEmit")
+@Label("SSE Emit")
+@Description("Sending a server-sent event to a client")
+@Category({"PromptoLab", "SSE"})
+@StackTrace(false)
+public class SseEmitEvent extends Event {
+
+    @Label("Event Name")
+    public String eventName;
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -3,6 +3,7 @@ package io.github.timemachinelab.core.question;
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONException;
 import com.alibaba.fastjson2.JSONObject;
+import io.github.timemachinelab.core.jfr.QuestionParseEvent;
 import io.github.timemachinelab.core.session.infrastructure.ai.QuestionGenerationOperation;
 import lombok.extern.slf4j.Slf4j;
 
@@ -39,6 +40,26 @@ public class QuestionParser {
      * @throws QuestionParseException 解析失败时抛出异常
      */
     public static QuestionGenerationOperation.QuestionGenerationResponse parseQuestion(String jsonStr) throws QuestionParseException {
+        QuestionParseEvent event = new QuestionParseEvent();
+        event.begin();
+        QuestionGenerationOperation.QuestionGenerationResponse response = null;
+        try {
+            response = parseQuestion(jsonStr, event);
+            return response;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.inputChars = jsonStr != null ? jsonStr.length() : 0;
+                event.success = response != null;
+                if (response != null && response.getQuestion() != null) {
+                    event.questionType = response.getQuestion().getClass().getSimpleName();
+                }
+                event.commit();
+            }
+        }
+    }
+
+    private static QuestionGenerationOperation.QuestionGenerationResponse parseQuestion(String jsonStr, QuestionParseEvent event) throws QuestionParseException {
         if (jsonStr == null || jsonStr.trim().isEmpty()) {
             throw new QuestionParseException("JSON字符串不能为空", jsonStr, "输入为空或null");
         }
@@ -56,6 +77,7 @@ public class QuestionParser {
         String parentId = jsonObject.getString("parentId");
         // 依次尝试解析成不同类型
         for (Class<? extends BaseQuestion> questionType : QUESTION_TYPES) {
+            event.attempts++;
             try {
                 BaseQuestion question = JSON.parseObject(jsonStr, questionType);
                 if (question != null) {
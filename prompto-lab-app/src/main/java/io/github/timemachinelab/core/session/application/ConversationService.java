@@ -5,6 +5,8 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import io.github.timemachinelab.core.constant.AllPrompt;
 import com.suifeng.sfchain.core.AIService;
+import com.suifeng.sfchain.core.tracing.Span;
+import com.suifeng.sfchain.core.tracing.Tracing;
 import io.github.timemachinelab.core.session.domain.entity.ConversationSession;
 import io.github.timemachinelab.core.session.infrastructure.ai.GenPromptOperation;
 import io.github.timemachinelab.core.session.infrastructure.ai.QuestionGenerationOperation;
@@ -54,6 +56,7 @@ public class ConversationService {
     }
 
     private void processAIResponse(String userMessage, Consumer<QuestionGenerationOperation.QuestionGenerationResponse> sseCallback) {
+        Span span = Tracing.startSpan("conversation.generate_question");
         try {
 
             JSONObject object = JSON.parseObject(userMessage);
@@ -67,10 +70,13 @@ public class ConversationService {
             log.info("AI服务调用成功: {}", aiResponse);
             
         } catch (Exception e) {
+            span.recordError(e);
             log.error("AI服务调用失败: {}", e.getMessage(), e);
             // 降级处理
             String fallbackResponse = "抱歉，我暂时无法处理您的请求，请稍后再试。";
             String nodeId = "ai_" + System.currentTimeMillis();
+        } finally {
+            span.close();
         }
     }
 
@@ -1,5 +1,8 @@
 package io.github.timemachinelab.core.session.application;
 
+import com.suifeng.sfchain.core.tracing.Span;
+import com.suifeng.sfchain.core.tracing.Tracing;
+import io.github.timemachinelab.core.jfr.SseEmitEvent;
 import io.github.timemachinelab.core.session.domain.entity.ConversationSession;
 import io.github.timemachinelab.core.session.infrastructure.ai.QuestionGenerationOperation;
 import io.github.timemachinelab.entity.User;
@@ -31,13 +34,22 @@ public class SseNotificationService {
             log.warn("SSE连接不存在 - 用户: {}", user.getUserId());
             return;
         }
+        Span span = Tracing.startSpan("sse.send");
+        SseEmitEvent event = new SseEmitEvent();
+        event.begin();
         try {
+            span.setAttribute("sse.event", "message");
             emitter.send(SseEmitter.event()
                     .name("message")
                     .data(message));
+            event.success = true;
             log.info("SSE消息发送成功 - 会话: {}", session.getSessionId());
         }catch (IOException e){
+            span.recordError(e);
             //TODO 移除用户类的emiter
+        } finally {
+            span.close();
+            commit(event, "message", session.getSessionId());
         }
 
     }
@@ -83,15 +95,29 @@ public class SseNotificationService {
         SseEmitter sseEmitters = user.getEmitter();
 
         if (sseEmitters != null) {
+            SseEmitEvent event = new SseEmitEvent();
+            event.begin();
             try {
                 sseEmitters.send(SseEmitter.event()
                     .name("connected")
                     .data(connectionData));
+                event.success = true;
                 log.info("欢迎消息发送成功");
             } catch (IOException e) {
                 log.error("欢迎消息发送失败, error:{}", e.getMessage());
                 //TODO  移除用户emitter
+            } finally {
+                commit(event, "connected", null);
             }
         }
     }
+
+    private static void commit(SseEmitEvent event, String eventName, String sessionId) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.eventName = eventName;
+            event.sessionId = sessionId;
+            event.commit();
+        }
+    }
 }
\ No newline at end of file
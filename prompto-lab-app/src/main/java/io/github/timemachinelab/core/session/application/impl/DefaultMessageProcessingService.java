@@ -3,6 +3,8 @@ package io.github.timemachinelab.core.session.application.impl;
 
 import com.alibaba.fastjson2.JSONObject;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.suifeng.sfchain.core.tracing.Span;
+import com.suifeng.sfchain.core.tracing.Tracing;
 import io.github.timemachinelab.core.constant.AllPrompt;
 import io.github.timemachinelab.core.qatree.QaTree;
 import io.github.timemachinelab.core.qatree.QaTreeDomain;
@@ -185,6 +187,9 @@ public class DefaultMessageProcessingService implements MessageProcessingService
      
      @Override
      public void processAndSendMessage(User user, ConversationSession session, String processedMessage) {
+         Span span = Tracing.startSpan("message.process_and_send")
+                 .setAttribute("session.id", session.getSessionId())
+                 .setAttribute("message.chars", processedMessage != null ? processedMessage.length() : 0);
          try {
              log.info("发送消息给AI服务 - 会话: {}, 用户: {}", session.getSessionId(), session.getUserId());
              
@@ -205,8 +210,11 @@ public class DefaultMessageProcessingService implements MessageProcessingService
              
              log.info("消息发送成功 - 会话: {}", session.getSessionId());
          } catch (Exception e) {
+             span.recordError(e);
              log.error("发送消息失败 - 会话: {}, 错误: {}", session.getSessionId(), e.getMessage(), e);
              throw new RuntimeException("消息发送失败: " + e.getMessage(), e);
+         } finally {
+             span.close();
          }
      }
  
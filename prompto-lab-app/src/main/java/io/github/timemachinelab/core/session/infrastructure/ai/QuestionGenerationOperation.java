@@ -3,13 +3,18 @@ package io.github.timemachinelab.core.session.infrastructure.ai;
 import com.suifeng.sfchain.annotation.AIOp;
 import com.suifeng.sfchain.core.BaseAIOperation;
 import io.github.timemachinelab.core.question.BaseQuestion;
+import io.github.timemachinelab.core.question.MultipleChoiceQuestion;
+import io.github.timemachinelab.core.question.Option;
 import io.github.timemachinelab.core.question.QuestionParser;
 import io.github.timemachinelab.core.question.QuestionParseException;
+import io.github.timemachinelab.core.question.SingleChoiceQuestion;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @AIOp(value = "QUESTION_GENERATION_OP",
       description = "基于对话树和用户输入生成结构化问题的AI操作"
 )
@@ -58,6 +63,26 @@ public class QuestionGenerationOperation extends BaseAIOperation<QuestionGenerat
         }
     }
 
+    /**
+     * 结构合法但内容不可用的问题按失败处理，配置级联时升级到下一级模型
+     */
+    @Override
+    protected String validateOutput(QuestionGenerationResponse output, QuestionGenerationRequest input) {
+        BaseQuestion question = output.getQuestion();
+        if (question == null) {
+            return "未生成问题";
+        }
+        if (question.getQuestion() == null || question.getQuestion().trim().isEmpty()) {
+            return "问题描述为空";
+        }
+        List<Option> options = question instanceof SingleChoiceQuestion single ? single.getOptions()
+                : question instanceof MultipleChoiceQuestion multi ? multi.getOptions() : null;
+        if (options != null && options.size() < 2) {
+            return "选择题选项少于2个";
+        }
+        return null;
+    }
+
     @Data
     public static class QuestionGenerationRequest {
         /**
@@ -1,6 +1,8 @@
 package io.github.timemachinelab.service;
 
 import com.alibaba.fastjson2.JSON;
+import com.suifeng.sfchain.core.tracing.Span;
+import com.suifeng.sfchain.core.tracing.Tracing;
 import io.github.timemachinelab.core.constant.AllPrompt;
 import io.github.timemachinelab.core.session.application.MessageProcessingService;
 import io.github.timemachinelab.core.session.application.SessionManagementService;
@@ -143,6 +145,13 @@ public class UserInteractionService {
      * 处理统一答案请求
      */
     public MessageProcessResp processAnswer(UnifiedAnswerRequest request) {
+        try (Span span = Tracing.startSpan("interaction.process_answer")) {
+            span.setAttribute("question.type", request.getQuestionType());
+            return doProcessAnswer(request);
+        }
+    }
+
+    private MessageProcessResp doProcessAnswer(UnifiedAnswerRequest request) {
         String sessionId = request.getSessionId();
 
         log.info("接收到答案请求 - 会话ID: {}, 节点ID: {}, 问题类型: {}",
@@ -2,6 +2,7 @@ package io.github.timemachinelab.util;
 
 import com.alibaba.fastjson2.JSONObject;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.github.timemachinelab.core.jfr.QaTreeSerializeEvent;
 import io.github.timemachinelab.core.qatree.QaTree;
 import io.github.timemachinelab.core.qatree.QaTreeNode;
 import io.github.timemachinelab.core.serializable.JsonNode;
@@ -16,11 +17,21 @@ public class QaTreeSerializeUtil {
             return "[]";
         }
 
+        QaTreeSerializeEvent event = new QaTreeSerializeEvent();
+        event.begin();
+
         List<JsonNode> result = new ArrayList<>();
 
         firstOrderTraversal(t.getRoot(), null, result);
 
-        return JSONObject.toJSONString(result);
+        String json = JSONObject.toJSONString(result);
+        event.end();
+        if (event.shouldCommit()) {
+            event.nodes = result.size();
+            event.outputChars = json.length();
+            event.commit();
+        }
+        return json;
     }
     
     private static void firstOrderTraversal(QaTreeNode node, String parentId, List<JsonNode> result) throws JsonProcessingException {